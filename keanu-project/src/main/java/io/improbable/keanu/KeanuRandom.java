@@ -13,6 +13,17 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static io.improbable.keanu.tensor.TensorShape.getLengthAsInt;
 
+/**
+ * A source of randomness for sampling.
+ * <p>
+ * Randoms made with a seed use a Mersenne Twister behind a lock, so they can be shared between threads, as the
+ * default random is. Randoms made by {@link #splittable(long)}, {@link #split()} or {@link #substream(long)} use a
+ * xoroshiro128++ generator with no lock and must each be used by one thread at a time. They are meant for giving every
+ * thread, chain or worker its own reproducible stream.
+ * <p>
+ * Tensor shaped samples are drawn into a buffer in one go, taking the lock once rather than once per element.
+ * Gaussian and exponential samples use the ziggurat method.
+ */
 public class KeanuRandom {
 
     private static final AtomicReference<KeanuRandom> DEFAULT_RANDOM = new AtomicReference<>();
@@ -37,14 +48,62 @@ public class KeanuRandom {
         DEFAULT_RANDOM.set(new KeanuRandom(seed));
     }
 
+    /**
+     * @param seed the seed of the stream
+     * @return a random with no lock that must only be used by one thread at a time
+     */
+    public static KeanuRandom splittable(long seed) {
+        Xoroshiro128PlusPlus generator = new Xoroshiro128PlusPlus(seed);
+        return new KeanuRandom(generator, generator, seed);
+    }
+
+    /**
+     * Scalar draws go through this, which takes a lock if the random can be shared.
+     */
     private final RandomGenerator random;
 
+    /**
+     * The generator underneath {@link #random}, which buffers are filled from while holding the lock on random.
+     */
+    private final RandomGenerator generator;
+
+    private final long seed;
+
     public KeanuRandom() {
         this(System.currentTimeMillis());
     }
 
     public KeanuRandom(long seed) {
-        random = new SynchronizedRandomGenerator(new MersenneTwister(seed));
+        this.generator = new MersenneTwister(seed);
+        this.random = new SynchronizedRandomGenerator(generator);
+        this.seed = seed;
+    }
+
+    private KeanuRandom(RandomGenerator random, RandomGenerator generator, long seed) {
+        this.random = random;
+        this.generator = generator;
+        this.seed = seed;
+    }
+
+    /**
+     * Draws one number from this random to seed a new stream, so a sequence of splits is reproducible from the seed of
+     * this random.
+     *
+     * @return a random with no lock that must only be used by one thread at a time
+     */
+    public KeanuRandom split() {
+        return splittable(nextLong());
+    }
+
+    /**
+     * Unlike {@link #split()}, this does not draw from this random, so the stream for an index is the same however
+     * many other streams have been made or numbers drawn. This suits giving the n-th chain or thread its own stream.
+     *
+     * @param index the index of the stream
+     * @return a random with no lock that must only be used by one thread at a time
+     */
+    public KeanuRandom substream(long index) {
+        return splittable(Xoroshiro128PlusPlus.streamSeed(seed, index));
     }
 
     public DoubleTensor nextDouble(long[] shape) {
@@ -94,11 +153,31 @@ public class KeanuRandom {
     }
 
     public double nextGaussian() {
-        return random.nextGaussian();
+        synchronized (random) {
+            return Ziggurat.nextGaussian(generator);
+        }
     }
 
     public double nextGaussian(double mu, double sigma) {
-        return random.nextGaussian() * sigma + mu;
+        return nextGaussian() * sigma + mu;
+    }
+
+    public DoubleTensor nextExponential(long[] shape) {
+        final int length = getLengthAsInt(shape);
+        if (length > 1) {
+            return DoubleTensor.create(nextExponentialBuffer(length), shape);
+        } else {
+            return DoubleTensor.create(nextExponential(), shape);
+        }
+    }
+
+    /**
+     * @return a sample from the exponential distribution with a rate of one
+     */
+    public double nextExponential() {
+        synchronized (random) {
+            return Ziggurat.nextExponential(generator);
+        }
     }
 
     public boolean nextBoolean() {
@@ -126,10 +205,55 @@ public class KeanuRandom {
         return random.nextInt();
     }
 
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    /**
+     * Fills the buffer with uniform samples in [0, 1).
+     *
+     * @param buffer the array to fill
+     */
+    public void nextDoubles(double[] buffer) {
+        synchronized (random) {
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = generator.nextDouble();
+            }
+        }
+    }
+
+    /**
+     * Fills the buffer with standard Gaussian samples.
+     *
+     * @param buffer the array to fill
+     */
+    public void nextGaussians(double[] buffer) {
+        synchronized (random) {
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = Ziggurat.nextGaussian(generator);
+            }
+        }
+    }
+
+    /**
+     * Fills the buffer with samples from the exponential distribution with a rate of one.
+     *
+     * @param buffer the array to fill
+     */
+    public void nextExponentials(double[] buffer) {
+        synchronized (random) {
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = Ziggurat.nextExponential(generator);
+            }
+        }
+    }
+
     private int[] nextIntBuffer(int length) {
         int[] buffer = new int[length];
-        for (int i = 0; i < length; i++) {
-            buffer[i] = nextInt();
+        synchronized (random) {
+            for (int i = 0; i < length; i++) {
+                buffer[i] = generator.nextInt();
+            }
         }
 
         return buffer;
@@ -137,20 +261,19 @@ public class KeanuRandom {
 
     private double[] nextDoubleBuffer(int length) {
         double[] buffer = new double[length];
-        for (int i = 0; i < length; i++) {
-            buffer[i] = nextDouble();
-        }
-
+        nextDoubles(buffer);
         return buffer;
     }
 
     private double[] nextGaussianBuffer(int length) {
         double[] buffer = new double[length];
-        for (int i = 0; i < length; i++) {
-            buffer[i] = nextGaussian();
-        }
-
+        nextGaussians(buffer);
         return buffer;
     }
 
+    private double[] nextExponentialBuffer(int length) {
+        double[] buffer = new double[length];
+        nextExponentials(buffer);
+        return buffer;
+    }
 }
@@ -0,0 +1,86 @@
+package io.improbable.keanu;
+
+import org.apache.commons.math3.random.BitsStreamGenerator;
+
+/**
+ * The xoroshiro128++ generator (https://prng.di.unimi.it/). It has 128 bits of state, a period of 2^128 - 1 and no
+ * locks, so an instance must not be shared between threads. Seeds are spread over the state with SplitMix64, which
+ * means nearby seeds such as stream ids still give unrelated streams.
+ */
+class Xoroshiro128PlusPlus extends BitsStreamGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long s0;
+    private long s1;
+
+    Xoroshiro128PlusPlus(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * @param seed  the seed of a family of streams
+     * @param index the index of a stream in the family
+     * @return a seed for the stream that does not depend on how many other streams have been made
+     */
+    static long streamSeed(long seed, long index) {
+        return mix64(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    @Override
+    public void setSeed(int seed) {
+        setSeed((long) seed);
+    }
+
+    @Override
+    public void setSeed(int[] seed) {
+        long combined = 0;
+        for (int part : seed) {
+            combined = mix64(combined + GOLDEN_GAMMA + part);
+        }
+        setSeed(combined);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        long splitMix = seed;
+        splitMix += GOLDEN_GAMMA;
+        s0 = mix64(splitMix);
+        splitMix += GOLDEN_GAMMA;
+        s1 = mix64(splitMix);
+        if (s0 == 0 && s1 == 0) {
+            s1 = GOLDEN_GAMMA;
+        }
+        clear();
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        final long a = s0;
+        long b = s1;
+        final long result = Long.rotateLeft(a + b, 17) + a;
+
+        b ^= a;
+        s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+        s1 = Long.rotateLeft(b, 28);
+
+        return result;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,116 @@
+package io.improbable.keanu;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Ziggurat samplers for the standard Gaussian and exponential distributions, as described in
+ * Marsaglia and Tsang (2000) "The Ziggurat Method for Generating Random Variables" with the Gaussian tables of
+ * Doornik (2005) "An Improved Ziggurat Method to Generate Normal Random Samples".
+ * <p>
+ * The density is covered by layers of equal area. Nearly every sample falls inside a layer's rectangle and costs one
+ * random long and a multiply. Only samples in the wedge at the edge of a layer, or in the tail, need an exp or log.
+ */
+final class Ziggurat {
+
+    private static final int GAUSSIAN_LAYERS = 128;
+    private static final double GAUSSIAN_R = 3.442619855899;
+    private static final double GAUSSIAN_V = 9.91256303526217e-3;
+
+    private static final int EXPONENTIAL_LAYERS = 256;
+    private static final double EXPONENTIAL_R = 7.69711747013104972;
+    private static final double EXPONENTIAL_V = 3.949659822581572e-3;
+
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    /**
+     * The right edge of each layer, from widest to narrowest, with the base layer's edge stretched so that its
+     * rectangle has the same area as the others when it includes the tail.
+     */
+    private static final double[] GAUSSIAN_X = new double[GAUSSIAN_LAYERS + 1];
+    private static final double[] GAUSSIAN_F = new double[GAUSSIAN_LAYERS + 1];
+    private static final double[] EXPONENTIAL_X = new double[EXPONENTIAL_LAYERS + 1];
+    private static final double[] EXPONENTIAL_F = new double[EXPONENTIAL_LAYERS + 1];
+
+    static {
+        GAUSSIAN_X[0] = GAUSSIAN_V / gaussianDensity(GAUSSIAN_R);
+        GAUSSIAN_X[1] = GAUSSIAN_R;
+        for (int i = 1; i < GAUSSIAN_LAYERS - 1; i++) {
+            GAUSSIAN_X[i + 1] = Math.sqrt(-2 * Math.log(GAUSSIAN_V / GAUSSIAN_X[i] + gaussianDensity(GAUSSIAN_X[i])));
+        }
+        GAUSSIAN_X[GAUSSIAN_LAYERS] = 0;
+        for (int i = 0; i <= GAUSSIAN_LAYERS; i++) {
+            GAUSSIAN_F[i] = gaussianDensity(GAUSSIAN_X[i]);
+        }
+
+        EXPONENTIAL_X[0] = EXPONENTIAL_V / Math.exp(-EXPONENTIAL_R);
+        EXPONENTIAL_X[1] = EXPONENTIAL_R;
+        for (int i = 1; i < EXPONENTIAL_LAYERS - 1; i++) {
+            EXPONENTIAL_X[i + 1] = -Math.log(EXPONENTIAL_V / EXPONENTIAL_X[i] + Math.exp(-EXPONENTIAL_X[i]));
+        }
+        EXPONENTIAL_X[EXPONENTIAL_LAYERS] = 0;
+        for (int i = 0; i <= EXPONENTIAL_LAYERS; i++) {
+            EXPONENTIAL_F[i] = Math.exp(-EXPONENTIAL_X[i]);
+        }
+    }
+
+    private Ziggurat() {
+    }
+
+    private static double gaussianDensity(double x) {
+        return Math.exp(-0.5 * x * x);
+    }
+
+    static double nextGaussian(RandomGenerator generator) {
+        while (true) {
+            final long bits = generator.nextLong();
+            final int layer = (int) (bits & (GAUSSIAN_LAYERS - 1));
+            final double u = 2 * ((bits >>> 11) * DOUBLE_UNIT) - 1;
+            final double x = u * GAUSSIAN_X[layer];
+
+            if (Math.abs(x) < GAUSSIAN_X[layer + 1]) {
+                return x;
+            }
+
+            if (layer == 0) {
+                return gaussianTail(generator, u < 0);
+            }
+
+            final double y = GAUSSIAN_F[layer] + generator.nextDouble() * (GAUSSIAN_F[layer + 1] - GAUSSIAN_F[layer]);
+            if (y < gaussianDensity(x)) {
+                return x;
+            }
+        }
+    }
+
+    private static double gaussianTail(RandomGenerator generator, boolean negative) {
+        double x;
+        double y;
+        do {
+            x = Math.log(1 - generator.nextDouble()) / GAUSSIAN_R;
+            y = Math.log(1 - generator.nextDouble());
+        } while (-2 * y < x * x);
+
+        return negative ? x - GAUSSIAN_R : GAUSSIAN_R - x;
+    }
+
+    static double nextExponential(RandomGenerator generator) {
+        while (true) {
+            final long bits = generator.nextLong();
+            final int layer = (int) (bits & (EXPONENTIAL_LAYERS - 1));
+            final double x = ((bits >>> 11) * DOUBLE_UNIT) * EXPONENTIAL_X[layer];
+
+            if (x < EXPONENTIAL_X[layer + 1]) {
+                return x;
+            }
+
+            if (layer == 0) {
+                return EXPONENTIAL_R - Math.log(1 - generator.nextDouble());
+            }
+
+            final double y = EXPONENTIAL_F[layer] + generator.nextDouble() * (EXPONENTIAL_F[layer + 1] - EXPONENTIAL_F[layer]);
+            if (y < Math.exp(-x)) {
+                return x;
+            }
+        }
+    }
+}
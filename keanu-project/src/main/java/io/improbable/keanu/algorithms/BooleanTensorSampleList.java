@@ -0,0 +1,74 @@
+package io.improbable.keanu.algorithms;
+
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ColumnarSampleList} of {@link BooleanTensor} samples backed by a single boolean[].
+ */
+public final class BooleanTensorSampleList extends ColumnarSampleList<BooleanTensor> {
+
+    private boolean[] values;
+
+    public BooleanTensorSampleList(long[] sampleShape) {
+        super(sampleShape);
+        this.values = new boolean[0];
+    }
+
+    private BooleanTensorSampleList(BooleanTensorSampleList source, int offset, int step, int size) {
+        super(source.sampleShape, offset, step, size, true);
+        this.values = source.values;
+    }
+
+    /**
+     * @return all samples stacked along a new first dimension
+     */
+    public BooleanTensor asTensor() {
+        return BooleanTensor.create(toFlatBooleanArray(), stackedShape(size(), sampleShape));
+    }
+
+    /**
+     * @return the values of all samples in one array, one sample after another
+     */
+    public boolean[] toFlatBooleanArray() {
+        if (isContiguous()) {
+            int start = storageIndex(0) * sampleLength;
+            return Arrays.copyOfRange(values, start, start + size() * sampleLength);
+        }
+
+        boolean[] stacked = new boolean[size() * sampleLength];
+        for (int i = 0; i < size(); i++) {
+            System.arraycopy(values, storageIndex(i) * sampleLength, stacked, i * sampleLength, sampleLength);
+        }
+        return stacked;
+    }
+
+    @Override
+    protected BooleanTensor getAt(int storageIndex) {
+        int start = storageIndex * sampleLength;
+        return BooleanTensor.create(Arrays.copyOfRange(values, start, start + sampleLength), getSampleShape());
+    }
+
+    @Override
+    protected void setAt(int storageIndex, BooleanTensor sample) {
+        System.arraycopy(sample.asFlatBooleanArray(), 0, values, storageIndex * sampleLength, sampleLength);
+    }
+
+    @Override
+    protected void copySample(ColumnarSampleList<BooleanTensor> source, int sourceStorageIndex, int storageIndex) {
+        System.arraycopy(((BooleanTensorSampleList) source).values, sourceStorageIndex * sampleLength, values, storageIndex * sampleLength, sampleLength);
+    }
+
+    @Override
+    protected void ensureCapacity(int minLength) {
+        if (values.length < minLength) {
+            values = Arrays.copyOf(values, grownCapacity(values.length, minLength));
+        }
+    }
+
+    @Override
+    protected BooleanTensorSampleList view(int offset, int step, int size) {
+        return new BooleanTensorSampleList(this, offset, step, size);
+    }
+}
@@ -0,0 +1,225 @@
+package io.improbable.keanu.algorithms;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list of samples that keeps the values of all samples in one growable primitive array rather than
+ * as one object per sample. Every sample must have the same shape.
+ * <p>
+ * Samples are only turned into objects when they are read. {@link #subList(int, int)} and
+ * {@link #downSample(int)} return read only views that share the primitive array of this list.
+ *
+ * @param <T> the type of each sample
+ */
+public abstract class ColumnarSampleList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    protected final long[] sampleShape;
+    protected final int sampleLength;
+
+    private final int offset;
+    private final int step;
+    private final boolean isView;
+    private int size;
+
+    protected ColumnarSampleList(long[] sampleShape) {
+        this(sampleShape, 0, 1, 0, false);
+    }
+
+    protected ColumnarSampleList(long[] sampleShape, int offset, int step, int size, boolean isView) {
+        this.sampleShape = sampleShape;
+        this.sampleLength = TensorShape.getLengthAsInt(sampleShape);
+        this.offset = offset;
+        this.step = step;
+        this.size = size;
+        this.isView = isView;
+    }
+
+    /**
+     * @param firstSample the first sample that will be stored in the list
+     * @param <T>         the type of the samples
+     * @return a columnar list if the samples are double, integer or boolean tensors, otherwise an {@link ArrayList}
+     */
+    public static <T> List<T> createFor(T firstSample) {
+        if (firstSample instanceof DoubleTensor) {
+            return (List<T>) new DoubleTensorSampleList(((DoubleTensor) firstSample).getShape());
+        } else if (firstSample instanceof IntegerTensor) {
+            return (List<T>) new IntegerTensorSampleList(((IntegerTensor) firstSample).getShape());
+        } else if (firstSample instanceof BooleanTensor) {
+            return (List<T>) new BooleanTensorSampleList(((BooleanTensor) firstSample).getShape());
+        } else if (firstSample instanceof Double) {
+            return (List<T>) new DoubleSampleList();
+        } else {
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * @param lists lists of samples that all have the same type and shape
+     * @param <T>   the type of the samples
+     * @return the samples of every list one after another, in a columnar list if the samples are double, integer or
+     * boolean tensors, otherwise an {@link ArrayList}. Samples from columnar lists are copied without being turned into
+     * objects.
+     */
+    public static <T> List<T> concatenate(List<? extends List<? extends T>> lists) {
+        int totalSize = 0;
+        T firstSample = null;
+        for (List<? extends T> list : lists) {
+            if (firstSample == null && !list.isEmpty()) {
+                firstSample = list.get(0);
+            }
+            totalSize += list.size();
+        }
+
+        List<T> concatenated = firstSample == null ? new ArrayList<>() : createFor(firstSample);
+        if (concatenated instanceof ColumnarSampleList) {
+            ColumnarSampleList<T> columnar = (ColumnarSampleList<T>) concatenated;
+            columnar.ensureCapacity(totalSize * columnar.sampleLength);
+        }
+
+        for (List<? extends T> list : lists) {
+            concatenated.addAll(list);
+        }
+        return concatenated;
+    }
+
+    public long[] getSampleShape() {
+        return Arrays.copyOf(sampleShape, sampleShape.length);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        return getAt(storageIndex(index));
+    }
+
+    @Override
+    public boolean add(T sample) {
+        if (isView) {
+            throw new UnsupportedOperationException("Cannot add samples to a view of a sample list");
+        }
+
+        if (sample instanceof Tensor) {
+            Preconditions.checkArgument(
+                Arrays.equals(sampleShape, ((Tensor) sample).getShape()),
+                "All samples must have the same shape. Expected %s but got %s",
+                Arrays.toString(sampleShape), Arrays.toString(((Tensor) sample).getShape())
+            );
+        }
+
+        ensureCapacity((size + 1) * sampleLength);
+        setAt(storageIndex(size), sample);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Samples from a columnar list of the same type are copied from its primitive array rather than read as objects.
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> samples) {
+        if (samples.getClass() != getClass()) {
+            return super.addAll(samples);
+        }
+
+        if (isView) {
+            throw new UnsupportedOperationException("Cannot add samples to a view of a sample list");
+        }
+
+        ColumnarSampleList<T> source = (ColumnarSampleList<T>) samples;
+        Preconditions.checkArgument(
+            Arrays.equals(sampleShape, source.sampleShape),
+            "All samples must have the same shape. Expected %s but got %s",
+            Arrays.toString(sampleShape), Arrays.toString(source.sampleShape)
+        );
+
+        ensureCapacity((size + source.size) * sampleLength);
+        for (int i = 0; i < source.size; i++) {
+            copySample(source, source.storageIndex(i), storageIndex(size + i));
+        }
+        size += source.size;
+        modCount++;
+        return source.size > 0;
+    }
+
+    @Override
+    public List<T> subList(int fromIndex, int toIndex) {
+        Preconditions.checkPositionIndexes(fromIndex, toIndex, size);
+        return view(storageIndex(fromIndex), step, toIndex - fromIndex);
+    }
+
+    /**
+     * @param interval keep one sample for every interval samples, starting with the first
+     * @return a read only view of every interval-th sample
+     */
+    public ColumnarSampleList<T> downSample(int interval) {
+        Preconditions.checkArgument(interval > 0, "Down sample interval must be positive but was %s", interval);
+        return view(offset, step * interval, (size + interval - 1) / interval);
+    }
+
+    /**
+     * @param index the index of a sample in this list
+     * @return the index of the sample in the backing array, counted in samples
+     */
+    protected int storageIndex(int index) {
+        return offset + index * step;
+    }
+
+    /**
+     * @return true if the samples of this list are stored next to each other in the backing array
+     */
+    protected boolean isContiguous() {
+        return step == 1;
+    }
+
+    protected abstract T getAt(int storageIndex);
+
+    protected abstract void setAt(int storageIndex, T sample);
+
+    /**
+     * @param source             a list of the same type and sample shape as this one
+     * @param sourceStorageIndex the index of the sample in the backing array of source, counted in samples
+     * @param storageIndex       the index to copy it to in the backing array of this list, counted in samples
+     */
+    protected abstract void copySample(ColumnarSampleList<T> source, int sourceStorageIndex, int storageIndex);
+
+    protected abstract void ensureCapacity(int minLength);
+
+    protected abstract ColumnarSampleList<T> view(int offset, int step, int size);
+
+    protected static int grownCapacity(int currentLength, int minLength) {
+        return Math.max(minLength, Math.max(INITIAL_CAPACITY, currentLength + (currentLength >> 1)));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    protected static long[] stackedShape(int count, long[] sampleShape) {
+        long[] shape = new long[sampleShape.length + 1];
+        shape[0] = count;
+        System.arraycopy(sampleShape, 0, shape, 1, sampleShape.length);
+        return shape;
+    }
+}
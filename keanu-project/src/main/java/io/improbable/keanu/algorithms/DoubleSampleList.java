@@ -0,0 +1,63 @@
+package io.improbable.keanu.algorithms;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ColumnarSampleList} of scalar doubles, such as the log probability of each sample, backed by a double[].
+ */
+public final class DoubleSampleList extends ColumnarSampleList<Double> {
+
+    private double[] values;
+
+    public DoubleSampleList() {
+        super(new long[0]);
+        this.values = new double[0];
+    }
+
+    private DoubleSampleList(DoubleSampleList source, int offset, int step, int size) {
+        super(source.sampleShape, offset, step, size, true);
+        this.values = source.values;
+    }
+
+    public double getDouble(int index) {
+        Preconditions.checkElementIndex(index, size());
+        return values[storageIndex(index)];
+    }
+
+    public double[] toDoubleArray() {
+        double[] result = new double[size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values[storageIndex(i)];
+        }
+        return result;
+    }
+
+    @Override
+    protected Double getAt(int storageIndex) {
+        return values[storageIndex];
+    }
+
+    @Override
+    protected void setAt(int storageIndex, Double sample) {
+        values[storageIndex] = sample;
+    }
+
+    @Override
+    protected void copySample(ColumnarSampleList<Double> source, int sourceStorageIndex, int storageIndex) {
+        values[storageIndex] = ((DoubleSampleList) source).values[sourceStorageIndex];
+    }
+
+    @Override
+    protected void ensureCapacity(int minLength) {
+        if (values.length < minLength) {
+            values = Arrays.copyOf(values, grownCapacity(values.length, minLength));
+        }
+    }
+
+    @Override
+    protected DoubleSampleList view(int offset, int step, int size) {
+        return new DoubleSampleList(this, offset, step, size);
+    }
+}
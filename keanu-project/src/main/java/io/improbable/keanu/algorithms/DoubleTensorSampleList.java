@@ -0,0 +1,122 @@
+package io.improbable.keanu.algorithms;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ColumnarSampleList} of {@link DoubleTensor} samples backed by a single double[].
+ */
+public final class DoubleTensorSampleList extends ColumnarSampleList<DoubleTensor> {
+
+    private double[] values;
+
+    public DoubleTensorSampleList(long[] sampleShape) {
+        super(sampleShape);
+        this.values = new double[0];
+    }
+
+    private DoubleTensorSampleList(DoubleTensorSampleList source, int offset, int step, int size) {
+        super(source.sampleShape, offset, step, size, true);
+        this.values = source.values;
+    }
+
+    /**
+     * @param flatIndex the index into the flattened sample
+     * @return the value at flatIndex of every sample in this list, in order
+     */
+    public double[] getValuesAt(int flatIndex) {
+        double[] result = new double[size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values[storageIndex(i) * sampleLength + flatIndex];
+        }
+        return result;
+    }
+
+    public DoubleTensor getAverages() {
+        double[] sums = new double[sampleLength];
+        for (int i = 0; i < size(); i++) {
+            int start = storageIndex(i) * sampleLength;
+            for (int j = 0; j < sampleLength; j++) {
+                sums[j] += values[start + j];
+            }
+        }
+
+        for (int j = 0; j < sampleLength; j++) {
+            sums[j] /= size();
+        }
+        return DoubleTensor.create(sums, getSampleShape());
+    }
+
+    public DoubleTensor getVariances() {
+        int n = size();
+        double[] sums = new double[sampleLength];
+        double[] sumsOfSquares = new double[sampleLength];
+        for (int i = 0; i < n; i++) {
+            int start = storageIndex(i) * sampleLength;
+            for (int j = 0; j < sampleLength; j++) {
+                double value = values[start + j];
+                sums[j] += value;
+                sumsOfSquares[j] += value * value;
+            }
+        }
+
+        double[] variances = new double[sampleLength];
+        for (int j = 0; j < sampleLength; j++) {
+            double mean = sums[j] / n;
+            variances[j] = (sumsOfSquares[j] / n - mean * mean) * n / (n - 1.);
+        }
+        return DoubleTensor.create(variances, getSampleShape());
+    }
+
+    /**
+     * @return all samples stacked along a new first dimension
+     */
+    public DoubleTensor asTensor() {
+        return DoubleTensor.create(toFlatDoubleArray(), stackedShape(size(), sampleShape));
+    }
+
+    /**
+     * @return the values of all samples in one array, one sample after another
+     */
+    public double[] toFlatDoubleArray() {
+        if (isContiguous()) {
+            int start = storageIndex(0) * sampleLength;
+            return Arrays.copyOfRange(values, start, start + size() * sampleLength);
+        }
+
+        double[] stacked = new double[size() * sampleLength];
+        for (int i = 0; i < size(); i++) {
+            System.arraycopy(values, storageIndex(i) * sampleLength, stacked, i * sampleLength, sampleLength);
+        }
+        return stacked;
+    }
+
+    @Override
+    protected DoubleTensor getAt(int storageIndex) {
+        int start = storageIndex * sampleLength;
+        return DoubleTensor.create(Arrays.copyOfRange(values, start, start + sampleLength), getSampleShape());
+    }
+
+    @Override
+    protected void setAt(int storageIndex, DoubleTensor sample) {
+        System.arraycopy(sample.asFlatDoubleArray(), 0, values, storageIndex * sampleLength, sampleLength);
+    }
+
+    @Override
+    protected void copySample(ColumnarSampleList<DoubleTensor> source, int sourceStorageIndex, int storageIndex) {
+        System.arraycopy(((DoubleTensorSampleList) source).values, sourceStorageIndex * sampleLength, values, storageIndex * sampleLength, sampleLength);
+    }
+
+    @Override
+    protected void ensureCapacity(int minLength) {
+        if (values.length < minLength) {
+            values = Arrays.copyOf(values, grownCapacity(values.length, minLength));
+        }
+    }
+
+    @Override
+    protected DoubleTensorSampleList view(int offset, int step, int size) {
+        return new DoubleTensorSampleList(this, offset, step, size);
+    }
+}
@@ -0,0 +1,103 @@
+package io.improbable.keanu.algorithms;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ColumnarSampleList} of {@link IntegerTensor} samples backed by a single int[].
+ */
+public final class IntegerTensorSampleList extends ColumnarSampleList<IntegerTensor> {
+
+    private int[] values;
+
+    public IntegerTensorSampleList(long[] sampleShape) {
+        super(sampleShape);
+        this.values = new int[0];
+    }
+
+    private IntegerTensorSampleList(IntegerTensorSampleList source, int offset, int step, int size) {
+        super(source.sampleShape, offset, step, size, true);
+        this.values = source.values;
+    }
+
+    /**
+     * @param flatIndex the index into the flattened sample
+     * @return the value at flatIndex of every sample in this list, in order
+     */
+    public int[] getValuesAt(int flatIndex) {
+        int[] result = new int[size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values[storageIndex(i) * sampleLength + flatIndex];
+        }
+        return result;
+    }
+
+    public DoubleTensor getAverages() {
+        long[] sums = new long[sampleLength];
+        for (int i = 0; i < size(); i++) {
+            int start = storageIndex(i) * sampleLength;
+            for (int j = 0; j < sampleLength; j++) {
+                sums[j] += values[start + j];
+            }
+        }
+
+        double[] averages = new double[sampleLength];
+        for (int j = 0; j < sampleLength; j++) {
+            averages[j] = (double) sums[j] / size();
+        }
+        return DoubleTensor.create(averages, getSampleShape());
+    }
+
+    /**
+     * @return all samples stacked along a new first dimension
+     */
+    public IntegerTensor asTensor() {
+        return IntegerTensor.create(toFlatIntegerArray(), stackedShape(size(), sampleShape));
+    }
+
+    /**
+     * @return the values of all samples in one array, one sample after another
+     */
+    public int[] toFlatIntegerArray() {
+        if (isContiguous()) {
+            int start = storageIndex(0) * sampleLength;
+            return Arrays.copyOfRange(values, start, start + size() * sampleLength);
+        }
+
+        int[] stacked = new int[size() * sampleLength];
+        for (int i = 0; i < size(); i++) {
+            System.arraycopy(values, storageIndex(i) * sampleLength, stacked, i * sampleLength, sampleLength);
+        }
+        return stacked;
+    }
+
+    @Override
+    protected IntegerTensor getAt(int storageIndex) {
+        int start = storageIndex * sampleLength;
+        return IntegerTensor.create(Arrays.copyOfRange(values, start, start + sampleLength), getSampleShape());
+    }
+
+    @Override
+    protected void setAt(int storageIndex, IntegerTensor sample) {
+        System.arraycopy(sample.asFlatIntegerArray(), 0, values, storageIndex * sampleLength, sampleLength);
+    }
+
+    @Override
+    protected void copySample(ColumnarSampleList<IntegerTensor> source, int sourceStorageIndex, int storageIndex) {
+        System.arraycopy(((IntegerTensorSampleList) source).values, sourceStorageIndex * sampleLength, values, storageIndex * sampleLength, sampleLength);
+    }
+
+    @Override
+    protected void ensureCapacity(int minLength) {
+        if (values.length < minLength) {
+            values = Arrays.copyOf(values, grownCapacity(values.length, minLength));
+        }
+    }
+
+    @Override
+    protected IntegerTensorSampleList view(int offset, int step, int size) {
+        return new IntegerTensorSampleList(this, offset, step, size);
+    }
+}
@@ -0,0 +1,17 @@
+package io.improbable.keanu.algorithms;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * The log prob of a {@link ProbabilisticModelWithGradient} along with its gradient at the same point.
+ */
+@Value
+public class LogProbAndGradients {
+
+    private final double logProb;
+    private final Map<VariableReference, DoubleTensor> gradients;
+
+}
@@ -0,0 +1,141 @@
+package io.improbable.keanu.algorithms;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Network samples that were collected from several independent chains. The samples of every chain are
+ * concatenated in chain order and are keyed by the variable references of the first chain, so they can be
+ * used anywhere a {@link NetworkSamples} is expected. Tensor samples are concatenated into the same columnar
+ * lists that a single chain uses. The chain each sample came from is kept and the samples of a single chain can be
+ * retrieved with {@link #getChain(int)}.
+ */
+public class MultiChainNetworkSamples extends NetworkSamples {
+
+    private final List<NetworkSamples> chains;
+    private final int[] chainIdForEachSample;
+
+    private MultiChainNetworkSamples(Map<VariableReference, ? extends List> samplesByVariable,
+                                     List<Double> logOfMasterPForEachSample,
+                                     List<NetworkSamples> chains,
+                                     int[] chainIdForEachSample) {
+        super(samplesByVariable, logOfMasterPForEachSample, chainIdForEachSample.length);
+        this.chains = chains;
+        this.chainIdForEachSample = chainIdForEachSample;
+    }
+
+    /**
+     * @param chains          the samples of each chain
+     * @param chainReferences for each chain, the references of the sampled variables. The i-th reference of every
+     *                        chain must refer to the same variable as the i-th reference of the first chain.
+     * @return the samples of all chains merged and keyed by the references of the first chain
+     */
+    public static MultiChainNetworkSamples fromChains(List<NetworkSamples> chains,
+                                                      List<? extends List<? extends VariableReference>> chainReferences) {
+        Preconditions.checkArgument(!chains.isEmpty(), "At least one chain is required.");
+        Preconditions.checkArgument(chains.size() == chainReferences.size(),
+            "Expected references for %s chains but got %s", chains.size(), chainReferences.size()
+        );
+
+        List<? extends VariableReference> references = chainReferences.get(0);
+        int totalSize = chains.stream().mapToInt(NetworkSamples::size).sum();
+
+        Map<VariableReference, List<List<?>>> chainSamplesForEachVariable = new HashMap<>();
+        for (VariableReference reference : references) {
+            chainSamplesForEachVariable.put(reference, new ArrayList<>(chains.size()));
+        }
+        List<Double> logOfMasterPForEachSample = new DoubleSampleList();
+        int[] chainIdForEachSample = new int[totalSize];
+
+        List<NetworkSamples> rekeyedChains = new ArrayList<>(chains.size());
+        int position = 0;
+        for (int chainId = 0; chainId < chains.size(); chainId++) {
+            NetworkSamples chain = chains.get(chainId);
+            List<? extends VariableReference> referencesForChain = chainReferences.get(chainId);
+
+            Preconditions.checkArgument(referencesForChain.size() == references.size(),
+                "Chain %s has %s variables but the first chain has %s", chainId, referencesForChain.size(), references.size()
+            );
+
+            Map<VariableReference, List> chainSamplesByVariable = new HashMap<>();
+            for (int i = 0; i < references.size(); i++) {
+                List samplesForVariable = chain.getSamplesByVariable().get(referencesForChain.get(i));
+                chainSamplesByVariable.put(references.get(i), samplesForVariable);
+                chainSamplesForEachVariable.get(references.get(i)).add(samplesForVariable);
+            }
+            logOfMasterPForEachSample.addAll(chain.getLogOfMasterPForEachSample());
+            rekeyedChains.add(new NetworkSamples(chainSamplesByVariable, chain.getLogOfMasterPForEachSample(), chain.size()));
+
+            for (int i = 0; i < chain.size(); i++) {
+                chainIdForEachSample[position++] = chainId;
+            }
+        }
+
+        Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
+        for (Map.Entry<VariableReference, List<List<?>>> chainSamples : chainSamplesForEachVariable.entrySet()) {
+            samplesByVariable.put(chainSamples.getKey(), ColumnarSampleList.concatenate(chainSamples.getValue()));
+        }
+
+        return new MultiChainNetworkSamples(
+            samplesByVariable,
+            logOfMasterPForEachSample,
+            Collections.unmodifiableList(rekeyedChains),
+            chainIdForEachSample
+        );
+    }
+
+    public int getChainCount() {
+        return chains.size();
+    }
+
+    /**
+     * @param chainId the id of the chain
+     * @return the samples of the given chain, keyed by the references of the first chain
+     */
+    public NetworkSamples getChain(int chainId) {
+        return chains.get(chainId);
+    }
+
+    public List<NetworkSamples> getChains() {
+        return chains;
+    }
+
+    /**
+     * @param sample the index of a sample in the merged samples
+     * @return the id of the chain that produced the sample
+     */
+    public int getChainId(int sample) {
+        return chainIdForEachSample[sample];
+    }
+
+    /**
+     * @param dropCount the number of samples to drop from the start of each chain
+     * @return the remaining samples of every chain, merged and keeping the chain they came from
+     */
+    @Override
+    public MultiChainNetworkSamples drop(int dropCount) {
+        return mapChains(chain -> chain.drop(dropCount));
+    }
+
+    /**
+     * @param downSampleInterval each chain keeps 1 sample for every downSampleInterval
+     * @return the kept samples of every chain, merged and keeping the chain they came from
+     */
+    @Override
+    public MultiChainNetworkSamples downSample(int downSampleInterval) {
+        return mapChains(chain -> chain.downSample(downSampleInterval));
+    }
+
+    private MultiChainNetworkSamples mapChains(Function<NetworkSamples, NetworkSamples> mapping) {
+        List<NetworkSamples> mappedChains = chains.stream().map(mapping).collect(Collectors.toList());
+        List<VariableReference> references = new ArrayList<>(chains.get(0).getVariableReferences());
+        return fromChains(mappedChains, Collections.nCopies(mappedChains.size(), references));
+    }
+}
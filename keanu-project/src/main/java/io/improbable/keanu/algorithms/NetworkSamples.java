@@ -14,6 +14,7 @@ import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexSampl
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -23,6 +24,7 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
 /**
@@ -44,7 +46,7 @@ public class NetworkSamples {
 
     public static NetworkSamples from(List<NetworkSample> networkSamples) {
         Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
-        List<Double> logOfMasterPForEachSample = new ArrayList<>();
+        List<Double> logOfMasterPForEachSample = new DoubleSampleList();
 
         networkSamples.forEach(networkSample -> addSamplesForNetworkSample(networkSample, samplesByVariable));
         networkSamples.forEach(networkSample -> logOfMasterPForEachSample.add(networkSample.getLogOfMasterP()));
@@ -58,7 +60,7 @@ public class NetworkSamples {
     }
 
     private static <T> void addSampleForVariable(VariableReference variableReference, T value, Map<VariableReference, List<?>> samples) {
-        List<T> samplesForVertex = (List<T>) samples.computeIfAbsent(variableReference, v -> new ArrayList<T>());
+        List<T> samplesForVertex = (List<T>) samples.computeIfAbsent(variableReference, v -> ColumnarSampleList.createFor(value));
         samplesForVertex.add(value);
     }
 
@@ -66,6 +68,18 @@ public class NetworkSamples {
         return this.size;
     }
 
+    public Set<VariableReference> getVariableReferences() {
+        return Collections.unmodifiableSet(samplesByVariable.keySet());
+    }
+
+    Map<VariableReference, ? extends List> getSamplesByVariable() {
+        return samplesByVariable;
+    }
+
+    List<Double> getLogOfMasterPForEachSample() {
+        return logOfMasterPForEachSample;
+    }
+
     public <T> Samples<T> get(Variable<T, ?> variable) {
         if (variable instanceof DoubleVertex) {
             return (Samples<T>) getDoubleTensorSamples(variable.getReference());
@@ -106,6 +120,22 @@ public class NetworkSamples {
         return new BooleanVertexSamples(samplesByVariable.get(variableReference));
     }
 
+    /**
+     * @param variables the variables to get the samples of
+     * @return for each variable, in the same order, all of its samples in one primitive block
+     */
+    public List<SampleBlock> getSampleBlocks(List<? extends Variable<?, ?>> variables) {
+        return variables.parallelStream()
+            .map(variable -> getSampleBlock(variable.getReference()))
+            .collect(toList());
+    }
+
+    public SampleBlock getSampleBlock(VariableReference variableReference) {
+        List<?> samples = samplesByVariable.get(variableReference);
+        Preconditions.checkArgument(samples != null, "No samples for %s", variableReference);
+        return SampleBlock.of(samples);
+    }
+
     public NetworkSamples drop(int dropCount) {
         Preconditions.checkArgument(dropCount >= 0, "Cannot drop %s samples. Drop count must be positive.", dropCount);
         if (dropCount == 0) {
@@ -138,6 +168,10 @@ public class NetworkSamples {
 
     private static <T> List<T> downSample(final List<T> samples, final int downSampleInterval) {
 
+        if (samples instanceof ColumnarSampleList) {
+            return ((ColumnarSampleList<T>) samples).downSample(downSampleInterval);
+        }
+
         List<T> downSampled = new ArrayList<>();
         int i = 0;
 
@@ -2,6 +2,7 @@ package io.improbable.keanu.algorithms;
 
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -17,4 +18,19 @@ public interface ProbabilisticModelWithGradient extends ProbabilisticModel {
 
     Map<VariableReference, DoubleTensor> logLikelihoodGradients();
 
+    /**
+     * Calculates the log prob and its gradient with one update of the model rather than one for each.
+     *
+     * @param inputs the values of the variables to calculate at
+     * @return the log prob and its gradient with respect to the continuous latent variables
+     */
+    default LogProbAndGradients logProbAndGradients(Map<VariableReference, ?> inputs) {
+        Map<VariableReference, DoubleTensor> gradients = logProbGradients(inputs);
+        return new LogProbAndGradients(logProb(), gradients);
+    }
+
+    default LogProbAndGradients logProbAndGradients() {
+        return logProbAndGradients(Collections.emptyMap());
+    }
+
 }
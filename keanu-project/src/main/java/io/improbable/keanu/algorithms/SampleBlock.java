@@ -0,0 +1,150 @@
+package io.improbable.keanu.algorithms;
+
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.util.Py4jByteArrayConverter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All samples of one double, integer or boolean tensor variable in a single primitive array, with the samples stacked
+ * along the first dimension of {@link #getShape()}.
+ * <p>
+ * This is how the Python API reads samples: each block is passed across as one little endian byte array, or one
+ * file for large blocks, using {@link Py4jByteArrayConverter}, instead of one tensor per sample.
+ */
+public class SampleBlock {
+
+    public enum Type {
+        DOUBLE, INTEGER, BOOLEAN
+    }
+
+    private final Type type;
+    private final long[] shape;
+    private final double[] doubleValues;
+    private final int[] integerValues;
+    private final boolean[] booleanValues;
+
+    private SampleBlock(Type type, long[] shape, double[] doubleValues, int[] integerValues, boolean[] booleanValues) {
+        this.type = type;
+        this.shape = shape;
+        this.doubleValues = doubleValues;
+        this.integerValues = integerValues;
+        this.booleanValues = booleanValues;
+    }
+
+    /**
+     * @param samples the samples of a variable, all of the same shape
+     * @return the samples in one block
+     * @throws IllegalArgumentException if the samples are not double, integer or boolean tensors
+     */
+    public static SampleBlock of(List<?> samples) {
+        if (samples instanceof DoubleTensorSampleList) {
+            DoubleTensorSampleList sampleList = (DoubleTensorSampleList) samples;
+            return new SampleBlock(Type.DOUBLE, stackedShape(sampleList), sampleList.toFlatDoubleArray(), null, null);
+        } else if (samples instanceof IntegerTensorSampleList) {
+            IntegerTensorSampleList sampleList = (IntegerTensorSampleList) samples;
+            return new SampleBlock(Type.INTEGER, stackedShape(sampleList), null, sampleList.toFlatIntegerArray(), null);
+        } else if (samples instanceof BooleanTensorSampleList) {
+            BooleanTensorSampleList sampleList = (BooleanTensorSampleList) samples;
+            return new SampleBlock(Type.BOOLEAN, stackedShape(sampleList), null, null, sampleList.toFlatBooleanArray());
+        }
+
+        Object firstSample = samples.isEmpty() ? null : samples.get(0);
+        if (firstSample instanceof DoubleTensor) {
+            DoubleTensor stacked = DoubleTensor.stack(0, samples.toArray(new DoubleTensor[0]));
+            return new SampleBlock(Type.DOUBLE, stacked.getShape(), stacked.asFlatDoubleArray(), null, null);
+        } else if (firstSample instanceof IntegerTensor) {
+            IntegerTensor stacked = IntegerTensor.stack(0, samples.toArray(new IntegerTensor[0]));
+            return new SampleBlock(Type.INTEGER, stacked.getShape(), null, stacked.asFlatIntegerArray(), null);
+        } else if (firstSample instanceof BooleanTensor) {
+            BooleanTensor stacked = BooleanTensor.stack(0, samples.toArray(new BooleanTensor[0]));
+            return new SampleBlock(Type.BOOLEAN, stacked.getShape(), null, null, stacked.asFlatBooleanArray());
+        }
+
+        throw new IllegalArgumentException("Only double, integer and boolean tensor samples can be put in a block");
+    }
+
+    private static long[] stackedShape(ColumnarSampleList<?> sampleList) {
+        return ColumnarSampleList.stackedShape(sampleList.size(), sampleList.sampleShape);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the number of samples followed by the shape of each sample
+     */
+    public long[] getShape() {
+        return Arrays.copyOf(shape, shape.length);
+    }
+
+    public int getSampleCount() {
+        return (int) shape[0];
+    }
+
+    public double[] getDoubleValues() {
+        return doubleValues;
+    }
+
+    public int[] getIntegerValues() {
+        return integerValues;
+    }
+
+    public boolean[] getBooleanValues() {
+        return booleanValues;
+    }
+
+    /**
+     * @return the values as doubles, with true as 1 and false as 0
+     */
+    public double[] asFlatDoubleArray() {
+        switch (type) {
+            case DOUBLE:
+                return doubleValues;
+            case INTEGER:
+                return Arrays.stream(integerValues).asDoubleStream().toArray();
+            default:
+                double[] doubles = new double[booleanValues.length];
+                for (int i = 0; i < doubles.length; i++) {
+                    doubles[i] = booleanValues[i] ? 1.0 : 0.0;
+                }
+                return doubles;
+        }
+    }
+
+    /**
+     * @return the values as little endian bytes, one byte per boolean
+     */
+    public byte[] toByteArray() {
+        switch (type) {
+            case DOUBLE:
+                return Py4jByteArrayConverter.toByteArray(doubleValues);
+            case INTEGER:
+                return Py4jByteArrayConverter.toByteArray(integerValues);
+            default:
+                return Py4jByteArrayConverter.toByteArray(booleanValues);
+        }
+    }
+
+    /**
+     * @param path the file to write the bytes of {@link #toByteArray()} to, which is overwritten
+     * @throws IOException if the file cannot be written
+     */
+    public void writeToFile(String path) throws IOException {
+        switch (type) {
+            case DOUBLE:
+                Py4jByteArrayConverter.writeToFile(doubleValues, path);
+                break;
+            case INTEGER:
+                Py4jByteArrayConverter.writeToFile(integerValues, path);
+                break;
+            default:
+                Py4jByteArrayConverter.writeToFile(booleanValues, path);
+        }
+    }
+}
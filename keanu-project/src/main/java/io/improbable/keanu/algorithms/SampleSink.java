@@ -0,0 +1,14 @@
+package io.improbable.keanu.algorithms;
+
+/**
+ * Consumes network samples one at a time as they are generated, so that the samples do not all have to be
+ * held in memory. See {@link io.improbable.keanu.algorithms.statistics.OnlineStatistics} for a sink that keeps
+ * running statistics of the samples in constant memory.
+ */
+public interface SampleSink {
+
+    /**
+     * @param sample a sample that has been kept after dropping and down-sampling
+     */
+    void accept(NetworkSample sample);
+}
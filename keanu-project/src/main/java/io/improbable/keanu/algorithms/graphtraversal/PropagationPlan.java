@@ -0,0 +1,210 @@
+package io.improbable.keanu.algorithms.graphtraversal;
+
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A precompiled equivalent of {@link VertexValuePropagation#cascadeUpdate(Collection)} for a fixed set of vertices.
+ * <p>
+ * The vertices and every non-probabilistic vertex downstream of them are indexed once in topological order and the
+ * non-probabilistic children of each vertex are stored as indices. A cascade then marks the updated vertices in a
+ * reusable bit set and visits the marked vertices in index order, which means it allocates nothing and only visits
+ * the affected descendants.
+ * <p>
+ * The plan reflects the graph at the time it was built, which {@link #isUpToDate()} checks, and is not thread safe.
+ */
+public class PropagationPlan {
+
+    private final Vertex[] vertices;
+    private final int[][] nonProbabilisticChildren;
+    private final int[] childCounts;
+    private final Map<Vertex, Integer> indexLookup;
+    private final BitSet toUpdate;
+
+    public PropagationPlan(Collection<? extends Vertex> vertices) {
+        List<Vertex> sorted = sortTopologically(withNonProbabilisticDescendants(vertices));
+
+        this.vertices = sorted.toArray(new Vertex[0]);
+        this.indexLookup = new HashMap<>();
+        for (int i = 0; i < this.vertices.length; i++) {
+            indexLookup.put(this.vertices[i], i);
+        }
+
+        this.nonProbabilisticChildren = new int[this.vertices.length][];
+        this.childCounts = new int[this.vertices.length];
+        for (int i = 0; i < this.vertices.length; i++) {
+            nonProbabilisticChildren[i] = nonProbabilisticChildIndices(this.vertices[i]);
+            childCounts[i] = this.vertices[i].getChildren().size();
+        }
+
+        this.toUpdate = new BitSet(this.vertices.length);
+    }
+
+    /**
+     * @return the number of vertices that the plan can visit
+     */
+    public int size() {
+        return vertices.length;
+    }
+
+    public boolean contains(Vertex vertex) {
+        return indexLookup.containsKey(vertex);
+    }
+
+    /**
+     * @return false if a child has been connected to or disconnected from any vertex of the plan since it was built,
+     * in which case a cascade could miss or visit the wrong descendants
+     */
+    public boolean isUpToDate() {
+        for (int i = 0; i < vertices.length; i++) {
+            if (vertices[i].getChildren().size() != childCounts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks a vertex as updated. Its non-probabilistic descendants will be recalculated on the next call
+     * to {@link #cascadeMarked()}.
+     *
+     * @param vertex a vertex that is part of this plan
+     */
+    public void markForUpdate(Vertex vertex) {
+        Integer index = indexLookup.get(vertex);
+
+        if (index == null) {
+            throw new IllegalArgumentException("Cannot cascade update from a vertex outside of the propagation plan: " + vertex);
+        }
+
+        toUpdate.set(index);
+    }
+
+    public void cascadeUpdate(Vertex vertex) {
+        markForUpdate(vertex);
+        cascadeMarked();
+    }
+
+    /**
+     * @param cascadeFrom A collection that contains the vertices that have been updated.
+     */
+    public void cascadeUpdate(Collection<? extends Vertex> cascadeFrom) {
+        try {
+            for (Vertex vertex : cascadeFrom) {
+                markForUpdate(vertex);
+            }
+        } catch (IllegalArgumentException e) {
+            toUpdate.clear();
+            throw e;
+        }
+        cascadeMarked();
+    }
+
+    /**
+     * Recalculates the values of all marked vertices and their non-probabilistic descendants. Children always have
+     * a higher index than their parents so a single pass over the marked indices visits everything in order.
+     * If updating a vertex throws, every mark is cleared so that the next cascade starts afresh.
+     */
+    public void cascadeMarked() {
+        try {
+            for (int i = toUpdate.nextSetBit(0); i >= 0; i = toUpdate.nextSetBit(i + 1)) {
+                toUpdate.clear(i);
+
+                VertexValuePropagation.updateVertexValue(vertices[i]);
+
+                for (int child : nonProbabilisticChildren[i]) {
+                    toUpdate.set(child);
+                }
+            }
+        } finally {
+            toUpdate.clear();
+        }
+    }
+
+    private int[] nonProbabilisticChildIndices(Vertex<?, ?> vertex) {
+        List<Integer> childIndices = new ArrayList<>();
+        for (Vertex<?, ?> child : vertex.getChildren()) {
+            if (!child.isProbabilistic()) {
+                childIndices.add(indexLookup.get(child));
+            }
+        }
+        return childIndices.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static Set<Vertex> withNonProbabilisticDescendants(Collection<? extends Vertex> vertices) {
+        Set<Vertex> result = new HashSet<>(vertices);
+        Deque<Vertex> stack = new ArrayDeque<>(vertices);
+
+        while (!stack.isEmpty()) {
+            Vertex<?, ?> visiting = stack.pop();
+
+            for (Vertex<?, ?> child : visiting.getChildren()) {
+                if (!child.isProbabilistic() && result.add(child)) {
+                    stack.push(child);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Vertex ids are usually already in topological order but proxy vertices can have their parents set after they
+     * were created, so the order is derived from the edges and only uses the ids to break ties.
+     */
+    private static List<Vertex> sortTopologically(Set<Vertex> vertices) {
+        Map<Vertex, Integer> unvisitedParentCount = new HashMap<>();
+        PriorityQueue<Vertex> ready = new PriorityQueue<>(Comparator.comparing(Vertex::getId, Comparator.naturalOrder()));
+
+        for (Vertex<?, ?> vertex : vertices) {
+            int parentCount = 0;
+            for (Vertex<?, ?> parent : vertex.getParents()) {
+                if (vertices.contains(parent)) {
+                    parentCount++;
+                }
+            }
+
+            if (parentCount == 0) {
+                ready.add(vertex);
+            } else {
+                unvisitedParentCount.put(vertex, parentCount);
+            }
+        }
+
+        List<Vertex> sorted = new ArrayList<>(vertices.size());
+        while (!ready.isEmpty()) {
+            Vertex<?, ?> visiting = ready.poll();
+            sorted.add(visiting);
+
+            for (Vertex<?, ?> child : visiting.getChildren()) {
+                Integer remaining = unvisitedParentCount.get(child);
+                if (remaining != null && child.getParents().contains(visiting)) {
+                    if (remaining == 1) {
+                        unvisitedParentCount.remove(child);
+                        ready.add(child);
+                    } else {
+                        unvisitedParentCount.put(child, remaining - 1);
+                    }
+                }
+            }
+        }
+
+        if (sorted.size() != vertices.size()) {
+            throw new IllegalArgumentException("Cannot create a propagation plan for a graph that contains a cycle");
+        }
+
+        return sorted;
+    }
+}
@@ -1,14 +1,15 @@
 package io.improbable.keanu.algorithms.mcmc;
 
 import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.DoubleSampleList;
 import io.improbable.keanu.algorithms.NetworkSample;
 import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.SampleSink;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.util.status.PercentageComponent;
 import io.improbable.keanu.util.status.RemainingTimeComponent;
 import io.improbable.keanu.util.status.StatusBar;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -79,6 +80,29 @@ public class NetworkSamplesGenerator {
      * @return Samples after dropping and down-sampling.
      */
     public NetworkSamples generate(final int totalSampleCount) {
+        Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
+        List<Double> logOfMasterPForEachSample = new DoubleSampleList();
+
+        int sampleCount = takeSamples(totalSampleCount, () -> algorithm.sample(samplesByVariable, logOfMasterPForEachSample));
+
+        return new NetworkSamples(samplesByVariable, logOfMasterPForEachSample, sampleCount);
+    }
+
+    /**
+     * Passes each sample to a sink as soon as it is taken rather than keeping all of the samples.
+     *
+     * @param totalSampleCount The total number of samples to generate. This is the total before any dropping
+     *                         or down-sampling is done.
+     * @param sink             the sink to pass each sample to after dropping and down-sampling
+     * @param <S>              the type of the sink
+     * @return the sink that was passed in
+     */
+    public <S extends SampleSink> S generate(final int totalSampleCount, final S sink) {
+        takeSamples(totalSampleCount, () -> sink.accept(algorithm.sample()));
+        return sink;
+    }
+
+    private int takeSamples(final int totalSampleCount, final Runnable takeSample) {
         Preconditions.checkArgument(dropCount < totalSampleCount,
             "Cannot drop more samples than requested or all of the samples. Samples requested %s and dropping %s",
             totalSampleCount, dropCount
@@ -86,9 +110,6 @@ public class NetworkSamplesGenerator {
 
         StatusBar statusBar = statusBarSupplier.get();
 
-        Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
-        List<Double> logOfMasterPForEachSample = new ArrayList<>();
-
         dropSamples(dropCount, statusBar);
 
         PercentageComponent statusPercentage = newPercentageComponentAndAddToStatusBar(statusBar);
@@ -99,7 +120,7 @@ public class NetworkSamplesGenerator {
         int samplesLeft = totalSampleCount - dropCount;
         for (int i = 0; i < samplesLeft; i++) {
             if (i % downSampleInterval == 0) {
-                algorithm.sample(samplesByVariable, logOfMasterPForEachSample);
+                takeSample.run();
                 sampleCount++;
             } else {
                 algorithm.step();
@@ -109,7 +130,7 @@ public class NetworkSamplesGenerator {
         }
 
         statusBar.finish();
-        return new NetworkSamples(samplesByVariable, logOfMasterPForEachSample, sampleCount);
+        return sampleCount;
     }
 
     private PercentageComponent newPercentageComponentAndAddToStatusBar(StatusBar statusBar) {
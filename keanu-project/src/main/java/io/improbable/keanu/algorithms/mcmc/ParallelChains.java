@@ -0,0 +1,248 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.MultiChainNetworkSamples;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.PosteriorSamplingAlgorithm;
+import io.improbable.keanu.algorithms.ProbabilisticModel;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.vertices.VertexId;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Runs several independent MCMC chains at the same time, one chain per worker thread.
+ * <p>
+ * The values of a model live in the state of its variables, so two chains cannot share a model. Every chain
+ * after the first one therefore samples from its own copy of the model, created by the model factory. The copies
+ * must be built by the same code as the first model so that their latent variables are created in the same order,
+ * which is how the variables of a copy are matched up with the variables of the first model.
+ * <p>
+ * Each chain also gets its own {@link PosteriorSamplingAlgorithm} from the algorithm factory, since algorithms such
+ * as NUTS hold adaptation state. Use the chain id to give each chain its own {@link io.improbable.keanu.KeanuRandom},
+ * for example with {@code random.substream(chainId)}.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ParallelChains {
+
+    @Getter
+    private final int chainCount;
+
+    @Getter
+    private final int threadCount;
+
+    private final IntFunction<? extends ProbabilisticModel> modelFactory;
+
+    private final IntFunction<? extends PosteriorSamplingAlgorithm> algorithmFactory;
+
+    @Getter
+    private final int dropCount;
+
+    @Getter
+    private final int downSampleInterval;
+
+    public static ParallelChainsBuilder builder() {
+        return new ParallelChainsBuilder();
+    }
+
+    /**
+     * @param model       the model that the first chain samples from
+     * @param sampleCount the total number of samples to generate per chain, before dropping and down-sampling
+     * @return the samples of all chains, keyed by the latent variables of the given model
+     */
+    public MultiChainNetworkSamples getPosteriorSamples(ProbabilisticModel model, int sampleCount) {
+        return getPosteriorSamples(model, model.getLatentVariables(), sampleCount);
+    }
+
+    /**
+     * @param model                 the model that the first chain samples from
+     * @param variablesToSampleFrom latent variables of the given model to include in the returned samples
+     * @param sampleCount           the total number of samples to generate per chain, before dropping and down-sampling
+     * @return the samples of all chains, keyed by the variables of the given model
+     */
+    public MultiChainNetworkSamples getPosteriorSamples(ProbabilisticModel model,
+                                                        List<? extends Variable> variablesToSampleFrom,
+                                                        int sampleCount) {
+
+        List<Variable> alignedLatents = alignedLatentVariables(model);
+        List<Integer> sampledPositions = variablesToSampleFrom.stream()
+            .map(variable -> positionOf(variable, alignedLatents))
+            .collect(Collectors.toList());
+
+        List<ProbabilisticModel> models = new ArrayList<>(chainCount);
+        models.add(model);
+        for (int chainId = 1; chainId < chainCount; chainId++) {
+            ProbabilisticModel copy = modelFactory.apply(chainId);
+            Preconditions.checkArgument(
+                copy.getLatentVariables().size() == alignedLatents.size(),
+                "The model for chain %s has %s latent variables but the first model has %s",
+                chainId, copy.getLatentVariables().size(), alignedLatents.size()
+            );
+            models.add(copy);
+        }
+
+        List<List<Variable>> chainVariables = new ArrayList<>(chainCount);
+        for (ProbabilisticModel chainModel : models) {
+            List<Variable> latents = chainModel == model ? alignedLatents : alignedLatentVariables(chainModel);
+            chainVariables.add(sampledPositions.stream().map(latents::get).collect(Collectors.toList()));
+        }
+
+        List<NetworkSamples> chainSamples = runChains(models, chainVariables, sampleCount);
+
+        List<List<VariableReference>> chainReferences = chainVariables.stream()
+            .map(variables -> variables.stream().map(Variable::getReference).collect(Collectors.toList()))
+            .collect(Collectors.toList());
+
+        return MultiChainNetworkSamples.fromChains(chainSamples, chainReferences);
+    }
+
+    private List<NetworkSamples> runChains(List<ProbabilisticModel> models,
+                                           List<List<Variable>> chainVariables,
+                                           int sampleCount) {
+
+        List<NetworkSamplesGenerator> generators = new ArrayList<>(chainCount);
+        for (int chainId = 0; chainId < chainCount; chainId++) {
+            PosteriorSamplingAlgorithm algorithm = algorithmFactory.apply(chainId);
+            generators.add(
+                algorithm.generatePosteriorSamples(models.get(chainId), chainVariables.get(chainId))
+                    .dropCount(dropCount)
+                    .downSampleInterval(downSampleInterval)
+            );
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, chainCount));
+        try {
+            List<Future<NetworkSamples>> futures = new ArrayList<>(chainCount);
+            for (NetworkSamplesGenerator generator : generators) {
+                futures.add(executor.submit(() -> generator.generate(sampleCount)));
+            }
+
+            List<NetworkSamples> chainSamples = new ArrayList<>(chainCount);
+            for (Future<NetworkSamples> future : futures) {
+                chainSamples.add(future.get());
+            }
+            return chainSamples;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for chains to finish sampling", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to sample chain", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Latent variables of copies are matched by creation order. Vertex ids are handed out in creation order,
+     * so sorting by id puts the latent variables of identically built models in the same order.
+     */
+    private static List<Variable> alignedLatentVariables(ProbabilisticModel model) {
+        List<Variable> latents = new ArrayList<>(model.getLatentVariables());
+        boolean allVertexIds = latents.stream().allMatch(v -> v.getReference() instanceof VertexId);
+        if (allVertexIds) {
+            latents.sort(Comparator.comparing(v -> (VertexId) v.getReference()));
+        }
+        return latents;
+    }
+
+    private static int positionOf(Variable variable, List<Variable> latents) {
+        for (int i = 0; i < latents.size(); i++) {
+            if (latents.get(i).getReference().equals(variable.getReference())) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Can only sample from latent variables of the model in parallel chains: " + variable.getReference());
+    }
+
+    public static class ParallelChainsBuilder {
+
+        private int chainCount = 4;
+        private int threadCount = Runtime.getRuntime().availableProcessors();
+        private IntFunction<? extends ProbabilisticModel> modelFactory;
+        private IntFunction<? extends PosteriorSamplingAlgorithm> algorithmFactory;
+        private int dropCount = 0;
+        private int downSampleInterval = 1;
+
+        /**
+         * @param chainCount the number of chains to run. This defaults to 4.
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder chainCount(int chainCount) {
+            Preconditions.checkArgument(chainCount > 0, "Chain count of %s is invalid. Must run at least one chain.", chainCount);
+            this.chainCount = chainCount;
+            return this;
+        }
+
+        /**
+         * @param threadCount the maximum number of chains to run at the same time. This defaults to the number of
+         *                    available processors.
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder threadCount(int threadCount) {
+            Preconditions.checkArgument(threadCount > 0, "Thread count of %s is invalid. Must use at least one thread.", threadCount);
+            this.threadCount = threadCount;
+            return this;
+        }
+
+        /**
+         * @param modelFactory creates an independent copy of the model for the given chain id. This is called for
+         *                     chain ids 1 to chainCount - 1 as the first chain uses the model that is sampled from,
+         *                     so it is only required when running more than one chain.
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder modelFactory(IntFunction<? extends ProbabilisticModel> modelFactory) {
+            this.modelFactory = modelFactory;
+            return this;
+        }
+
+        /**
+         * @param algorithmFactory creates the sampling algorithm for the given chain id
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder algorithmFactory(IntFunction<? extends PosteriorSamplingAlgorithm> algorithmFactory) {
+            this.algorithmFactory = algorithmFactory;
+            return this;
+        }
+
+        /**
+         * @param dropCount the number of samples each chain drops before collecting anything
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder dropCount(int dropCount) {
+            this.dropCount = dropCount;
+            return this;
+        }
+
+        /**
+         * @param downSampleInterval each chain collects 1 sample for every downSampleInterval
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder downSampleInterval(int downSampleInterval) {
+            this.downSampleInterval = downSampleInterval;
+            return this;
+        }
+
+        public ParallelChains build() {
+            if (modelFactory == null && chainCount > 1) {
+                throw new IllegalStateException("Cannot build " + chainCount + " parallel chains without a model factory to copy the model for each chain after the first.");
+            }
+            if (algorithmFactory == null) {
+                throw new IllegalStateException("Cannot build parallel chains without an algorithm factory.");
+            }
+            return new ParallelChains(chainCount, threadCount, modelFactory, algorithmFactory, dropCount, downSampleInterval);
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package io.improbable.keanu.algorithms.mcmc;
 
+import io.improbable.keanu.algorithms.ColumnarSampleList;
 import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.VariableReference;
 import lombok.experimental.UtilityClass;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -16,8 +16,8 @@ public class SamplingUtil {
     }
 
     private static <T> void addSampleForVariable(Variable<T, ?> variable, Map<VariableReference, List<?>> samples) {
-        List<T> samplesForVariable = (List<T>) samples.computeIfAbsent(variable.getReference(), v -> new ArrayList<T>());
         T value = variable.getValue();
+        List<T> samplesForVariable = (List<T>) samples.computeIfAbsent(variable.getReference(), v -> ColumnarSampleList.createFor(value));
         samplesForVariable.add(value);
     }
 
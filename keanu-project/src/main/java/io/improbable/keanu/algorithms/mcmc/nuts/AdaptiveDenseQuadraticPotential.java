@@ -0,0 +1,171 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.tensor.dbl.KeanuLapack;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.dotProduct;
+import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.withLength;
+
+/**
+ * A quadratic potential whose inverse mass matrix is the full covariance of the positions seen during adaption. This
+ * lets NUTS take large steps on posteriors where the latent variables are strongly correlated, at the cost of N * N
+ * memory and work per leapfrog step for N latent doubles.
+ * <p>
+ * The covariance is estimated in overlapping windows in the same way as {@link AdaptiveQuadraticPotential}. It is
+ * factorised with {@link KeanuLapack#dpotrf} at the end of each window, which is when the mass matrix changes.
+ * Following Stan, the estimate is shrunk towards a small multiple of the identity so that it stays positive-definite
+ * when there are fewer samples than latent doubles.
+ */
+public class AdaptiveDenseQuadraticPotential implements Potential {
+
+    private static final double SHRINKAGE_WEIGHT = 5.0;
+    private static final double SHRINKAGE_TARGET = 1e-3;
+
+    private final double initialWeight;
+    private final double initialMean;
+    private final double initialVariance;
+    private final int adaptionWindowSize;
+    private CovarianceCalculator forwardCovariance;
+    private CovarianceCalculator backgroundCovariance;
+    private long nSamples;
+    private int length;
+
+    /**
+     * The inverse mass matrix as a row major N * N array
+     */
+    @Getter
+    private double[] covariance;
+
+    /**
+     * The lower triangular cholesky factor of the covariance as a row major N * N array
+     */
+    private double[] choleskyFactor;
+
+    public AdaptiveDenseQuadraticPotential(double initialMean,
+                                           double initialVariance,
+                                           double initialWeight,
+                                           int adaptionWindowSize) {
+        Preconditions.checkArgument(adaptionWindowSize > 1, "Adapt window size must be greater than 1");
+        Preconditions.checkArgument(initialVariance > 0, "Initial variance must be greater than 0");
+
+        this.initialWeight = initialWeight;
+        this.initialMean = initialMean;
+        this.initialVariance = initialVariance;
+
+        this.adaptionWindowSize = adaptionWindowSize;
+        this.nSamples = 0;
+    }
+
+    @Override
+    public void initialize(VariableLayout layout) {
+
+        this.length = layout.getLength();
+
+        double[] initialCovariance = new double[length * length];
+        double[] initialCholeskyFactor = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            initialCovariance[i * length + i] = initialVariance;
+            initialCholeskyFactor[i * length + i] = Math.sqrt(initialVariance);
+        }
+
+        this.covariance = initialCovariance;
+        this.choleskyFactor = initialCholeskyFactor;
+
+        this.forwardCovariance = new CovarianceCalculator(withLength(initialMean, length), initialCovariance, initialWeight);
+        this.backgroundCovariance = emptyCovarianceCalculator();
+    }
+
+    private CovarianceCalculator emptyCovarianceCalculator() {
+        return new CovarianceCalculator(new double[length], new double[length * length], 0);
+    }
+
+    @Override
+    public void update(double[] position) {
+
+        forwardCovariance.addSample(position);
+        backgroundCovariance.addSample(position);
+
+        nSamples++;
+
+        if (nSamples % adaptionWindowSize == 0) {
+            setCovariance(
+                forwardCovariance.calculateCurrentCovariance(),
+                forwardCovariance.getCount()
+            );
+
+            forwardCovariance = backgroundCovariance;
+            backgroundCovariance = emptyCovarianceCalculator();
+        }
+    }
+
+    /**
+     * Sets the covariance and its cholesky factor. The previous covariance is kept if the shrunk estimate still
+     * cannot be factorised, e.g. because of a latent variable that never moved.
+     */
+    private void setCovariance(double[] estimate, double count) {
+
+        final double scale = count / (count + SHRINKAGE_WEIGHT);
+        final double shift = SHRINKAGE_TARGET * SHRINKAGE_WEIGHT / (count + SHRINKAGE_WEIGHT);
+
+        double[] shrunk = new double[estimate.length];
+        for (int i = 0; i < estimate.length; i++) {
+            shrunk[i] = scale * estimate[i];
+        }
+        for (int i = 0; i < length; i++) {
+            shrunk[i * length + i] += shift;
+        }
+
+        double[] factor = Arrays.copyOf(shrunk, shrunk.length);
+        if (KeanuLapack.dpotrf(KeanuLapack.Triangular.LOWER, length, factor) != 0) {
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            Arrays.fill(factor, i * length + i + 1, (i + 1) * length, 0.0);
+        }
+
+        this.covariance = shrunk;
+        this.choleskyFactor = factor;
+    }
+
+    /**
+     * Samples momentum from N(0, M) where the mass matrix M is the inverse of the covariance L * L^T. This is
+     * L^-T * z for standard normal z, found by back substitution.
+     */
+    @Override
+    public void randomMomentum(KeanuRandom random, double[] momentum) {
+        for (int i = 0; i < length; i++) {
+            momentum[i] = random.nextGaussian();
+        }
+
+        for (int i = length - 1; i >= 0; i--) {
+            double sum = momentum[i];
+            for (int j = i + 1; j < length; j++) {
+                sum -= choleskyFactor[j * length + i] * momentum[j];
+            }
+            momentum[i] = sum / choleskyFactor[i * length + i];
+        }
+    }
+
+    @Override
+    public void getVelocity(double[] momentum, double[] velocity) {
+        for (int i = 0; i < length; i++) {
+            final int row = i * length;
+            double sum = 0.0;
+            for (int j = 0; j < length; j++) {
+                sum += covariance[row + j] * momentum[j];
+            }
+            velocity[i] = sum;
+        }
+    }
+
+    @Override
+    public double getKineticEnergy(double[] momentum, double[] velocity) {
+        return 0.5 * dotProduct(momentum, velocity);
+    }
+
+}
@@ -0,0 +1,335 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.KeanuRandom;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.EigenDecomposition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.dotProduct;
+import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.withLength;
+
+/**
+ * A quadratic potential whose inverse mass matrix is a diagonal plus low-rank approximation of the covariance of the
+ * positions seen during adaption. It captures the strongest correlations of a posterior with rank * N memory and work
+ * per leapfrog step for N latent doubles, rather than the N * N of {@link AdaptiveDenseQuadraticPotential}.
+ * <p>
+ * The covariance is approximated as S * (I + V * (L - I) * V^T) * S where S is the diagonal of standard deviations and
+ * the columns of V are the eigenvectors, with eigenvalues L, of the correlation matrix whose eigenvalues are furthest
+ * from one. Both ends of the spectrum matter: large eigenvalues are long directions that need deep trees and small
+ * ones are narrow directions that force small steps. These are estimated from the positions of each adaption window
+ * when it ends, so the positions of one window are kept in memory.
+ */
+public class AdaptiveLowRankQuadraticPotential implements Potential {
+
+    private static final double SHRINKAGE_WEIGHT = 5.0;
+    private static final double SHRINKAGE_TARGET = 1e-3;
+    private static final int SUBSPACE_ITERATIONS = 20;
+
+    private final double initialVariance;
+    private final int rank;
+    private final int adaptionWindowSize;
+    private double[][] windowSamples;
+    private int windowSampleCount;
+    private int length;
+
+    @Getter
+    private double[] standardDeviation;
+
+    /**
+     * The eigenvectors of the correlation matrix used by the low-rank part
+     */
+    private double[][] eigenvectors;
+
+    /**
+     * The eigenvalue of each eigenvector minus one
+     */
+    private double[] eigenvalueOffsets;
+
+    /**
+     * The inverse square root of the eigenvalue of each eigenvector minus one
+     */
+    private double[] inverseSqrtEigenvalueOffsets;
+
+    /**
+     * @param initialVariance    the variance of each latent double before the first adaption window ends
+     * @param rank               the maximum number of correlated directions to adapt
+     * @param adaptionWindowSize the number of positions used for each estimate
+     */
+    public AdaptiveLowRankQuadraticPotential(double initialVariance,
+                                             int rank,
+                                             int adaptionWindowSize) {
+        Preconditions.checkArgument(adaptionWindowSize > 1, "Adapt window size must be greater than 1");
+        Preconditions.checkArgument(initialVariance > 0, "Initial variance must be greater than 0");
+        Preconditions.checkArgument(rank > 0, "Rank must be greater than 0");
+
+        this.initialVariance = initialVariance;
+        this.rank = rank;
+        this.adaptionWindowSize = adaptionWindowSize;
+    }
+
+    @Override
+    public void initialize(VariableLayout layout) {
+        this.length = layout.getLength();
+        this.windowSamples = new double[adaptionWindowSize][];
+        this.windowSampleCount = 0;
+        this.standardDeviation = withLength(Math.sqrt(initialVariance), length);
+        this.eigenvectors = new double[0][];
+        this.eigenvalueOffsets = new double[0];
+        this.inverseSqrtEigenvalueOffsets = new double[0];
+    }
+
+    /**
+     * @return the number of correlated directions currently in use
+     */
+    public int getCurrentRank() {
+        return eigenvectors.length;
+    }
+
+    @Override
+    public void update(double[] position) {
+        windowSamples[windowSampleCount] = Arrays.copyOf(position, length);
+        windowSampleCount++;
+
+        if (windowSampleCount == adaptionWindowSize) {
+            adapt();
+            windowSampleCount = 0;
+        }
+    }
+
+    private void adapt() {
+        final int count = windowSampleCount;
+        final double scale = count / (count + SHRINKAGE_WEIGHT);
+        final double shift = SHRINKAGE_WEIGHT / (count + SHRINKAGE_WEIGHT);
+
+        double[] mean = new double[length];
+        for (double[] sample : windowSamples) {
+            VariableValues.addScaledInPlace(mean, 1.0 / count, sample);
+        }
+
+        double[] variance = new double[length];
+        for (double[] sample : windowSamples) {
+            for (int i = 0; i < length; i++) {
+                final double delta = sample[i] - mean[i];
+                variance[i] += delta * delta / count;
+            }
+        }
+
+        double[] nextStandardDeviation = new double[length];
+        for (int i = 0; i < length; i++) {
+            nextStandardDeviation[i] = Math.sqrt(scale * variance[i] + shift * SHRINKAGE_TARGET);
+        }
+
+        double[][] standardised = new double[count][length];
+        final double sampleScale = 1.0 / Math.sqrt(count);
+        for (int s = 0; s < count; s++) {
+            for (int i = 0; i < length; i++) {
+                standardised[s][i] = (windowSamples[s][i] - mean[i]) / nextStandardDeviation[i] * sampleScale;
+            }
+        }
+
+        this.standardDeviation = nextStandardDeviation;
+
+        final int targetRank = Math.min(rank, Math.min(length, count));
+        double[][] start = Arrays.copyOf(standardised, targetRank);
+
+        RitzPairs top = ritzPairs(standardised, subspaceIteration(standardised, start, 0.0, 1.0));
+        final double largestEigenvalue = top.values.length == 0 ? 0.0 : top.values[top.values.length - 1];
+        double[][] bottomBasis = subspaceIteration(standardised, start, largestEigenvalue, -1.0);
+
+        double[][] candidates = new double[top.vectors.length + bottomBasis.length][];
+        System.arraycopy(top.vectors, 0, candidates, 0, top.vectors.length);
+        System.arraycopy(bottomBasis, 0, candidates, top.vectors.length, bottomBasis.length);
+
+        RitzPairs pairs = ritzPairs(standardised, orthonormalise(candidates));
+
+        Integer[] byDistanceFromOne = new Integer[pairs.values.length];
+        double[] shrunkEigenvalues = new double[pairs.values.length];
+        for (int k = 0; k < pairs.values.length; k++) {
+            byDistanceFromOne[k] = k;
+            shrunkEigenvalues[k] = scale * Math.max(pairs.values[k], 0.0) + shift;
+        }
+        Arrays.sort(byDistanceFromOne, (a, b) -> Double.compare(
+            Math.abs(Math.log(shrunkEigenvalues[b])),
+            Math.abs(Math.log(shrunkEigenvalues[a]))
+        ));
+
+        final int adaptedRank = Math.min(targetRank, byDistanceFromOne.length);
+        double[][] nextEigenvectors = new double[adaptedRank][];
+        double[] nextEigenvalueOffsets = new double[adaptedRank];
+        double[] nextInverseSqrtEigenvalueOffsets = new double[adaptedRank];
+
+        for (int k = 0; k < adaptedRank; k++) {
+            final int index = byDistanceFromOne[k];
+            nextEigenvectors[k] = pairs.vectors[index];
+            nextEigenvalueOffsets[k] = shrunkEigenvalues[index] - 1.0;
+            nextInverseSqrtEigenvalueOffsets[k] = 1.0 / Math.sqrt(shrunkEigenvalues[index]) - 1.0;
+        }
+
+        this.eigenvectors = nextEigenvectors;
+        this.eigenvalueOffsets = nextEigenvalueOffsets;
+        this.inverseSqrtEigenvalueOffsets = nextInverseSqrtEigenvalueOffsets;
+    }
+
+    /**
+     * Finds an orthonormal basis for the eigenvectors of shift * I + sign * Y^T * Y with the largest eigenvalues. With
+     * a sign of 1 and no shift these are the top eigenvectors of the correlation matrix. With a sign of -1 and a shift
+     * of its largest eigenvalue they are the bottom eigenvectors. Starting from standardised samples keeps the basis
+     * within the span of the samples.
+     */
+    private double[][] subspaceIteration(double[][] standardised, double[][] start, double shift, double sign) {
+        double[][] basis = orthonormalise(start);
+
+        for (int iteration = 0; iteration < SUBSPACE_ITERATIONS && basis.length > 0; iteration++) {
+            double[][] next = new double[basis.length][];
+            for (int k = 0; k < basis.length; k++) {
+                next[k] = timesCorrelation(standardised, basis[k]);
+                for (int i = 0; i < length; i++) {
+                    next[k][i] = shift * basis[k][i] + sign * next[k][i];
+                }
+            }
+            basis = orthonormalise(next);
+        }
+
+        return basis;
+    }
+
+    /**
+     * Rayleigh-Ritz: the best approximations to eigenpairs of the correlation matrix within the span of an
+     * orthonormal basis, in increasing order of eigenvalue.
+     */
+    private RitzPairs ritzPairs(double[][] standardised, double[][] basis) {
+        if (basis.length == 0) {
+            return new RitzPairs(new double[0][], new double[0]);
+        }
+
+        double[][] basisTimesCorrelation = new double[basis.length][];
+        for (int k = 0; k < basis.length; k++) {
+            basisTimesCorrelation[k] = timesCorrelation(standardised, basis[k]);
+        }
+
+        double[][] projected = new double[basis.length][basis.length];
+        for (int k = 0; k < basis.length; k++) {
+            for (int l = 0; l <= k; l++) {
+                projected[k][l] = dotProduct(basis[k], basisTimesCorrelation[l]);
+                projected[l][k] = projected[k][l];
+            }
+        }
+
+        EigenDecomposition decomposition = new EigenDecomposition(new Array2DRowRealMatrix(projected, false));
+
+        Integer[] order = new Integer[basis.length];
+        for (int k = 0; k < basis.length; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(decomposition.getRealEigenvalue(a), decomposition.getRealEigenvalue(b)));
+
+        double[][] vectors = new double[basis.length][];
+        double[] values = new double[basis.length];
+        for (int k = 0; k < basis.length; k++) {
+            double[] coefficients = decomposition.getEigenvector(order[k]).toArray();
+            vectors[k] = new double[length];
+            for (int l = 0; l < basis.length; l++) {
+                VariableValues.addScaledInPlace(vectors[k], coefficients[l], basis[l]);
+            }
+            values[k] = decomposition.getRealEigenvalue(order[k]);
+        }
+
+        return new RitzPairs(vectors, values);
+    }
+
+    @AllArgsConstructor
+    private static class RitzPairs {
+        private final double[][] vectors;
+        private final double[] values;
+    }
+
+    private double[] timesCorrelation(double[][] standardised, double[] vector) {
+        double[] result = new double[length];
+        for (double[] row : standardised) {
+            VariableValues.addScaledInPlace(result, dotProduct(row, vector), row);
+        }
+        return result;
+    }
+
+    /**
+     * Modified Gram-Schmidt that drops vectors that are (numerically) in the span of the ones before them.
+     */
+    private static double[][] orthonormalise(double[][] vectors) {
+        List<double[]> orthonormal = new ArrayList<>();
+
+        for (double[] vector : vectors) {
+            final double originalNorm = Math.sqrt(dotProduct(vector, vector));
+            double[] result = Arrays.copyOf(vector, vector.length);
+
+            for (double[] previous : orthonormal) {
+                VariableValues.addScaledInPlace(result, -dotProduct(previous, result), previous);
+            }
+
+            final double norm = Math.sqrt(dotProduct(result, result));
+            if (norm > 1e-10 * originalNorm && norm > 0) {
+                for (int i = 0; i < result.length; i++) {
+                    result[i] /= norm;
+                }
+                orthonormal.add(result);
+            }
+        }
+
+        return orthonormal.toArray(new double[0][]);
+    }
+
+    /**
+     * Samples momentum from N(0, M) where M is the inverse of the covariance. This is
+     * S^-1 * (I + V * (L^-1/2 - I) * V^T) * z for standard normal z.
+     */
+    @Override
+    public void randomMomentum(KeanuRandom random, double[] momentum) {
+        for (int i = 0; i < length; i++) {
+            momentum[i] = random.nextGaussian();
+        }
+
+        addLowRank(momentum, inverseSqrtEigenvalueOffsets);
+
+        for (int i = 0; i < length; i++) {
+            momentum[i] /= standardDeviation[i];
+        }
+    }
+
+    @Override
+    public void getVelocity(double[] momentum, double[] velocity) {
+        for (int i = 0; i < length; i++) {
+            velocity[i] = standardDeviation[i] * momentum[i];
+        }
+
+        addLowRank(velocity, eigenvalueOffsets);
+
+        for (int i = 0; i < length; i++) {
+            velocity[i] *= standardDeviation[i];
+        }
+    }
+
+    /**
+     * Sets values to values + V * diag(offsets) * V^T * values
+     */
+    private void addLowRank(double[] values, double[] offsets) {
+        double[] projections = new double[eigenvectors.length];
+        for (int k = 0; k < eigenvectors.length; k++) {
+            projections[k] = offsets[k] * dotProduct(eigenvectors[k], values);
+        }
+
+        for (int k = 0; k < eigenvectors.length; k++) {
+            VariableValues.addScaledInPlace(values, projections[k], eigenvectors[k]);
+        }
+    }
+
+    @Override
+    public double getKineticEnergy(double[] momentum, double[] velocity) {
+        return 0.5 * dotProduct(momentum, velocity);
+    }
+
+}
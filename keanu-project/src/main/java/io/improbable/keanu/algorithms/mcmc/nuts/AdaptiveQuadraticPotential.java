@@ -2,18 +2,10 @@ package io.improbable.keanu.algorithms.mcmc.nuts;
 
 import com.google.common.base.Preconditions;
 import io.improbable.keanu.KeanuRandom;
-import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import lombok.Getter;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.dotProduct;
-import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.pow;
-import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.times;
-import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.withShape;
-import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.zeros;
+import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.withLength;
 
 
 public class AdaptiveQuadraticPotential implements Potential {
@@ -27,10 +19,10 @@ public class AdaptiveQuadraticPotential implements Potential {
     private long nSamples;
 
     @Getter
-    private Map<VariableReference, DoubleTensor> variance;
+    private double[] variance;
 
     @Getter
-    private Map<VariableReference, DoubleTensor> standardDeviation;
+    private double[] standardDeviation;
 
     public AdaptiveQuadraticPotential(double initialMean,
                                       double initialVariance,
@@ -46,28 +38,33 @@ public class AdaptiveQuadraticPotential implements Potential {
         this.nSamples = 0;
     }
 
-    public void initialize(Map<VariableReference, DoubleTensor> shapeLike) {
+    @Override
+    public void initialize(VariableLayout layout) {
 
-        Map<VariableReference, DoubleTensor> varianceShapedLike = withShape(initialVariance, shapeLike);
-        Map<VariableReference, DoubleTensor> meanShapedLike = withShape(initialMean, shapeLike);
+        final int length = layout.getLength();
+        double[] varianceShapedLike = withLength(initialVariance, length);
+        double[] meanShapedLike = withLength(initialMean, length);
 
         this.setVariance(varianceShapedLike);
 
         this.forwardVariance = new VarianceCalculator(meanShapedLike, varianceShapedLike, initialWeight);
-        this.backgroundVariance = new VarianceCalculator(zeros(meanShapedLike), zeros(meanShapedLike), 0);
+        this.backgroundVariance = new VarianceCalculator(new double[length], new double[length], 0);
     }
 
-    private void setVariance(Map<VariableReference, DoubleTensor> variance) {
+    private void setVariance(double[] variance) {
         this.variance = variance;
-        this.standardDeviation = pow(this.variance, 0.5);
+        this.standardDeviation = new double[variance.length];
+        for (int i = 0; i < variance.length; i++) {
+            standardDeviation[i] = Math.sqrt(variance[i]);
+        }
     }
 
     @Override
-    public void update(Map<VariableReference, DoubleTensor> position) {
+    public void update(double[] position) {
 
         if (nSamples > 0 && nSamples % adaptionWindowSize == 0) {
             forwardVariance = backgroundVariance;
-            backgroundVariance = new VarianceCalculator(zeros(variance), zeros(variance), 0);
+            backgroundVariance = new VarianceCalculator(new double[variance.length], new double[variance.length], 0);
         }
 
         forwardVariance.addSample(position);
@@ -79,32 +76,21 @@ public class AdaptiveQuadraticPotential implements Potential {
     }
 
     @Override
-    public Map<VariableReference, DoubleTensor> randomMomentum(KeanuRandom random) {
-
-        Map<VariableReference, DoubleTensor> result = new HashMap<>();
-        for (VariableReference variable : standardDeviation.keySet()) {
-
-            DoubleTensor standardDeviationForVariable = standardDeviation.get(variable);
-
-            DoubleTensor randomForVariable = random
-                .nextGaussian(standardDeviationForVariable.getShape())
-                .divInPlace(standardDeviationForVariable);
-
-            result.put(variable, randomForVariable);
+    public void randomMomentum(KeanuRandom random, double[] momentum) {
+        for (int i = 0; i < momentum.length; i++) {
+            momentum[i] = random.nextGaussian() / standardDeviation[i];
         }
-
-        return result;
     }
 
     @Override
-    public Map<VariableReference, DoubleTensor> getVelocity(Map<VariableReference, DoubleTensor> momentum) {
-        return times(variance, momentum);
+    public void getVelocity(double[] momentum, double[] velocity) {
+        for (int i = 0; i < momentum.length; i++) {
+            velocity[i] = variance[i] * momentum[i];
+        }
     }
 
     @Override
-    public double getKineticEnergy(Map<VariableReference, DoubleTensor> momentum,
-                                   Map<VariableReference, DoubleTensor> velocity) {
-
+    public double getKineticEnergy(double[] momentum, double[] velocity) {
         return 0.5 * dotProduct(momentum, velocity);
     }
 
@@ -0,0 +1,67 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Uses Welford's online algorithm for computing the sample covariance matrix. Covariance matrices are row major
+ * arrays of length N * N where N is the length of a sample.
+ */
+public class CovarianceCalculator {
+
+    /**
+     * The initial weight plus the number of samples added
+     */
+    @Getter
+    private double count;
+    private final int length;
+    private final double[] mean;
+    private final double[] comoment;
+
+    public CovarianceCalculator(double[] initialMean,
+                                double[] initialCovariance,
+                                double initialWeight) {
+        Preconditions.checkArgument(initialWeight >= 0.0, "Initial weight must be greater than or equal to 0");
+        Preconditions.checkArgument(
+            initialCovariance.length == initialMean.length * initialMean.length,
+            "Initial covariance must be a square matrix with the same length as the mean"
+        );
+
+        this.count = initialWeight;
+        this.length = initialMean.length;
+        this.mean = Arrays.copyOf(initialMean, length);
+        this.comoment = new double[initialCovariance.length];
+        for (int i = 0; i < comoment.length; i++) {
+            comoment[i] = initialCovariance[i] * count;
+        }
+    }
+
+    public void addSample(double[] sample) {
+
+        this.count += 1.0;
+
+        final double[] delta = new double[length];
+        for (int i = 0; i < length; i++) {
+            delta[i] = sample[i] - mean[i];
+            mean[i] += delta[i] / count;
+        }
+
+        for (int i = 0; i < length; i++) {
+            final int row = i * length;
+            for (int j = 0; j < length; j++) {
+                comoment[row + j] += delta[i] * (sample[j] - mean[j]);
+            }
+        }
+    }
+
+    public double[] calculateCurrentCovariance() {
+        double[] covariance = new double[comoment.length];
+        for (int i = 0; i < comoment.length; i++) {
+            covariance[i] = comoment[i] / count;
+        }
+        return covariance;
+    }
+
+}
@@ -1,18 +1,33 @@
 package io.improbable.keanu.algorithms.mcmc.nuts;
 
+import io.improbable.keanu.algorithms.LogProbAndGradients;
 import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
-import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.tensor.dbl.DoubleTensor;
-import lombok.AllArgsConstructor;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+
+import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.addScaledInPlace;
 
-@AllArgsConstructor
 public class LeapfrogIntegrator {
 
     private final Potential potential;
 
+    private final VariableLayout layout;
+
+    /**
+     * Velocity at the half step. This is not part of any state so it is reused between steps.
+     */
+    private final double[] halfStepVelocity;
+
+    /**
+     * @param potential the potential used for velocity and kinetic energy
+     * @param layout    the layout of the position, momentum and gradient of each state
+     */
+    public LeapfrogIntegrator(Potential potential, VariableLayout layout) {
+        this.potential = potential;
+        this.layout = layout;
+        this.halfStepVelocity = new double[layout.getLength()];
+    }
+
     /**
      * Performs one leapfrog of the variables with a time delta as defined by timeStep
      *
@@ -25,47 +40,23 @@ public class LeapfrogIntegrator {
 
         final double halfTimeStep = timeStep / 2.0;
 
-        Map<VariableReference, DoubleTensor> nextMomentum = stepMomentum(halfTimeStep, fromState.getMomentum(), fromState.getGradient());
+        final double[] nextMomentum = Arrays.copyOf(fromState.getMomentum(), fromState.getMomentum().length);
+        addScaledInPlace(nextMomentum, halfTimeStep, fromState.getGradient());
 
-        Map<VariableReference, DoubleTensor> nextVelocity = potential.getVelocity(nextMomentum);
+        potential.getVelocity(nextMomentum, halfStepVelocity);
 
-        Map<VariableReference, DoubleTensor> nextPosition = stepPosition(timeStep, nextVelocity, fromState.getPosition());
+        final double[] nextPosition = Arrays.copyOf(fromState.getPosition(), fromState.getPosition().length);
+        addScaledInPlace(nextPosition, timeStep, halfStepVelocity);
 
-        Map<? extends VariableReference, DoubleTensor> nextPositionGradient = logProbGradientCalculator.logProbGradients(nextPosition);
-        final double nextPositionLogProb = logProbGradientCalculator.logProb();
+        final LogProbAndGradients nextPositionLogProbAndGradients = logProbGradientCalculator.logProbAndGradients(
+            layout.unpack(nextPosition)
+        );
+        final double nextPositionLogProb = nextPositionLogProbAndGradients.getLogProb();
 
-        nextMomentum = stepMomentum(halfTimeStep, nextMomentum, nextPositionGradient);
+        final double[] nextGradient = layout.pack(nextPositionLogProbAndGradients.getGradients());
 
-        return new LeapfrogState(nextPosition, nextMomentum, nextPositionGradient, nextPositionLogProb, potential);
-    }
-
-    private static Map<VariableReference, DoubleTensor> stepPosition(double dt,
-                                                                     Map<VariableReference, DoubleTensor> velocity,
-                                                                     Map<VariableReference, DoubleTensor> position) {
-
-        Map<VariableReference, DoubleTensor> nextPosition = new HashMap<>();
-
-        for (VariableReference variableReference : position.keySet()) {
-
-            final DoubleTensor variablePosition = position.get(variableReference);
-            final DoubleTensor variableVelocity = velocity.get(variableReference);
-
-            final DoubleTensor nextPositionForLatent = variableVelocity.times(dt).plusInPlace(variablePosition);
-
-            nextPosition.put(variableReference, nextPositionForLatent);
-        }
-
-        return nextPosition;
-    }
+        addScaledInPlace(nextMomentum, halfTimeStep, nextGradient);
 
-    private static Map<VariableReference, DoubleTensor> stepMomentum(double dt,
-                                                                     Map<? extends VariableReference, DoubleTensor> momentum,
-                                                                     Map<? extends VariableReference, DoubleTensor> gradient) {
-        Map<VariableReference, DoubleTensor> nextMomentum = new HashMap<>();
-        for (Map.Entry<? extends VariableReference, DoubleTensor> rEntry : momentum.entrySet()) {
-            final DoubleTensor updatedMomentum = gradient.get(rEntry.getKey()).times(dt).plusInPlace(rEntry.getValue());
-            nextMomentum.put(rEntry.getKey(), updatedMomentum);
-        }
-        return nextMomentum;
+        return new LeapfrogState(nextPosition, nextMomentum, nextGradient, nextPositionLogProb, potential);
     }
 }
@@ -1,28 +1,26 @@
 package io.improbable.keanu.algorithms.mcmc.nuts;
 
-import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import lombok.AllArgsConstructor;
 import lombok.Value;
 
-import java.util.Map;
-
 
 /**
  * Leapfrog performs a movement through physical space with the introduction of a velocity variable.
  * This is required for sampling in NUTS.
+ * <p>
+ * The position, momentum, velocity and gradient hold every latent variable laid out by a {@link VariableLayout}.
  */
 @Value
 @AllArgsConstructor
 public class LeapfrogState {
 
-    private final Map<VariableReference, DoubleTensor> position;
+    private final double[] position;
 
-    private final Map<VariableReference, DoubleTensor> momentum;
+    private final double[] momentum;
 
-    private final Map<VariableReference, DoubleTensor> velocity;
+    private final double[] velocity;
 
-    private final Map<? extends VariableReference, DoubleTensor> gradient;
+    private final double[] gradient;
 
     private final double kineticEnergy;
 
@@ -37,15 +35,16 @@ public class LeapfrogState {
      * @param logProb   the log probability at the position
      * @param potential the potential to use for calculating velocity and kinetic energy
      */
-    public LeapfrogState(Map<VariableReference, DoubleTensor> position,
-                         Map<VariableReference, DoubleTensor> momentum,
-                         Map<? extends VariableReference, DoubleTensor> gradient,
+    public LeapfrogState(double[] position,
+                         double[] momentum,
+                         double[] gradient,
                          double logProb,
                          Potential potential) {
 
         this.position = position;
         this.momentum = momentum;
-        this.velocity = potential.getVelocity(momentum);
+        this.velocity = new double[momentum.length];
+        potential.getVelocity(momentum, velocity);
         this.gradient = gradient;
         this.kineticEnergy = potential.getKineticEnergy(momentum, velocity);
         this.energy = kineticEnergy - logProb;
@@ -53,4 +52,4 @@ public class LeapfrogState {
     }
 
 
-}
\ No newline at end of file
+}
@@ -18,12 +18,11 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import static io.improbable.keanu.algorithms.mcmc.nuts.AdaptiveStepSize.findStartingStepSize;
-import static java.util.stream.Collectors.toMap;
-
 
 /**
  * NUTS with multinomial sampling
@@ -102,8 +101,10 @@ public class NUTS implements PosteriorSamplingAlgorithm {
 
         final List<? extends Variable<DoubleTensor, ?>> latentVariables = model.getContinuousLatentVariables();
 
-        Map<VariableReference, DoubleTensor> position = latentVariables.stream()
-            .collect(toMap(Variable::getReference, Variable::getValue));
+        Map<VariableReference, DoubleTensor> position = new LinkedHashMap<>();
+        for (Variable<DoubleTensor, ?> latentVariable : latentVariables) {
+            position.put(latentVariable.getReference(), latentVariable.getValue());
+        }
 
         double initialLogOfMasterP = model.logProb(position);
 
@@ -126,12 +127,15 @@ public class NUTS implements PosteriorSamplingAlgorithm {
             adaptCount
         );
 
-        potential.initialize(position);
-        Proposal initialProposal = new Proposal(position, gradient, startingSample, initialLogOfMasterP);
+        VariableLayout layout = new VariableLayout(position);
+
+        potential.initialize(layout);
+        Proposal initialProposal = new Proposal(layout.pack(position), layout.pack(gradient), startingSample, initialLogOfMasterP);
 
         return new NUTSSampler(
             sampleFromVariables,
             model,
+            layout,
             adaptPotentialEnabled,
             potential,
             adaptStepSizeEnabled,
@@ -1,16 +1,15 @@
 package io.improbable.keanu.algorithms.mcmc.nuts;
 
 import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.ColumnarSampleList;
 import io.improbable.keanu.algorithms.NetworkSample;
 import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
 import io.improbable.keanu.algorithms.Statistics;
 import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.algorithms.mcmc.SamplingAlgorithm;
-import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -51,6 +50,7 @@ class NUTSSampler implements SamplingAlgorithm {
     /**
      * @param sampleFromVariables       variables to sample from
      * @param logProbGradientCalculator gradient calculator for diff of log prob with respect to latents
+     * @param layout                    the layout of the latents in the position, momentum and gradient arrays
      * @param adaptPotentialEnabled     enable the potential adaption
      * @param potential                 provides mass in velocity and energy calculations
      * @param adaptStepSizeEnabled      enable the NUTS step size adaptation
@@ -65,6 +65,7 @@ class NUTSSampler implements SamplingAlgorithm {
      */
     public NUTSSampler(List<? extends Variable> sampleFromVariables,
                        ProbabilisticModelWithGradient logProbGradientCalculator,
+                       VariableLayout layout,
                        boolean adaptPotentialEnabled,
                        Potential potential,
                        boolean adaptStepSizeEnabled,
@@ -79,7 +80,7 @@ class NUTSSampler implements SamplingAlgorithm {
 
         this.sampleFromVariables = sampleFromVariables;
         this.logProbGradientCalculator = logProbGradientCalculator;
-        this.leapfrogIntegrator = new LeapfrogIntegrator(potential);
+        this.leapfrogIntegrator = new LeapfrogIntegrator(potential, layout);
 
         this.adaptPotentialEnabled = adaptPotentialEnabled;
         this.potential = potential;
@@ -117,7 +118,8 @@ class NUTSSampler implements SamplingAlgorithm {
     @Override
     public void step() {
 
-        Map<VariableReference, DoubleTensor> initialMomentum = potential.randomMomentum(random);
+        double[] initialMomentum = new double[proposal.getPosition().length];
+        potential.randomMomentum(random, initialMomentum);
 
         LeapfrogState startState = new LeapfrogState(
             proposal.getPosition(),
@@ -184,7 +186,7 @@ class NUTSSampler implements SamplingAlgorithm {
     }
 
     private static <T> void addSampleForVariable(VariableReference id, T value, Map<VariableReference, List<?>> samples) {
-        List<T> samplesForVariable = (List<T>) samples.computeIfAbsent(id, v -> new ArrayList<T>());
+        List<T> samplesForVariable = (List<T>) samples.computeIfAbsent(id, v -> ColumnarSampleList.createFor(value));
         samplesForVariable.add(value);
     }
 
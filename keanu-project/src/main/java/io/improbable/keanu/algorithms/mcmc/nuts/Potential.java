@@ -1,20 +1,29 @@
 package io.improbable.keanu.algorithms.mcmc.nuts;
 
 import io.improbable.keanu.KeanuRandom;
-import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.tensor.dbl.DoubleTensor;
-
-import java.util.Map;
 
+/**
+ * Provides the mass used by NUTS to turn momentum into velocity and kinetic energy. Position, momentum and velocity
+ * are the values of all latent variables laid out in one array by the {@link VariableLayout} given to
+ * {@link #initialize(VariableLayout)}.
+ */
 public interface Potential {
 
-    void initialize(Map<VariableReference, DoubleTensor> shapeLike);
+    void initialize(VariableLayout layout);
 
-    void update(Map<VariableReference, DoubleTensor> position);
+    void update(double[] position);
 
-    Map<VariableReference, DoubleTensor> randomMomentum(KeanuRandom random);
+    /**
+     * @param random   source of randomness
+     * @param momentum the array to fill with a random momentum
+     */
+    void randomMomentum(KeanuRandom random, double[] momentum);
 
-    Map<VariableReference, DoubleTensor> getVelocity(Map<VariableReference, DoubleTensor> momentum);
+    /**
+     * @param momentum the momentum
+     * @param velocity the array to fill with the velocity of the momentum
+     */
+    void getVelocity(double[] momentum, double[] velocity);
 
-    double getKineticEnergy(Map<VariableReference, DoubleTensor> momentum, Map<VariableReference, DoubleTensor> velocity);
+    double getKineticEnergy(double[] momentum, double[] velocity);
 }
@@ -5,7 +5,6 @@ import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
 import io.improbable.keanu.algorithms.Statistics;
 import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
@@ -15,6 +14,7 @@ import java.util.Map;
 
 import static io.improbable.keanu.algorithms.mcmc.SamplingAlgorithm.takeSample;
 import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.add;
+import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.dotProduct;
 
 
 /**
@@ -55,7 +55,7 @@ class Tree {
      * Sum of momentum over all steps in tree
      */
     @Getter
-    private Map<VariableReference, DoubleTensor> sumMomentum;
+    private double[] sumMomentum;
 
     /**
      * The energy at the start state
@@ -330,21 +330,11 @@ class Tree {
         return Math.log(random.nextDouble()) < probability;
     }
 
-    private static boolean isUTurning(Map<VariableReference, DoubleTensor> velocityForward,
-                                      Map<VariableReference, DoubleTensor> velocityBackward,
-                                      Map<VariableReference, DoubleTensor> rho) {
-        double forward = 0.0;
-        double backward = 0.0;
-
-        for (VariableReference latentId : velocityForward.keySet()) {
-
-            final DoubleTensor vForward = velocityForward.get(latentId);
-            final DoubleTensor vBackward = velocityBackward.get(latentId);
-            final DoubleTensor rhoForLatent = rho.get(latentId);
-
-            forward += vForward.times(rhoForLatent).sumNumber();
-            backward += vBackward.times(rhoForLatent).sumNumber();
-        }
+    private static boolean isUTurning(double[] velocityForward,
+                                      double[] velocityBackward,
+                                      double[] rho) {
+        final double forward = dotProduct(velocityForward, rho);
+        final double backward = dotProduct(velocityBackward, rho);
 
         return (forward < 0.0) || (backward < 0.0);
     }
@@ -375,7 +365,7 @@ class Tree {
         /**
          * The sum of all of the momentum from each step
          */
-        private Map<VariableReference, DoubleTensor> sumMomentum;
+        private double[] sumMomentum;
 
         /**
          * The current accepted proposal.
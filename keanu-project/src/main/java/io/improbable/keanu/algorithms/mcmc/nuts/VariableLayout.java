@@ -0,0 +1,134 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lays out the values of several double variables end to end in one double[]. Each variable takes up a block of
+ * the array that starts at its offset and is as long as the variable.
+ * <p>
+ * NUTS keeps position, momentum, velocity and gradient in this layout so that a leapfrog step is a handful of loops
+ * over arrays rather than a map of tensors per variable.
+ */
+public class VariableLayout {
+
+    private final List<VariableReference> variables;
+    private final Map<VariableReference, Integer> indices;
+    private final long[][] shapes;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    /**
+     * The total number of doubles across all variables
+     */
+    @Getter
+    private final int length;
+
+    /**
+     * @param shapeLike the variables to lay out, in the order they should appear, with a value of the right shape
+     */
+    public VariableLayout(Map<? extends VariableReference, DoubleTensor> shapeLike) {
+        this.variables = new ArrayList<>(shapeLike.keySet());
+        this.indices = new HashMap<>();
+        this.shapes = new long[variables.size()][];
+        this.offsets = new int[variables.size()];
+        this.lengths = new int[variables.size()];
+
+        int offset = 0;
+        for (int i = 0; i < variables.size(); i++) {
+            VariableReference variable = variables.get(i);
+            long[] shape = shapeLike.get(variable).getShape();
+
+            indices.put(variable, i);
+            shapes[i] = shape;
+            offsets[i] = offset;
+            lengths[i] = Ints.checkedCast(TensorShape.getLength(shape));
+            offset += lengths[i];
+        }
+
+        this.length = offset;
+    }
+
+    public List<VariableReference> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @param variable a variable in this layout
+     * @return the index of the first double of the variable
+     */
+    public int getOffset(VariableReference variable) {
+        return offsets[indexOf(variable)];
+    }
+
+    /**
+     * @param values the values of every variable in this layout
+     * @return the values laid out in a new array
+     */
+    public double[] pack(Map<? extends VariableReference, DoubleTensor> values) {
+        double[] packed = new double[length];
+        packInto(values, packed);
+        return packed;
+    }
+
+    /**
+     * @param values values for the variables in this layout. A variable with no value is filled with zeros.
+     * @param packed the array to lay the values out in
+     */
+    public void packInto(Map<? extends VariableReference, DoubleTensor> values, double[] packed) {
+        Preconditions.checkArgument(packed.length == length, "Expected an array of length %s but got %s", length, packed.length);
+
+        for (int i = 0; i < variables.size(); i++) {
+            DoubleTensor value = values.get(variables.get(i));
+
+            if (value == null) {
+                Arrays.fill(packed, offsets[i], offsets[i] + lengths[i], 0.0);
+            } else {
+                System.arraycopy(value.asFlatDoubleArray(), 0, packed, offsets[i], lengths[i]);
+            }
+        }
+    }
+
+    /**
+     * @param packed values laid out by this layout
+     * @return a tensor for each variable with a copy of its values
+     */
+    public Map<VariableReference, DoubleTensor> unpack(double[] packed) {
+        Map<VariableReference, DoubleTensor> values = new LinkedHashMap<>();
+        for (int i = 0; i < variables.size(); i++) {
+            values.put(variables.get(i), unpack(packed, i));
+        }
+        return values;
+    }
+
+    /**
+     * @param packed   values laid out by this layout
+     * @param variable a variable in this layout
+     * @return a tensor with a copy of the values of the variable
+     */
+    public DoubleTensor unpack(double[] packed, VariableReference variable) {
+        return unpack(packed, indexOf(variable));
+    }
+
+    private DoubleTensor unpack(double[] packed, int index) {
+        double[] values = Arrays.copyOfRange(packed, offsets[index], offsets[index] + lengths[index]);
+        return DoubleTensor.create(values, Arrays.copyOf(shapes[index], shapes[index].length));
+    }
+
+    private int indexOf(VariableReference variable) {
+        Integer index = indices.get(variable);
+        Preconditions.checkArgument(index != null, "Variable %s is not in this layout", variable);
+        return index;
+    }
+}
@@ -1,78 +1,50 @@
 package io.improbable.keanu.algorithms.mcmc.nuts;
 
-import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.tensor.dbl.DoubleTensor;
-
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
+/**
+ * Operations on the values of all variables laid out in one array by a {@link VariableLayout}.
+ */
 public class VariableValues {
 
     private VariableValues() {
     }
 
-    public static double dotProduct(Map<? extends VariableReference, DoubleTensor> left, Map<? extends VariableReference, DoubleTensor> right) {
+    public static double dotProduct(double[] left, double[] right) {
         double dotProduct = 0.0;
-        for (VariableReference v : left.keySet()) {
-            dotProduct += left.get(v).times(right.get(v)).sumNumber();
+        for (int i = 0; i < left.length; i++) {
+            dotProduct += left[i] * right[i];
         }
         return dotProduct;
     }
 
-    public static Map<VariableReference, DoubleTensor> pow(Map<VariableReference, DoubleTensor> values, double exponent) {
-        Map<VariableReference, DoubleTensor> result = new HashMap<>();
-        for (VariableReference v : values.keySet()) {
-            result.put(v, values.get(v).pow(exponent));
-        }
-        return result;
-    }
-
-    public static Map<VariableReference, DoubleTensor> divide(Map<VariableReference, DoubleTensor> left, double right) {
-        Map<VariableReference, DoubleTensor> result = new HashMap<>();
-        for (VariableReference v : left.keySet()) {
-            result.put(v, left.get(v).div(right));
-        }
-        return result;
-    }
-
-    public static Map<VariableReference, DoubleTensor> times(Map<VariableReference, DoubleTensor> left, double right) {
-        Map<VariableReference, DoubleTensor> result = new HashMap<>();
-        for (VariableReference v : left.keySet()) {
-            result.put(v, left.get(v).times(right));
+    public static double[] add(double[] left, double[] right) {
+        double[] result = new double[left.length];
+        for (int i = 0; i < left.length; i++) {
+            result[i] = left[i] + right[i];
         }
         return result;
     }
 
-    public static Map<VariableReference, DoubleTensor> times(Map<VariableReference, DoubleTensor> left, Map<VariableReference, DoubleTensor> right) {
-        Map<VariableReference, DoubleTensor> result = new HashMap<>();
-        for (VariableReference v : left.keySet()) {
-            result.put(v, left.get(v).times(right.get(v)));
+    /**
+     * Sets result to result + scale * values
+     *
+     * @param result the values to add to
+     * @param scale  the scale of the values being added
+     * @param values the values being added
+     */
+    public static void addScaledInPlace(double[] result, double scale, double[] values) {
+        for (int i = 0; i < result.length; i++) {
+            result[i] += scale * values[i];
         }
-        return result;
-    }
-
-    public static Map<VariableReference, DoubleTensor> add(Map<VariableReference, DoubleTensor> left, Map<VariableReference, DoubleTensor> right) {
-        Map<VariableReference, DoubleTensor> result = new HashMap<>();
-        for (VariableReference v : left.keySet()) {
-            result.put(v, left.get(v).plus(right.get(v)));
-        }
-        return result;
     }
 
-    public static Map<VariableReference, DoubleTensor> withShape(double value, Map<VariableReference, DoubleTensor> shapeLike) {
-        Map<VariableReference, DoubleTensor> result = new HashMap<>();
-        for (VariableReference v : shapeLike.keySet()) {
-            result.put(v, DoubleTensor.create(value, shapeLike.get(v).getShape()));
+    public static double[] withLength(double value, int length) {
+        double[] result = new double[length];
+        if (value != 0.0) {
+            Arrays.fill(result, value);
         }
         return result;
     }
 
-    public static Map<VariableReference, DoubleTensor> zeros(Map<VariableReference, DoubleTensor> shapeLike) {
-        return withShape(0.0, shapeLike);
-    }
-
-    public static Map<VariableReference, DoubleTensor> ones(Map<VariableReference, DoubleTensor> shapeLike) {
-        return withShape(1.0, shapeLike);
-    }
-
 }
@@ -1,13 +1,8 @@
 package io.improbable.keanu.algorithms.mcmc.nuts;
 
 import com.google.common.base.Preconditions;
-import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.tensor.dbl.DoubleTensor;
 
-import java.util.Map;
-
-import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.divide;
-import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.times;
+import java.util.Arrays;
 
 /**
  * Uses Welford's online algorithm for computing sample variance
@@ -15,45 +10,43 @@ import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.times;
 public class VarianceCalculator {
 
     private double count;
-    private Map<VariableReference, DoubleTensor> mean;
-    private Map<VariableReference, DoubleTensor> M2;
+    private final double[] mean;
+    private final double[] M2;
 
-    public VarianceCalculator(Map<VariableReference, DoubleTensor> initialMean,
-                              Map<VariableReference, DoubleTensor> initialVariance,
+    public VarianceCalculator(double[] initialMean,
+                              double[] initialVariance,
                               double initialWeight) {
         Preconditions.checkArgument(initialWeight >= 0.0, "Initial weight must be greater than or equal to 0");
         this.count = initialWeight;
-        this.mean = initialMean;
-        this.M2 = times(initialVariance, count);
+        this.mean = Arrays.copyOf(initialMean, initialMean.length);
+        this.M2 = new double[initialVariance.length];
+        for (int i = 0; i < M2.length; i++) {
+            M2[i] = initialVariance[i] * count;
+        }
     }
 
-    public void addSample(Map<VariableReference, DoubleTensor> sampleForLatents) {
+    public void addSample(double[] sample) {
 
         this.count += 1.0;
 
-        for (Map.Entry<VariableReference, DoubleTensor> sampleForVariable : sampleForLatents.entrySet()) {
-
-            final VariableReference v = sampleForVariable.getKey();
-            final DoubleTensor sample = sampleForVariable.getValue();
+        for (int i = 0; i < sample.length; i++) {
 
-            final DoubleTensor oldMean = mean.get(v);
+            final double delta = sample[i] - mean[i];
 
-            final DoubleTensor delta = sample.minus(oldMean);
+            mean[i] += delta / count;
 
-            final DoubleTensor newMean = oldMean.plus(delta.div(count));
+            final double delta2 = sample[i] - mean[i];
 
-            final DoubleTensor delta2 = sample.minus(newMean);
-
-            final DoubleTensor oldM2 = this.M2.get(v);
-            final DoubleTensor newM2 = oldM2.plus(delta.times(delta2));
-
-            mean.put(v, newMean);
-            M2.put(v, newM2);
+            M2[i] += delta * delta2;
         }
     }
 
-    public Map<VariableReference, DoubleTensor> calculateCurrentVariance() {
-        return divide(M2, count);
+    public double[] calculateCurrentVariance() {
+        double[] variance = new double[M2.length];
+        for (int i = 0; i < M2.length; i++) {
+            variance[i] = M2[i] / count;
+        }
+        return variance;
     }
 
 }
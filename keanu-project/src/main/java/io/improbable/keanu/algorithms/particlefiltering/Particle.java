@@ -1,7 +1,6 @@
 package io.improbable.keanu.algorithms.particlefiltering;
 
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
-import io.improbable.keanu.vertices.ProbabilityCalculator;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 
@@ -20,6 +19,15 @@ public class Particle {
     private List<Vertex> observedVertices = new ArrayList<>();
     private double sumLogPOfSubgraph = 1.0;
 
+    Particle() {
+    }
+
+    Particle(Map<Vertex, Object> latentVertices, List<Vertex> observedVertices, double sumLogPOfSubgraph) {
+        this.latentVertices = latentVertices;
+        this.observedVertices = new ArrayList<>(observedVertices);
+        this.sumLogPOfSubgraph = sumLogPOfSubgraph;
+    }
+
     public Map<Vertex, Object> getLatentVertices() {
         return latentVertices;
     }
@@ -47,12 +55,12 @@ public class Particle {
         observedVertices.add(vertex);
     }
 
-    double updateSumLogPOfSubgraph() {
-        applyLatentVertexValues();
-        double sumLogPOfLatents = ProbabilityCalculator.calculateLogProbFor(latentVertices.keySet());
-        double sumLogPOfObservables = ProbabilityCalculator.calculateLogProbFor(observedVertices);
-        sumLogPOfSubgraph = sumLogPOfLatents + sumLogPOfObservables;
-        return sumLogPOfSubgraph;
+    List<Vertex> getObservedVertices() {
+        return observedVertices;
+    }
+
+    void setSumLogPOfSubgraph(double sumLogPOfSubgraph) {
+        this.sumLogPOfSubgraph = sumLogPOfSubgraph;
     }
 
     Particle shallowCopy() {
@@ -65,15 +73,4 @@ public class Particle {
     static int sortDescending(Particle a, Particle b) {
         return Double.compare(b.logProb(), a.logProb());
     }
-
-    private void applyLatentVertexValues() {
-        latentVertices.keySet().forEach(this::applyLatentVertexValue);
-    }
-
-    private <T> void applyLatentVertexValue(Vertex<T, ?> vertex) {
-        if (latentVertices.containsKey(vertex)) {
-            T value = (T) latentVertices.get(vertex);
-            vertex.setAndCascade(value);
-        }
-    }
 }
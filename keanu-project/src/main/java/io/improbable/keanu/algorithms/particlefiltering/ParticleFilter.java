@@ -1,7 +1,8 @@
 package io.improbable.keanu.algorithms.particlefiltering;
 
+import com.google.common.base.Preconditions;
 import io.improbable.keanu.KeanuRandom;
-import io.improbable.keanu.vertices.Probabilistic;
+import io.improbable.keanu.algorithms.graphtraversal.TopologicalSort;
 import io.improbable.keanu.vertices.Vertex;
 
 import java.util.ArrayList;
@@ -9,6 +10,11 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
 
 
 /***
@@ -25,6 +31,10 @@ import java.util.Set;
  *
  * This methodology is similar to the Sequential Importance Resampling Algorithm described here
  * (https://www.lancaster.ac.uk/pg/turnerl/PartileFiltering.pdf).
+ *
+ * Particles can be moved forward in parallel. Vertices hold their values, so each thread needs its own copy of the
+ * graph to set a particle's values on. Copies are made by a graph factory, which should build the same graph in the
+ * same way as the original, and each thread samples from its own {@link KeanuRandom}.
  */
 public class ParticleFilter {
     private Collection<? extends Vertex> vertices;
@@ -32,7 +42,11 @@ public class ParticleFilter {
     private int resamplingCycles;
     private double resamplingProportion;
     private KeanuRandom random;
+    private int threadCount;
+    private IntFunction<? extends Collection<? extends Vertex>> graphFactory;
     private List<Particle> particles;
+    private List<ParticleWorker> workers;
+    private ForkJoinPool pool;
 
     /**
      * Creates a {@link ParticleFilterBuilder} by retrieving connected graph from the vertex
@@ -53,11 +67,40 @@ public class ParticleFilter {
                           int resamplingCycles,
                           double resamplingProportion,
                           KeanuRandom random) {
+        this(vertices, numParticles, resamplingCycles, resamplingProportion, random, 1, null);
+    }
+
+    /**
+     * @param vertices             the vertices of a Bayesian network to find probable values for
+     * @param numParticles         the number of particles to generate
+     * @param resamplingCycles     the number of times particles are culled and replicated per observation
+     * @param resamplingProportion the proportion of particles to cull
+     * @param random               source of randomness
+     * @param threadCount          the number of threads to move particles forward on
+     * @param graphFactory         given a thread index from 1 to threadCount - 1, returns the vertices of a new copy of
+     *                             the graph for that thread. The first thread uses the original graph. May be null if
+     *                             threadCount is 1.
+     */
+    public ParticleFilter(Collection<? extends Vertex> vertices,
+                          int numParticles,
+                          int resamplingCycles,
+                          double resamplingProportion,
+                          KeanuRandom random,
+                          int threadCount,
+                          IntFunction<? extends Collection<? extends Vertex>> graphFactory) {
+        Preconditions.checkArgument(threadCount > 0, "Thread count must be greater than 0");
+        Preconditions.checkArgument(
+            threadCount == 1 || graphFactory != null,
+            "A graph factory is needed to filter on more than one thread"
+        );
+
         this.vertices = vertices;
         this.numParticles = numParticles;
         this.resamplingCycles = resamplingCycles;
         this.resamplingProportion = resamplingProportion;
         this.random = random;
+        this.threadCount = threadCount;
+        this.graphFactory = graphFactory;
         sort();
     }
 
@@ -82,17 +125,39 @@ public class ParticleFilter {
         List<Vertex> observedVertexOrder = new ArrayList<>(obsVertIncrDependencies.keySet());
         List<Particle> particles = createEmptyParticles(this.numParticles);
 
-        for (int i = 0; i < observedVertexOrder.size(); i++) {
-            Vertex<?, ?> nextObsVertex = observedVertexOrder.get(i);
-            Set<Vertex> vertexDeps = obsVertIncrDependencies.get(nextObsVertex);
-            particles = updateParticles(nextObsVertex, vertexDeps, particles);
+        createWorkers();
+        try {
+            for (int i = 0; i < observedVertexOrder.size(); i++) {
+                Vertex<?, ?> nextObsVertex = observedVertexOrder.get(i);
+                List<Vertex> vertexDeps = TopologicalSort.sort(obsVertIncrDependencies.get(nextObsVertex));
+                particles = updateParticles(nextObsVertex, vertexDeps, particles);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
         }
 
         this.particles = particles;
     }
 
+    private void createWorkers() {
+        workers = new ArrayList<>();
+
+        if (threadCount == 1) {
+            workers.add(ParticleWorker.onOriginalGraph(random));
+            return;
+        }
+
+        workers.add(ParticleWorker.onOriginalGraph(random.split()));
+        for (int i = 1; i < threadCount; i++) {
+            workers.add(ParticleWorker.onCopiedGraph(vertices, graphFactory.apply(i), random.split()));
+        }
+        pool = new ForkJoinPool(threadCount);
+    }
+
     private List<Particle> updateParticles(Vertex<?, ?> nextObservedVertex,
-                                           Set<Vertex> vertexDeps,
+                                           List<Vertex> vertexDeps,
                                            List<Particle> particles) {
 
         List<Particle> updatedParticles = sampleAndCopy(particles, numParticles);
@@ -122,21 +187,41 @@ public class ParticleFilter {
 
     private void addObservedVertexToParticles(List<Particle> particles,
                                               Vertex<?, ?> observedVertex,
-                                              Set<Vertex> vertexDependencies) {
+                                              List<Vertex> vertexDependencies) {
 
-        for (Particle particle : particles) {
-            particle.addObservedVertex(observedVertex);
-            for (Vertex<?, ?> latentVertex : vertexDependencies) {
-                sampleValueAndAddToParticle(latentVertex, particle);
+        if (workers.size() == 1 || particles.size() < workers.size()) {
+            ParticleWorker worker = workers.get(0);
+            for (Particle particle : particles) {
+                worker.addObservedVertex(particle, observedVertex, vertexDependencies);
             }
+            return;
+        }
 
-            particle.updateSumLogPOfSubgraph();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int w = 0; w < workers.size(); w++) {
+            ParticleWorker worker = workers.get(w);
+            List<Particle> partition = particles.subList(
+                w * particles.size() / workers.size(),
+                (w + 1) * particles.size() / workers.size()
+            );
+            tasks.add(() -> {
+                for (Particle particle : partition) {
+                    worker.addObservedVertex(particle, observedVertex, vertexDependencies);
+                }
+                return null;
+            });
         }
-    }
 
-    private <T> void sampleValueAndAddToParticle(Vertex<T, ?> vertex, Particle particle) {
-        T sample = ((Probabilistic<T>) vertex).sample(random);
-        particle.addLatentVertex(vertex, sample);
+        try {
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for particles to move forward", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to move particles forward", e.getCause());
+        }
     }
 
     private List<Particle> removeWorstParticles(List<Particle> particles) {
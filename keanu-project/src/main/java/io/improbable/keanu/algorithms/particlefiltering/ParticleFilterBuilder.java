@@ -4,6 +4,7 @@ import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.vertices.Vertex;
 
 import java.util.Collection;
+import java.util.function.IntFunction;
 
 public class ParticleFilterBuilder {
 
@@ -11,7 +12,11 @@ public class ParticleFilterBuilder {
     private int numParticles = 1000;
     private int resamplingCycles = 3;
     private double resamplingProportion = 0.5;
+    private ResamplingMethod resamplingMethod = ResamplingMethod.SYSTEMATIC;
+    private double effectiveSampleSizeThreshold = 0.5;
     private KeanuRandom random = KeanuRandom.getDefaultRandom();
+    private int threadCount = 1;
+    private IntFunction<? extends Collection<? extends Vertex>> graphFactory;
 
     /**
      * @param vertices the vertices of a Bayesian network to find probable values for
@@ -59,7 +64,54 @@ public class ParticleFilterBuilder {
         return this;
     }
 
+    /**
+     * Moves particles forward on several threads. Each thread past the first sets particle values on its own copy of
+     * the graph, matched to the original by vertex creation order, and samples from its own lock-free stream split
+     * from the builder's random with {@link KeanuRandom#split()}.
+     *
+     * @param threadCount  the number of threads to move particles forward on
+     * @param graphFactory given a thread index from 1 to threadCount - 1, returns the vertices of a new copy of the
+     *                     graph built in the same way as the original, e.g. {@code i -> buildModel().getConnectedGraph()}
+     * @return this
+     */
+    public ParticleFilterBuilder withParallelism(int threadCount,
+                                                 IntFunction<? extends Collection<? extends Vertex>> graphFactory) {
+        this.threadCount = threadCount;
+        this.graphFactory = graphFactory;
+        return this;
+    }
+
+    /**
+     * @param resamplingMethod how a {@link VectorisedParticleFilter} chooses which particles survive resampling
+     * @return this
+     */
+    public ParticleFilterBuilder withResamplingMethod(ResamplingMethod resamplingMethod) {
+        this.resamplingMethod = resamplingMethod;
+        return this;
+    }
+
+    /**
+     * @param effectiveSampleSizeThreshold a {@link VectorisedParticleFilter} resamples its particles when their
+     *                                     effective sample size drops below this proportion of the number of
+     *                                     particles. 1.0 resamples after every observation.
+     * @return this
+     */
+    public ParticleFilterBuilder withEffectiveSampleSizeThreshold(double effectiveSampleSizeThreshold) {
+        this.effectiveSampleSizeThreshold = effectiveSampleSizeThreshold;
+        return this;
+    }
+
+    /**
+     * @return a particle filter that batches all particles into one tensor per latent vertex. The resampling cycles
+     * and proportion do not apply to it.
+     */
+    public VectorisedParticleFilter buildVectorised() {
+        return new VectorisedParticleFilter(vertices, numParticles, resamplingMethod, effectiveSampleSizeThreshold, random);
+    }
+
     public ParticleFilter build() {
-        return new ParticleFilter(vertices, numParticles, resamplingCycles, resamplingProportion, random);
+        return new ParticleFilter(
+            vertices, numParticles, resamplingCycles, resamplingProportion, random, threadCount, graphFactory
+        );
     }
 }
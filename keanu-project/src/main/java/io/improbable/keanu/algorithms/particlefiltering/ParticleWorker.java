@@ -0,0 +1,127 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
+import io.improbable.keanu.vertices.Probabilistic;
+import io.improbable.keanu.vertices.ProbabilityCalculator;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Moves particles forward on one copy of the graph. Particles keep their values keyed by the vertices of the original
+ * graph, so a worker looks up its own copy of each vertex before setting values or calculating log probs. A worker
+ * is only ever used by one thread at a time.
+ */
+class ParticleWorker {
+
+    private final Function<Vertex, Vertex> toLocal;
+    private final KeanuRandom random;
+
+    private ParticleWorker(Function<Vertex, Vertex> toLocal, KeanuRandom random) {
+        this.toLocal = toLocal;
+        this.random = random;
+    }
+
+    /**
+     * @param random source of randomness for sampling latent vertices
+     * @return a worker that uses the vertices of the original graph
+     */
+    static ParticleWorker onOriginalGraph(KeanuRandom random) {
+        return new ParticleWorker(Function.identity(), random);
+    }
+
+    /**
+     * Copies are matched to the original graph by creation order. Vertex ids are handed out in creation order, so
+     * sorting by id lines up the vertices of graphs built by the same code.
+     *
+     * @param original the vertices of the original graph
+     * @param copy     the vertices of a copy of the graph built in the same way
+     * @param random   source of randomness for sampling latent vertices
+     * @return a worker that uses the vertices of the copy
+     */
+    static ParticleWorker onCopiedGraph(Collection<? extends Vertex> original,
+                                        Collection<? extends Vertex> copy,
+                                        KeanuRandom random) {
+        Preconditions.checkArgument(
+            original.size() == copy.size(),
+            "The copy of the graph has %s vertices but the original has %s", copy.size(), original.size()
+        );
+
+        List<Vertex> originalById = sortedById(original);
+        List<Vertex> copyById = sortedById(copy);
+
+        Map<Vertex, Vertex> lookup = new HashMap<>();
+        for (int i = 0; i < originalById.size(); i++) {
+            Vertex originalVertex = originalById.get(i);
+            Vertex copyVertex = copyById.get(i);
+            Preconditions.checkArgument(
+                originalVertex.getClass().equals(copyVertex.getClass()),
+                "The copy of the graph does not match the original: %s is matched with %s", originalVertex, copyVertex
+            );
+            lookup.put(originalVertex, copyVertex);
+        }
+
+        return new ParticleWorker(lookup::get, random);
+    }
+
+    private static List<Vertex> sortedById(Collection<? extends Vertex> vertices) {
+        List<Vertex> sorted = new ArrayList<>(vertices);
+        sorted.sort(Comparator.comparing(Vertex::getId));
+        return sorted;
+    }
+
+    /**
+     * Samples the new latent vertices of a particle given the values it already has, adds the observed vertex and
+     * updates its log prob.
+     *
+     * @param particle          the particle to move forward
+     * @param observedVertex    the observed vertex to add
+     * @param newLatentVertices the latent vertices the observed vertex depends on, in topological order
+     */
+    void addObservedVertex(Particle particle, Vertex<?, ?> observedVertex, List<Vertex> newLatentVertices) {
+        applyLatentVertexValues(particle);
+
+        for (Vertex<?, ?> latentVertex : newLatentVertices) {
+            sampleValueAndAddToParticle(latentVertex, particle);
+        }
+
+        particle.addObservedVertex(observedVertex);
+
+        double sumLogPOfLatents = ProbabilityCalculator.calculateLogProbFor(local(particle.getLatentVertices().keySet()));
+        double sumLogPOfObservables = ProbabilityCalculator.calculateLogProbFor(local(particle.getObservedVertices()));
+        particle.setSumLogPOfSubgraph(sumLogPOfLatents + sumLogPOfObservables);
+    }
+
+    private void applyLatentVertexValues(Particle particle) {
+        List<Vertex> localLatents = new ArrayList<>();
+        for (Map.Entry<Vertex, Object> latent : particle.getLatentVertices().entrySet()) {
+            Vertex localVertex = toLocal.apply(latent.getKey());
+            localVertex.setValue(latent.getValue());
+            localLatents.add(localVertex);
+        }
+        VertexValuePropagation.cascadeUpdate(localLatents);
+    }
+
+    private <T> void sampleValueAndAddToParticle(Vertex<T, ?> vertex, Particle particle) {
+        Vertex<T, ?> localVertex = toLocal.apply(vertex);
+        T sample = ((Probabilistic<T>) localVertex).sample(random);
+        localVertex.setAndCascade(sample);
+        particle.addLatentVertex(vertex, sample);
+    }
+
+    private List<Vertex> local(Collection<? extends Vertex> vertices) {
+        List<Vertex> localVertices = new ArrayList<>(vertices.size());
+        for (Vertex vertex : vertices) {
+            localVertices.add(toLocal.apply(vertex));
+        }
+        return localVertices;
+    }
+}
@@ -0,0 +1,66 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import io.improbable.keanu.KeanuRandom;
+
+/**
+ * Ways of choosing which particles survive a resampling step. Both draw one ordered point per particle in [0, 1) and
+ * walk the cumulative weights once, so resampling N particles is O(N) with no sort.
+ * <p>
+ * https://arxiv.org/abs/cs/0507025 compares these with multinomial resampling.
+ */
+public enum ResamplingMethod {
+
+    /**
+     * One random offset shared by evenly spaced points. This has the lowest variance and uses a single random number.
+     */
+    SYSTEMATIC {
+        @Override
+        double[] points(int count, KeanuRandom random) {
+            final double offset = random.nextDouble();
+            double[] points = new double[count];
+            for (int i = 0; i < count; i++) {
+                points[i] = (i + offset) / count;
+            }
+            return points;
+        }
+    },
+
+    /**
+     * An independent random point in each of N evenly sized strata.
+     */
+    STRATIFIED {
+        @Override
+        double[] points(int count, KeanuRandom random) {
+            double[] points = new double[count];
+            for (int i = 0; i < count; i++) {
+                points[i] = (i + random.nextDouble()) / count;
+            }
+            return points;
+        }
+    };
+
+    abstract double[] points(int count, KeanuRandom random);
+
+    /**
+     * @param weights normalised weights that sum to one
+     * @param count   the number of particles to draw
+     * @param random  source of randomness
+     * @return the index of the particle that each of the drawn particles is a copy of, in ascending order
+     */
+    public int[] resample(double[] weights, int count, KeanuRandom random) {
+        final double[] points = points(count, random);
+        final int[] ancestors = new int[count];
+
+        int ancestor = 0;
+        double cumulativeWeight = weights[0];
+        for (int i = 0; i < count; i++) {
+            while (points[i] >= cumulativeWeight && ancestor < weights.length - 1) {
+                ancestor++;
+                cumulativeWeight += weights[ancestor];
+            }
+            ancestors[i] = ancestor;
+        }
+
+        return ancestors;
+    }
+}
@@ -0,0 +1,309 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.graphtraversal.TopologicalSort;
+import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
+import io.improbable.keanu.vertices.SamplableWithShape;
+import io.improbable.keanu.vertices.Vertex;
+import org.apache.commons.lang3.ArrayUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A particle filter that moves all of its particles through the graph at once.
+ * <p>
+ * Latent vertices are added to the filter in the same order as {@link ParticleFilter}. Rather than one map of values
+ * per particle, the value of a latent vertex for every particle lives in one tensor whose leading dimension is the
+ * particle index. The graph is cascaded once with these batched values, so the deterministic operations between
+ * vertices run on whole batches, and each probabilistic vertex gives the log prob of every particle at once with
+ * {@link ElementwiseLogProb}. When the effective sample size drops below a threshold the particles are resampled in
+ * O(N) with a {@link ResamplingMethod}.
+ * <p>
+ * Every probabilistic vertex must implement {@link ElementwiseLogProb} and latent vertices must also be
+ * {@link SamplableWithShape}. Operations between vertices must broadcast elementwise; operations that act on
+ * particular dimensions, such as sums over a dimension, reshapes or matrix multiplication, see the particle dimension
+ * as part of the value. The values of the latent vertices are put back as they were once filtering is done.
+ */
+public class VectorisedParticleFilter {
+
+    private final Collection<? extends Vertex> vertices;
+    private final int numParticles;
+    private final ResamplingMethod resamplingMethod;
+    private final double effectiveSampleSizeThreshold;
+    private final KeanuRandom random;
+
+    private final Map<Vertex, Tensor> particleValues = new LinkedHashMap<>();
+    private final List<Vertex> observedVertices = new ArrayList<>();
+    private double[] logWeights;
+    private double[] logProbs;
+    private int batchRank;
+
+    public VectorisedParticleFilter(Collection<? extends Vertex> vertices,
+                                    int numParticles,
+                                    ResamplingMethod resamplingMethod,
+                                    double effectiveSampleSizeThreshold,
+                                    KeanuRandom random) {
+        Preconditions.checkArgument(numParticles > 0, "Number of particles must be greater than 0");
+        Preconditions.checkArgument(
+            effectiveSampleSizeThreshold >= 0 && effectiveSampleSizeThreshold <= 1,
+            "Effective sample size threshold must be between 0 and 1"
+        );
+
+        this.vertices = vertices;
+        this.numParticles = numParticles;
+        this.resamplingMethod = resamplingMethod;
+        this.effectiveSampleSizeThreshold = effectiveSampleSizeThreshold;
+        this.random = random;
+        filter();
+    }
+
+    public int getNumParticles() {
+        return numParticles;
+    }
+
+    /**
+     * @param vertex a latent vertex that has been filtered
+     * @param <T>    the type of the value of the vertex
+     * @return the value of the vertex for every particle with the particle index as the leading dimension
+     */
+    public <T extends Tensor> T getParticleValues(Vertex<T, ?> vertex) {
+        Tensor batch = particleValues.get(vertex);
+        Preconditions.checkArgument(batch != null, "Vertex %s has not been filtered", vertex);
+        return (T) batch.reshape(ArrayUtils.insert(0, vertex.getShape(), numParticles));
+    }
+
+    /**
+     * @param vertex   a latent vertex that has been filtered
+     * @param particle the index of a particle
+     * @param <T>      the type of the value of the vertex
+     * @return the value of the vertex for the particle
+     */
+    public <T extends Tensor> T getParticleValue(Vertex<T, ?> vertex, int particle) {
+        Tensor batch = particleValues.get(vertex);
+        Preconditions.checkArgument(batch != null, "Vertex %s has not been filtered", vertex);
+        return (T) batch.slice(0, particle).reshape(vertex.getShape());
+    }
+
+    /**
+     * @return the log prob of the subgraph for each particle
+     */
+    public double[] getLogProbs() {
+        return Arrays.copyOf(logProbs, logProbs.length);
+    }
+
+    /**
+     * @return the normalised importance weight of each particle. These are all equal straight after resampling.
+     */
+    public double[] getWeights() {
+        return normalisedWeights(logWeights);
+    }
+
+    /**
+     * @return the particle with the highest log prob of the subgraph
+     */
+    public Particle getMostProbableParticle() {
+        int mostProbable = 0;
+        for (int i = 1; i < numParticles; i++) {
+            if (logProbs[i] > logProbs[mostProbable]) {
+                mostProbable = i;
+            }
+        }
+
+        Map<Vertex, Object> latentValues = new HashMap<>();
+        for (Vertex vertex : particleValues.keySet()) {
+            latentValues.put(vertex, getParticleValue(vertex, mostProbable));
+        }
+
+        return new Particle(latentValues, observedVertices, logProbs[mostProbable]);
+    }
+
+    private void filter() {
+        Map<Vertex, Set<Vertex>> obsVertIncrDependencies = LatentIncrementSort.sort(this.vertices);
+
+        batchRank = 0;
+        for (Vertex vertex : vertices) {
+            batchRank = Math.max(batchRank, vertex.getRank());
+        }
+
+        logWeights = new double[numParticles];
+        logProbs = new double[numParticles];
+
+        Map<Vertex, Object> originalValues = new HashMap<>();
+
+        try {
+            for (Map.Entry<Vertex, Set<Vertex>> increment : obsVertIncrDependencies.entrySet()) {
+                Vertex<?, ?> observedVertex = increment.getKey();
+
+                for (Vertex latentVertex : TopologicalSort.sort(increment.getValue())) {
+                    originalValues.putIfAbsent(latentVertex, latentVertex.getValue());
+                    sampleLatentVertex(latentVertex);
+                }
+
+                double[] observedLogProbs = perParticleLogProb(observedVertex);
+                for (int i = 0; i < numParticles; i++) {
+                    logProbs[i] += observedLogProbs[i];
+                    logWeights[i] += observedLogProbs[i];
+                }
+                observedVertices.add(observedVertex);
+
+                if (effectiveSampleSize(logWeights) < effectiveSampleSizeThreshold * numParticles) {
+                    resample();
+                }
+            }
+        } finally {
+            for (Map.Entry<Vertex, Object> original : originalValues.entrySet()) {
+                original.getKey().setValue(original.getValue());
+            }
+            VertexValuePropagation.cascadeUpdate(originalValues.keySet());
+        }
+    }
+
+    private void sampleLatentVertex(Vertex latentVertex) {
+        Preconditions.checkArgument(
+            latentVertex instanceof SamplableWithShape,
+            "Vectorised particle filtering needs latent vertices that can be sampled with a shape but %s cannot",
+            latentVertex
+        );
+
+        long[] batchShape = batchShape(latentVertex.getShape());
+        Tensor sample = (Tensor) ((SamplableWithShape) latentVertex).sampleWithShape(batchShape, random);
+
+        latentVertex.setAndCascade(sample);
+        particleValues.put(latentVertex, sample);
+
+        double[] latentLogProbs = perParticleLogProb(latentVertex);
+        for (int i = 0; i < numParticles; i++) {
+            logProbs[i] += latentLogProbs[i];
+        }
+    }
+
+    /**
+     * Pads the shape with ones up to the highest rank in the graph before adding the particle dimension, so that
+     * batched values of vertices with different ranks broadcast against each other.
+     */
+    private long[] batchShape(long[] shape) {
+        long[] batchShape = new long[batchRank + 1];
+        Arrays.fill(batchShape, 1L);
+        batchShape[0] = numParticles;
+        System.arraycopy(shape, 0, batchShape, batchShape.length - shape.length, shape.length);
+        return batchShape;
+    }
+
+    private double[] perParticleLogProb(Vertex<?, ?> vertex) {
+        Preconditions.checkArgument(
+            vertex instanceof ElementwiseLogProb,
+            "Vectorised particle filtering needs probabilistic vertices with an elementwise log prob but %s does not have one",
+            vertex
+        );
+
+        DoubleTensor elementwise = logProbOf((ElementwiseLogProb) vertex, vertex.getValue());
+
+        long[] shape = elementwise.getShape();
+        if (shape.length == batchRank + 1 && shape[0] == numParticles) {
+            return elementwise.reshape(numParticles, elementwise.getLength() / numParticles).sum(1).asFlatDoubleArray();
+        }
+
+        double[] logProb = new double[numParticles];
+        Arrays.fill(logProb, elementwise.sumNumber());
+        return logProb;
+    }
+
+    private static <T> DoubleTensor logProbOf(ElementwiseLogProb<T> vertex, Object value) {
+        return vertex.elementwiseLogProb((T) value);
+    }
+
+    private void resample() {
+        int[] ancestors = resamplingMethod.resample(normalisedWeights(logWeights), numParticles, random);
+
+        for (Map.Entry<Vertex, Tensor> entry : particleValues.entrySet()) {
+            Tensor resampled = take(entry.getValue(), ancestors);
+            entry.setValue(resampled);
+            entry.getKey().setValue(resampled);
+        }
+        VertexValuePropagation.cascadeUpdate(particleValues.keySet());
+
+        double[] resampledLogProbs = new double[numParticles];
+        for (int i = 0; i < numParticles; i++) {
+            resampledLogProbs[i] = logProbs[ancestors[i]];
+        }
+        logProbs = resampledLogProbs;
+        logWeights = new double[numParticles];
+    }
+
+    /**
+     * @return a batch made of the particles of the given batch at the given indices
+     */
+    private static Tensor take(Tensor batch, int[] indices) {
+        final long[] shape = batch.getShape();
+        final int particleLength = (int) (batch.getLength() / shape[0]);
+
+        if (batch instanceof DoubleTensor) {
+            double[] from = ((DoubleTensor) batch).asFlatDoubleArray();
+            double[] to = new double[indices.length * particleLength];
+            for (int i = 0; i < indices.length; i++) {
+                System.arraycopy(from, indices[i] * particleLength, to, i * particleLength, particleLength);
+            }
+            return DoubleTensor.create(to, shape);
+        } else if (batch instanceof IntegerTensor) {
+            int[] from = ((IntegerTensor) batch).asFlatIntegerArray();
+            int[] to = new int[indices.length * particleLength];
+            for (int i = 0; i < indices.length; i++) {
+                System.arraycopy(from, indices[i] * particleLength, to, i * particleLength, particleLength);
+            }
+            return IntegerTensor.create(to, shape);
+        } else if (batch instanceof BooleanTensor) {
+            boolean[] from = ((BooleanTensor) batch).asFlatBooleanArray();
+            boolean[] to = new boolean[indices.length * particleLength];
+            for (int i = 0; i < indices.length; i++) {
+                System.arraycopy(from, indices[i] * particleLength, to, i * particleLength, particleLength);
+            }
+            return BooleanTensor.create(to, shape);
+        }
+
+        throw new IllegalArgumentException("Cannot resample particles with values of type " + batch.getClass());
+    }
+
+    private static double[] normalisedWeights(double[] logWeights) {
+        double maxLogWeight = Double.NEGATIVE_INFINITY;
+        for (double logWeight : logWeights) {
+            maxLogWeight = Math.max(maxLogWeight, logWeight);
+        }
+
+        double[] weights = new double[logWeights.length];
+        if (maxLogWeight == Double.NEGATIVE_INFINITY) {
+            Arrays.fill(weights, 1.0 / weights.length);
+            return weights;
+        }
+
+        double sum = 0;
+        for (int i = 0; i < logWeights.length; i++) {
+            weights[i] = Math.exp(logWeights[i] - maxLogWeight);
+            sum += weights[i];
+        }
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= sum;
+        }
+        return weights;
+    }
+
+    private static double effectiveSampleSize(double[] logWeights) {
+        double sumOfSquares = 0;
+        for (double weight : normalisedWeights(logWeights)) {
+            sumOfSquares += weight * weight;
+        }
+        return 1.0 / sumOfSquares;
+    }
+}
@@ -0,0 +1,349 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.MultiChainNetworkSamples;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.SampleBlock;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.TensorShapeValidation;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Convergence diagnostics of the samples of one or more MCMC chains. For each element of every double, integer and
+ * boolean variable it calculates:
+ * <ul>
+ * <li>the split R-hat, which compares the variance within and between the two halves of every chain</li>
+ * <li>the effective sample size, with the autocorrelation truncated by Geyer's initial monotone sequence</li>
+ * <li>the Monte Carlo standard error of the mean</li>
+ * <li>the autocorrelation up to a maximum lag, estimated from all chains together</li>
+ * </ul>
+ * These are the estimators used by Stan, without rank normalisation. Each chain is cut to the length of the shortest
+ * one before it is split in half, and the middle sample of a chain with an odd length is not used. Autocovariances are
+ * calculated with a real FFT, and variables and their elements are calculated in parallel.
+ * <p>
+ * An element whose samples are all the same has NaN diagnostics.
+ */
+public class ConvergenceDiagnostics {
+
+    public static final int DEFAULT_AUTOCORRELATION_MAX_LAG = 20;
+
+    /**
+     * The fewest samples that each half of a split chain can have.
+     */
+    private static final int MIN_SPLIT_CHAIN_LENGTH = 4;
+
+    private final Map<VariableReference, VariableDiagnostics> diagnosticsByVariable;
+
+    private ConvergenceDiagnostics(Map<VariableReference, VariableDiagnostics> diagnosticsByVariable) {
+        this.diagnosticsByVariable = diagnosticsByVariable;
+    }
+
+    /**
+     * @param samples the samples to diagnose. If they are {@link MultiChainNetworkSamples} each of their chains is
+     *                treated as a separate chain, otherwise they are treated as one chain.
+     * @return the diagnostics of every double, integer and boolean variable in the samples
+     */
+    public static ConvergenceDiagnostics of(NetworkSamples samples) {
+        return of(samples, DEFAULT_AUTOCORRELATION_MAX_LAG);
+    }
+
+    public static ConvergenceDiagnostics of(NetworkSamples samples, int autocorrelationMaxLag) {
+        if (samples instanceof MultiChainNetworkSamples) {
+            return of(((MultiChainNetworkSamples) samples).getChains(), autocorrelationMaxLag);
+        }
+        return of(Collections.singletonList(samples), autocorrelationMaxLag);
+    }
+
+    /**
+     * @param chains                the samples of each chain, keyed by the same variable references
+     * @param autocorrelationMaxLag the largest lag to keep the autocorrelation of
+     * @return the diagnostics of every double, integer and boolean variable in the first chain
+     */
+    public static ConvergenceDiagnostics of(List<NetworkSamples> chains, int autocorrelationMaxLag) {
+        Preconditions.checkArgument(!chains.isEmpty(), "At least one chain is required.");
+        Preconditions.checkArgument(autocorrelationMaxLag >= 0, "Max lag must not be negative but was %s", autocorrelationMaxLag);
+
+        int chainLength = chains.stream().mapToInt(NetworkSamples::size).min().getAsInt();
+        Preconditions.checkArgument(chainLength / 2 >= MIN_SPLIT_CHAIN_LENGTH,
+            "Every chain needs at least %s samples but one has %s", 2 * MIN_SPLIT_CHAIN_LENGTH, chainLength);
+
+        NetworkSamples firstChain = chains.get(0);
+        List<VariableReference> references = firstChain.getVariableReferences().stream()
+            .filter(reference -> isNumeric(firstChain.getNetworkState(0).get(reference)))
+            .collect(toList());
+
+        Map<VariableReference, VariableDiagnostics> diagnosticsByVariable = references.parallelStream()
+            .collect(toMap(
+                reference -> reference,
+                reference -> diagnose(reference, chains, chainLength, autocorrelationMaxLag)
+            ));
+
+        return new ConvergenceDiagnostics(diagnosticsByVariable);
+    }
+
+    private static boolean isNumeric(Object sample) {
+        return sample instanceof DoubleTensor || sample instanceof IntegerTensor || sample instanceof BooleanTensor;
+    }
+
+    public Set<VariableReference> getVariableReferences() {
+        return Collections.unmodifiableSet(diagnosticsByVariable.keySet());
+    }
+
+    public VariableDiagnostics get(Variable<?, ?> variable) {
+        return get(variable.getReference());
+    }
+
+    public VariableDiagnostics get(VariableReference reference) {
+        VariableDiagnostics diagnostics = diagnosticsByVariable.get(reference);
+        Preconditions.checkArgument(diagnostics != null, "No diagnostics for %s", reference);
+        return diagnostics;
+    }
+
+    /**
+     * @return the largest R-hat of any element of any variable, ignoring NaN. Values close to 1, such as below 1.01,
+     * suggest that the chains have converged.
+     */
+    public double getMaxRHat() {
+        return diagnosticsByVariable.values().stream()
+            .flatMapToDouble(diagnostics -> Arrays.stream(diagnostics.rHat))
+            .filter(rHat -> !Double.isNaN(rHat))
+            .max()
+            .orElse(Double.NaN);
+    }
+
+    /**
+     * @return the smallest effective sample size of any element of any variable, ignoring NaN
+     */
+    public double getMinEffectiveSampleSize() {
+        return diagnosticsByVariable.values().stream()
+            .flatMapToDouble(diagnostics -> Arrays.stream(diagnostics.effectiveSampleSize))
+            .filter(ess -> !Double.isNaN(ess))
+            .min()
+            .orElse(Double.NaN);
+    }
+
+    private static VariableDiagnostics diagnose(VariableReference reference,
+                                                List<NetworkSamples> chains,
+                                                int chainLength,
+                                                int autocorrelationMaxLag) {
+        long[] sampleShape = null;
+        double[][] chainValues = new double[chains.size()][];
+        for (int c = 0; c < chains.size(); c++) {
+            SampleBlock block = chains.get(c).getSampleBlock(reference);
+            long[] blockShape = block.getShape();
+            long[] chainSampleShape = Arrays.copyOfRange(blockShape, 1, blockShape.length);
+            if (sampleShape == null) {
+                sampleShape = chainSampleShape;
+            }
+            Preconditions.checkArgument(Arrays.equals(sampleShape, chainSampleShape),
+                "Samples of %s have shape %s in chain %s but %s in chain 0",
+                reference, Arrays.toString(chainSampleShape), c, Arrays.toString(sampleShape)
+            );
+            chainValues[c] = block.asFlatDoubleArray();
+        }
+
+        int sampleLength = TensorShape.getLengthAsInt(sampleShape);
+        int splitLength = chainLength / 2;
+        int lagCount = Math.min(autocorrelationMaxLag, splitLength - 1) + 1;
+
+        VariableDiagnostics diagnostics = new VariableDiagnostics(sampleShape, sampleLength, lagCount);
+        RealFFT fft = new RealFFT(RealFFT.paddedLengthForAutocovariance(splitLength));
+
+        IntStream.range(0, sampleLength).parallel().forEach(element ->
+            diagnoseElement(chainValues, chainLength, splitLength, sampleLength, element, fft, diagnostics)
+        );
+
+        return diagnostics;
+    }
+
+    private static void diagnoseElement(double[][] chainValues, int chainLength, int splitLength, int sampleLength,
+                                        int element, RealFFT fft, VariableDiagnostics diagnostics) {
+        int splitCount = 2 * chainValues.length;
+
+        // The halves of every chain, one after another
+        double[] splitChains = new double[splitCount * splitLength];
+        for (int c = 0; c < chainValues.length; c++) {
+            int[] starts = {0, chainLength - splitLength};
+            for (int half = 0; half < 2; half++) {
+                int offset = (2 * c + half) * splitLength;
+                for (int i = 0; i < splitLength; i++) {
+                    splitChains[offset + i] = chainValues[c][(starts[half] + i) * sampleLength + element];
+                }
+            }
+        }
+
+        double[] meanAutocovariance = new double[splitLength];
+        double[] splitMeans = new double[splitCount];
+        double meanOfSplitVariances = 0.0;
+
+        for (int s = 0; s < splitCount; s++) {
+            int offset = s * splitLength;
+            double mean = 0.0;
+            for (int i = 0; i < splitLength; i++) {
+                mean += splitChains[offset + i];
+            }
+            mean /= splitLength;
+            splitMeans[s] = mean;
+
+            double[] autocovariance = fft.autocovariance(splitChains, offset, splitLength, mean);
+            for (int lag = 0; lag < splitLength; lag++) {
+                meanAutocovariance[lag] += autocovariance[lag] / splitCount;
+            }
+            meanOfSplitVariances += autocovariance[0] * splitLength / (splitLength - 1.0) / splitCount;
+        }
+
+        double meanOfMeans = 0.0;
+        for (double splitMean : splitMeans) {
+            meanOfMeans += splitMean / splitCount;
+        }
+        double varianceOfMeans = 0.0;
+        for (double splitMean : splitMeans) {
+            varianceOfMeans += (splitMean - meanOfMeans) * (splitMean - meanOfMeans) / (splitCount - 1.0);
+        }
+
+        double withinVariance = meanOfSplitVariances;
+        double pooledVariance = withinVariance * (splitLength - 1.0) / splitLength + varianceOfMeans;
+
+        diagnostics.mean[element] = meanOfMeans;
+
+        if (!(withinVariance > 0)) {
+            diagnostics.rHat[element] = Double.NaN;
+            diagnostics.effectiveSampleSize[element] = Double.NaN;
+            diagnostics.monteCarloStandardError[element] = Double.NaN;
+            Arrays.fill(diagnostics.autocorrelation[element], Double.NaN);
+            return;
+        }
+
+        double[] autocorrelation = new double[splitLength];
+        autocorrelation[0] = 1.0;
+        for (int lag = 1; lag < splitLength; lag++) {
+            autocorrelation[lag] = 1.0 - (withinVariance - meanAutocovariance[lag]) / pooledVariance;
+        }
+
+        double effectiveSampleSize = effectiveSampleSize(autocorrelation, splitCount * splitLength);
+
+        diagnostics.rHat[element] = Math.sqrt(pooledVariance / withinVariance);
+        diagnostics.effectiveSampleSize[element] = effectiveSampleSize;
+        diagnostics.monteCarloStandardError[element] = Math.sqrt(pooledVariance / effectiveSampleSize);
+        System.arraycopy(autocorrelation, 0, diagnostics.autocorrelation[element], 0, diagnostics.autocorrelation[element].length);
+    }
+
+    /**
+     * Sums the autocorrelation in pairs of lags until a pair sums to less than zero, with each pair capped at the
+     * sum of the pair before it so the sums never increase (Geyer's initial monotone sequence).
+     *
+     * @param autocorrelation the autocorrelation of the split chains at every lag, starting at 1 at lag 0
+     * @param sampleCount     the number of samples in all split chains together
+     * @return the effective sample size
+     */
+    private static double effectiveSampleSize(double[] autocorrelation, int sampleCount) {
+        int length = autocorrelation.length;
+        double[] truncated = new double[length];
+        truncated[0] = autocorrelation[0];
+        truncated[1] = autocorrelation[1];
+
+        double even = autocorrelation[0];
+        double odd = autocorrelation[1];
+        int lastLag = 1;
+        while (lastLag < length - 4 && even + odd > 0) {
+            even = autocorrelation[lastLag + 1];
+            odd = autocorrelation[lastLag + 2];
+            if (even + odd >= 0) {
+                truncated[lastLag + 1] = even;
+                truncated[lastLag + 2] = odd;
+            }
+            lastLag += 2;
+        }
+
+        if (even > 0) {
+            truncated[lastLag + 1] = even;
+        }
+
+        for (int lag = 1; lag <= lastLag - 3; lag += 2) {
+            double pairSum = truncated[lag + 1] + truncated[lag + 2];
+            double previousPairSum = truncated[lag - 1] + truncated[lag];
+            if (pairSum > previousPairSum) {
+                truncated[lag + 1] = previousPairSum / 2;
+                truncated[lag + 2] = previousPairSum / 2;
+            }
+        }
+
+        double sum = 0.0;
+        for (int lag = 0; lag < lastLag; lag++) {
+            sum += truncated[lag];
+        }
+        double autocorrelationTime = -1 + 2 * sum + truncated[lastLag + 1];
+        autocorrelationTime = Math.max(autocorrelationTime, 1 / Math.log10(sampleCount));
+
+        return sampleCount / autocorrelationTime;
+    }
+
+    /**
+     * The diagnostics of each element of one variable.
+     */
+    public static class VariableDiagnostics {
+
+        private final long[] shape;
+        private final double[] mean;
+        private final double[] rHat;
+        private final double[] effectiveSampleSize;
+        private final double[] monteCarloStandardError;
+        private final double[][] autocorrelation;
+
+        private VariableDiagnostics(long[] shape, int length, int lagCount) {
+            this.shape = shape;
+            this.mean = new double[length];
+            this.rHat = new double[length];
+            this.effectiveSampleSize = new double[length];
+            this.monteCarloStandardError = new double[length];
+            this.autocorrelation = new double[length][lagCount];
+        }
+
+        public DoubleTensor getMean() {
+            return DoubleTensor.create(mean.clone(), shape);
+        }
+
+        public DoubleTensor getRHat() {
+            return DoubleTensor.create(rHat.clone(), shape);
+        }
+
+        public DoubleTensor getEffectiveSampleSize() {
+            return DoubleTensor.create(effectiveSampleSize.clone(), shape);
+        }
+
+        /**
+         * @return an estimate of the standard deviation of the sample mean around the true mean
+         */
+        public DoubleTensor getMonteCarloStandardError() {
+            return DoubleTensor.create(monteCarloStandardError.clone(), shape);
+        }
+
+        /**
+         * @param index the tensor index to get the autocorrelation of
+         * @return the autocorrelation at lags from 0 up to the max lag, or one less than the length of half a chain
+         * if that is smaller
+         */
+        public DoubleTensor getAutocorrelation(long... index) {
+            int flatIndex = 0;
+            if (shape.length > 0) {
+                TensorShapeValidation.checkIndexIsValid(shape, index);
+                flatIndex = (int) TensorShape.getFlatIndex(shape, TensorShape.getRowFirstStride(shape), index);
+            }
+            return DoubleTensor.create(autocorrelation[flatIndex].clone());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Keeps the running mean, variance and, optionally, covariance of a stream of vectors using Welford's algorithm.
+ * Memory use does not grow with the number of vectors added.
+ */
+public class OnlineCovariance {
+
+    private final int length;
+    private final double[] means;
+    private final double[] sumsOfSquaredDeviations;
+    private final double[] coMoments;
+    private final double[] deltas;
+    private long count;
+
+    /**
+     * @param length          the length of each vector
+     * @param trackCovariance whether to keep the covariance between elements, which needs length * length doubles
+     */
+    public OnlineCovariance(int length, boolean trackCovariance) {
+        this.length = length;
+        this.means = new double[length];
+        this.sumsOfSquaredDeviations = new double[length];
+        this.coMoments = trackCovariance ? new double[length * length] : null;
+        this.deltas = new double[length];
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isTrackingCovariance() {
+        return coMoments != null;
+    }
+
+    public void add(double[] values) {
+        Preconditions.checkArgument(values.length == length,
+            "Expected a vector of length %s but got %s", length, values.length);
+
+        count++;
+        for (int i = 0; i < length; i++) {
+            deltas[i] = values[i] - means[i];
+            means[i] += deltas[i] / count;
+            sumsOfSquaredDeviations[i] += deltas[i] * (values[i] - means[i]);
+        }
+
+        if (coMoments != null) {
+            for (int i = 0; i < length; i++) {
+                for (int j = 0; j < length; j++) {
+                    coMoments[i * length + j] += deltas[i] * (values[j] - means[j]);
+                }
+            }
+        }
+    }
+
+    public double[] getMeans() {
+        checkNotEmpty();
+        return means.clone();
+    }
+
+    /**
+     * @return the unbiased sample variance of each element
+     */
+    public double[] getVariances() {
+        checkNotEmpty();
+        double[] variances = new double[length];
+        for (int i = 0; i < length; i++) {
+            variances[i] = sumsOfSquaredDeviations[i] / (count - 1);
+        }
+        return variances;
+    }
+
+    /**
+     * @return the unbiased sample covariance matrix, flattened row first
+     */
+    public double[] getCovariance() {
+        checkNotEmpty();
+        if (coMoments == null) {
+            throw new IllegalStateException("Covariance is not being tracked");
+        }
+
+        double[] covariance = new double[length * length];
+        for (int i = 0; i < covariance.length; i++) {
+            covariance[i] = coMoments[i] / (count - 1);
+        }
+        return covariance;
+    }
+
+    private void checkNotEmpty() {
+        if (count == 0) {
+            throw new IllegalStateException("No values have been added");
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.algorithms.SampleSink;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.NumberTensor;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.TensorShapeValidation;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link SampleSink} that keeps running statistics of every variable in the samples it is given, so that
+ * long chains can be summarised without keeping their samples. For each element of each variable it keeps:
+ * <ul>
+ * <li>the mean and variance, and optionally the covariance between the elements of the variable</li>
+ * <li>P-square estimates of the requested quantiles</li>
+ * <li>the autocorrelation up to a maximum lag</li>
+ * </ul>
+ * Memory use depends on the size of the variables and not on the number of samples. Boolean samples are
+ * treated as 0 or 1.
+ */
+public class OnlineStatistics implements SampleSink {
+
+    private final double[] quantileProbabilities;
+
+    @Getter
+    private final int autocorrelationMaxLag;
+
+    @Getter
+    private final boolean trackingCovariance;
+
+    private final Map<VariableReference, VariableStatistics> statisticsByVariable = new HashMap<>();
+
+    @Getter
+    private long sampleCount = 0;
+
+    private OnlineStatistics(double[] quantileProbabilities, int autocorrelationMaxLag, boolean trackingCovariance) {
+        this.quantileProbabilities = quantileProbabilities;
+        this.autocorrelationMaxLag = autocorrelationMaxLag;
+        this.trackingCovariance = trackingCovariance;
+    }
+
+    public static OnlineStatisticsBuilder builder() {
+        return new OnlineStatisticsBuilder();
+    }
+
+    @Override
+    public void accept(NetworkSample sample) {
+        for (VariableReference reference : sample.getVariableReferences()) {
+            Object value = sample.get(reference);
+            statisticsByVariable
+                .computeIfAbsent(reference, r -> new VariableStatistics(shapeOf(r, value)))
+                .add(reference, value);
+        }
+        sampleCount++;
+    }
+
+    public Set<VariableReference> getVariableReferences() {
+        return statisticsByVariable.keySet();
+    }
+
+    public double[] getQuantileProbabilities() {
+        return quantileProbabilities.clone();
+    }
+
+    public DoubleTensor getMean(Variable<?, ?> variable) {
+        return getMean(variable.getReference());
+    }
+
+    public DoubleTensor getMean(VariableReference reference) {
+        VariableStatistics statistics = statisticsFor(reference);
+        return DoubleTensor.create(statistics.moments.getMeans(), statistics.shape);
+    }
+
+    public DoubleTensor getVariance(Variable<?, ?> variable) {
+        return getVariance(variable.getReference());
+    }
+
+    public DoubleTensor getVariance(VariableReference reference) {
+        VariableStatistics statistics = statisticsFor(reference);
+        return DoubleTensor.create(statistics.moments.getVariances(), statistics.shape);
+    }
+
+    public DoubleTensor getCovariance(Variable<?, ?> variable) {
+        return getCovariance(variable.getReference());
+    }
+
+    /**
+     * @param reference the variable to get the covariance of
+     * @return the covariance between the elements of the variable as a matrix of shape [length, length]
+     * @throws IllegalStateException if this was not built with {@link OnlineStatisticsBuilder#trackingCovariance(boolean)}
+     */
+    public DoubleTensor getCovariance(VariableReference reference) {
+        Preconditions.checkState(trackingCovariance,
+            "Covariance is not being tracked. Build with trackingCovariance(true) to keep it.");
+        VariableStatistics statistics = statisticsFor(reference);
+        long length = statistics.moments.getMeans().length;
+        return DoubleTensor.create(statistics.moments.getCovariance(), length, length);
+    }
+
+    public DoubleTensor getQuantile(Variable<?, ?> variable, double probability) {
+        return getQuantile(variable.getReference(), probability);
+    }
+
+    /**
+     * @param reference   the variable to get the quantile of
+     * @param probability one of the probabilities that this was built with
+     * @return the estimated quantile of each element of the variable
+     */
+    public DoubleTensor getQuantile(VariableReference reference, double probability) {
+        VariableStatistics statistics = statisticsFor(reference);
+        int quantileIndex = -1;
+        for (int i = 0; i < quantileProbabilities.length; i++) {
+            if (quantileProbabilities[i] == probability) {
+                quantileIndex = i;
+            }
+        }
+        Preconditions.checkArgument(quantileIndex >= 0,
+            "Quantile %s is not being tracked. Tracked quantiles are %s",
+            probability, Arrays.toString(quantileProbabilities)
+        );
+
+        double[] quantiles = new double[statistics.quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            quantiles[i] = statistics.quantiles[i][quantileIndex].getQuantile();
+        }
+        return DoubleTensor.create(quantiles, statistics.shape);
+    }
+
+    public DoubleTensor getAutocorrelation(Variable<?, ?> variable, long... index) {
+        return getAutocorrelation(variable.getReference(), index);
+    }
+
+    /**
+     * @param reference the variable to get the autocorrelation of
+     * @param index     the tensor index to get the autocorrelation of
+     * @return the autocorrelation at lags from 0 up to the max lag, or one less than the sample count if that is smaller
+     */
+    public DoubleTensor getAutocorrelation(VariableReference reference, long... index) {
+        VariableStatistics statistics = statisticsFor(reference);
+        long[] shape = statistics.shape;
+        int flatIndex = 0;
+        if (shape.length > 0) {
+            TensorShapeValidation.checkIndexIsValid(shape, index);
+            flatIndex = (int) TensorShape.getFlatIndex(shape, TensorShape.getRowFirstStride(shape), index);
+        }
+        return DoubleTensor.create(statistics.autocorrelations[flatIndex].getAutocorrelation());
+    }
+
+    private VariableStatistics statisticsFor(VariableReference reference) {
+        VariableStatistics statistics = statisticsByVariable.get(reference);
+        Preconditions.checkArgument(statistics != null, "No samples have been seen for %s", reference);
+        return statistics;
+    }
+
+    private static long[] shapeOf(VariableReference reference, Object value) {
+        if (value instanceof Tensor) {
+            return ((Tensor<?, ?>) value).getShape();
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return new long[0];
+        }
+        throw new IllegalArgumentException(
+            "Cannot keep statistics of " + reference + " with samples of type " + (value == null ? null : value.getClass())
+        );
+    }
+
+    private static double[] toDoubles(Object value) {
+        if (value instanceof NumberTensor) {
+            return ((NumberTensor<?, ?>) value).asFlatDoubleArray();
+        } else if (value instanceof BooleanTensor) {
+            return ((BooleanTensor) value).asFlatDoubleArray();
+        } else if (value instanceof Number) {
+            return new double[]{((Number) value).doubleValue()};
+        } else if (value instanceof Boolean) {
+            return new double[]{(Boolean) value ? 1.0 : 0.0};
+        }
+        return null;
+    }
+
+    private class VariableStatistics {
+
+        private final long[] shape;
+        private final OnlineCovariance moments;
+        private final P2Quantile[][] quantiles;
+        private final StreamingAutocorrelation[] autocorrelations;
+
+        VariableStatistics(long[] shape) {
+            this.shape = shape;
+            int length = TensorShape.getLengthAsInt(shape);
+            this.moments = new OnlineCovariance(length, trackingCovariance);
+            this.quantiles = new P2Quantile[length][quantileProbabilities.length];
+            this.autocorrelations = new StreamingAutocorrelation[length];
+
+            for (int i = 0; i < length; i++) {
+                for (int q = 0; q < quantileProbabilities.length; q++) {
+                    quantiles[i][q] = new P2Quantile(quantileProbabilities[q]);
+                }
+                autocorrelations[i] = new StreamingAutocorrelation(autocorrelationMaxLag);
+            }
+        }
+
+        void add(VariableReference reference, Object value) {
+            double[] values = toDoubles(value);
+            Preconditions.checkArgument(values != null && values.length == autocorrelations.length,
+                "Sample of %s does not match the shape %s of its first sample", reference, Arrays.toString(shape));
+
+            moments.add(values);
+            for (int i = 0; i < values.length; i++) {
+                for (P2Quantile quantile : quantiles[i]) {
+                    quantile.add(values[i]);
+                }
+                autocorrelations[i].add(values[i]);
+            }
+        }
+    }
+
+    public static class OnlineStatisticsBuilder {
+
+        private double[] quantileProbabilities = new double[]{0.025, 0.5, 0.975};
+        private int autocorrelationMaxLag = 100;
+        private boolean trackingCovariance = false;
+
+        OnlineStatisticsBuilder() {
+        }
+
+        /**
+         * @param probabilities the probabilities of the quantiles to estimate. Defaults to 0.025, 0.5 and 0.975.
+         * @return this builder
+         */
+        public OnlineStatisticsBuilder quantiles(double... probabilities) {
+            for (double probability : probabilities) {
+                Preconditions.checkArgument(probability >= 0 && probability <= 1,
+                    "Quantile probability must be between 0 and 1 but was %s", probability);
+            }
+            this.quantileProbabilities = probabilities.clone();
+            return this;
+        }
+
+        /**
+         * @param autocorrelationMaxLag the largest lag to keep the autocorrelation for. Defaults to 100.
+         * @return this builder
+         */
+        public OnlineStatisticsBuilder autocorrelationMaxLag(int autocorrelationMaxLag) {
+            Preconditions.checkArgument(autocorrelationMaxLag >= 0,
+                "Max lag must not be negative but was %s", autocorrelationMaxLag);
+            this.autocorrelationMaxLag = autocorrelationMaxLag;
+            return this;
+        }
+
+        /**
+         * @param trackingCovariance whether to keep the covariance between the elements of each variable, which
+         *                           takes memory and time per sample proportional to the square of the size of the
+         *                           variable. Defaults to false.
+         * @return this builder
+         */
+        public OnlineStatisticsBuilder trackingCovariance(boolean trackingCovariance) {
+            this.trackingCovariance = trackingCovariance;
+            return this;
+        }
+
+        public OnlineStatistics build() {
+            return new OnlineStatistics(quantileProbabilities, autocorrelationMaxLag, trackingCovariance);
+        }
+    }
+}
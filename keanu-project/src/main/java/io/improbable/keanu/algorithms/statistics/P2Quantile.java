@@ -0,0 +1,137 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Estimates a quantile of a stream of values in constant memory using the P-square algorithm of
+ * Jain and Chlamtac, "The P2 algorithm for dynamic calculation of quantiles and histograms without storing
+ * observations" (1985).
+ * <p>
+ * Five markers are kept: the minimum, the maximum, the estimated quantile and the estimated quantiles half way
+ * between it and the extremes. Each new value moves the markers towards their desired positions with a
+ * piecewise-parabolic fit.
+ */
+public class P2Quantile {
+
+    private static final int MARKERS = 5;
+
+    private final double probability;
+    private final double[] heights = new double[MARKERS];
+    private final double[] positions = new double[MARKERS];
+    private final double[] desiredPositions;
+    private final double[] desiredPositionIncrements;
+    private long count;
+
+    /**
+     * @param probability the probability of the quantile to estimate, e.g. 0.5 for the median
+     */
+    public P2Quantile(double probability) {
+        Preconditions.checkArgument(probability >= 0 && probability <= 1,
+            "Quantile probability must be between 0 and 1 but was %s", probability);
+        this.probability = probability;
+        this.desiredPositions = new double[]{0, 2 * probability, 4 * probability, 2 + 2 * probability, 4};
+        this.desiredPositionIncrements = new double[]{0, probability / 2, probability, (1 + probability) / 2, 1};
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void add(double value) {
+        if (count < MARKERS) {
+            heights[(int) count] = value;
+            count++;
+            if (count == MARKERS) {
+                Arrays.sort(heights);
+                for (int i = 0; i < MARKERS; i++) {
+                    positions[i] = i;
+                }
+            }
+            return;
+        }
+
+        count++;
+        int cell = findCell(value);
+
+        for (int i = cell + 1; i < MARKERS; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < MARKERS; i++) {
+            desiredPositions[i] += desiredPositionIncrements[i];
+        }
+
+        for (int i = 1; i < MARKERS - 1; i++) {
+            adjustMarker(i);
+        }
+    }
+
+    /**
+     * @return the estimated quantile. This is exact while fewer than five values have been added.
+     * @throws IllegalStateException if no values have been added
+     */
+    public double getQuantile() {
+        if (count == 0) {
+            throw new IllegalStateException("Cannot estimate the quantile of no values");
+        }
+
+        if (count < MARKERS) {
+            double[] sorted = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(sorted);
+            double position = probability * (count - 1);
+            int below = (int) Math.floor(position);
+            int above = (int) Math.ceil(position);
+            return sorted[below] + (position - below) * (sorted[above] - sorted[below]);
+        }
+
+        return heights[2];
+    }
+
+    private int findCell(double value) {
+        if (value < heights[0]) {
+            heights[0] = value;
+            return 0;
+        } else if (value >= heights[MARKERS - 1]) {
+            heights[MARKERS - 1] = value;
+            return MARKERS - 2;
+        }
+
+        int cell = 0;
+        while (value >= heights[cell + 1]) {
+            cell++;
+        }
+        return cell;
+    }
+
+    private void adjustMarker(int i) {
+        double offset = desiredPositions[i] - positions[i];
+
+        if ((offset >= 1 && positions[i + 1] - positions[i] > 1) || (offset <= -1 && positions[i - 1] - positions[i] < -1)) {
+            int direction = offset > 0 ? 1 : -1;
+
+            double candidate = parabolic(i, direction);
+            if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                heights[i] = candidate;
+            } else {
+                heights[i] = linear(i, direction);
+            }
+            positions[i] += direction;
+        }
+    }
+
+    private double parabolic(int i, int direction) {
+        return heights[i] + direction / (positions[i + 1] - positions[i - 1]) * (
+            (positions[i] - positions[i - 1] + direction) * (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i]) +
+                (positions[i + 1] - positions[i] - direction) * (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1])
+        );
+    }
+
+    private double linear(int i, int direction) {
+        return heights[i] + direction * (heights[i + direction] - heights[i]) / (positions[i + direction] - positions[i]);
+    }
+}
@@ -0,0 +1,227 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A fast Fourier transform of real values of one power of two length, working on primitive arrays.
+ * <p>
+ * A real series of length n is transformed as a complex series of length n / 2, with the even values as the real
+ * parts and the odd values as the imaginary parts, and then untangled into the first n / 2 + 1 terms of its spectrum.
+ * The rest of the spectrum of a real series is the conjugate of those terms, so it is not kept.
+ * <p>
+ * The twiddle factors are calculated once when the transform is created. A transform holds no other state, so one
+ * can be shared by many threads.
+ */
+public class RealFFT {
+
+    private final int length;
+    private final int halfLength;
+
+    /**
+     * The cosine and sine of -2 pi k / length for k from 0 to halfLength.
+     */
+    private final double[] cos;
+    private final double[] sin;
+
+    private final int[] bitReversed;
+
+    /**
+     * @param length the length of the series to transform, which must be a power of two and at least 2
+     */
+    public RealFFT(int length) {
+        Preconditions.checkArgument(length >= 2 && Integer.bitCount(length) == 1,
+            "FFT length must be a power of two and at least 2 but was %s", length);
+
+        this.length = length;
+        this.halfLength = length / 2;
+        this.cos = new double[halfLength + 1];
+        this.sin = new double[halfLength + 1];
+        for (int k = 0; k <= halfLength; k++) {
+            double angle = -2 * Math.PI * k / length;
+            cos[k] = Math.cos(angle);
+            sin[k] = Math.sin(angle);
+        }
+
+        this.bitReversed = new int[halfLength];
+        int bits = Integer.numberOfTrailingZeros(halfLength);
+        for (int i = 0; i < halfLength; i++) {
+            bitReversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (Integer.SIZE - bits);
+        }
+    }
+
+    /**
+     * @param length the length of a series
+     * @return the smallest FFT length that a series of this length can be zero padded to without its autocovariance
+     * wrapping around
+     */
+    public static int paddedLengthForAutocovariance(int length) {
+        return Math.max(2, Integer.highestOneBit(2 * length - 1) << 1);
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Calculates the autocovariance of a series divided by its length, at every lag from 0 to the series length - 1,
+     * by zero padding the series, transforming it, taking the squared magnitude of the spectrum and transforming back.
+     *
+     * @param values the values of the series, which are not changed
+     * @param from   the index of the first value of the series
+     * @param count  the length of the series, which must be at most half the length of this transform
+     * @param mean   the value to subtract from each value of the series
+     * @return the autocovariance at each lag
+     */
+    public double[] autocovariance(double[] values, int from, int count, double mean) {
+        Preconditions.checkArgument(2 * count <= length, "Series of length %s is too long for FFT length %s", count, length);
+
+        double[] real = new double[halfLength + 1];
+        double[] imaginary = new double[halfLength + 1];
+
+        for (int i = 0; i < count; i++) {
+            double value = values[from + i] - mean;
+            if ((i & 1) == 0) {
+                real[i >> 1] = value;
+            } else {
+                imaginary[i >> 1] = value;
+            }
+        }
+
+        forward(real, imaginary);
+        for (int k = 0; k <= halfLength; k++) {
+            real[k] = real[k] * real[k] + imaginary[k] * imaginary[k];
+            imaginary[k] = 0;
+        }
+        inverse(real, imaginary);
+
+        double[] autocovariance = new double[count];
+        for (int lag = 0; lag < count; lag++) {
+            double product = (lag & 1) == 0 ? real[lag >> 1] : imaginary[lag >> 1];
+            autocovariance[lag] = product / count;
+        }
+        return autocovariance;
+    }
+
+    /**
+     * Transforms a real series in place into the first halfLength + 1 terms of its spectrum.
+     *
+     * @param real      the even values of the series in the first halfLength elements, replaced by the real parts
+     *                  of the spectrum
+     * @param imaginary the odd values of the series in the first halfLength elements, replaced by the imaginary
+     *                  parts of the spectrum
+     */
+    public void forward(double[] real, double[] imaginary) {
+        complexTransform(real, imaginary, false);
+
+        real[halfLength] = real[0];
+        imaginary[halfLength] = imaginary[0];
+
+        for (int k = 0; k <= halfLength / 2; k++) {
+            int j = halfLength - k;
+
+            double evenReal = 0.5 * (real[k] + real[j]);
+            double evenImaginary = 0.5 * (imaginary[k] - imaginary[j]);
+            double oddReal = 0.5 * (imaginary[k] + imaginary[j]);
+            double oddImaginary = -0.5 * (real[k] - real[j]);
+
+            double twiddledReal = cos[k] * oddReal - sin[k] * oddImaginary;
+            double twiddledImaginary = cos[k] * oddImaginary + sin[k] * oddReal;
+
+            // The even and odd parts at j are the conjugates of those at k, and the twiddle at j is -conj(twiddle at k)
+            double mirroredTwiddledReal = -cos[k] * oddReal + sin[k] * oddImaginary;
+            double mirroredTwiddledImaginary = cos[k] * oddImaginary + sin[k] * oddReal;
+
+            real[k] = evenReal + twiddledReal;
+            imaginary[k] = evenImaginary + twiddledImaginary;
+            real[j] = evenReal + mirroredTwiddledReal;
+            imaginary[j] = -evenImaginary + mirroredTwiddledImaginary;
+        }
+    }
+
+    /**
+     * Reverses {@link #forward(double[], double[])}, including the division by the length.
+     *
+     * @param real      the real parts of the first halfLength + 1 terms of a spectrum, replaced by the even values of
+     *                  the series
+     * @param imaginary the imaginary parts of the first halfLength + 1 terms of a spectrum, replaced by the odd values
+     *                  of the series
+     */
+    public void inverse(double[] real, double[] imaginary) {
+        for (int k = 0; k <= halfLength / 2; k++) {
+            int j = halfLength - k;
+
+            double evenReal = 0.5 * (real[k] + real[j]);
+            double evenImaginary = 0.5 * (imaginary[k] - imaginary[j]);
+            double differenceReal = 0.5 * (real[k] - real[j]);
+            double differenceImaginary = 0.5 * (imaginary[k] + imaginary[j]);
+
+            // The odd part at k is the difference times conj(twiddle at k), and at j it is the conjugate of the
+            // difference times the twiddle at k
+            double oddReal = differenceReal * cos[k] + differenceImaginary * sin[k];
+            double oddImaginary = differenceImaginary * cos[k] - differenceReal * sin[k];
+            double mirroredOddReal = differenceReal * cos[k] + differenceImaginary * sin[k];
+            double mirroredOddImaginary = differenceReal * sin[k] - differenceImaginary * cos[k];
+
+            // Pack the even and odd parts back into one complex series as even + i odd
+            double packedReal = evenReal - oddImaginary;
+            double packedImaginary = evenImaginary + oddReal;
+            double mirroredPackedReal = evenReal - mirroredOddImaginary;
+            double mirroredPackedImaginary = -evenImaginary + mirroredOddReal;
+
+            real[k] = packedReal;
+            imaginary[k] = packedImaginary;
+            real[j] = mirroredPackedReal;
+            imaginary[j] = mirroredPackedImaginary;
+        }
+
+        complexTransform(real, imaginary, true);
+
+        double scale = 1.0 / halfLength;
+        for (int i = 0; i < halfLength; i++) {
+            real[i] *= scale;
+            imaginary[i] *= scale;
+        }
+        real[halfLength] = 0;
+        imaginary[halfLength] = 0;
+    }
+
+    /**
+     * An iterative radix 2 transform of the first halfLength complex values, without any scaling.
+     */
+    private void complexTransform(double[] real, double[] imaginary, boolean inverse) {
+        for (int i = 0; i < halfLength; i++) {
+            int j = bitReversed[i];
+            if (j > i) {
+                double swap = real[i];
+                real[i] = real[j];
+                real[j] = swap;
+                swap = imaginary[i];
+                imaginary[i] = imaginary[j];
+                imaginary[j] = swap;
+            }
+        }
+
+        for (int size = 2; size <= halfLength; size <<= 1) {
+            int half = size >> 1;
+            // The twiddles of a transform of this size are every step-th twiddle of the full length transform
+            int step = length / size;
+            for (int start = 0; start < halfLength; start += size) {
+                for (int k = 0; k < half; k++) {
+                    double twiddleReal = cos[k * step];
+                    double twiddleImaginary = inverse ? -sin[k * step] : sin[k * step];
+
+                    int even = start + k;
+                    int odd = even + half;
+
+                    double oddReal = real[odd] * twiddleReal - imaginary[odd] * twiddleImaginary;
+                    double oddImaginary = real[odd] * twiddleImaginary + imaginary[odd] * twiddleReal;
+
+                    real[odd] = real[even] - oddReal;
+                    imaginary[odd] = imaginary[even] - oddImaginary;
+                    real[even] += oddReal;
+                    imaginary[even] += oddImaginary;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Calculates the autocorrelation of a stream of values up to a maximum lag in constant memory.
+ * <p>
+ * The result matches {@link Autocorrelation#calculate(double[])} over the same values, truncated to the first
+ * maxLag + 1 lags. Only the sums of lagged products, the first maxLag values and the latest maxLag values are kept.
+ * Values are shifted by the first value before being summed to limit cancellation error when the mean is large
+ * compared to the spread.
+ */
+public class StreamingAutocorrelation {
+
+    private final int maxLag;
+    private final double[] lagProductSums;
+    private final double[] firstValues;
+    private final double[] latestValues;
+
+    private double shift;
+    private double sum;
+    private long count;
+
+    /**
+     * @param maxLag the largest lag to calculate the autocorrelation at
+     */
+    public StreamingAutocorrelation(int maxLag) {
+        Preconditions.checkArgument(maxLag >= 0, "Max lag must not be negative but was %s", maxLag);
+        this.maxLag = maxLag;
+        this.lagProductSums = new double[maxLag + 1];
+        this.firstValues = new double[maxLag];
+        this.latestValues = new double[maxLag];
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void add(double value) {
+        if (count == 0) {
+            shift = value;
+        }
+        double shifted = value - shift;
+
+        lagProductSums[0] += shifted * shifted;
+        int lags = (int) Math.min(maxLag, count);
+        for (int lag = 1; lag <= lags; lag++) {
+            lagProductSums[lag] += shifted * latestValues[ringIndex(count - lag)];
+        }
+
+        if (count < maxLag) {
+            firstValues[(int) count] = shifted;
+        }
+        if (maxLag > 0) {
+            latestValues[ringIndex(count)] = shifted;
+        }
+
+        sum += shifted;
+        count++;
+    }
+
+    /**
+     * @return the autocorrelation at lags 0 to min(maxLag, count - 1)
+     * @throws IllegalStateException if no values have been added
+     */
+    public double[] getAutocorrelation() {
+        if (count == 0) {
+            throw new IllegalStateException("Cannot calculate the autocorrelation of no values");
+        }
+
+        int lags = (int) Math.min(maxLag, count - 1);
+        double mean = sum / count;
+        double[] autocovariance = new double[lags + 1];
+        double firstSum = 0;
+        double latestSum = 0;
+
+        for (int lag = 0; lag <= lags; lag++) {
+            if (lag > 0) {
+                firstSum += firstValues[lag - 1];
+                latestSum += latestValues[ringIndex(count - lag)];
+            }
+            autocovariance[lag] = (lagProductSums[lag]
+                - mean * (sum - firstSum)
+                - mean * (sum - latestSum)
+                + (count - lag) * mean * mean) / count;
+        }
+
+        double variance = autocovariance[0];
+        for (int lag = 0; lag <= lags; lag++) {
+            autocovariance[lag] /= variance;
+        }
+        return autocovariance;
+    }
+
+    private int ringIndex(long position) {
+        return (int) (position % maxLag);
+    }
+}
@@ -25,6 +25,22 @@ public class GaussianKDE {
         return new KDEVertex(samples);
     }
 
+    /**
+     * @param vertexSamples           scalar samples to estimate the density of
+     * @param approximationErrorBound the largest error of the density relative to its peak, between 0 and 1
+     * @return a KDE that is evaluated approximately, which is much faster when there are many samples
+     */
+    public static KDEVertex approximate(Samples<DoubleTensor> vertexSamples, double approximationErrorBound) {
+
+        double[] samples = vertexSamples.asList().stream()
+            .map(GaussianKDE::checkIfScalar)
+            .mapToDouble(DoubleTensor::scalar)
+            .toArray();
+
+        DoubleTensor sampleTensor = DoubleTensor.create(samples, new long[]{samples.length});
+        return new KDEVertex(sampleTensor, KDEVertex.scottsBandwidth(sampleTensor), approximationErrorBound);
+    }
+
     public static KDEVertex approximate(DoubleVertex vertex, Integer nSamples) {
         KeanuProbabilisticModel model = new KeanuProbabilisticModel(vertex.getConnectedGraph());
         DoubleVertexSamples vertexSamples = Keanu.Sampling.MetropolisHastings.withDefaultConfig()
@@ -1,5 +1,6 @@
 package io.improbable.keanu.algorithms.variational.optimizer.gradient;
 
+import io.improbable.keanu.algorithms.LogProbAndGradients;
 import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.algorithms.variational.optimizer.FitnessFunction;
@@ -109,24 +110,27 @@ public class GradientOptimizer implements Optimizer {
             this::handleGradientCalculation
         );
 
-        return optimize(fitnessFunction, fitnessFunctionGradient);
+        return optimize(probabilityFitness, fitnessFunction, fitnessFunctionGradient);
     }
 
-    private OptimizedResult optimize(FitnessFunction fitnessFunction, FitnessFunctionGradient fitnessFunctionGradient) {
+    private OptimizedResult optimize(ProbabilityFitness probabilityFitness,
+                                     FitnessFunction fitnessFunction,
+                                     FitnessFunctionGradient fitnessFunctionGradient) {
 
         StatusBar statusBar = Optimizer.createFitnessStatusBar(this);
 
         if (checkInitialFitnessConditions) {
             Map<VariableReference, DoubleTensor> startingPoint = Optimizer.convertToMapPoint(probabilisticModelWithGradient.getLatentVariables());
 
-            double initialFitness = fitnessFunction.getFitnessAt(startingPoint);
+            if (probabilityFitness == ProbabilityFitness.MAP) {
+                checkInitialLogProbAndGradients(startingPoint);
+            } else {
+                double initialFitness = fitnessFunction.getFitnessAt(startingPoint);
+                throwIfImpossible(initialFitness);
 
-            if (ProbabilityCalculator.isImpossibleLogProb(initialFitness)) {
-                throw new IllegalArgumentException("Cannot start optimizer on zero probability network");
+                Map<? extends VariableReference, DoubleTensor> initialGradient = fitnessFunctionGradient.getGradientsAt(startingPoint);
+                throwIfGradientIsFlat(initialGradient);
             }
-
-            Map<? extends VariableReference, DoubleTensor> initialGradient = fitnessFunctionGradient.getGradientsAt(startingPoint);
-            throwIfGradientIsFlat(initialGradient);
         }
 
         OptimizedResult result = gradientOptimizationAlgorithm.optimize(
@@ -140,6 +144,25 @@ public class GradientOptimizer implements Optimizer {
         return result;
     }
 
+    /**
+     * The fitness of a MAP is the log prob, so it is calculated along with its gradient in one update of the model.
+     */
+    private void checkInitialLogProbAndGradients(Map<VariableReference, DoubleTensor> startingPoint) {
+        LogProbAndGradients initial = probabilisticModelWithGradient.logProbAndGradients(startingPoint);
+
+        handleFitnessCalculation(startingPoint, initial.getLogProb());
+        throwIfImpossible(initial.getLogProb());
+
+        handleGradientCalculation(startingPoint, initial.getGradients());
+        throwIfGradientIsFlat(initial.getGradients());
+    }
+
+    private static void throwIfImpossible(double initialFitness) {
+        if (ProbabilityCalculator.isImpossibleLogProb(initialFitness)) {
+            throw new IllegalArgumentException("Cannot start optimizer on zero probability network");
+        }
+    }
+
     private static void throwIfGradientIsFlat(Map<? extends VariableReference, DoubleTensor> gradient) {
         double maxGradient = gradient.values().stream()
             .flatMap(v -> Arrays.stream(v.asFlatDoubleArray()).boxed())
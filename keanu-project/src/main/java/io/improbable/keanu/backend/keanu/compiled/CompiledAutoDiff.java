@@ -0,0 +1,43 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic.diff.AutoDiffBroadcast;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+
+/**
+ * Helpers called by the reverse mode gradient code that {@link KeanuCompiledGraphBuilder} generates.
+ */
+@UtilityClass
+public class CompiledAutoDiff {
+
+    /**
+     * Undoes implicit broadcasting of an operation input by summing the gradient over the broadcast dimensions.
+     *
+     * @param gradient the gradient with respect to the input, with the shape of the operation result
+     * @param shape    the shape of the input
+     * @return the gradient with the shape of the input
+     */
+    public static DoubleTensor sumToShape(DoubleTensor gradient, long[] shape) {
+        long[] gradientShape = gradient.getShape();
+        if (Arrays.equals(gradientShape, shape)) {
+            return gradient;
+        }
+
+        int[] broadcastDimensions = AutoDiffBroadcast.dimensionsWithShapeChange(gradientShape, gradientShape.length, shape);
+        return gradient.sum(broadcastDimensions).reshape(shape);
+    }
+
+    /**
+     * @param gradient       the gradient with respect to the result of a sum
+     * @param shape          the shape of the input to the sum
+     * @param overDimensions the dimensions that were summed over or null if all dimensions were summed over
+     * @return the gradient with respect to the input of the sum
+     */
+    public static DoubleTensor unsum(DoubleTensor gradient, long[] shape, int[] overDimensions) {
+        long[] shapeWithoutRankLoss = TensorShape.getReductionResultShapeWithoutRankLoss(shape, overDimensions);
+        return gradient.reshape(shapeWithoutRankLoss).broadcast(shape);
+    }
+}
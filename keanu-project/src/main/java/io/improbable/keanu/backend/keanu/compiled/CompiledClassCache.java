@@ -0,0 +1,279 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import lombok.Getter;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the bytecode of compiled graphs in a directory so that later runs, or other processes that share the
+ * directory, can load a compiled graph without running javac again.
+ * <p>
+ * Classes are looked up by name. {@link KeanuCompiledGraphBuilder} names each class after a hash of its source, so
+ * a class in the cache is only reused for a graph that generates exactly the same source. Class files are compiled
+ * into a temporary directory and then moved into place while holding a lock on the directory, so a process never
+ * loads a partly written class and two processes never compile the same class at once.
+ */
+public class CompiledClassCache implements Closeable {
+
+    /**
+     * The system property that sets the directory of the cache used by {@link KeanuCompiledGraphBuilder} by default.
+     */
+    public static final String DIRECTORY_PROPERTY = "io.improbable.keanu.backend.keanu.compiled.classCacheDirectory";
+
+    private static final String LOCK_FILE_NAME = ".lock";
+
+    /**
+     * A file lock is held by the JVM rather than by a thread, so threads in this JVM also wait on this before taking it
+     */
+    private static final Object COMPILE_LOCK = new Object();
+
+    private static final Map<Path, CompiledClassCache> SHARED_CACHES = new ConcurrentHashMap<>();
+
+    @Getter
+    private final Path directory;
+
+    private URLClassLoader classLoader;
+
+    public CompiledClassCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cache in the directory given by the {@link #DIRECTORY_PROPERTY} system property or empty if it is
+     * not set. The same cache, and so the same class loader, is returned every time for the same directory.
+     */
+    public static Optional<CompiledClassCache> fromSystemProperty() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+
+        if (directory == null || directory.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(SHARED_CACHES.computeIfAbsent(Paths.get(directory), CompiledClassCache::new));
+    }
+
+    /**
+     * @param className the fully qualified name of the class
+     * @return true if the class has already been compiled into this cache
+     */
+    public boolean contains(String className) {
+        return Files.exists(classFile(className));
+    }
+
+    /**
+     * Loads the class from the cache, compiling it into the cache first if it is not there yet.
+     *
+     * @param className the fully qualified name of the class
+     * @param source    the java source of the class
+     * @return the loaded class
+     */
+    public synchronized Class<?> loadOrCompile(String className, String source) {
+        try {
+            compileIfMissing(className, source);
+
+            return getClassLoader().loadClass(className);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Compiled class " + className + " is missing from " + directory, e);
+        }
+    }
+
+    /**
+     * Compiles the class unless it is already in the cache. This is checked while holding the lock on the directory,
+     * so a class file that exists is complete even on file systems that cannot move files atomically.
+     */
+    private void compileIfMissing(String className, String source) throws IOException {
+        Files.createDirectories(directory);
+
+        synchronized (COMPILE_LOCK) {
+            Path lockFile = directory.resolve(LOCK_FILE_NAME);
+            try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = lockChannel.lock()) {
+                if (!contains(className)) {
+                    compile(className, source);
+                }
+            }
+        }
+    }
+
+    private void compile(String className, String source) throws IOException {
+        Path compileDirectory = Files.createTempDirectory(directory, "compiling");
+
+        try {
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            if (compiler == null) {
+                throw new IllegalStateException("A JDK is needed to compile graphs");
+            }
+
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            List<String> options = Arrays.asList(
+                "-d", compileDirectory.toString(),
+                "-classpath", getCompileClassPath()
+            );
+
+            boolean success = compiler.getTask(
+                null, null, diagnostics, options, null,
+                Collections.singletonList(new SourceFile(className, source))
+            ).call();
+
+            if (!success) {
+                String errors = diagnostics.getDiagnostics().stream()
+                    .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                    .map(d -> d.getMessage(null))
+                    .collect(Collectors.joining("\n"));
+                throw new IllegalStateException("Failed to compile " + className + ":\n" + errors);
+            }
+
+            moveIntoCache(compileDirectory, className);
+        } finally {
+            deleteRecursively(compileDirectory);
+        }
+    }
+
+    /**
+     * Moves the class files for a class into the cache. Nested classes are moved first so that the class itself only
+     * appears once everything it needs is in place.
+     */
+    private void moveIntoCache(Path compileDirectory, String className) throws IOException {
+        Path compiledPackage = compileDirectory.resolve(packagePath(className));
+        Path cachePackage = directory.resolve(packagePath(className));
+        Files.createDirectories(cachePackage);
+
+        String classFileName = classFile(className).getFileName().toString();
+
+        List<Path> classFiles;
+        try (Stream<Path> files = Files.list(compiledPackage)) {
+            classFiles = files
+                .sorted(Comparator.comparing((Path file) -> file.getFileName().toString().equals(classFileName)))
+                .collect(Collectors.toList());
+        }
+
+        for (Path classFile : classFiles) {
+            Path target = cachePackage.resolve(classFile.getFileName().toString());
+            try {
+                Files.move(classFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(classFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private URLClassLoader getClassLoader() throws MalformedURLException {
+        if (classLoader == null) {
+            classLoader = new URLClassLoader(
+                new URL[]{directory.toUri().toURL()},
+                CompiledClassCache.class.getClassLoader()
+            );
+        }
+        return classLoader;
+    }
+
+    /**
+     * Closes the class loader of this cache. Classes that were already loaded can still be used and a new class
+     * loader is created if another class is loaded from this cache.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (classLoader != null) {
+            classLoader.close();
+            classLoader = null;
+        }
+    }
+
+    private Path classFile(String className) {
+        return directory.resolve(className.replace('.', File.separatorChar) + ".class");
+    }
+
+    private static Path packagePath(String className) {
+        int lastDot = className.lastIndexOf('.');
+        return Paths.get(lastDot < 0 ? "" : className.substring(0, lastDot).replace('.', File.separatorChar));
+    }
+
+    /**
+     * @return the class path of this JVM along with anything added by the class loaders that loaded Keanu
+     */
+    private static String getCompileClassPath() {
+        Set<String> classPath = new LinkedHashSet<>(Arrays.asList(
+            System.getProperty("java.class.path").split(File.pathSeparator)
+        ));
+
+        ClassLoader loader = CompiledClassCache.class.getClassLoader();
+        while (loader != null) {
+            if (loader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    try {
+                        classPath.add(Paths.get(url.toURI()).toString());
+                    } catch (Exception e) {
+                        classPath.add(url.getPath());
+                    }
+                }
+            }
+            loader = loader.getParent();
+        }
+
+        return String.join(File.pathSeparator, classPath);
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(path)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+
+        for (Path toDelete : paths) {
+            Files.deleteIfExists(toDelete);
+        }
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.backend.ComputableGraph;
+
+/**
+ * A computable graph compiled from Keanu vertices. A graph whose inputs and outputs are all rank 0 doubles can also be
+ * computed from and to positional double arrays, which skips building maps of tensors on every call.
+ */
+public interface KeanuCompiledGraph extends ComputableGraph {
+
+    /**
+     * @return true if every input and output is a rank 0 double so {@link #compute(double[])} can be used
+     */
+    boolean isScalar();
+
+    /**
+     * @param inputs the value of every input in the order given by {@link KeanuCompiledGraphBuilder#getScalarInputs()}
+     * @return the value of every output in the order the outputs were registered
+     * @throws IllegalStateException if the graph is not {@link #isScalar() scalar}
+     */
+    double[] compute(double[] inputs);
+}
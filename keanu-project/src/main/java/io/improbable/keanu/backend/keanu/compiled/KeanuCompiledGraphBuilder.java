@@ -1,7 +1,8 @@
 package io.improbable.keanu.backend.keanu.compiled;
 
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
 import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.backend.ComputableGraph;
 import io.improbable.keanu.backend.ComputableGraphBuilder;
 import io.improbable.keanu.backend.StringVariableReference;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
@@ -12,46 +13,105 @@ import io.improbable.keanu.vertices.tensor.VertexWrapper;
 import io.improbable.keanu.vertices.tensor.bool.nonprobabilistic.ConstantBooleanVertex;
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.nonprobabilistic.ConstantIntegerVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic.ConstantDoubleVertex;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.joor.Reflect;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
 
-public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<ComputableGraph> {
+public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<KeanuCompiledGraph> {
 
     private static final String PACKAGE = "io.improbable.keanu.backend.keanu";
     private static final String CLASS_NAME_PREFIX = "CompiledKeanuGraph";
 
+    /**
+     * Part of the hash that names a compiled class. Increment it whenever the generated source relies on something
+     * new in the classes it calls, so classes cached by an earlier generator are not reused even in builds without a
+     * Keanu version.
+     */
+    private static final int SOURCE_FORMAT_VERSION = 1;
+
     private StringBuilder computeSourceBuilder;
     private StringBuilder instanceVariableBuilder;
     private StringBuilder constructorBuilder;
     private Map<VariableReference, KeanuCompiledVariable> lookup;
+
+    /**
+     * The key of each input, constant and output in the maps passed to and returned by the compiled class, which also
+     * names its variable in the source. Keys are numbered in the order the variables are added, which is a
+     * topological order, rather than taken from vertex ids. Vertex ids depend on how many vertices were created
+     * before, so the same graph would otherwise generate different source, and a differently named class, in every
+     * process.
+     */
+    private Map<VariableReference, String> sourceKeys;
     private Map<VariableReference, Object> variableValues;
     private Map<VariableReference, Object> constantValues;
     private List<VariableReference> outputs;
 
+    /**
+     * The primitive double local or field for each rank 0 double that has one, by the name of its tensor variable.
+     * Tensor variables for these are only declared once an operation on tensors needs them.
+     */
+    private Map<String, String> scalarNames;
+    private Set<String> undeclaredTensors;
+    private List<VariableReference> scalarInputs;
+    private boolean hasTensorInputs = false;
+
+    /**
+     * Operations in the order they are computed whose result depends on a double variable. These are swept in
+     * reverse to write the gradient code.
+     */
+    private List<DifferentiableOp> differentiableOps;
+    private Set<String> requiresGradient;
+    private StringBuilder gradientSourceBuilder;
+    private final boolean gradientsEnabled;
+
     private int internalOpCount = 0;
+    private int gradientCount = 0;
 
-    private final String className = CLASS_NAME_PREFIX + this.hashCode();
+    private CompiledClassCache classCache = CompiledClassCache.fromSystemProperty().orElse(null);
 
     public KeanuCompiledGraphBuilder() {
+        this(false);
+    }
+
+    /**
+     * @param gradientsEnabled true if {@link #addGradientOutputs(VariableReference, Collection)} will be used. This
+     *                         stops operations from mutating their operands in place because the gradient code
+     *                         needs the values of the operands after the forward computation.
+     */
+    public KeanuCompiledGraphBuilder(boolean gradientsEnabled) {
+        this.gradientsEnabled = gradientsEnabled;
         computeSourceBuilder = new StringBuilder();
+        scalarNames = new HashMap<>();
+        undeclaredTensors = new HashSet<>();
+        scalarInputs = new ArrayList<>();
+        gradientSourceBuilder = new StringBuilder();
+        differentiableOps = new ArrayList<>();
+        requiresGradient = new HashSet<>();
         instanceVariableBuilder = new StringBuilder();
         constructorBuilder = new StringBuilder();
         lookup = new HashMap<>();
+        sourceKeys = new HashMap<>();
         variableValues = new HashMap<>();
         constantValues = new HashMap<>();
         outputs = new ArrayList<>();
     }
 
-    private void startSource(StringBuilder sb) {
+    private void startSource(StringBuilder sb, String className) {
 
         sb.append("package " + PACKAGE + ";\n");
         sb.append(importString(Collection.class));
@@ -63,7 +123,19 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
         sb.append(importString(IntegerTensor.class));
         sb.append(importString(BooleanTensor.class));
 
-        append(sb, "public final class ", className, " implements java.util.function.Function<Map<String, ?>, Map<String, ?>> {\n");
+        append(sb, "public final class ", className, " implements java.util.function.Function<Map<String, ?>, Map<String, ?>>");
+        if (isScalarGraph()) {
+            append(sb, ", ", ScalarComputeFunction.class.getCanonicalName());
+        }
+        sb.append(" {\n");
+    }
+
+    /**
+     * @return true if every input and output is a rank 0 double, in which case they can be passed as a double[]
+     */
+    private boolean isScalarGraph() {
+        return !hasTensorInputs && outputs.stream()
+            .allMatch(output -> scalarNames.containsKey(lookup.get(output).getName()));
     }
 
     private String importString(Class<?> clazz) {
@@ -75,8 +147,7 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
         sb.append("\n");
 
         for (VariableReference out : outputs) {
-            String name = lookup.get(out).getName();
-            append(sb, "results.put(\"", out.toStringReference(), "\", ", name, ");\n");
+            append(sb, "results.put(\"", sourceKeyOf(out), "\", ", tensorOf(out), ");\n");
         }
 
         sb.append("return results;\n");
@@ -84,16 +155,60 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
         sb.append("}\n}\n");
     }
 
+    /**
+     * Writes an apply method that takes the inputs as a double[] in the order of {@link #getScalarInputs()} and
+     * returns the outputs in the order they were registered. The Map based apply converts to and from this.
+     */
+    private void appendScalarApply(StringBuilder sb) {
+        sb.append("public double[] apply(final double[] inputs) {\n");
+
+        for (int i = 0; i < scalarInputs.size(); i++) {
+            String scalarName = scalarNames.get(lookup.get(scalarInputs.get(i)).getName());
+            append(sb, "final double ", scalarName, " = inputs[", Integer.toString(i), "];\n");
+        }
+
+        sb.append(computeSourceBuilder);
+
+        sb.append("return new double[]{");
+        sb.append(outputs.stream()
+            .map(out -> scalarNames.get(lookup.get(out).getName()))
+            .collect(joining(", ")));
+        sb.append("};\n}\n");
+
+        sb.append("public Map<String, ?> apply(Map<String, ?> inputs) {\n");
+
+        sb.append("final double[] outputs = apply(new double[]{");
+        sb.append(scalarInputs.stream()
+            .map(input -> "((" + DoubleTensor.class.getCanonicalName() + ") inputs.get(\"" + sourceKeyOf(input) + "\")).scalar()")
+            .collect(joining(", ")));
+        sb.append("});\n");
+
+        sb.append("Map<String, Object>  results = new HashMap<>();\n");
+        for (int i = 0; i < outputs.size(); i++) {
+            append(sb, "results.put(\"", sourceKeyOf(outputs.get(i)), "\", DoubleTensor.scalar(outputs[", Integer.toString(i), "]));\n");
+        }
+        sb.append("return results;\n");
+
+        sb.append("}\n}\n");
+    }
+
     @Override
     public void createConstant(Vertex visiting) {
 
         String type = getAssigmentType(visiting);
-        String lookupName = visiting.getReference().toStringReference();
+        String lookupName = sourceKeyOf(visiting.getReference());
         String name = toSourceVariableName(visiting.getReference());
 
         append(instanceVariableBuilder, "private final ", type, " ", name, ";\n");
         append(constructorBuilder, name, " = ", "(", type, ")", "constants.get(\"", lookupName, "\");\n");
 
+        if (isScalarDouble(visiting)) {
+            String scalarName = toScalarVariableName(name);
+            append(instanceVariableBuilder, "private final double ", scalarName, ";\n");
+            append(constructorBuilder, scalarName, " = ", name, ".scalar();\n");
+            scalarNames.put(name, scalarName);
+        }
+
         lookup.put(visiting.getReference(), new KeanuCompiledVariable(name, false));
         constantValues.put(visiting.getReference(), visiting.getValue());
 
@@ -105,10 +220,21 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
         String variableType = getAssigmentType(visiting);
         String variableName = toSourceVariableName(visiting.getReference());
 
-        declareInput(variableType, variableName, visiting.getReference().toStringReference());
+        if (isScalarDouble(visiting)) {
+            scalarInputs.add(visiting.getReference());
+            scalarNames.put(variableName, toScalarVariableName(variableName));
+            undeclaredTensors.add(variableName);
+        } else {
+            hasTensorInputs = true;
+            declareInput(variableType, variableName, sourceKeyOf(visiting.getReference()));
+        }
 
         lookup.put(visiting.getReference(), new KeanuCompiledVariable(variableName, false));
         variableValues.put(visiting.getReference(), visiting.getValue());
+
+        if (isDouble(visiting)) {
+            requiresGradient.add(variableName);
+        }
     }
 
     private void declareInput(String type, String name, String inputName) {
@@ -125,14 +251,85 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
 
         Vertex unwrappedVisiting = visiting instanceof VertexWrapper ? ((VertexWrapper) visiting).unwrap() : visiting;
         Class<?> clazz = unwrappedVisiting.getClass();
-        KeanuVertexToTensorOpMapper.OpMapper opMapperFor = KeanuVertexToTensorOpMapper.getOpMapperFor(clazz);
-
-        String variableType = getAssigmentType(visiting);
         String name = toSourceVariableName(visiting.getReference());
 
-        append(computeSourceBuilder, "final ", variableType, " ", name, " = (", variableType, ") ", opMapperFor.apply(unwrappedVisiting, lookup), ";\n");
+        KeanuVertexToScalarOpMapper.ScalarOpMapper scalarOpMapper = KeanuVertexToScalarOpMapper.getScalarOpMapperFor(clazz);
+        Collection<? extends Vertex> parents = unwrappedVisiting.getParents();
+
+        if (scalarOpMapper != null && isScalarDouble(visiting) && parents.stream().allMatch(this::isScalarDouble)) {
+            createScalar(visiting.getReference(), name, scalarOpMapper.apply(unwrappedVisiting, this::scalarOf));
+        } else {
+            for (Vertex parent : parents) {
+                declareTensorIfNeeded(lookup.get(parent.getReference()).getName());
+            }
+
+            KeanuVertexToTensorOpMapper.OpMapper opMapperFor = KeanuVertexToTensorOpMapper.getOpMapperFor(clazz);
+            String variableType = getAssigmentType(visiting);
+
+            append(computeSourceBuilder, "final ", variableType, " ", name, " = (", variableType, ") ", opMapperFor.apply(unwrappedVisiting, lookup), ";\n");
+
+            lookup.put(visiting.getReference(), new KeanuCompiledVariable(name, !gradientsEnabled));
+        }
+
+        if (isDouble(visiting) && dependsOnVariable(unwrappedVisiting.getParents())) {
+            KeanuVertexToTensorOpMapper.GradientMapper gradientMapper = KeanuVertexToTensorOpMapper.getGradientMapperFor(clazz);
+
+            differentiableOps.add(new DifferentiableOp(
+                name,
+                clazz.getSimpleName(),
+                gradientMapper == null ? null : adjoint -> gradientMapper.apply(unwrappedVisiting, lookup, name, adjoint)
+            ));
+            requiresGradient.add(name);
+        }
+    }
+
+    private void createScalar(VariableReference reference, String name, String expression) {
+        String scalarName = toScalarVariableName(name);
+        append(computeSourceBuilder, "final double ", scalarName, " = ", expression, ";\n");
+
+        scalarNames.put(name, scalarName);
+        undeclaredTensors.add(name);
+        lookup.put(reference, new KeanuCompiledVariable(name, false));
+    }
+
+    /**
+     * @return a primitive double expression for a rank 0 double
+     */
+    private String scalarOf(VariableReference reference) {
+        String name = lookup.get(reference).getName();
+        String scalarName = scalarNames.get(name);
+        return scalarName != null ? scalarName : name + ".scalar()";
+    }
+
+    /**
+     * @return a tensor expression for any variable
+     */
+    private String tensorOf(VariableReference reference) {
+        String name = lookup.get(reference).getName();
+        if (undeclaredTensors.contains(name)) {
+            return DoubleTensor.class.getCanonicalName() + ".scalar(" + scalarNames.get(name) + ")";
+        }
+        return name;
+    }
+
+    private void declareTensorIfNeeded(String name) {
+        if (undeclaredTensors.remove(name)) {
+            String type = DoubleTensor.class.getCanonicalName();
+            append(computeSourceBuilder, "final ", type, " ", name, " = ", type, ".scalar(", scalarNames.get(name), ");\n");
+        }
+    }
 
-        lookup.put(visiting.getReference(), new KeanuCompiledVariable(name, true));
+    private boolean isScalarDouble(Vertex v) {
+        return !gradientsEnabled && isDouble(v) && v.getRank() == 0;
+    }
+
+    private boolean dependsOnVariable(Collection<? extends Vertex> parents) {
+        return parents.stream()
+            .anyMatch(parent -> requiresGradient.contains(lookup.get(parent.getReference()).getName()));
+    }
+
+    private boolean isDouble(Vertex v) {
+        return DoubleTensor.class.equals(v.ofType());
     }
 
     private boolean isConstant(Vertex v) {
@@ -144,12 +341,26 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
     }
 
     private String toSourceVariableName(VariableReference variableReference) {
-        return "v_" + variableReference.toStringReference();
+        return "v_" + sourceKeyOf(variableReference);
+    }
+
+    private String sourceKeyOf(VariableReference variableReference) {
+        String key = sourceKeys.get(variableReference);
+        if (key == null) {
+            key = "n" + sourceKeys.size();
+            sourceKeys.put(variableReference, key);
+        }
+        return key;
+    }
+
+    private String toScalarVariableName(String sourceVariableName) {
+        return "s_" + sourceVariableName;
     }
 
     @Override
     public void registerOutput(VariableReference output) {
         outputs.add(output);
+        sourceKeyOf(output);
         lookup.get(output).setMutable(false);
     }
 
@@ -169,14 +380,115 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
         String name = "vv_" + internalOpCount;
         internalOpCount++;
 
+        StringVariableReference reference = new StringVariableReference(name);
+
+        if (scalarNames.containsKey(leftName) && scalarNames.containsKey(rightName)) {
+            createScalar(reference, name, scalarNames.get(leftName) + " + " + scalarNames.get(rightName));
+            return reference;
+        }
+
+        declareTensorIfNeeded(leftName);
+        declareTensorIfNeeded(rightName);
+
         append(computeSourceBuilder, "final ", variableType, " ", name, " = ", leftName, ".plus(", rightName + ");\n");
 
-        StringVariableReference reference = new StringVariableReference(name);
-        lookup.put(reference, new KeanuCompiledVariable(name, true));
+        lookup.put(reference, new KeanuCompiledVariable(name, !gradientsEnabled));
+
+        if (requiresGradient.contains(leftName) || requiresGradient.contains(rightName)) {
+            differentiableOps.add(new DifferentiableOp(
+                name,
+                "add",
+                adjoint -> Arrays.asList(
+                    new KeanuVertexToTensorOpMapper.InputGradient(left, adjoint),
+                    new KeanuVertexToTensorOpMapper.InputGradient(right, adjoint)
+                )
+            ));
+            requiresGradient.add(name);
+        }
 
         return reference;
     }
 
+    /**
+     * Adds reverse mode gradient code for the gradient of a scalar output with respect to some variables. This must
+     * be called after the output and everything it depends on has been added to the builder.
+     *
+     * @param of            a reference to the scalar double output that the gradient is of
+     * @param withRespectTo references to the double variables that the gradient is with respect to
+     * @return a reference to the gradient output for each variable in withRespectTo. The gradient has the shape of
+     * the variable.
+     * @throws IllegalArgumentException if the output depends on an operation that gradient code cannot be written for
+     */
+    public Map<VariableReference, VariableReference> addGradientOutputs(VariableReference of,
+                                                                        Collection<? extends VariableReference> withRespectTo) {
+        Preconditions.checkState(gradientsEnabled, "Gradients must be enabled when the builder is created");
+
+        final String prefix = "d" + gradientCount + "_";
+        gradientCount++;
+
+        final Map<String, String> adjoints = new HashMap<>();
+        final String ofName = lookup.get(of).getName();
+        final String doubleType = DoubleTensor.class.getCanonicalName();
+
+        if (requiresGradient.contains(ofName)) {
+            String ofAdjoint = prefix + ofName;
+            append(gradientSourceBuilder, doubleType, " ", ofAdjoint, " = ", doubleType, ".ones(", ofName, ".getShape());\n");
+            adjoints.put(ofName, ofAdjoint);
+        }
+
+        for (int i = differentiableOps.size() - 1; i >= 0; i--) {
+            DifferentiableOp op = differentiableOps.get(i);
+            String adjoint = adjoints.get(op.getResult());
+
+            if (adjoint == null) {
+                continue;
+            }
+
+            if (op.getInputGradients() == null) {
+                throw new IllegalArgumentException("Gradient of " + op.getOpName() + " is not supported by the compiled graph");
+            }
+
+            for (KeanuVertexToTensorOpMapper.InputGradient inputGradient : op.getInputGradients().apply(adjoint)) {
+                String inputName = lookup.get(inputGradient.getInput()).getName();
+
+                if (!requiresGradient.contains(inputName)) {
+                    continue;
+                }
+
+                String gradient = CompiledAutoDiff.class.getCanonicalName() + ".sumToShape(" + inputGradient.getGradient() + ", " + inputName + ".getShape())";
+                String inputAdjoint = adjoints.get(inputName);
+
+                if (inputAdjoint == null) {
+                    inputAdjoint = prefix + inputName;
+                    append(gradientSourceBuilder, doubleType, " ", inputAdjoint, " = ", gradient, ";\n");
+                    adjoints.put(inputName, inputAdjoint);
+                } else {
+                    append(gradientSourceBuilder, inputAdjoint, " = ", inputAdjoint, ".plus(", gradient, ");\n");
+                }
+            }
+        }
+
+        final Map<VariableReference, VariableReference> gradientOutputs = new HashMap<>();
+
+        for (VariableReference variable : withRespectTo) {
+            String variableName = lookup.get(variable).getName();
+            String gradientName = adjoints.get(variableName);
+
+            if (gradientName == null) {
+                gradientName = prefix + variableName;
+                append(gradientSourceBuilder, doubleType, " ", gradientName, " = ", doubleType, ".zeros(", variableName, ".getShape());\n");
+            }
+
+            StringVariableReference gradientReference = new StringVariableReference(prefix + variable.toStringReference());
+            lookup.put(gradientReference, new KeanuCompiledVariable(gradientName, false));
+            sourceKeys.put(gradientReference, prefix + sourceKeyOf(variable));
+            outputs.add(gradientReference);
+            gradientOutputs.put(variable, gradientReference);
+        }
+
+        return gradientOutputs;
+    }
+
     @Override
     public void connect(Map<? extends Vertex<?, ?>, ? extends Vertex<?, ?>> connections) {
         connections.forEach((to, from) ->
@@ -184,14 +496,48 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
         );
     }
 
+    /**
+     * @param classCache the cache to load compiled classes from and store them in or null to always compile in memory.
+     *                   By default this is the cache given by the {@link CompiledClassCache#DIRECTORY_PROPERTY}
+     *                   system property, if it is set.
+     * @return this builder
+     */
+    public KeanuCompiledGraphBuilder withClassCache(CompiledClassCache classCache) {
+        this.classCache = classCache;
+        return this;
+    }
+
     /**
      * @return The java source to be used for compilation. This will be the entire .java file that represents a class
-     * that can be used for doing a calculation described by the graph that was passed to this builder.
+     * that can be used for doing a calculation described by the graph that was passed to this builder. The class is
+     * named after a hash of its source, the Keanu version and the version of the source format. Variables in the
+     * source are numbered rather than named by vertex id, so the same graph always compiles to the same class, even
+     * in another process.
      */
     public String getSource() {
+        return generateSource(getClassName());
+    }
+
+    /**
+     * @return the name of the compiled class, which is a hash of the source as it would be with an unhashed name
+     */
+    private String getClassName() {
+        String canonicalSource = generateSource(CLASS_NAME_PREFIX);
+
+        return CLASS_NAME_PREFIX + "_" + Hashing.sha256()
+            .hashString(SOURCE_FORMAT_VERSION + "\n" + getKeanuVersion() + "\n" + canonicalSource, StandardCharsets.UTF_8)
+            .toString();
+    }
+
+    private static String getKeanuVersion() {
+        String version = KeanuCompiledGraphBuilder.class.getPackage().getImplementationVersion();
+        return version == null ? "" : version;
+    }
+
+    private String generateSource(String className) {
         StringBuilder stringBuilder = new StringBuilder();
 
-        startSource(stringBuilder);
+        startSource(stringBuilder, className);
 
         stringBuilder.append(instanceVariableBuilder);
 
@@ -200,14 +546,34 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
         stringBuilder.append(constructorBuilder);
         stringBuilder.append("}\n");
 
+        if (isScalarGraph()) {
+            appendScalarApply(stringBuilder);
+            return stringBuilder.toString();
+        }
+
         stringBuilder.append("public Map<String, ?> apply(Map<String, ?> inputs) {\n");
+
+        for (VariableReference input : scalarInputs) {
+            String scalarName = scalarNames.get(lookup.get(input).getName());
+            append(stringBuilder, "final double ", scalarName, " = ((", DoubleTensor.class.getCanonicalName(), ") inputs.get(\"", sourceKeyOf(input), "\")).scalar();\n");
+        }
+
         stringBuilder.append(computeSourceBuilder);
+        stringBuilder.append(gradientSourceBuilder);
 
         endSource(stringBuilder);
 
         return stringBuilder.toString();
     }
 
+    /**
+     * @return the inputs in the order they are passed to {@link ScalarComputeFunction#apply(double[])} if every input
+     * and output of the graph is a rank 0 double
+     */
+    public List<VariableReference> getScalarInputs() {
+        return Collections.unmodifiableList(scalarInputs);
+    }
+
     private void append(StringBuilder sb, String... line) {
         for (String token : line) {
             sb.append(token);
@@ -215,26 +581,48 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
     }
 
     @Override
-    public WrappedCompiledGraph build() {
+    public KeanuCompiledGraph build() {
 
-        String source = getSource();
+        String className = getClassName();
+        String source = generateSource(className);
 
 //        System.out.println(source);
 
-        return compile(source);
+        return compile(className, source);
     }
 
-    private WrappedCompiledGraph compile(String source) {
+    private WrappedCompiledGraph compile(String className, String source) {
 
         Map<String, ?> constantsByString = constantValues.entrySet().stream()
-            .collect(toMap(e -> e.getKey().toStringReference(), Map.Entry::getValue));
+            .collect(toMap(e -> sourceKeys.get(e.getKey()), Map.Entry::getValue));
+
+        String qualifiedClassName = PACKAGE + "." + className;
+
+        Reflect compiledClass = classCache == null ?
+            Reflect.compile(qualifiedClassName, source) :
+            Reflect.on(classCache.loadOrCompile(qualifiedClassName, source));
+
+        Function<Map<String, ?>, Map<String, ?>> computeFunction = compiledClass.create(constantsByString).get();
+
+        return new WrappedCompiledGraph(computeFunction, outputs, variableValues, scalarInputs, new HashMap<>(sourceKeys));
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class DifferentiableOp {
+
+        /**
+         * the name of the variable in the source that holds the result of the operation
+         */
+        private final String result;
 
-        Function<Map<String, ?>, Map<String, ?>> computeFunction = Reflect.compile(
-            PACKAGE + "." + className,
-            source
-        ).create(constantsByString).get();
+        private final String opName;
 
-        return new WrappedCompiledGraph(computeFunction, outputs);
+        /**
+         * writes the gradient with respect to each input given the name of the adjoint of the result or null if
+         * the gradient of the operation is not supported
+         */
+        private final Function<String, List<KeanuVertexToTensorOpMapper.InputGradient>> inputGradients;
     }
 
 }
@@ -0,0 +1,169 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.algorithms.LogProbAndGradients;
+import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.backend.ComputableGraph;
+import io.improbable.keanu.backend.VariableImpl;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static io.improbable.keanu.backend.ProbabilisticGraphConverter.convertLogProbObservation;
+import static io.improbable.keanu.backend.ProbabilisticGraphConverter.convertLogProbPrior;
+
+/**
+ * A compiled {@link ProbabilisticModelWithGradient}. The gradient of the logProb with respect to the continuous
+ * latent variables is compiled into the same class as the logProb, as reverse mode gradient code that runs after the
+ * logProb has been calculated.
+ */
+public class KeanuCompiledProbabilisticGraphWithGradient extends KeanuCompiledProbabilisticGraph implements ProbabilisticModelWithGradient {
+
+    /**
+     * Takes a BayesianNetwork and converts it to a KeanuCompiledProbabilisticGraphWithGradient. This compiles the
+     * logProb graph along with its gradient. The logLikelihood gradient is compiled the first time it is needed.
+     *
+     * @param network The bayesian network for conversions
+     * @return A compiled ProbabilisticModelWithGradient that represents the BayesianNetwork
+     * @throws IllegalArgumentException if the logProb depends on an operation that the gradient cannot be compiled for
+     */
+    public static KeanuCompiledProbabilisticGraphWithGradient convert(BayesianNetwork network) {
+        KeanuCompiledGraphBuilder builder = new KeanuCompiledGraphBuilder(true);
+
+        builder.convert(network.getVertices());
+
+        Optional<VariableReference> logLikelihoodReference = convertLogProbObservation(network, builder);
+        VariableReference priorLogProbReference = convertLogProbPrior(network, builder);
+
+        VariableReference logProbReference = logLikelihoodReference
+            .map(ll -> builder.add(ll, priorLogProbReference))
+            .orElse(priorLogProbReference);
+
+        builder.registerOutput(logProbReference);
+        logLikelihoodReference.ifPresent(builder::registerOutput);
+
+        Map<VariableReference, VariableReference> logProbGradientOutputs = builder.addGradientOutputs(
+            logProbReference,
+            getContinuousLatentReferences(network)
+        );
+
+        ComputableGraph computableGraph = builder.build();
+
+        List latentVariables = builder.getLatentVariables().stream()
+            .map(v -> new VariableImpl<>(computableGraph, v))
+            .collect(Collectors.toList());
+
+        return new KeanuCompiledProbabilisticGraphWithGradient(
+            network,
+            computableGraph,
+            latentVariables,
+            logProbReference,
+            logLikelihoodReference.orElse(null),
+            logProbGradientOutputs
+        );
+    }
+
+    private final BayesianNetwork network;
+    private final Map<VariableReference, VariableReference> logProbGradientOutputs;
+
+    private ComputableGraph logLikelihoodGradientGraph;
+    private Map<VariableReference, VariableReference> logLikelihoodGradientOutputs;
+
+    private KeanuCompiledProbabilisticGraphWithGradient(BayesianNetwork network,
+                                                        ComputableGraph computableGraph,
+                                                        List<Variable> latentVariables,
+                                                        VariableReference logProbOp,
+                                                        VariableReference logLikelihoodOp,
+                                                        Map<VariableReference, VariableReference> logProbGradientOutputs) {
+        super(computableGraph, latentVariables, logProbOp, logLikelihoodOp);
+        this.network = network;
+        this.logProbGradientOutputs = logProbGradientOutputs;
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> logProbGradients(Map<VariableReference, ?> inputs) {
+        return gradients(getComputableGraph().compute(inputs), logProbGradientOutputs);
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> logProbGradients() {
+        return logProbGradients(Collections.emptyMap());
+    }
+
+    /**
+     * The log prob and its gradient are outputs of the same compiled graph, so both come from one computation of it.
+     */
+    @Override
+    public LogProbAndGradients logProbAndGradients(Map<VariableReference, ?> inputs) {
+        Map<VariableReference, ?> results = getComputableGraph().compute(inputs);
+        double logProb = ((DoubleTensor) results.get(getLogProbOp())).scalar();
+
+        return new LogProbAndGradients(logProb, gradients(results, logProbGradientOutputs));
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> logLikelihoodGradients(Map<VariableReference, ?> inputs) {
+
+        if (getLogLikelihoodOp() == null) {
+            throw new IllegalStateException("Likelihood is undefined");
+        }
+
+        if (logLikelihoodGradientGraph == null) {
+            compileLogLikelihoodGradient();
+        }
+
+        Map<VariableReference, Object> currentInputs = new HashMap<>();
+        for (Variable latentVariable : getLatentVariables()) {
+            currentInputs.put(latentVariable.getReference(), latentVariable.getValue());
+        }
+        currentInputs.putAll(inputs);
+
+        return gradients(logLikelihoodGradientGraph.compute(currentInputs), logLikelihoodGradientOutputs);
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> logLikelihoodGradients() {
+        return logLikelihoodGradients(Collections.emptyMap());
+    }
+
+    private void compileLogLikelihoodGradient() {
+        KeanuCompiledGraphBuilder builder = new KeanuCompiledGraphBuilder(true);
+
+        builder.convert(network.getVertices());
+
+        VariableReference logLikelihoodReference = convertLogProbObservation(network, builder)
+            .orElseThrow(() -> new IllegalStateException("Likelihood is undefined"));
+
+        logLikelihoodGradientOutputs = builder.addGradientOutputs(
+            logLikelihoodReference,
+            getContinuousLatentReferences(network)
+        );
+
+        logLikelihoodGradientGraph = builder.build();
+    }
+
+    private static List<VariableReference> getContinuousLatentReferences(BayesianNetwork network) {
+        return network.getContinuousLatentVertices().stream()
+            .map(Vertex::getReference)
+            .collect(Collectors.toList());
+    }
+
+    private static Map<VariableReference, DoubleTensor> gradients(Map<VariableReference, ?> results,
+                                                                  Map<VariableReference, VariableReference> gradientOutputs) {
+        Map<VariableReference, DoubleTensor> gradients = new HashMap<>();
+
+        for (Map.Entry<VariableReference, VariableReference> gradientOutput : gradientOutputs.entrySet()) {
+            gradients.put(gradientOutput.getKey(), (DoubleTensor) results.get(gradientOutput.getValue()));
+        }
+
+        return gradients;
+    }
+}
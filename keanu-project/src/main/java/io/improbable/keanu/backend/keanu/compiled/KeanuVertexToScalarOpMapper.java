@@ -0,0 +1,166 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.VertexBinaryOp;
+import io.improbable.keanu.vertices.VertexUnaryOp;
+import io.improbable.keanu.vertices.tensor.ReshapeVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic.DoubleProxyVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.ArcCosVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.ArcSinVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.ArcTanVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.CeilVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.CosVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.CoshVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.DigammaVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.ExpM1Vertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.ExpVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.FloorVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.Log1pVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.LogGammaVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.LogVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.SigmoidVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.SinVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.SinhVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.TanVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.TanhVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.TrigammaVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.AdditionVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.DifferenceVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.DivisionVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.GreaterThanMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.GreaterThanOrEqualToMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.LessThanMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.LessThanOrEqualToMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.MultiplicationVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.PowerVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.ternary.SetWithMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.unary.AbsVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.unary.SignVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.unary.SumVertex;
+import org.apache.commons.math3.special.Gamma;
+import org.apache.commons.math3.util.FastMath;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Maps operations on rank 0 double vertices to java expressions on primitive doubles. The expressions match the
+ * element wise operations of {@link io.improbable.keanu.tensor.dbl.JVMDoubleTensor}.
+ */
+public class KeanuVertexToScalarOpMapper {
+
+    private static final String FAST_MATH = FastMath.class.getCanonicalName();
+    private static final String GAMMA = Gamma.class.getCanonicalName();
+
+    private static Map<Class<?>, ScalarOpMapper> scalarOpMappers;
+
+    static {
+        scalarOpMappers = new HashMap<>();
+
+        scalarOpMappers.put(AdditionVertex.class, infixOp("+"));
+        scalarOpMappers.put(DifferenceVertex.class, infixOp("-"));
+        scalarOpMappers.put(MultiplicationVertex.class, infixOp("*"));
+        scalarOpMappers.put(DivisionVertex.class, infixOp("/"));
+        scalarOpMappers.put(PowerVertex.class, binaryFunction(FAST_MATH + ".pow"));
+
+        scalarOpMappers.put(GreaterThanMaskVertex.class, maskOp(">"));
+        scalarOpMappers.put(GreaterThanOrEqualToMaskVertex.class, maskOp(">="));
+        scalarOpMappers.put(LessThanMaskVertex.class, maskOp("<"));
+        scalarOpMappers.put(LessThanOrEqualToMaskVertex.class, maskOp("<="));
+        scalarOpMappers.put(SetWithMaskVertex.class, KeanuVertexToScalarOpMapper::setWithMaskOp);
+
+        scalarOpMappers.put(SumVertex.class, unaryOp(input -> input));
+        scalarOpMappers.put(ReshapeVertex.class, unaryOp(input -> input));
+        scalarOpMappers.put(DoubleProxyVertex.class, KeanuVertexToScalarOpMapper::doubleProxyOp);
+
+        scalarOpMappers.put(AbsVertex.class, unaryFunction("Math.abs"));
+        scalarOpMappers.put(SignVertex.class, unaryFunction("Math.signum"));
+        scalarOpMappers.put(CeilVertex.class, unaryFunction(FAST_MATH + ".ceil"));
+        scalarOpMappers.put(FloorVertex.class, unaryFunction(FAST_MATH + ".floor"));
+        scalarOpMappers.put(ExpVertex.class, unaryFunction(FAST_MATH + ".exp"));
+        scalarOpMappers.put(ExpM1Vertex.class, unaryFunction(FAST_MATH + ".expm1"));
+        scalarOpMappers.put(LogVertex.class, unaryFunction(FAST_MATH + ".log"));
+        scalarOpMappers.put(Log1pVertex.class, unaryFunction(FAST_MATH + ".log1p"));
+        scalarOpMappers.put(SinVertex.class, unaryFunction(FAST_MATH + ".sin"));
+        scalarOpMappers.put(CosVertex.class, unaryFunction(FAST_MATH + ".cos"));
+        scalarOpMappers.put(TanVertex.class, unaryFunction(FAST_MATH + ".tan"));
+        scalarOpMappers.put(ArcSinVertex.class, unaryFunction(FAST_MATH + ".asin"));
+        scalarOpMappers.put(ArcCosVertex.class, unaryFunction(FAST_MATH + ".acos"));
+        scalarOpMappers.put(ArcTanVertex.class, unaryFunction(FAST_MATH + ".atan"));
+        scalarOpMappers.put(SinhVertex.class, unaryFunction(FAST_MATH + ".sinh"));
+        scalarOpMappers.put(CoshVertex.class, unaryFunction(FAST_MATH + ".cosh"));
+        scalarOpMappers.put(TanhVertex.class, unaryFunction(FAST_MATH + ".tanh"));
+        scalarOpMappers.put(LogGammaVertex.class, unaryFunction(GAMMA + ".logGamma"));
+        scalarOpMappers.put(DigammaVertex.class, unaryFunction(GAMMA + ".digamma"));
+        scalarOpMappers.put(TrigammaVertex.class, unaryFunction(GAMMA + ".trigamma"));
+        scalarOpMappers.put(SigmoidVertex.class, unaryOp(input -> "(1.0 / (1.0 + " + FAST_MATH + ".exp(-" + input + ")))"));
+    }
+
+    interface ScalarOpMapper {
+        /**
+         * @param vertex the rank 0 double operation (e.g. times, plus)
+         * @param lookup gives a primitive double expression for an input of the operation
+         * @return an expression for the result of the operation as a primitive double
+         */
+        String apply(Vertex<?, ?> vertex, Function<VariableReference, String> lookup);
+    }
+
+    /**
+     * @param clazz the class of the operation vertex
+     * @return the mapper for the operation on primitive doubles or null if the operation has to be done on tensors
+     */
+    public static ScalarOpMapper getScalarOpMapperFor(Class<?> clazz) {
+        return scalarOpMappers.get(clazz);
+    }
+
+    private static ScalarOpMapper infixOp(String operator) {
+        return binaryOp((left, right) -> "(" + left + " " + operator + " " + right + ")");
+    }
+
+    private static ScalarOpMapper maskOp(String comparison) {
+        return binaryOp((left, right) -> "(" + left + " " + comparison + " " + right + " ? 1.0 : 0.0)");
+    }
+
+    private static ScalarOpMapper binaryFunction(String function) {
+        return binaryOp((left, right) -> function + "(" + left + ", " + right + ")");
+    }
+
+    private static ScalarOpMapper binaryOp(BinaryExpression expression) {
+        return (vertex, lookup) -> {
+            VertexBinaryOp<?, ?> binaryOpVertex = (VertexBinaryOp<?, ?>) vertex;
+            String left = lookup.apply(binaryOpVertex.getLeft().getReference());
+            String right = lookup.apply(binaryOpVertex.getRight().getReference());
+            return expression.apply(left, right);
+        };
+    }
+
+    private static ScalarOpMapper unaryFunction(String function) {
+        return unaryOp(input -> function + "(" + input + ")");
+    }
+
+    private static ScalarOpMapper unaryOp(Function<String, String> expression) {
+        return (vertex, lookup) -> {
+            VertexUnaryOp<?> unaryOpVertex = (VertexUnaryOp<?>) vertex;
+            return expression.apply(lookup.apply(unaryOpVertex.getInputVertex().getReference()));
+        };
+    }
+
+    private static String setWithMaskOp(Vertex<?, ?> vertex, Function<VariableReference, String> lookup) {
+        SetWithMaskVertex setWithMaskVertex = (SetWithMaskVertex) vertex;
+        String operand = lookup.apply(setWithMaskVertex.getOperand().getReference());
+        String mask = lookup.apply(setWithMaskVertex.getMask().getReference());
+        String setValue = lookup.apply(setWithMaskVertex.getSetValue().getReference());
+
+        return "(" + mask + " == 1.0 ? " + setValue + " : " + operand + ")";
+    }
+
+    private static String doubleProxyOp(Vertex<?, ?> vertex, Function<VariableReference, String> lookup) {
+        return lookup.apply(((DoubleProxyVertex) vertex).getParent().getReference());
+    }
+
+    private interface BinaryExpression {
+        String apply(String left, String right);
+    }
+}
@@ -129,10 +129,14 @@ import io.improbable.keanu.vertices.tensor.number.operators.unary.ProductVertex;
 import io.improbable.keanu.vertices.tensor.number.operators.unary.SignVertex;
 import io.improbable.keanu.vertices.tensor.number.operators.unary.SumVertex;
 import io.improbable.keanu.vertices.utility.AssertVertex;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -302,6 +306,63 @@ public class KeanuVertexToTensorOpMapper {
         opMappers.put(AssertVertex.class, KeanuVertexToTensorOpMapper::assertOp);
     }
 
+    private static Map<Class<?>, GradientMapper> gradientMappers;
+
+    static {
+        gradientMappers = new HashMap<>();
+
+        gradientMappers.put(AdditionVertex.class, binaryGradient(
+            (left, right, result, adjoint) -> adjoint,
+            (left, right, result, adjoint) -> adjoint
+        ));
+        gradientMappers.put(DifferenceVertex.class, binaryGradient(
+            (left, right, result, adjoint) -> adjoint,
+            (left, right, result, adjoint) -> adjoint + ".unaryMinus()"
+        ));
+        gradientMappers.put(MultiplicationVertex.class, binaryGradient(
+            (left, right, result, adjoint) -> adjoint + ".times(" + right + ")",
+            (left, right, result, adjoint) -> adjoint + ".times(" + left + ")"
+        ));
+        gradientMappers.put(DivisionVertex.class, binaryGradient(
+            (left, right, result, adjoint) -> adjoint + ".div(" + right + ")",
+            (left, right, result, adjoint) -> adjoint + ".times(" + result + ").div(" + right + ").unaryMinus()"
+        ));
+        gradientMappers.put(PowerVertex.class, binaryGradient(
+            (left, right, result, adjoint) -> adjoint + ".times(" + right + ").times(" + left + ".pow(" + right + ".minus(1.0)))",
+            (left, right, result, adjoint) -> adjoint + ".times(" + result + ").times(" + left + ".log())"
+        ));
+        gradientMappers.put(MatrixMultiplicationVertex.class, KeanuVertexToTensorOpMapper::matrixMultiplyGradient);
+        gradientMappers.put(SumVertex.class, KeanuVertexToTensorOpMapper::sumGradient);
+        gradientMappers.put(ReshapeVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".reshape(" + input + ".getShape())"));
+        gradientMappers.put(DoubleProxyVertex.class, KeanuVertexToTensorOpMapper::doubleProxyGradient);
+        gradientMappers.put(SetWithMaskVertex.class, KeanuVertexToTensorOpMapper::setWithMaskGradient);
+
+        gradientMappers.put(GreaterThanOrEqualToMaskVertex.class, KeanuVertexToTensorOpMapper::zeroGradient);
+        gradientMappers.put(GreaterThanMaskVertex.class, KeanuVertexToTensorOpMapper::zeroGradient);
+        gradientMappers.put(LessThanOrEqualToMaskVertex.class, KeanuVertexToTensorOpMapper::zeroGradient);
+        gradientMappers.put(LessThanMaskVertex.class, KeanuVertexToTensorOpMapper::zeroGradient);
+        gradientMappers.put(SignVertex.class, KeanuVertexToTensorOpMapper::zeroGradient);
+        gradientMappers.put(FloorVertex.class, KeanuVertexToTensorOpMapper::zeroGradient);
+        gradientMappers.put(CeilVertex.class, KeanuVertexToTensorOpMapper::zeroGradient);
+        gradientMappers.put(RoundVertex.class, KeanuVertexToTensorOpMapper::zeroGradient);
+
+        gradientMappers.put(AbsVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + input + ".sign())"));
+        gradientMappers.put(ExpVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + result + ")"));
+        gradientMappers.put(ExpM1Vertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + result + ".plus(1.0))"));
+        gradientMappers.put(LogVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".div(" + input + ")"));
+        gradientMappers.put(Log1pVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".div(" + input + ".plus(1.0))"));
+        gradientMappers.put(LogGammaVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + input + ".digamma())"));
+        gradientMappers.put(DigammaVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + input + ".trigamma())"));
+        gradientMappers.put(SinVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + input + ".cos())"));
+        gradientMappers.put(CosVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + input + ".sin()).unaryMinus()"));
+        gradientMappers.put(TanVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".div(" + input + ".cos().pow(2.0))"));
+        gradientMappers.put(ArcTanVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".div(" + input + ".pow(2.0).plus(1.0))"));
+        gradientMappers.put(SinhVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + input + ".cosh())"));
+        gradientMappers.put(CoshVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + input + ".sinh())"));
+        gradientMappers.put(TanhVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + result + ".pow(2.0).reverseMinus(1.0))"));
+        gradientMappers.put(SigmoidVertex.class, unaryGradient((input, result, adjoint) -> adjoint + ".times(" + result + ").times(" + result + ".reverseMinus(1.0))"));
+    }
+
     interface OpMapper {
         /**
          * @param vertex the operation (e.g. times, plus)
@@ -315,6 +376,144 @@ public class KeanuVertexToTensorOpMapper {
         return opMappers.get(clazz);
     }
 
+    /**
+     * The gradient of the output with respect to one input of an operation.
+     */
+    @AllArgsConstructor
+    @Getter
+    static class InputGradient {
+
+        private final VariableReference input;
+
+        /**
+         * an expression for the gradient, with the shape of the operation result
+         */
+        private final String gradient;
+    }
+
+    interface GradientMapper {
+        /**
+         * @param vertex  the operation (e.g. times, plus)
+         * @param lookup  lookup other variable names and any metadata about them
+         * @param result  the name of the variable that holds the result of the operation
+         * @param adjoint the name of the variable that holds the gradient of the output with respect to the result
+         * @return expressions for the gradient of the output with respect to each input of the operation
+         */
+        List<InputGradient> apply(Vertex<?, ?> vertex,
+                                  Map<VariableReference, KeanuCompiledVariable> lookup,
+                                  String result,
+                                  String adjoint);
+    }
+
+    interface UnaryGradient {
+        String apply(String input, String result, String adjoint);
+    }
+
+    interface BinaryGradient {
+        String apply(String left, String right, String result, String adjoint);
+    }
+
+    /**
+     * @param clazz the class of the operation vertex
+     * @return the mapper that writes the reverse mode gradient of the operation or null if it is not supported
+     */
+    public static GradientMapper getGradientMapperFor(Class<?> clazz) {
+        return gradientMappers.get(clazz);
+    }
+
+    private static GradientMapper unaryGradient(UnaryGradient gradient) {
+        return (vertex, lookup, result, adjoint) -> {
+            Vertex<?, ?> input = ((VertexUnaryOp<?>) vertex).getInputVertex();
+            String inputName = lookup.get(input.getReference()).getName();
+            return Collections.singletonList(new InputGradient(input.getReference(), gradient.apply(inputName, result, adjoint)));
+        };
+    }
+
+    private static GradientMapper binaryGradient(BinaryGradient leftGradient, BinaryGradient rightGradient) {
+        return (vertex, lookup, result, adjoint) -> {
+            VertexBinaryOp<?, ?> binaryOpVertex = (VertexBinaryOp<?, ?>) vertex;
+            Vertex<?, ?> left = binaryOpVertex.getLeft();
+            Vertex<?, ?> right = binaryOpVertex.getRight();
+            String leftName = lookup.get(left.getReference()).getName();
+            String rightName = lookup.get(right.getReference()).getName();
+
+            return Arrays.asList(
+                new InputGradient(left.getReference(), leftGradient.apply(leftName, rightName, result, adjoint)),
+                new InputGradient(right.getReference(), rightGradient.apply(leftName, rightName, result, adjoint))
+            );
+        };
+    }
+
+    private static List<InputGradient> matrixMultiplyGradient(Vertex<?, ?> vertex,
+                                                              Map<VariableReference, KeanuCompiledVariable> lookup,
+                                                              String result,
+                                                              String adjoint) {
+        MatrixMultiplicationVertex mmul = (MatrixMultiplicationVertex) vertex;
+        String leftName = lookup.get(mmul.getLeft().getReference()).getName();
+        String rightName = lookup.get(mmul.getRight().getReference()).getName();
+        boolean transposeLeft = mmul.isTransposeLeft();
+        boolean transposeRight = mmul.isTransposeRight();
+
+        String leftGradient = transposeLeft ?
+            rightName + ".matrixMultiply(" + adjoint + "," + transposeRight + ",true)" :
+            adjoint + ".matrixMultiply(" + rightName + ",false," + !transposeRight + ")";
+
+        String rightGradient = transposeRight ?
+            adjoint + ".matrixMultiply(" + leftName + ",true," + transposeLeft + ")" :
+            leftName + ".matrixMultiply(" + adjoint + "," + !transposeLeft + ",false)";
+
+        return Arrays.asList(
+            new InputGradient(mmul.getLeft().getReference(), leftGradient),
+            new InputGradient(mmul.getRight().getReference(), rightGradient)
+        );
+    }
+
+    private static List<InputGradient> sumGradient(Vertex<?, ?> vertex,
+                                                   Map<VariableReference, KeanuCompiledVariable> lookup,
+                                                   String result,
+                                                   String adjoint) {
+        SumVertex sumVertex = (SumVertex) vertex;
+        Vertex<?, ?> input = sumVertex.getInputVertex();
+        String inputName = lookup.get(input.getReference()).getName();
+
+        int[] dimensions = sumVertex.getOverDimensions();
+        String dimensionsArg = dimensions == null ? "null" : toJavaArrayCreation(dimensions);
+        String unsum = CompiledAutoDiff.class.getCanonicalName() + ".unsum(" + adjoint + "," + inputName + ".getShape()," + dimensionsArg + ")";
+
+        return Collections.singletonList(new InputGradient(input.getReference(), unsum));
+    }
+
+    private static List<InputGradient> setWithMaskGradient(Vertex<?, ?> vertex,
+                                                           Map<VariableReference, KeanuCompiledVariable> lookup,
+                                                           String result,
+                                                           String adjoint) {
+        SetWithMaskVertex setWithMaskVertex = (SetWithMaskVertex) vertex;
+        String maskName = lookup.get(setWithMaskVertex.getMask().getReference()).getName();
+
+        return Arrays.asList(
+            new InputGradient(setWithMaskVertex.getOperand().getReference(), adjoint + ".times(" + maskName + ".reverseMinus(1.0))"),
+            new InputGradient(setWithMaskVertex.getSetValue().getReference(), adjoint + ".times(" + maskName + ")")
+        );
+    }
+
+    /**
+     * For operations that are piecewise constant, so their gradient is zero wherever it is defined.
+     */
+    private static List<InputGradient> zeroGradient(Vertex<?, ?> vertex,
+                                                    Map<VariableReference, KeanuCompiledVariable> lookup,
+                                                    String result,
+                                                    String adjoint) {
+        return Collections.emptyList();
+    }
+
+    private static List<InputGradient> doubleProxyGradient(Vertex<?, ?> vertex,
+                                                           Map<VariableReference, KeanuCompiledVariable> lookup,
+                                                           String result,
+                                                           String adjoint) {
+        DoubleProxyVertex proxyVertex = (DoubleProxyVertex) vertex;
+        return Collections.singletonList(new InputGradient(proxyVertex.getParent().getReference(), adjoint));
+    }
+
     private static OpMapper fluentBinaryOp(String methodName) {
         return fluentBinaryOp(methodName, methodName);
     }
@@ -0,0 +1,14 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+/**
+ * Implemented by compiled graphs whose inputs and outputs are all rank 0 doubles. These skip the string keyed maps
+ * and exchange values through positional double arrays.
+ */
+public interface ScalarComputeFunction {
+
+    /**
+     * @param inputs the value of each input in the order given by {@link KeanuCompiledGraphBuilder#getScalarInputs()}
+     * @return the value of each output in the order the outputs were registered
+     */
+    double[] apply(double[] inputs);
+}
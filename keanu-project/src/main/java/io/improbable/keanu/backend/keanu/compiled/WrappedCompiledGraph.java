@@ -1,8 +1,10 @@
 package io.improbable.keanu.backend.keanu.compiled;
 
+import com.google.common.base.Preconditions;
 import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.backend.ComputableGraph;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,30 +16,73 @@ import static java.util.stream.Collectors.toMap;
  * A computable graph that wraps a compiled Keanu graph. This compiled graph is generated at runtime from Keanu
  * vertices.
  */
-class WrappedCompiledGraph implements ComputableGraph {
+class WrappedCompiledGraph implements KeanuCompiledGraph {
 
     private Map<String, VariableReference> outputsByString;
+    private Map<VariableReference, String> sourceKeys;
     private Function<Map<String, ?>, Map<String, ?>> computeFunction;
 
     private Map<VariableReference, Object> cachedInputs;
 
+    /**
+     * Only set if every input and output of the compiled graph is a rank 0 double
+     */
+    private ScalarComputeFunction scalarComputeFunction;
+    private List<VariableReference> outputs;
+    private Map<VariableReference, Integer> scalarInputIndices;
+    private double[] scalarInputs;
+
+    /**
+     * @param computeFunction the compiled graph
+     * @param outputs         the outputs of the compiled graph
+     * @param initialInputs   the values used for any input that has not been given to {@link #compute(Map)} yet
+     * @param scalarInputs    the inputs in the order they are passed to the compiled graph as a double[]
+     * @param sourceKeys      the key the compiled graph uses for each input and output
+     */
     WrappedCompiledGraph(Function<Map<String, ?>, Map<String, ?>> computeFunction,
-                         List<VariableReference> outputs) {
+                         List<VariableReference> outputs,
+                         Map<VariableReference, ?> initialInputs,
+                         List<VariableReference> scalarInputs,
+                         Map<VariableReference, String> sourceKeys) {
         this.computeFunction = computeFunction;
+        this.outputs = outputs;
+        this.sourceKeys = sourceKeys;
         this.outputsByString = outputs.stream()
-            .collect(toMap(VariableReference::toStringReference, output -> output));
-        this.cachedInputs = new HashMap<>();
+            .collect(toMap(sourceKeys::get, output -> output));
+        this.cachedInputs = new HashMap<>(initialInputs);
+
+        if (computeFunction instanceof ScalarComputeFunction) {
+            this.scalarComputeFunction = (ScalarComputeFunction) computeFunction;
+            this.scalarInputIndices = new HashMap<>();
+            this.scalarInputs = new double[scalarInputs.size()];
+
+            for (int i = 0; i < scalarInputs.size(); i++) {
+                scalarInputIndices.put(scalarInputs.get(i), i);
+
+                DoubleTensor initialInput = (DoubleTensor) initialInputs.get(scalarInputs.get(i));
+                if (initialInput != null) {
+                    this.scalarInputs[i] = initialInput.scalar();
+                }
+            }
+        }
     }
 
     @Override
     public Map<VariableReference, ?> compute(Map<VariableReference, ?> inputs) {
 
+        if (scalarComputeFunction != null) {
+            return computeScalars(inputs);
+        }
+
         cachedInputs.putAll(inputs);
 
         final Map<String, Object> inputsByString = new HashMap<>();
 
-        for (Map.Entry<VariableReference, ?> input : inputs.entrySet()) {
-            inputsByString.put(input.getKey().toStringReference(), input.getValue());
+        for (Map.Entry<VariableReference, ?> input : cachedInputs.entrySet()) {
+            String key = sourceKeys.get(input.getKey());
+            if (key != null) {
+                inputsByString.put(key, input.getValue());
+            }
         }
 
         final Map<String, ?> resultsByString = computeFunction.apply(inputsByString);
@@ -51,8 +96,56 @@ class WrappedCompiledGraph implements ComputableGraph {
         return results;
     }
 
+    private Map<VariableReference, ?> computeScalars(Map<VariableReference, ?> inputs) {
+
+        for (Map.Entry<VariableReference, ?> input : inputs.entrySet()) {
+            Integer index = scalarInputIndices.get(input.getKey());
+            if (index != null) {
+                DoubleTensor value = (DoubleTensor) input.getValue();
+                Preconditions.checkArgument(
+                    value.getRank() == 0,
+                    "Expected a scalar for input %s but got shape %s", input.getKey(), Arrays.toString(value.getShape())
+                );
+                scalarInputs[index] = value.scalar();
+            }
+        }
+
+        final double[] scalarResults = scalarComputeFunction.apply(scalarInputs);
+
+        final Map<VariableReference, Object> results = new HashMap<>();
+
+        for (int i = 0; i < scalarResults.length; i++) {
+            results.put(outputs.get(i), DoubleTensor.scalar(scalarResults[i]));
+        }
+
+        return results;
+    }
+
+    @Override
+    public boolean isScalar() {
+        return scalarComputeFunction != null;
+    }
+
+    @Override
+    public double[] compute(double[] inputs) {
+        Preconditions.checkState(isScalar(), "Graph has inputs or outputs that are not scalar doubles");
+        Preconditions.checkArgument(
+            inputs.length == scalarInputs.length,
+            "Expected %s inputs but got %s", scalarInputs.length, inputs.length
+        );
+
+        System.arraycopy(inputs, 0, scalarInputs, 0, inputs.length);
+        return scalarComputeFunction.apply(scalarInputs);
+    }
+
     @Override
     public <T> T getInput(VariableReference input) {
+        if (scalarComputeFunction != null) {
+            Integer index = scalarInputIndices.get(input);
+            if (index != null) {
+                return (T) DoubleTensor.scalar(scalarInputs[index]);
+            }
+        }
         return (T) cachedInputs.get(input);
     }
 }
@@ -24,7 +24,7 @@ public class Exponential implements ContinuousDistribution {
 
     @Override
     public DoubleTensor sample(long[] shape, KeanuRandom random) {
-        return random.nextDouble(shape).logInPlace().timesInPlace(lambda).unaryMinusInPlace();
+        return random.nextExponential(shape).timesInPlace(lambda);
     }
 
     @Override
@@ -3,7 +3,6 @@ package io.improbable.keanu.distributions.continuous;
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.distributions.ContinuousDistribution;
 import io.improbable.keanu.distributions.hyperparam.Diffs;
-import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoublePlaceholderVertex;
@@ -12,14 +11,12 @@ import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.K;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.THETA;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.X;
-import static java.lang.Math.exp;
 import static java.lang.Math.log;
 import static java.lang.Math.pow;
 import static java.lang.Math.sqrt;
 
 public class Gamma implements ContinuousDistribution {
 
-    private static final double M_E = 0.577215664901532860606512090082;
     private final DoubleTensor theta;
     private final DoubleTensor k;
 
@@ -40,68 +37,81 @@ public class Gamma implements ContinuousDistribution {
     @Override
     public DoubleTensor sample(long[] shape, KeanuRandom random) {
         long[] broadcastedShape = TensorShape.getBroadcastResultShape(shape, theta.getShape(), k.getShape());
-        Tensor.FlattenedView<Double> thetaWrapped = theta.broadcast(broadcastedShape).getFlattenedView();
-        Tensor.FlattenedView<Double> kWrapped = k.broadcast(broadcastedShape).getFlattenedView();
+        double[] thetas = theta.broadcast(broadcastedShape).asFlatDoubleArray();
+        double[] ks = k.broadcast(broadcastedShape).asFlatDoubleArray();
 
-        int length = TensorShape.getLengthAsInt(broadcastedShape);
-        double[] samples = new double[length];
-        for (int i = 0; i < length; i++) {
-            samples[i] = sample(thetaWrapped.get(i), kWrapped.get(i), random);
+        for (int i = 0; i < ks.length; i++) {
+            if (thetas[i] <= 0. || ks[i] <= 0.) {
+                throw new IllegalArgumentException("Invalid value for theta or k. Theta: " + thetas[i] + ". k: " + ks[i]);
+            }
+        }
+
+        double[] samples = sampleWithUnitScale(ks, random);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] *= thetas[i];
         }
 
         return DoubleTensor.create(samples, shape);
     }
 
-    private static double sample(double theta, double k, KeanuRandom random) {
-        if (theta <= 0. || k <= 0.) {
-            throw new IllegalArgumentException("Invalid value for theta or k. Theta: " + theta + ". k: " + k);
+    /**
+     * Marsaglia and Tsang (2000) "A Simple Method for Generating Gamma Variables". Each round draws one Gaussian and
+     * one uniform for every element that has not yet been accepted, so the random numbers come in a few bulk draws.
+     * Over 95% of attempts are accepted for any k. Shapes below one are sampled as Gamma(k + 1) * U^(1/k).
+     */
+    private static double[] sampleWithUnitScale(double[] k, KeanuRandom random) {
+        final int length = k.length;
+        final double[] samples = new double[length];
+
+        int[] pending = new int[length];
+        for (int i = 0; i < length; i++) {
+            pending[i] = i;
         }
-        final double A = 1. / sqrt(2. * k - 1.);
-        final double B = k - log(4.);
-        final double Q = k + 1. / A;
-        final double T = 4.5;
-        final double D = 1. + log(T);
-        final double C = 1. + k / M_E;
-
-        if (k < 1.) {
-            return sampleWhileKLessThanOne(C, k, theta, random);
-        } else if (k == 1.0) return exponentialSample(theta, random);
-        else {
-            while (true) {
-                double p1 = random.nextDouble();
-                double p2 = random.nextDouble();
-                double v = A * log(p1 / (1. - p1));
-                double y = k * exp(v);
-                double z = p1 * p1 * p2;
-                double w = B + Q * v - y;
-                if (w + D - T * z >= 0. || w >= log(z)) return theta * y;
+
+        int pendingCount = length;
+        while (pendingCount > 0) {
+            double[] gaussians = new double[pendingCount];
+            double[] uniforms = new double[pendingCount];
+            random.nextGaussians(gaussians);
+            random.nextDoubles(uniforms);
+
+            int rejectedCount = 0;
+            for (int j = 0; j < pendingCount; j++) {
+                final int i = pending[j];
+                final double d = (k[i] < 1. ? k[i] + 1. : k[i]) - 1. / 3.;
+                final double c = 1. / sqrt(9. * d);
+                final double x = gaussians[j];
+                final double v = 1. + c * x;
+
+                if (v > 0.) {
+                    final double v3 = v * v * v;
+                    final double x2 = x * x;
+                    final double u = uniforms[j];
+                    if (u < 1. - 0.0331 * x2 * x2 || log(u) < 0.5 * x2 + d * (1. - v3 + log(v3))) {
+                        samples[i] = d * v3;
+                        continue;
+                    }
+                }
+                pending[rejectedCount++] = i;
             }
+            pendingCount = rejectedCount;
         }
-    }
 
-    private static double sampleWhileKLessThanOne(double c, double k, double theta, KeanuRandom random) {
-        while (true) {
-            double p = c * random.nextDouble();
-            if (p > 1.) {
-                double y = -log((c - p) / k);
-                if (random.nextDouble() <= pow(y, k - 1.)) return theta * y;
-            } else {
-                double y = pow(p, 1. / k);
-                if (random.nextDouble() <= exp(-y)) return theta * y;
+        int boostedCount = 0;
+        for (int i = 0; i < length; i++) {
+            if (k[i] < 1.) {
+                pending[boostedCount++] = i;
             }
         }
-    }
 
-    /**
-     * @param lambda shape
-     * @param random source of randomness
-     * @return a random number from the Exponential distribution
-     */
-    private static double exponentialSample(double lambda, KeanuRandom random) {
-        if (lambda <= 0.0) {
-            throw new IllegalArgumentException("Invalid value for b");
+        double[] boosts = new double[boostedCount];
+        random.nextDoubles(boosts);
+        for (int j = 0; j < boostedCount; j++) {
+            final int i = pending[j];
+            samples[i] *= pow(1. - boosts[j], 1. / k[i]);
         }
-        return -lambda * Math.log(random.nextDouble());
+
+        return samples;
     }
 
     @Override
@@ -3,7 +3,6 @@ package io.improbable.keanu.distributions.continuous;
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.distributions.ContinuousDistribution;
 import io.improbable.keanu.distributions.hyperparam.Diffs;
-import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoublePlaceholderVertex;
@@ -32,30 +31,31 @@ public class Laplace implements ContinuousDistribution {
         this.beta = beta;
     }
 
+    /**
+     * The distance from mu is exponential, so each element takes one exponential and one uniform for its side.
+     */
     @Override
     public DoubleTensor sample(long[] shape, KeanuRandom random) {
         long[] broadcastedShape = TensorShape.getBroadcastResultShape(shape, mu.getShape(), beta.getShape());
-        Tensor.FlattenedView<Double> muWrapped = mu.broadcast(broadcastedShape).getFlattenedView();
-        Tensor.FlattenedView<Double> betaWrapped = beta.broadcast(broadcastedShape).getFlattenedView();
+        double[] mus = mu.broadcast(broadcastedShape).asFlatDoubleArray();
+        double[] betas = beta.broadcast(broadcastedShape).asFlatDoubleArray();
 
-        int length = TensorShape.getLengthAsInt(broadcastedShape);
-        double[] samples = new double[length];
-        for (int i = 0; i < length; i++) {
-            samples[i] = sample(muWrapped.get(i), betaWrapped.get(i), random);
+        for (double b : betas) {
+            if (b <= 0.0) {
+                throw new IllegalArgumentException("Invalid value for beta: " + b);
+            }
         }
 
-        return DoubleTensor.create(samples, shape);
-    }
-
-    private static double sample(double mu, double beta, KeanuRandom random) {
-        if (beta <= 0.0) {
-            throw new IllegalArgumentException("Invalid value for beta: " + beta);
-        }
-        if (random.nextDouble() > 0.5) {
-            return mu + beta * Math.log(random.nextDouble());
-        } else {
-            return mu - beta * Math.log(random.nextDouble());
+        double[] samples = new double[mus.length];
+        double[] sides = new double[mus.length];
+        random.nextExponentials(samples);
+        random.nextDoubles(sides);
+        for (int i = 0; i < samples.length; i++) {
+            final double distance = betas[i] * samples[i];
+            samples[i] = sides[i] > 0.5 ? mus[i] - distance : mus[i] + distance;
         }
+
+        return DoubleTensor.create(samples, shape);
     }
 
     @Override
@@ -2,7 +2,6 @@ package io.improbable.keanu.distributions.discrete;
 
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.distributions.DiscreteDistribution;
-import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
@@ -10,9 +9,14 @@ import io.improbable.keanu.vertices.tensor.number.fixed.intgr.IntegerPlaceholder
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.IntegerVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoublePlaceholderVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import org.apache.commons.math3.util.CombinatoricsUtils;
+
+import java.util.Arrays;
 
 public class Binomial implements DiscreteDistribution {
 
+    private static final double INVERSION_THRESHOLD = 10.;
+
     private final DoubleTensor p;
     private final IntegerTensor n;
 
@@ -25,29 +29,124 @@ public class Binomial implements DiscreteDistribution {
         this.n = n;
     }
 
+    /**
+     * Each element is sampled with the smaller of p and 1 - p and flipped back afterwards. When n times that
+     * probability is below 10 it is sampled by inversion, which takes one uniform. Otherwise it uses the BTRS
+     * transformed rejection method of Hormann (1993) "The generation of binomial random variates", which takes O(1)
+     * steps rather than O(n).
+     */
     @Override
     public IntegerTensor sample(long[] shape, KeanuRandom random) {
         long[] broadcastedShape = TensorShape.getBroadcastResultShape(shape, p.getShape(), n.getShape());
-        Tensor.FlattenedView<Double> pWrapped = p.broadcast(broadcastedShape).getFlattenedView();
-        Tensor.FlattenedView<Integer> nWrapped = n.broadcast(broadcastedShape).getFlattenedView();
+        double[] ps = p.broadcast(broadcastedShape).asFlatDoubleArray();
+        int[] ns = n.broadcast(broadcastedShape).asFlatIntegerArray();
+
+        int length = TensorShape.getLengthAsInt(broadcastedShape);
+        double[] smallerPs = new double[length];
+        for (int i = 0; i < length; i++) {
+            smallerPs[i] = Math.min(ps[i], 1. - ps[i]);
+        }
 
-        int length = TensorShape.getLengthAsInt(shape);
         int[] samples = new int[length];
+        sampleByInversion(smallerPs, ns, samples, random);
+        sampleByTransformedRejection(smallerPs, ns, samples, random);
+
         for (int i = 0; i < length; i++) {
-            samples[i] = sample(pWrapped.get(i), nWrapped.get(i), random);
+            if (ps[i] > 0.5) {
+                samples[i] = ns[i] - samples[i];
+            }
         }
 
         return IntegerTensor.create(samples, broadcastedShape);
     }
 
-    private static int sample(double p, int n, KeanuRandom random) {
-        int sum = 0;
-        for (int i = 0; i < n; i++) {
-            if (random.nextDouble() < p) {
-                sum++;
+    private static void sampleByInversion(double[] ps, int[] ns, int[] samples, KeanuRandom random) {
+        int[] indices = indicesWhere(ps, ns, true);
+        double[] uniforms = new double[indices.length];
+        random.nextDoubles(uniforms);
+
+        for (int j = 0; j < indices.length; j++) {
+            final int i = indices[j];
+            final int n = ns[i];
+            final double p = ps[i];
+            if (p <= 0. || n <= 0) {
+                samples[i] = 0;
+                continue;
+            }
+
+            final double s = p / (1. - p);
+            final double a = (n + 1) * s;
+            double probability = Math.exp(n * Math.log1p(-p));
+            double u = uniforms[j];
+            int k = 0;
+            while (u > probability && k < n) {
+                u -= probability;
+                k++;
+                probability *= a / k - s;
+            }
+            samples[i] = k;
+        }
+    }
+
+    private static void sampleByTransformedRejection(double[] ps, int[] ns, int[] samples, KeanuRandom random) {
+        int[] pending = indicesWhere(ps, ns, false);
+        int pendingCount = pending.length;
+
+        while (pendingCount > 0) {
+            double[] uniforms = new double[2 * pendingCount];
+            random.nextDoubles(uniforms);
+
+            int rejectedCount = 0;
+            for (int j = 0; j < pendingCount; j++) {
+                final int i = pending[j];
+                final int n = ns[i];
+                final double p = ps[i];
+                final double standardDeviation = Math.sqrt(n * p * (1. - p));
+                final double b = 1.15 + 2.53 * standardDeviation;
+                final double a = -0.0873 + 0.0248 * b + 0.01 * p;
+                final double c = n * p + 0.5;
+                final double vr = 0.92 - 4.2 / b;
+
+                final double u = uniforms[2 * j] - 0.5;
+                final double v = uniforms[2 * j + 1];
+                final double us = 0.5 - Math.abs(u);
+                final double k = Math.floor((2 * a / us + b) * u + c);
+
+                if (k >= 0 && k <= n) {
+                    if (us >= 0.07 && v <= vr) {
+                        samples[i] = (int) k;
+                        continue;
+                    }
+
+                    final double alpha = (2.83 + 5.1 / b) * standardDeviation;
+                    final int m = (int) Math.floor((n + 1) * p);
+                    final double logAcceptance = Math.log(v * alpha / (a / (us * us) + b));
+                    final double logRatio = logBinomialCoefficient(n, (int) k) - logBinomialCoefficient(n, m)
+                        + (k - m) * Math.log(p / (1. - p));
+                    if (logAcceptance <= logRatio) {
+                        samples[i] = (int) k;
+                        continue;
+                    }
+                }
+                pending[rejectedCount++] = i;
+            }
+            pendingCount = rejectedCount;
+        }
+    }
+
+    private static double logBinomialCoefficient(int n, int k) {
+        return CombinatoricsUtils.factorialLog(n) - CombinatoricsUtils.factorialLog(k) - CombinatoricsUtils.factorialLog(n - k);
+    }
+
+    private static int[] indicesWhere(double[] ps, int[] ns, boolean small) {
+        int count = 0;
+        int[] indices = new int[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            if ((ns[i] * ps[i] < INVERSION_THRESHOLD) == small) {
+                indices[count++] = i;
             }
         }
-        return sum;
+        return Arrays.copyOf(indices, count);
     }
 
     @Override
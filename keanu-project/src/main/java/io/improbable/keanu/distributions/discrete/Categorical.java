@@ -2,6 +2,7 @@ package io.improbable.keanu.distributions.discrete;
 
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.distributions.Distribution;
+import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.generic.GenericTensor;
@@ -27,6 +28,10 @@ public class Categorical<CATEGORY> implements Distribution<GenericTensor<CATEGOR
 
     public GenericTensor<CATEGORY> sample(long[] shape, KeanuRandom random) {
 
+        if (hasSharedProbabilities()) {
+            return sampleFromAliasTable(shape, random);
+        }
+
         DoubleTensor sumOfProbabilities = getSumOfProbabilities(shape);
 
         DoubleTensor p = random.nextDouble(shape);
@@ -56,6 +61,92 @@ public class Categorical<CATEGORY> implements Distribution<GenericTensor<CATEGOR
         return sample;
     }
 
+    private boolean hasSharedProbabilities() {
+        for (DoubleTensor p : selectableValues.values()) {
+            if (p.getLength() != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * When every element shares the same probabilities, Vose's alias method samples each element in O(1) from one
+     * uniform, rather than comparing every element against each category in turn.
+     */
+    private GenericTensor<CATEGORY> sampleFromAliasTable(long[] shape, KeanuRandom random) {
+        final int categoryCount = categoryOrder.size();
+        final double[] probabilities = new double[categoryCount];
+        double sumOfProbabilities = 0.;
+        for (int i = 0; i < categoryCount; i++) {
+            probabilities[i] = selectableValues.get(categoryOrder.get(i)).getValue(0);
+            sumOfProbabilities += probabilities[i];
+        }
+
+        if (sumOfProbabilities <= 0.) {
+            throw new IllegalArgumentException("Cannot sample from a zero probability setup.");
+        }
+
+        final double[] threshold = new double[categoryCount];
+        final int[] alias = new int[categoryCount];
+        buildAliasTable(probabilities, sumOfProbabilities, threshold, alias);
+
+        final double[] uniforms = new double[TensorShape.getLengthAsInt(shape)];
+        random.nextDoubles(uniforms);
+
+        final Object[] samples = new Object[uniforms.length];
+        for (int i = 0; i < uniforms.length; i++) {
+            final double scaled = uniforms[i] * categoryCount;
+            final int column = (int) scaled;
+            final int category = scaled - column < threshold[column] ? column : alias[column];
+            samples[i] = categoryOrder.get(category);
+        }
+
+        return GenericTensor.create((CATEGORY[]) samples, shape);
+    }
+
+    private static void buildAliasTable(double[] probabilities, double sumOfProbabilities, double[] threshold, int[] alias) {
+        final int categoryCount = probabilities.length;
+        final double[] scaled = new double[categoryCount];
+        final int[] small = new int[categoryCount];
+        final int[] large = new int[categoryCount];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < categoryCount; i++) {
+            scaled[i] = probabilities[i] * categoryCount / sumOfProbabilities;
+            if (scaled[i] < 1.) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            final int less = small[--smallCount];
+            final int more = large[--largeCount];
+            threshold[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.;
+            if (scaled[more] < 1.) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        while (largeCount > 0) {
+            final int more = large[--largeCount];
+            threshold[more] = 1.;
+            alias[more] = more;
+        }
+        while (smallCount > 0) {
+            final int less = small[--smallCount];
+            threshold[less] = 1.;
+            alias[less] = less;
+        }
+    }
+
     public DoubleTensor logProb(GenericTensor<CATEGORY> x) {
 
         DoubleTensor sumOfProbabilities = getSumOfProbabilities(x.getShape());
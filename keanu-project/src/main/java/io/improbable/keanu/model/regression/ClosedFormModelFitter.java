@@ -0,0 +1,126 @@
+package io.improbable.keanu.model.regression;
+
+import io.improbable.keanu.model.ModelFitter;
+import io.improbable.keanu.model.ModelGraph;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+/**
+ * Fits a linear regression with Gaussian observations by solving its normal equations with a Cholesky decomposition,
+ * instead of optimizing the whole graph with gradients. The rows are only used to sum the products of the features
+ * with each other and with the output, so they can be streamed in batches and the memory needed grows with the square
+ * of the number of features rather than with the number of rows.
+ * <p>
+ * Without priors this finds the maximum likelihood, or least squares, intercept and weights. With priors, which must
+ * be Gaussian as they are for {@link RegressionRegularization#RIDGE}, it finds the maximum a posteriori intercept and
+ * weights.
+ */
+class ClosedFormModelFitter implements ModelFitter {
+
+    private final boolean usePriors;
+    private final CsvTrainingData trainingData;
+
+    /**
+     * @param usePriors    whether to find the maximum a posteriori rather than the maximum likelihood parameters
+     * @param trainingData the rows to fit to, or null to fit to the values observed in the graph
+     */
+    ClosedFormModelFitter(boolean usePriors, CsvTrainingData trainingData) {
+        this.usePriors = usePriors;
+        this.trainingData = trainingData;
+    }
+
+    ClosedFormModelFitter(boolean usePriors) {
+        this(usePriors, null);
+    }
+
+    @Override
+    public void fit(ModelGraph modelGraph) {
+        LinearRegressionParameters parameters = new LinearRegressionParameters(modelGraph);
+        double observationPrecision = parameters.getGaussianObservationPrecision();
+        int size = parameters.getLength();
+
+        // The normal equations for the intercept followed by the weights, as if the inputs had a leading column of ones
+        double[] lhs = new double[size * size];
+        double[] rhs = new double[size];
+
+        if (trainingData == null) {
+            LinearRegressionGraph<?> graph = parameters.getGraph();
+            DoubleTensor inputs = graph.getInputVertex().getValue();
+            DoubleTensor outputs = (DoubleTensor) graph.getOutputVertex().getValue();
+            addRows(inputs, outputs.reshape(inputs.getShape()[0], 1), lhs, rhs);
+        } else {
+            trainingData.forEachBatch((inputs, outputs) -> addRows(inputs, outputs, lhs, rhs));
+        }
+
+        for (int i = 0; i < size; i++) {
+            rhs[i] *= observationPrecision;
+            for (int j = 0; j < size; j++) {
+                lhs[i * size + j] *= observationPrecision;
+            }
+        }
+
+        if (usePriors) {
+            if (!parameters.hasGaussianPriors()) {
+                throw new IllegalArgumentException("Closed form fitting with priors needs Gaussian priors on the intercept and weights");
+            }
+            double[] means = parameters.getPriorMeans();
+            double[] scales = parameters.getPriorScales();
+            for (int i = 0; i < size; i++) {
+                double priorPrecision = 1. / (scales[i] * scales[i]);
+                lhs[i * size + i] += priorPrecision;
+                rhs[i] += priorPrecision * means[i];
+            }
+        }
+
+        double[] lower = DoubleTensor.create(lhs, size, size).choleskyDecomposition().asFlatDoubleArray();
+        parameters.setValues(solveWithCholeskyFactor(lower, rhs, size));
+    }
+
+    /**
+     * Solves L L^T x = b by forward substitution for L y = b followed by back substitution for L^T x = y.
+     *
+     * @param lower the lower triangular Cholesky factor L, row major
+     * @param rhs   the right hand side b
+     * @param size  the number of rows of L
+     * @return x
+     */
+    static double[] solveWithCholeskyFactor(double[] lower, double[] rhs, int size) {
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            double sum = rhs[i];
+            for (int k = 0; k < i; k++) {
+                sum -= lower[i * size + k] * y[k];
+            }
+            y[i] = sum / lower[i * size + i];
+        }
+
+        double[] x = new double[size];
+        for (int i = size - 1; i >= 0; i--) {
+            double sum = y[i];
+            for (int k = i + 1; k < size; k++) {
+                sum -= lower[k * size + i] * x[k];
+            }
+            x[i] = sum / lower[i * size + i];
+        }
+        return x;
+    }
+
+    private static void addRows(DoubleTensor inputs, DoubleTensor outputs, double[] lhs, double[] rhs) {
+        int featureCount = (int) inputs.getShape()[1];
+        int size = featureCount + 1;
+
+        double[] inputProducts = inputs.matrixMultiply(inputs, true, false).asFlatDoubleArray();
+        double[] inputSums = inputs.sum(0).asFlatDoubleArray();
+        double[] inputOutputProducts = inputs.matrixMultiply(outputs, true, false).asFlatDoubleArray();
+
+        lhs[0] += inputs.getShape()[0];
+        rhs[0] += outputs.sumNumber();
+        for (int i = 0; i < featureCount; i++) {
+            lhs[i + 1] += inputSums[i];
+            lhs[(i + 1) * size] += inputSums[i];
+            rhs[i + 1] += inputOutputProducts[i];
+            for (int j = 0; j < featureCount; j++) {
+                lhs[(i + 1) * size + j + 1] += inputProducts[i * featureCount + j];
+            }
+        }
+    }
+}
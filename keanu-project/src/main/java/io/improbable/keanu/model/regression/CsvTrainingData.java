@@ -0,0 +1,98 @@
+package io.improbable.keanu.model.regression;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.util.csv.CsvReader;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * The rows of a csv file to fit a regression to. The file is read again with {@link CsvReader#streamLines()} each time
+ * the rows are needed and handed over in batches, so the whole file is never held in memory.
+ */
+class CsvTrainingData {
+
+    private final CsvReader csvReader;
+    private final int[] inputColumns;
+    private final int outputColumn;
+    private final ToDoubleFunction<String> outputParser;
+    private final int batchSize;
+
+    /**
+     * @param csvReader    a reader of a csv file with a header
+     * @param inputColumns the names of the columns to use as features
+     * @param outputColumn the name of the column to use as the output
+     * @param outputParser converts the output column to a double
+     * @param batchSize    the most rows to hand over at once
+     */
+    CsvTrainingData(CsvReader csvReader, List<String> inputColumns, String outputColumn, ToDoubleFunction<String> outputParser, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive but was " + batchSize);
+        }
+        List<String> header = csvReader.getHeader();
+        this.csvReader = csvReader;
+        this.inputColumns = inputColumns.stream().mapToInt(column -> indexOfColumn(header, column)).toArray();
+        this.outputColumn = indexOfColumn(header, outputColumn);
+        this.outputParser = outputParser;
+        this.batchSize = batchSize;
+    }
+
+    private static int indexOfColumn(List<String> header, String column) {
+        int index = header.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("Column " + column + " is not in the csv header " + header);
+        }
+        return index;
+    }
+
+    int getFeatureCount() {
+        return inputColumns.length;
+    }
+
+    long countRows() {
+        try (Stream<List<String>> lines = csvReader.streamLines()) {
+            return lines.count();
+        }
+    }
+
+    /**
+     * @param batchConsumer called with each batch of rows in file order, as an input matrix with a row per csv row and
+     *                      a column per feature, and an output column vector
+     */
+    void forEachBatch(BiConsumer<DoubleTensor, DoubleTensor> batchConsumer) {
+        int featureCount = inputColumns.length;
+        double[] inputs = new double[batchSize * featureCount];
+        double[] outputs = new double[batchSize];
+        int rows = 0;
+
+        try (Stream<List<String>> lines = csvReader.streamLines()) {
+            Iterator<List<String>> lineIterator = lines.iterator();
+            while (lineIterator.hasNext()) {
+                List<String> line = lineIterator.next();
+                for (int i = 0; i < featureCount; i++) {
+                    inputs[rows * featureCount + i] = Double.parseDouble(line.get(inputColumns[i]));
+                }
+                outputs[rows] = outputParser.applyAsDouble(line.get(outputColumn));
+                rows++;
+
+                if (rows == batchSize) {
+                    batchConsumer.accept(DoubleTensor.create(inputs, rows, featureCount), DoubleTensor.create(outputs, rows, 1));
+                    inputs = new double[batchSize * featureCount];
+                    outputs = new double[batchSize];
+                    rows = 0;
+                }
+            }
+        }
+
+        if (rows > 0) {
+            batchConsumer.accept(
+                DoubleTensor.create(Arrays.copyOf(inputs, rows * featureCount), rows, featureCount),
+                DoubleTensor.create(Arrays.copyOf(outputs, rows), rows, 1)
+            );
+        }
+    }
+}
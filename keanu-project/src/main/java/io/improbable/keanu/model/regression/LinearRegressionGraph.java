@@ -54,6 +54,10 @@ public class LinearRegressionGraph<OUTPUT> implements ModelGraph<DoubleTensor, O
         yObservationVertex.observe(output);
     }
 
+    public DoubleVertex getInputVertex() {
+        return xVertex;
+    }
+
     public DoubleVertex getInterceptVertex() {
         return interceptVertex;
     }
@@ -0,0 +1,152 @@
+package io.improbable.keanu.model.regression;
+
+import io.improbable.keanu.model.ModelGraph;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.tensor.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.LaplaceVertex;
+
+import java.util.Arrays;
+
+/**
+ * The intercept and weights of a {@link LinearRegressionGraph} as one array with the intercept first, and the
+ * likelihood and priors they are fitted with, for the fitters that solve for them directly instead of optimizing the
+ * graph.
+ */
+class LinearRegressionParameters {
+
+    private final LinearRegressionGraph<?> graph;
+    private final int featureCount;
+    private double[] priorMeans;
+    private double[] priorScales;
+
+    LinearRegressionParameters(ModelGraph modelGraph) {
+        if (!(modelGraph instanceof LinearRegressionGraph)) {
+            throw new IllegalArgumentException("Only a " + LinearRegressionGraph.class.getSimpleName() + " can be fitted this way");
+        }
+        this.graph = (LinearRegressionGraph<?>) modelGraph;
+        this.featureCount = (int) graph.getWeightVertex().getLength();
+    }
+
+    LinearRegressionGraph<?> getGraph() {
+        return graph;
+    }
+
+    int getFeatureCount() {
+        return featureCount;
+    }
+
+    /**
+     * @return the number of parameters, which is the number of features plus one for the intercept
+     */
+    int getLength() {
+        return featureCount + 1;
+    }
+
+    boolean hasLogisticLikelihood() {
+        return graph.getOutputVertex() instanceof BernoulliVertex;
+    }
+
+    /**
+     * @return one over the variance of the observations if they are Gaussian
+     * @throws IllegalArgumentException if the observations are not Gaussian with a single sigma
+     */
+    double getGaussianObservationPrecision() {
+        Vertex<?, ?> outputVertex = graph.getOutputVertex();
+        if (!(outputVertex instanceof GaussianVertex)) {
+            throw new IllegalArgumentException("Expected Gaussian observations but they were " + outputVertex.getClass().getSimpleName());
+        }
+        DoubleTensor sigma = ((GaussianVertex) outputVertex).getSigma().getValue();
+        if (sigma.getLength() != 1) {
+            throw new IllegalArgumentException("Expected a single observation sigma but got shape " + Arrays.toString(sigma.getShape()));
+        }
+        double sigmaValue = sigma.asFlatDoubleArray()[0];
+        return 1. / (sigmaValue * sigmaValue);
+    }
+
+    boolean hasGaussianPriors() {
+        return graph.getInterceptVertex() instanceof GaussianVertex && graph.getWeightVertex() instanceof GaussianVertex;
+    }
+
+    boolean hasLaplacePriors() {
+        return graph.getInterceptVertex() instanceof LaplaceVertex && graph.getWeightVertex() instanceof LaplaceVertex;
+    }
+
+    /**
+     * @return the means of the priors on the parameters
+     */
+    double[] getPriorMeans() {
+        if (priorMeans == null) {
+            if (hasGaussianPriors()) {
+                priorMeans = flatten(((GaussianVertex) graph.getInterceptVertex()).getMu(), ((GaussianVertex) graph.getWeightVertex()).getMu());
+            } else if (hasLaplacePriors()) {
+                priorMeans = flatten(((LaplaceVertex) graph.getInterceptVertex()).getMu(), ((LaplaceVertex) graph.getWeightVertex()).getMu());
+            } else {
+                throw unsupportedPriors();
+            }
+        }
+        return priorMeans;
+    }
+
+    /**
+     * @return the sigmas of Gaussian priors or the betas of Laplace priors on the parameters
+     */
+    double[] getPriorScales() {
+        if (priorScales == null) {
+            if (hasGaussianPriors()) {
+                priorScales = flatten(((GaussianVertex) graph.getInterceptVertex()).getSigma(), ((GaussianVertex) graph.getWeightVertex()).getSigma());
+            } else if (hasLaplacePriors()) {
+                priorScales = flatten(((LaplaceVertex) graph.getInterceptVertex()).getBeta(), ((LaplaceVertex) graph.getWeightVertex()).getBeta());
+            } else {
+                throw unsupportedPriors();
+            }
+        }
+        return priorScales;
+    }
+
+    /**
+     * Adds the gradient of the log of the priors at some parameters, times a factor, to a gradient.
+     */
+    void addPriorGradient(double[] parameters, double[] gradient, double factor) {
+        double[] means = getPriorMeans();
+        double[] scales = getPriorScales();
+        boolean gaussian = hasGaussianPriors();
+        for (int i = 0; i < parameters.length; i++) {
+            double difference = parameters[i] - means[i];
+            double dLogPrior = gaussian ?
+                -difference / (scales[i] * scales[i]) :
+                -Math.signum(difference) / scales[i];
+            gradient[i] += factor * dLogPrior;
+        }
+    }
+
+    /**
+     * @param parameters the intercept followed by the weights, which are set as the values of the vertices of the graph
+     */
+    void setValues(double[] parameters) {
+        DoubleVertex interceptVertex = graph.getInterceptVertex();
+        DoubleVertex weightVertex = graph.getWeightVertex();
+        interceptVertex.setValue(DoubleTensor.create(parameters[0], interceptVertex.getShape()));
+        weightVertex.setValue(DoubleTensor.create(Arrays.copyOfRange(parameters, 1, parameters.length), weightVertex.getShape()));
+    }
+
+    private double[] flatten(DoubleVertex interceptParameter, DoubleVertex weightParameter) {
+        double[] flattened = new double[getLength()];
+        flattened[0] = interceptParameter.getValue().asFlatDoubleArray()[0];
+
+        double[] weightValues = weightParameter.getValue().asFlatDoubleArray();
+        if (weightValues.length != 1 && weightValues.length != featureCount) {
+            throw new IllegalArgumentException("Expected " + featureCount + " weight prior parameters but got " + weightValues.length);
+        }
+        for (int i = 0; i < featureCount; i++) {
+            flattened[i + 1] = weightValues.length == 1 ? weightValues[0] : weightValues[i];
+        }
+        return flattened;
+    }
+
+    private IllegalArgumentException unsupportedPriors() {
+        return new IllegalArgumentException("Only Gaussian or Laplace priors on both the intercept and weights are supported");
+    }
+}
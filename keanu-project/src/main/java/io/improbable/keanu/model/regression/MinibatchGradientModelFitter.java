@@ -0,0 +1,112 @@
+package io.improbable.keanu.model.regression;
+
+import io.improbable.keanu.model.ModelFitter;
+import io.improbable.keanu.model.ModelGraph;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+import java.util.Arrays;
+
+/**
+ * Fits a linear or logistic regression by gradient ascent on batches of rows streamed from a csv file, so the memory
+ * needed grows with the batch size rather than with the number of rows.
+ * <p>
+ * Each step follows the mean gradient of the log likelihood of the rows in a batch plus the gradient of the log of the
+ * priors divided by the number of rows, which on average is the gradient of the log posterior divided by the number of
+ * rows. The steps are scaled per parameter as in {@link io.improbable.keanu.algorithms.variational.optimizer.gradient.Adam},
+ * which copes with features of very different scales, and the rows are passed over a fixed number of times.
+ */
+class MinibatchGradientModelFitter implements ModelFitter {
+
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    private final boolean usePriors;
+    private final CsvTrainingData trainingData;
+    private final int epochs;
+    private final double learningRate;
+
+    /**
+     * @param usePriors    whether to find the maximum a posteriori rather than the maximum likelihood parameters
+     * @param trainingData the rows to fit to
+     * @param epochs       the number of passes over the rows
+     * @param learningRate the largest change of a parameter in one step
+     */
+    MinibatchGradientModelFitter(boolean usePriors, CsvTrainingData trainingData, int epochs, double learningRate) {
+        if (epochs <= 0) {
+            throw new IllegalArgumentException("The number of epochs must be positive but was " + epochs);
+        }
+        if (learningRate <= 0) {
+            throw new IllegalArgumentException("The learning rate must be positive but was " + learningRate);
+        }
+        this.usePriors = usePriors;
+        this.trainingData = trainingData;
+        this.epochs = epochs;
+        this.learningRate = learningRate;
+    }
+
+    @Override
+    public void fit(ModelGraph modelGraph) {
+        LinearRegressionParameters parameters = new LinearRegressionParameters(modelGraph);
+        boolean logistic = parameters.hasLogisticLikelihood();
+        double observationPrecision = logistic ? 1.0 : parameters.getGaussianObservationPrecision();
+        double priorFactor = usePriors ? 1. / trainingData.countRows() : 0.0;
+
+        AdamAscent ascent = new AdamAscent(parameters.getPriorMeans());
+        int featureCount = parameters.getFeatureCount();
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            trainingData.forEachBatch((inputs, outputs) -> {
+                double[] theta = ascent.theta;
+                DoubleTensor weights = DoubleTensor.create(Arrays.copyOfRange(theta, 1, theta.length), featureCount, 1);
+                DoubleTensor linearPredictor = inputs.matrixMultiply(weights).plusInPlace(theta[0]);
+
+                DoubleTensor dLogLikelihood = logistic ?
+                    outputs.minus(linearPredictor.sigmoidInPlace()) :
+                    outputs.minus(linearPredictor).timesInPlace(observationPrecision);
+
+                double rowCount = inputs.getShape()[0];
+                double[] weightGradient = inputs.matrixMultiply(dLogLikelihood, true, false).asFlatDoubleArray();
+                double[] gradient = new double[theta.length];
+                gradient[0] = dLogLikelihood.sumNumber() / rowCount;
+                for (int i = 0; i < featureCount; i++) {
+                    gradient[i + 1] = weightGradient[i] / rowCount;
+                }
+
+                if (usePriors) {
+                    parameters.addPriorGradient(theta, gradient, priorFactor);
+                }
+
+                ascent.step(gradient, learningRate);
+            });
+        }
+
+        parameters.setValues(ascent.theta);
+    }
+
+    private static class AdamAscent {
+        private final double[] theta;
+        private final double[] m;
+        private final double[] v;
+        private double beta1T = 1;
+        private double beta2T = 1;
+
+        AdamAscent(double[] initialTheta) {
+            this.theta = initialTheta.clone();
+            this.m = new double[theta.length];
+            this.v = new double[theta.length];
+        }
+
+        void step(double[] gradient, double alpha) {
+            beta1T *= BETA1;
+            beta2T *= BETA2;
+            double b = (1 - beta1T) / Math.sqrt(1 - beta2T);
+
+            for (int i = 0; i < theta.length; i++) {
+                m[i] = BETA1 * m[i] + (1 - BETA1) * gradient[i];
+                v[i] = BETA2 * v[i] + (1 - BETA2) * gradient[i] * gradient[i];
+                theta[i] += alpha * m[i] / (Math.sqrt(v[i]) * b + EPSILON);
+            }
+        }
+    }
+}
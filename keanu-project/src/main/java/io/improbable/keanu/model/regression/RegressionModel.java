@@ -4,12 +4,14 @@ import io.improbable.keanu.model.ModelFitter;
 import io.improbable.keanu.model.PredictiveModel;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.util.csv.CsvReader;
 import io.improbable.keanu.vertices.ConstantVertex;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.bool.probabilistic.BernoulliVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
 
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -21,6 +23,12 @@ import java.util.function.Function;
  *      .withRegularization(RegressionRegularization.RIDGE)
  *      .build();
  * </pre>
+ * Training data that is too large to hold in memory can be streamed from a csv file instead:
+ * <pre>
+ * RegressionModel model = RegressionModel
+ *      .withStreamingTrainingData(ReadCsv.fromFile(path), inputColumns, outputColumn)
+ *      .build();
+ * </pre>
  */
 public class RegressionModel<OUTPUT> implements PredictiveModel<DoubleTensor, OUTPUT> {
     private static final double DEFAULT_OBSERVATION_SIGMA = 1.0;
@@ -40,6 +48,36 @@ public class RegressionModel<OUTPUT> implements PredictiveModel<DoubleTensor, OU
         return new RegressionModelBuilder<>(inputTrainingData, outputTrainingData, RegressionModel.logisticOutputTransform());
     }
 
+    /**
+     * @param csvReader    a reader of a csv file with a header
+     * @param inputColumns the names of the columns to use as features
+     * @param outputColumn the name of the column to use as the output
+     * @return a builder of a linear regression model that streams its training data from the csv file
+     */
+    public static StreamingRegressionModelBuilder<DoubleTensor> withStreamingTrainingData(CsvReader csvReader, List<String> inputColumns, String outputColumn) {
+        return new StreamingRegressionModelBuilder<>(csvReader, inputColumns, outputColumn, Double::parseDouble, RegressionModel.gaussianOutputTransform(DEFAULT_OBSERVATION_SIGMA));
+    }
+
+    /**
+     * @param csvReader    a reader of a csv file with a header
+     * @param inputColumns the names of the columns to use as features
+     * @param outputColumn the name of the column to use as the output, which must be true, false, 1 or 0
+     * @return a builder of a logistic regression model that streams its training data from the csv file
+     */
+    public static StreamingRegressionModelBuilder<BooleanTensor> withStreamingLogisticTrainingData(CsvReader csvReader, List<String> inputColumns, String outputColumn) {
+        return new StreamingRegressionModelBuilder<>(csvReader, inputColumns, outputColumn, RegressionModel::parseBooleanOutput, RegressionModel.logisticOutputTransform())
+            .withMinibatchGradientFitting();
+    }
+
+    private static double parseBooleanOutput(String output) {
+        if (output.equalsIgnoreCase("true") || output.equals("1")) {
+            return 1.0;
+        } else if (output.equalsIgnoreCase("false") || output.equals("0")) {
+            return 0.0;
+        }
+        throw new IllegalArgumentException("Expected a boolean output but got " + output);
+    }
+
     static Function<DoubleVertex, LinearRegressionGraph.OutputVertices<DoubleTensor>> gaussianOutputTransform(double measurementSigma) {
         return yVertex -> new LinearRegressionGraph.OutputVertices<>(yVertex, new GaussianVertex(yVertex, measurementSigma));
     }
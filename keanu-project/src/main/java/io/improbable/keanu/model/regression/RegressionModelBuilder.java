@@ -4,7 +4,6 @@ import io.improbable.keanu.model.ModelFitter;
 import io.improbable.keanu.model.SamplingModelFitting;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
-import io.improbable.keanu.vertices.ConstantVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 
 import java.util.function.Function;
@@ -14,21 +13,14 @@ import java.util.function.Function;
  *
  * @see RegressionModel
  */
-public class RegressionModelBuilder<OUTPUT extends Tensor> {
-
-    private static final double DEFAULT_MU = 0.0;
-    private static final double DEFAULT_SCALE_PARAMETER = 1.0;
+public class RegressionModelBuilder<OUTPUT extends Tensor> extends RegressionPriorBuilder<RegressionModelBuilder<OUTPUT>> {
 
     private final DoubleTensor inputTrainingData;
     private final OUTPUT outputTrainingData;
     private final Function<DoubleVertex, LinearRegressionGraph.OutputVertices<OUTPUT>> outputTransform;
 
-    private RegressionRegularization regularization = RegressionRegularization.NONE;
-    private DoubleVertex priorOnWeightsScaleParameters;
-    private DoubleVertex priorOnWeightsMeans;
-    private DoubleVertex priorOnInterceptScaleParameter;
-    private DoubleVertex priorOnInterceptMean;
     private SamplingModelFitting samplingAlgorithm = null;
+    private boolean closedFormFitting = false;
 
     public RegressionModelBuilder(DoubleTensor inputTrainingData, OUTPUT outputTrainingData, Function<DoubleVertex, LinearRegressionGraph.OutputVertices<OUTPUT>> outputTransform) {
         this.inputTrainingData = reshapeToMatrix(inputTrainingData);
@@ -36,8 +28,8 @@ public class RegressionModelBuilder<OUTPUT extends Tensor> {
         this.outputTransform = outputTransform;
     }
 
-    public RegressionModelBuilder withRegularization(RegressionRegularization regularization) {
-        this.regularization = regularization;
+    @Override
+    protected RegressionModelBuilder<OUTPUT> self() {
         return this;
     }
 
@@ -52,74 +44,27 @@ public class RegressionModelBuilder<OUTPUT extends Tensor> {
     }
 
     /**
-     * Set the input parameters to the distribution describing the prior belief about the weights of the regression model
-     *
-     * @param means           An array of means of the distribution describing the prior belief about the regression weights
-     * @param scaleParameters An array of scale parameters of the distribution describing the prior belief about the regression weights.
-     *                        This will represent sigmas if no or ridge regularization is used and will represent betas if lasso regularization is used.
-     * @return this
-     */
-    public RegressionModelBuilder withPriorOnWeights(DoubleVertex means, DoubleVertex scaleParameters) {
-        this.priorOnWeightsMeans = means;
-        this.priorOnWeightsScaleParameters = scaleParameters;
-        return this;
-    }
-
-    public RegressionModelBuilder withPriorOnWeights(DoubleTensor means, DoubleTensor scaleParameters) {
-        return withPriorOnWeights(ConstantVertex.of(means), ConstantVertex.of(scaleParameters));
-    }
-
-    public RegressionModelBuilder withPriorOnWeights(double means, double scaleParameters) {
-        return withPriorOnWeights(
-            DoubleTensor.create(new double[]{means}, 1, 1),
-            DoubleTensor.create(new double[]{scaleParameters}, 1, 1)
-        );
-    }
-
-    /**
-     * Set the input parameters to the distribution describing the prior belief about the intercept of the regression model
-     *
-     * @param mean           The mean of the distribution describing the prior belief about the regression intercept
-     * @param scaleParameter The scale parameter of the distribution describing the prior belief about the regression intercept.
-     *                       This will represent sigmas if no or ridge regularization is used and will represent betas if lasso regularization is used.
-     * @return this
-     */
-    public RegressionModelBuilder withPriorOnIntercept(DoubleVertex mean, DoubleVertex scaleParameter) {
-        this.priorOnInterceptMean = mean;
-        this.priorOnInterceptScaleParameter = scaleParameter;
-        return this;
-    }
-
-    public RegressionModelBuilder withPriorOnIntercept(DoubleTensor mean, DoubleTensor scaleParameter) {
-        return withPriorOnIntercept(ConstantVertex.of(mean), ConstantVertex.of(scaleParameter));
-    }
-
-    public RegressionModelBuilder withPriorOnIntercept(double mean, double scaleParameter) {
-        return withPriorOnIntercept(ConstantVertex.of(mean), ConstantVertex.of(scaleParameter));
-    }
-
-    /**
-     * Set the input parameters to the distribution describing the prior belief about both the intercept and weights of the regression model
+     * Optional - use a sampling algorithm to fit the model instead of the default, which is gradient optimization.
      *
-     * @param mean           The mean of the distribution describing the prior belief about both the regression intercept and weights
-     * @param scaleParameter The scale parameter of the distribution describing the prior belief about both regression intercept and weights.
-     *                       This will represent sigmas if no or ridge regularization is used and will represent betas if lasso regularization is used.
+     * @param sampling Defines the number of samples to take and the algorithm to use, e.g. {@link io.improbable.keanu.algorithms.mcmc.MetropolisHastings}
      * @return this
      */
-    public RegressionModelBuilder withPriorOnWeightsAndIntercept(double mean, double scaleParameter) {
-        withPriorOnWeights(mean, scaleParameter);
-        withPriorOnIntercept(mean, scaleParameter);
+    public RegressionModelBuilder<OUTPUT> withSampling(SamplingModelFitting sampling) {
+        this.samplingAlgorithm = sampling;
         return this;
     }
 
     /**
-     * Optional - use a sampling algorithm to fit the model instead of the default, which is gradient optimization.
+     * Optional - solve the normal equations of a linear regression with Gaussian observations to fit the model, instead
+     * of the default, which is gradient optimization. This finds the exact optimum without building gradients over
+     * every row, and only needs memory for the square of the number of features on top of the training data.
+     * <p>
+     * It can be used with no regularization or with ridge regularization, but not with lasso regularization.
      *
-     * @param sampling Defines the number of samples to take and the algorithm to use, e.g. {@link io.improbable.keanu.algorithms.mcmc.MetropolisHastings}
      * @return this
      */
-    public RegressionModelBuilder withSampling(SamplingModelFitting sampling) {
-        this.samplingAlgorithm = sampling;
+    public RegressionModelBuilder<OUTPUT> withClosedFormFitting() {
+        this.closedFormFitting = true;
         return this;
     }
 
@@ -139,12 +84,17 @@ public class RegressionModelBuilder<OUTPUT extends Tensor> {
             this.inputTrainingData.getShape(),
             outputTransform,
             getInterceptVertex(),
-            getWeightsVertex()
+            getWeightsVertex(getFeatureCount())
         );
 
-        ModelFitter fitter = samplingAlgorithm == null ?
-            this.regularization.createFitterForGraph() :
-            samplingAlgorithm.createFitterForGraph();
+        ModelFitter fitter;
+        if (closedFormFitting) {
+            fitter = new ClosedFormModelFitter(getRegularization() != RegressionRegularization.NONE);
+        } else if (samplingAlgorithm != null) {
+            fitter = samplingAlgorithm.createFitterForGraph();
+        } else {
+            fitter = getRegularization().createFitterForGraph();
+        }
 
         regressionGraph.observeValues(inputTrainingData, outputTrainingData);
         return new RegressionModel(regressionGraph, fitter);
@@ -157,20 +107,13 @@ public class RegressionModelBuilder<OUTPUT extends Tensor> {
         if (outputTrainingData == null) {
             throw new IllegalArgumentException("You have not provided output training data");
         }
-        if (priorOnWeightsMeans == null || priorOnWeightsScaleParameters == null) {
-            withPriorOnWeights(DEFAULT_MU, DEFAULT_SCALE_PARAMETER);
+        if (closedFormFitting && samplingAlgorithm != null) {
+            throw new IllegalArgumentException("You cannot use both closed form fitting and sampling");
         }
-        if (priorOnInterceptMean == null || priorOnInterceptScaleParameter == null) {
-            withPriorOnIntercept(DEFAULT_MU, DEFAULT_SCALE_PARAMETER);
+        if (closedFormFitting && getRegularization() == RegressionRegularization.LASSO) {
+            throw new IllegalArgumentException("Closed form fitting cannot be used with lasso regularization");
         }
-    }
-
-    private DoubleVertex getInterceptVertex() {
-        return this.regularization.getInterceptVertex(priorOnInterceptMean, priorOnInterceptScaleParameter);
-    }
-
-    private DoubleVertex getWeightsVertex() {
-        return this.regularization.getWeightsVertex(getFeatureCount(), priorOnWeightsMeans, priorOnWeightsScaleParameters);
+        setDefaultPriorsIfUnset();
     }
 
     private long getFeatureCount() {
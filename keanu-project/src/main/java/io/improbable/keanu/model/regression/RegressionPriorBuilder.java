@@ -0,0 +1,115 @@
+package io.improbable.keanu.model.regression;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.ConstantVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+
+/**
+ * The regularization and priors of a regression model, which are configured the same way by every regression model
+ * builder.
+ *
+ * @param <BUILDER> the type of the builder, which is returned by each method to allow chaining
+ */
+public abstract class RegressionPriorBuilder<BUILDER extends RegressionPriorBuilder<BUILDER>> {
+
+    private static final double DEFAULT_MU = 0.0;
+    private static final double DEFAULT_SCALE_PARAMETER = 1.0;
+
+    private RegressionRegularization regularization = RegressionRegularization.NONE;
+    private DoubleVertex priorOnWeightsScaleParameters;
+    private DoubleVertex priorOnWeightsMeans;
+    private DoubleVertex priorOnInterceptScaleParameter;
+    private DoubleVertex priorOnInterceptMean;
+
+    protected abstract BUILDER self();
+
+    public BUILDER withRegularization(RegressionRegularization regularization) {
+        this.regularization = regularization;
+        return self();
+    }
+
+    /**
+     * Set the input parameters to the distribution describing the prior belief about the weights of the regression model
+     *
+     * @param means           An array of means of the distribution describing the prior belief about the regression weights
+     * @param scaleParameters An array of scale parameters of the distribution describing the prior belief about the regression weights.
+     *                        This will represent sigmas if no or ridge regularization is used and will represent betas if lasso regularization is used.
+     * @return this
+     */
+    public BUILDER withPriorOnWeights(DoubleVertex means, DoubleVertex scaleParameters) {
+        this.priorOnWeightsMeans = means;
+        this.priorOnWeightsScaleParameters = scaleParameters;
+        return self();
+    }
+
+    public BUILDER withPriorOnWeights(DoubleTensor means, DoubleTensor scaleParameters) {
+        return withPriorOnWeights(ConstantVertex.of(means), ConstantVertex.of(scaleParameters));
+    }
+
+    public BUILDER withPriorOnWeights(double means, double scaleParameters) {
+        return withPriorOnWeights(
+            DoubleTensor.create(new double[]{means}, 1, 1),
+            DoubleTensor.create(new double[]{scaleParameters}, 1, 1)
+        );
+    }
+
+    /**
+     * Set the input parameters to the distribution describing the prior belief about the intercept of the regression model
+     *
+     * @param mean           The mean of the distribution describing the prior belief about the regression intercept
+     * @param scaleParameter The scale parameter of the distribution describing the prior belief about the regression intercept.
+     *                       This will represent sigmas if no or ridge regularization is used and will represent betas if lasso regularization is used.
+     * @return this
+     */
+    public BUILDER withPriorOnIntercept(DoubleVertex mean, DoubleVertex scaleParameter) {
+        this.priorOnInterceptMean = mean;
+        this.priorOnInterceptScaleParameter = scaleParameter;
+        return self();
+    }
+
+    public BUILDER withPriorOnIntercept(DoubleTensor mean, DoubleTensor scaleParameter) {
+        return withPriorOnIntercept(ConstantVertex.of(mean), ConstantVertex.of(scaleParameter));
+    }
+
+    public BUILDER withPriorOnIntercept(double mean, double scaleParameter) {
+        return withPriorOnIntercept(ConstantVertex.of(mean), ConstantVertex.of(scaleParameter));
+    }
+
+    /**
+     * Set the input parameters to the distribution describing the prior belief about both the intercept and weights of the regression model
+     *
+     * @param mean           The mean of the distribution describing the prior belief about both the regression intercept and weights
+     * @param scaleParameter The scale parameter of the distribution describing the prior belief about both regression intercept and weights.
+     *                       This will represent sigmas if no or ridge regularization is used and will represent betas if lasso regularization is used.
+     * @return this
+     */
+    public BUILDER withPriorOnWeightsAndIntercept(double mean, double scaleParameter) {
+        withPriorOnWeights(mean, scaleParameter);
+        withPriorOnIntercept(mean, scaleParameter);
+        return self();
+    }
+
+    protected RegressionRegularization getRegularization() {
+        return regularization;
+    }
+
+    /**
+     * Use the default prior on the weights or intercept if none has been set.
+     */
+    protected void setDefaultPriorsIfUnset() {
+        if (priorOnWeightsMeans == null || priorOnWeightsScaleParameters == null) {
+            withPriorOnWeights(DEFAULT_MU, DEFAULT_SCALE_PARAMETER);
+        }
+        if (priorOnInterceptMean == null || priorOnInterceptScaleParameter == null) {
+            withPriorOnIntercept(DEFAULT_MU, DEFAULT_SCALE_PARAMETER);
+        }
+    }
+
+    protected DoubleVertex getInterceptVertex() {
+        return regularization.getInterceptVertex(priorOnInterceptMean, priorOnInterceptScaleParameter);
+    }
+
+    protected DoubleVertex getWeightsVertex(long featureCount) {
+        return regularization.getWeightsVertex(featureCount, priorOnWeightsMeans, priorOnWeightsScaleParameters);
+    }
+}
@@ -0,0 +1,120 @@
+package io.improbable.keanu.model.regression;
+
+import io.improbable.keanu.model.ModelFitter;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.util.csv.CsvReader;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Builder class for doing regression on rows streamed from a csv file, so that fitting never holds every row in memory.
+ * <p>
+ * Linear regression is fitted by default by solving its normal equations one batch of rows at a time. Logistic
+ * regression, or linear regression with lasso regularization, is fitted by gradient ascent on batches of rows.
+ *
+ * @see RegressionModel#withStreamingTrainingData(CsvReader, List, String)
+ */
+public class StreamingRegressionModelBuilder<OUTPUT extends Tensor> extends RegressionPriorBuilder<StreamingRegressionModelBuilder<OUTPUT>> {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_EPOCHS = 20;
+    private static final double DEFAULT_LEARNING_RATE = 0.05;
+
+    private final CsvReader csvReader;
+    private final List<String> inputColumns;
+    private final String outputColumn;
+    private final ToDoubleFunction<String> outputParser;
+    private final Function<DoubleVertex, LinearRegressionGraph.OutputVertices<OUTPUT>> outputTransform;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean minibatchGradientFitting;
+    private int epochs = DEFAULT_EPOCHS;
+    private double learningRate = DEFAULT_LEARNING_RATE;
+
+    /**
+     * @param csvReader       a reader of a csv file with a header, which is read again each time the rows are needed
+     * @param inputColumns    the names of the columns to use as features
+     * @param outputColumn    the name of the column to use as the output
+     * @param outputParser    converts the output column to a double, which is 0 or 1 for logistic regression
+     * @param outputTransform turns the linear predictor into the output and observed vertices of the model
+     */
+    public StreamingRegressionModelBuilder(CsvReader csvReader,
+                                           List<String> inputColumns,
+                                           String outputColumn,
+                                           ToDoubleFunction<String> outputParser,
+                                           Function<DoubleVertex, LinearRegressionGraph.OutputVertices<OUTPUT>> outputTransform) {
+        this.csvReader = csvReader;
+        this.inputColumns = inputColumns;
+        this.outputColumn = outputColumn;
+        this.outputParser = outputParser;
+        this.outputTransform = outputTransform;
+    }
+
+    @Override
+    protected StreamingRegressionModelBuilder<OUTPUT> self() {
+        return this;
+    }
+
+    /**
+     * @param batchSize the most rows to hold in memory at once while fitting
+     * @return this
+     */
+    public StreamingRegressionModelBuilder<OUTPUT> withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Fit the model by gradient ascent on batches of rows instead of by solving the normal equations. This is always
+     * used for logistic regression and lasso regularization, which have no closed form solution.
+     *
+     * @param epochs       the number of passes over the rows
+     * @param learningRate the largest change of a parameter in one step
+     * @return this
+     */
+    public StreamingRegressionModelBuilder<OUTPUT> withMinibatchGradientFitting(int epochs, double learningRate) {
+        this.minibatchGradientFitting = true;
+        this.epochs = epochs;
+        this.learningRate = learningRate;
+        return this;
+    }
+
+    public StreamingRegressionModelBuilder<OUTPUT> withMinibatchGradientFitting() {
+        return withMinibatchGradientFitting(DEFAULT_EPOCHS, DEFAULT_LEARNING_RATE);
+    }
+
+    /**
+     * @return A regression model fitted to the rows of the csv file
+     */
+    public RegressionModel<OUTPUT> build() {
+        RegressionModel<OUTPUT> model = buildWithoutFitting();
+        model.fit();
+        return model;
+    }
+
+    public RegressionModel<OUTPUT> buildWithoutFitting() {
+        setDefaultPriorsIfUnset();
+
+        CsvTrainingData trainingData = new CsvTrainingData(csvReader, inputColumns, outputColumn, outputParser, batchSize);
+        long featureCount = trainingData.getFeatureCount();
+
+        LinearRegressionGraph<OUTPUT> regressionGraph = new LinearRegressionGraph<>(
+            new long[]{1, featureCount},
+            outputTransform,
+            getInterceptVertex(),
+            getWeightsVertex(featureCount)
+        );
+
+        boolean usePriors = getRegularization() != RegressionRegularization.NONE;
+        boolean closedForm = !minibatchGradientFitting && getRegularization() != RegressionRegularization.LASSO;
+
+        ModelFitter fitter = closedForm ?
+            new ClosedFormModelFitter(usePriors, trainingData) :
+            new MinibatchGradientModelFitter(usePriors, trainingData, epochs, learningRate);
+
+        return new RegressionModel<>(regressionGraph, fitter);
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.graphtraversal.PropagationPlan;
 import io.improbable.keanu.algorithms.graphtraversal.TopologicalSort;
 import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
@@ -32,6 +33,7 @@ public class BayesianNetwork {
     private final Map<VertexLabel, Vertex> vertexLabels;
     private static final int TOP_LEVEL_INDENTATION = 1;
     private int indentation = TOP_LEVEL_INDENTATION;
+    private PropagationPlan propagationPlan;
 
     public BayesianNetwork(Set<? extends Vertex> vertices) {
         Preconditions.checkArgument(!vertices.isEmpty(), "A bayesian network must contain at least one vertex");
@@ -166,7 +168,19 @@ public class BayesianNetwork {
     }
 
     public void cascadeObservations() {
-        VertexValuePropagation.cascadeUpdate(getObservedVertices());
+        getPropagationPlan().cascadeUpdate(getObservedVertices());
+    }
+
+    /**
+     * @return a plan for cascading value updates from the vertices of this network. It is built on first use and
+     * reused afterwards, unless a vertex has since been connected to or disconnected from the graph, in which case
+     * it is built again.
+     */
+    public PropagationPlan getPropagationPlan() {
+        if (propagationPlan == null || !propagationPlan.isUpToDate()) {
+            propagationPlan = new PropagationPlan(vertices);
+        }
+        return propagationPlan;
     }
 
 
@@ -5,13 +5,12 @@ import com.google.common.collect.ImmutableSet;
 import io.improbable.keanu.algorithms.ProbabilisticModel;
 import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
+import io.improbable.keanu.algorithms.graphtraversal.PropagationPlan;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
-import io.improbable.keanu.vertices.ProbabilityCalculator;
 import io.improbable.keanu.vertices.Vertex;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,11 +23,17 @@ import static java.util.stream.Collectors.toMap;
  */
 public class KeanuProbabilisticModel implements ProbabilisticModel {
 
+    private static final int MIN_LAMBDA_SECTION_PLAN_CACHE_SIZE = 1000;
+
     private final Map<VariableReference, Vertex> vertexLookup;
     private final List<Vertex> latentVertices;
     private final List<Vertex> observedVertices;
     private final List<Vertex> latentOrObservedVertices;
     private final LambdaSectionSnapshot lambdaSectionSnapshot;
+    private final PropagationPlan propagationPlan;
+    private final Map<Set<VariableReference>, LambdaSectionPlan> lambdaSectionPlans;
+    private final LogProbBlocks logProbBlocks;
+    private final LogProbBlocks logLikelihoodBlocks;
 
     public KeanuProbabilisticModel(Collection<? extends Vertex> variables) {
         this(new BayesianNetwork(variables));
@@ -42,6 +47,10 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
         this.observedVertices = ImmutableList.copyOf(bayesianNetwork.getObservedVertices());
         this.latentOrObservedVertices = ImmutableList.copyOf(bayesianNetwork.getLatentOrObservedVertices());
         this.lambdaSectionSnapshot = new LambdaSectionSnapshot();
+        this.propagationPlan = bayesianNetwork.getPropagationPlan();
+        this.lambdaSectionPlans = lruCache(Math.max(MIN_LAMBDA_SECTION_PLAN_CACHE_SIZE, latentVertices.size()));
+        this.logProbBlocks = new LogProbBlocks(latentOrObservedVertices);
+        this.logLikelihoodBlocks = new LogProbBlocks(observedVertices);
 
         resetModelToObservedState();
         checkBayesNetInHealthyState();
@@ -52,31 +61,57 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
         if (!inputs.isEmpty()) {
             cascadeValues(inputs);
         }
-        return ProbabilityCalculator.calculateLogProbFor(this.latentOrObservedVertices);
+        return logProbBlocks.logProb();
     }
 
     @Override
     public double logProbAfter(Map<VariableReference, Object> newValues, double logProbBefore) {
-        ImmutableSet.Builder<Vertex> affectedVerticesBuilder = ImmutableSet.builder();
-        for (VariableReference reference : newValues.keySet()) {
-            Vertex vertex = vertexLookup.get(reference);
-            affectedVerticesBuilder.add(vertex);
-        }
-        Set<Vertex> affectedVertices = affectedVerticesBuilder.build();
+        LambdaSectionPlan lambdaSectionPlan = getLambdaSectionPlan(newValues.keySet());
 
-        double lambdaSectionLogProbBefore = lambdaSectionSnapshot.logProb(affectedVertices);
+        double lambdaSectionLogProbBefore = lambdaSectionPlan.logProb();
         cascadeValues(newValues);
-        double lambdaSectionLogProbAfter = lambdaSectionSnapshot.logProb(affectedVertices);
+        double lambdaSectionLogProbAfter = lambdaSectionPlan.logProb();
         double deltaLogProb = lambdaSectionLogProbAfter - lambdaSectionLogProbBefore;
         return logProbBefore + deltaLogProb;
     }
 
+    private LambdaSectionPlan getLambdaSectionPlan(Set<VariableReference> references) {
+        LambdaSectionPlan lambdaSectionPlan = lambdaSectionPlans.get(references);
+
+        if (lambdaSectionPlan == null) {
+            ImmutableSet.Builder<Vertex> affectedVerticesBuilder = ImmutableSet.builder();
+            for (VariableReference reference : references) {
+                Vertex vertex = vertexLookup.get(reference);
+
+                if (vertex == null) {
+                    throw new IllegalArgumentException("Cannot calculate log prob after update for input: " + reference);
+                }
+
+                affectedVerticesBuilder.add(vertex);
+            }
+
+            lambdaSectionPlan = LambdaSectionPlan.forLatents(affectedVerticesBuilder.build(), lambdaSectionSnapshot);
+            lambdaSectionPlans.put(ImmutableSet.copyOf(references), lambdaSectionPlan);
+        }
+
+        return lambdaSectionPlan;
+    }
+
+    private static <K, V> Map<K, V> lruCache(int maxSize) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
     @Override
     public double logLikelihood(Map<VariableReference, ?> inputs) {
         if (!inputs.isEmpty()) {
             cascadeValues(inputs);
         }
-        return ProbabilityCalculator.calculateLogProbFor(this.observedVertices);
+        return logLikelihoodBlocks.logProb();
     }
 
     @Override
@@ -107,12 +142,11 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
     }
 
     private void resetModelToObservedState() {
-        VertexValuePropagation.cascadeUpdate(this.observedVertices);
+        propagationPlan.cascadeUpdate(this.observedVertices);
     }
 
     protected void cascadeValues(Map<VariableReference, ?> inputs) {
 
-        List<Vertex> updatedVertices = new ArrayList<>();
         for (Map.Entry<VariableReference, ?> input : inputs.entrySet()) {
             Vertex updatingVertex = vertexLookup.get(input.getKey());
 
@@ -121,10 +155,10 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
             }
 
             updatingVertex.setValue(input.getValue());
-            updatedVertices.add(updatingVertex);
+            propagationPlan.markForUpdate(updatingVertex);
         }
 
-        VertexValuePropagation.cascadeUpdate(updatedVertices);
+        propagationPlan.cascadeMarked();
     }
 
 }
@@ -1,5 +1,6 @@
 package io.improbable.keanu.network;
 
+import io.improbable.keanu.algorithms.LogProbAndGradients;
 import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
@@ -7,6 +8,7 @@ import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic.diff.LogProbGradientCalculator;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,6 +61,18 @@ public class KeanuProbabilisticModelWithGradient extends KeanuProbabilisticModel
         return logLikelihoodGradients(null);
     }
 
+    /**
+     * Cascades the inputs once, then sums the log prob of every latent or observed vertex before replaying the
+     * gradient, so no vertex is updated twice.
+     */
+    @Override
+    public LogProbAndGradients logProbAndGradients(Map<VariableReference, ?> inputs) {
+        double logProb = logProb(inputs == null ? Collections.emptyMap() : inputs);
+        Map gradients = logProbGradientCalculator.getJointLogProbGradientWrtLatents();
+
+        return new LogProbAndGradients(logProb, gradients);
+    }
+
     private Map gradients(Map<VariableReference, ?> inputs, LogProbGradientCalculator gradientCalculator) {
         if (inputs != null && !inputs.isEmpty()) {
             cascadeValues(inputs);
@@ -0,0 +1,44 @@
+package io.improbable.keanu.network;
+
+import io.improbable.keanu.algorithms.graphtraversal.TopologicalSort;
+import io.improbable.keanu.vertices.ProbabilityCalculator;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The union of the downstream {@link LambdaSection}s of a set of latent vertices, flattened into an array of the
+ * probabilistic or observed vertices whose log probability can change when those latent vertices change.
+ * <p>
+ * Comparing the log probability of a plan before and after a proposal gives the change in the log probability
+ * of the whole network, without having to visit the rest of it.
+ */
+class LambdaSectionPlan {
+
+    private final Vertex[] latentOrObservedVertices;
+
+    private LambdaSectionPlan(Vertex[] latentOrObservedVertices) {
+        this.latentOrObservedVertices = latentOrObservedVertices;
+    }
+
+    static LambdaSectionPlan forLatents(Collection<? extends Vertex> latents, LambdaSectionSnapshot lambdaSectionSnapshot) {
+        Set<Vertex> affectedVertices = lambdaSectionSnapshot.getAllVerticesAffectedBy(latents);
+
+        List<Vertex> latentOrObserved = TopologicalSort.sort(affectedVertices).stream()
+            .filter(v -> v.isProbabilistic() || v.isObserved())
+            .collect(Collectors.toList());
+
+        return new LambdaSectionPlan(latentOrObserved.toArray(new Vertex[0]));
+    }
+
+    double logProb() {
+        return ProbabilityCalculator.calculateLogProbFor(latentOrObservedVertices);
+    }
+
+    int size() {
+        return latentOrObservedVertices.length;
+    }
+}
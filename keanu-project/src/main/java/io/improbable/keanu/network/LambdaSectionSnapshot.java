@@ -4,6 +4,7 @@ import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.vertices.ProbabilityCalculator;
 import io.improbable.keanu.vertices.Vertex;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -25,7 +26,7 @@ public class LambdaSectionSnapshot {
         return ProbabilityCalculator.calculateLogProbFor(lambdaSectionUnion);
     }
 
-    public Set<Vertex> getAllVerticesAffectedBy(Set<? extends Variable> variables) {
+    public Set<Vertex> getAllVerticesAffectedBy(Collection<? extends Variable> variables) {
 
         Set<Vertex> allAffectedVariables = new HashSet<>();
         for (Variable variable : variables) {
@@ -0,0 +1,183 @@
+package io.improbable.keanu.network;
+
+import io.improbable.keanu.vertices.ProbabilityCalculator;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits the latent or observed vertices of a model into blocks whose log probs can be calculated on different
+ * threads at the same time, and sums them with a fork-join reduction once the model is big enough to be worth it.
+ * <p>
+ * Calculating the log prob of a vertex reads its parents' values and may lazily calculate the non-probabilistic
+ * vertices upstream of it. Two vertices are put in the same block if they share any of those non-probabilistic
+ * vertices. Probabilistic and observed vertices are only ever read, so vertices that share nothing else, such as
+ * many observations of the same latent mean, are in separate blocks.
+ */
+class LogProbBlocks {
+
+    /**
+     * Below this many vertices the log prob is summed on the calling thread.
+     */
+    static final int MIN_PARALLEL_VERTEX_COUNT = 1000;
+
+    /**
+     * A fork-join task sums its blocks itself once they have no more than this many vertices between them.
+     */
+    private static final int MIN_TASK_VERTEX_COUNT = 128;
+
+    /**
+     * The vertices in the order they were given, which the log prob is summed in when it is not split into blocks.
+     */
+    private final Vertex[] vertices;
+
+    /**
+     * The vertices of all blocks, with each block's vertices next to each other.
+     */
+    private final Vertex[] blockVertices;
+
+    /**
+     * The index in blockVertices that each block starts at, followed by the total vertex count.
+     */
+    private final int[] blockStarts;
+
+    private final boolean parallel;
+    private final int taskVertexCount;
+
+    LogProbBlocks(List<? extends Vertex> latentOrObservedVertices) {
+        this(latentOrObservedVertices, MIN_PARALLEL_VERTEX_COUNT, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param latentOrObservedVertices the vertices to sum the log prob of
+     * @param minParallelVertexCount   the fewest vertices that the log prob is summed in parallel for
+     * @param parallelism              the number of threads the log prob can be summed on
+     */
+    LogProbBlocks(List<? extends Vertex> latentOrObservedVertices, int minParallelVertexCount, int parallelism) {
+        this.vertices = latentOrObservedVertices.toArray(new Vertex[0]);
+
+        List<List<Vertex>> blocks = parallelism > 1 && vertices.length >= minParallelVertexCount ?
+            partition(latentOrObservedVertices) :
+            Collections.singletonList(Arrays.asList(vertices));
+
+        this.blockVertices = new Vertex[vertices.length];
+        this.blockStarts = new int[blocks.size() + 1];
+
+        int index = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            blockStarts[i] = index;
+            for (Vertex vertex : blocks.get(i)) {
+                blockVertices[index++] = vertex;
+            }
+        }
+        blockStarts[blocks.size()] = index;
+
+        this.parallel = blocks.size() > 1;
+        this.taskVertexCount = Math.max(MIN_TASK_VERTEX_COUNT, vertices.length / (4 * Math.max(1, parallelism)));
+    }
+
+    int getBlockCount() {
+        return blockStarts.length - 1;
+    }
+
+    boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @return the sum of the log probs of all vertices, or negative infinity if any of them is impossible
+     */
+    double logProb() {
+        if (parallel) {
+            return ForkJoinPool.commonPool().invoke(new LogProbTask(0, getBlockCount()));
+        } else {
+            return ProbabilityCalculator.calculateLogProbFor(vertices);
+        }
+    }
+
+    private class LogProbTask extends RecursiveTask<Double> {
+
+        private final int fromBlock;
+        private final int toBlock;
+
+        LogProbTask(int fromBlock, int toBlock) {
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected Double compute() {
+            int vertexCount = blockStarts[toBlock] - blockStarts[fromBlock];
+
+            if (toBlock - fromBlock == 1 || vertexCount <= taskVertexCount) {
+                return ProbabilityCalculator.calculateLogProbFor(blockVertices, blockStarts[fromBlock], blockStarts[toBlock]);
+            }
+
+            int middleBlock = (fromBlock + toBlock) >>> 1;
+            LogProbTask right = new LogProbTask(middleBlock, toBlock);
+            right.fork();
+            double left = new LogProbTask(fromBlock, middleBlock).compute();
+            double sum = left + right.join();
+
+            return ProbabilityCalculator.isImpossibleLogProb(sum) ? Double.NEGATIVE_INFINITY : sum;
+        }
+    }
+
+    /**
+     * Groups the vertices into blocks with a union-find over each vertex and the non-probabilistic vertices upstream
+     * of it. Blocks keep the order of their first vertex, and vertices keep their order within a block, so the sum
+     * is the same from one call to the next.
+     */
+    private static List<List<Vertex>> partition(List<? extends Vertex> latentOrObservedVertices) {
+        Map<Vertex, Vertex> parentInUnion = new HashMap<>();
+
+        for (Vertex<?, ?> vertex : latentOrObservedVertices) {
+            parentInUnion.putIfAbsent(vertex, vertex);
+
+            for (Vertex upstream : LambdaSection.getUpstreamLambdaSection(vertex, true).getAllVertices()) {
+                if (!upstream.isProbabilistic() && !upstream.isObserved()) {
+                    parentInUnion.putIfAbsent(upstream, upstream);
+                    union(parentInUnion, vertex, upstream);
+                }
+            }
+        }
+
+        Map<Vertex, List<Vertex>> blocksByRoot = new LinkedHashMap<>();
+        for (Vertex vertex : latentOrObservedVertices) {
+            blocksByRoot.computeIfAbsent(find(parentInUnion, vertex), root -> new ArrayList<>()).add(vertex);
+        }
+
+        return new ArrayList<>(blocksByRoot.values());
+    }
+
+    private static void union(Map<Vertex, Vertex> parentInUnion, Vertex a, Vertex b) {
+        Vertex rootA = find(parentInUnion, a);
+        Vertex rootB = find(parentInUnion, b);
+        if (rootA != rootB) {
+            parentInUnion.put(rootB, rootA);
+        }
+    }
+
+    private static Vertex find(Map<Vertex, Vertex> parentInUnion, Vertex vertex) {
+        Vertex root = vertex;
+        while (parentInUnion.get(root) != root) {
+            root = parentInUnion.get(root);
+        }
+
+        while (vertex != root) {
+            Vertex next = parentInUnion.get(vertex);
+            parentInUnion.put(vertex, root);
+            vertex = next;
+        }
+
+        return root;
+    }
+}
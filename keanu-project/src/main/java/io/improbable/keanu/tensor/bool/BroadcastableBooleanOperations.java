@@ -1,27 +1,34 @@
 package io.improbable.keanu.tensor.bool;
 
+import io.improbable.keanu.tensor.jvm.JVMTensorPrimitiveBroadcast;
+
 import java.util.function.BiFunction;
 
-public enum BroadcastableBooleanOperations implements BiFunction<Boolean, Boolean, Boolean> {
+public enum BroadcastableBooleanOperations implements BiFunction<Boolean, Boolean, Boolean>, JVMTensorPrimitiveBroadcast.BooleanBinaryOperator {
 
     AND {
         @Override
-        public Boolean apply(Boolean left, Boolean right) {
+        public boolean applyAsBoolean(boolean left, boolean right) {
             return left && right;
         }
     },
 
     OR {
         @Override
-        public Boolean apply(Boolean left, Boolean right) {
+        public boolean applyAsBoolean(boolean left, boolean right) {
             return left || right;
         }
     },
 
     XOR {
         @Override
-        public Boolean apply(Boolean left, Boolean right) {
+        public boolean applyAsBoolean(boolean left, boolean right) {
             return left ^ right;
         }
-    },
+    };
+
+    @Override
+    public Boolean apply(Boolean left, Boolean right) {
+        return applyAsBoolean(left, right);
+    }
 }
@@ -5,6 +5,7 @@ import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
 import io.improbable.keanu.tensor.jvm.JVMTensor;
+import io.improbable.keanu.tensor.jvm.JVMTensorPrimitiveBroadcast;
 import io.improbable.keanu.tensor.jvm.ResultWrapper;
 import io.improbable.keanu.tensor.jvm.buffer.JVMBuffer;
 import org.apache.commons.lang3.ArrayUtils;
@@ -116,7 +117,7 @@ public class JVMBooleanTensor extends JVMTensor<Boolean, BooleanTensor, BooleanB
 
     @Override
     public BooleanTensor andInPlace(BooleanTensor that) {
-        return broadcastableBinaryOpWithAutoBroadcastInPlace(AND, getAsJVMTensor(that));
+        return broadcastableBooleanOpInPlace(AND, that);
     }
 
     @Override
@@ -129,7 +130,7 @@ public class JVMBooleanTensor extends JVMTensor<Boolean, BooleanTensor, BooleanB
 
     @Override
     public BooleanTensor orInPlace(BooleanTensor that) {
-        return broadcastableBinaryOpWithAutoBroadcastInPlace(OR, getAsJVMTensor(that));
+        return broadcastableBooleanOpInPlace(OR, that);
     }
 
     @Override
@@ -142,7 +143,24 @@ public class JVMBooleanTensor extends JVMTensor<Boolean, BooleanTensor, BooleanB
 
     @Override
     public BooleanTensor xorInPlace(BooleanTensor that) {
-        return broadcastableBinaryOpWithAutoBroadcastInPlace(XOR, getAsJVMTensor(that));
+        return broadcastableBooleanOpInPlace(XOR, that);
+    }
+
+    /**
+     * Applies an operation to the boolean[] behind this tensor and that tensor without boxing any element.
+     */
+    private BooleanTensor broadcastableBooleanOpInPlace(JVMTensorPrimitiveBroadcast.BooleanBinaryOperator op, BooleanTensor that) {
+        final JVMBooleanTensor right = asJVM(that);
+        final JVMTensorPrimitiveBroadcast.Broadcast broadcast = JVMTensorPrimitiveBroadcast.broadcast(
+            shape, stride, right.shape, right.stride
+        );
+
+        final boolean writeToLeft = broadcast.isLeftShaped() && buffer instanceof BooleanBuffer.BooleanArrayWrapper;
+        final boolean[] output = writeToLeft ? buffer.asBooleanArray() : new boolean[broadcast.getLength()];
+
+        JVMTensorPrimitiveBroadcast.apply(buffer.asBooleanArray(), right.buffer.asBooleanArray(), output, broadcast, op);
+
+        return set(writeToLeft ? buffer : factory.create(output), broadcast.getOutputShape(), broadcast.getOutputStride());
     }
 
     @Override
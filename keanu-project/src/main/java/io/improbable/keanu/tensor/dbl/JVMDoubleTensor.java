@@ -8,8 +8,8 @@ import io.improbable.keanu.tensor.bool.BooleanTensor;
 import io.improbable.keanu.tensor.bool.JVMBooleanTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
 import io.improbable.keanu.tensor.jvm.JVMFloatingPointTensor;
-import io.improbable.keanu.tensor.jvm.JVMNumberTensor;
 import io.improbable.keanu.tensor.jvm.JVMTensor;
+import io.improbable.keanu.tensor.jvm.JVMTensorPrimitiveBroadcast;
 import io.improbable.keanu.tensor.jvm.ResultWrapper;
 import io.improbable.keanu.tensor.lng.JVMLongTensorFactory;
 import io.improbable.keanu.tensor.lng.LongTensor;
@@ -19,6 +19,7 @@ import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
 
 import static io.improbable.keanu.tensor.TensorShape.getBroadcastedFlatIndex;
 import static io.improbable.keanu.tensor.TensorShape.getRowFirstStride;
@@ -87,7 +88,7 @@ public class JVMDoubleTensor extends JVMFloatingPointTensor<Double, DoubleTensor
         return asJVM(that);
     }
 
-    static JVMNumberTensor<Double, DoubleTensor, DoubleBuffer.PrimitiveDoubleWrapper> asJVM(DoubleTensor that) {
+    static JVMDoubleTensor asJVM(DoubleTensor that) {
         if (that instanceof JVMDoubleTensor) {
             return ((JVMDoubleTensor) that);
         } else {
@@ -381,7 +382,154 @@ public class JVMDoubleTensor extends JVMFloatingPointTensor<Double, DoubleTensor
 
     @Override
     public DoubleTensor setWithMaskInPlace(DoubleTensor mask, Double value) {
-        return broadcastableBinaryOpWithAutoBroadcastInPlace((l, r) -> r == 1.0 ? value : l, getAsJVMTensor(mask));
+        final double setValue = value;
+        return broadcastableDoubleOp((l, r) -> r == 1.0 ? setValue : l, mask, true);
+    }
+
+    @Override
+    public DoubleTensor plusInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.plusInPlace(that);
+        }
+        return broadcastableDoubleOp((l, r) -> l + r, that, true);
+    }
+
+    @Override
+    public DoubleTensor minusInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.minusInPlace(that);
+        }
+        return broadcastableDoubleOp((l, r) -> l - r, that, true);
+    }
+
+    @Override
+    public DoubleTensor reverseMinusInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.reverseMinusInPlace(that);
+        }
+        return broadcastableDoubleOp((l, r) -> r - l, that, true);
+    }
+
+    @Override
+    public DoubleTensor timesInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.timesInPlace(that);
+        }
+        return broadcastableDoubleOp((l, r) -> l * r, that, true);
+    }
+
+    @Override
+    public DoubleTensor divInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.divInPlace(that);
+        }
+        return broadcastableDoubleOp((l, r) -> l / r, that, true);
+    }
+
+    @Override
+    public DoubleTensor reverseDivInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.reverseDivInPlace(that);
+        }
+        return broadcastableDoubleOp((l, r) -> r / l, that, true);
+    }
+
+    @Override
+    public DoubleTensor minInPlace(DoubleTensor that) {
+        return broadcastableDoubleOp(Math::min, that, true);
+    }
+
+    @Override
+    public DoubleTensor maxInPlace(DoubleTensor that) {
+        return broadcastableDoubleOp(Math::max, that, true);
+    }
+
+    @Override
+    public DoubleTensor greaterThanMask(DoubleTensor greaterThanThis) {
+        return broadcastableDoubleOp((l, r) -> l > r ? 1.0 : 0.0, greaterThanThis, false);
+    }
+
+    @Override
+    public DoubleTensor greaterThanOrEqualToMask(DoubleTensor greaterThanThis) {
+        return broadcastableDoubleOp((l, r) -> l >= r ? 1.0 : 0.0, greaterThanThis, false);
+    }
+
+    @Override
+    public DoubleTensor lessThanMask(DoubleTensor lessThanThis) {
+        return broadcastableDoubleOp((l, r) -> l < r ? 1.0 : 0.0, lessThanThis, false);
+    }
+
+    @Override
+    public DoubleTensor lessThanOrEqualToMask(DoubleTensor lessThanThis) {
+        return broadcastableDoubleOp((l, r) -> l <= r ? 1.0 : 0.0, lessThanThis, false);
+    }
+
+    @Override
+    public BooleanTensor elementwiseEquals(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.elementwiseEquals(that);
+        }
+        return broadcastableDoubleComparison((l, r) -> Double.compare(l, r) == 0, that);
+    }
+
+    @Override
+    public BooleanTensor lessThan(DoubleTensor that) {
+        return broadcastableDoubleComparison((l, r) -> l < r, that);
+    }
+
+    @Override
+    public BooleanTensor lessThanOrEqual(DoubleTensor that) {
+        return broadcastableDoubleComparison((l, r) -> l <= r, that);
+    }
+
+    @Override
+    public BooleanTensor greaterThan(DoubleTensor that) {
+        return broadcastableDoubleComparison((l, r) -> l > r, that);
+    }
+
+    @Override
+    public BooleanTensor greaterThanOrEqual(DoubleTensor that) {
+        return broadcastableDoubleComparison((l, r) -> l >= r, that);
+    }
+
+    /**
+     * Applies an operation to the double[] behind this tensor and that tensor without boxing any element.
+     *
+     * @param op      the operation on a left and right element
+     * @param that    the right operand
+     * @param inPlace true if the result should be written to this tensor
+     * @return the result of the operation
+     */
+    private DoubleTensor broadcastableDoubleOp(DoubleBinaryOperator op, DoubleTensor that, boolean inPlace) {
+        final JVMDoubleTensor right = asJVM(that);
+        final JVMTensorPrimitiveBroadcast.Broadcast broadcast = JVMTensorPrimitiveBroadcast.broadcast(
+            shape, stride, right.shape, right.stride
+        );
+
+        final boolean writeToLeft = inPlace && broadcast.isLeftShaped() && buffer instanceof DoubleBuffer.DoubleArrayWrapper;
+        final double[] output = writeToLeft ? buffer.asDoubleArray() : new double[broadcast.getLength()];
+
+        JVMTensorPrimitiveBroadcast.apply(buffer.asDoubleArray(), right.buffer.asDoubleArray(), output, broadcast, op);
+
+        final DoubleBuffer.PrimitiveDoubleWrapper outputBuffer = writeToLeft ? buffer : factory.create(output);
+
+        if (inPlace) {
+            return set(outputBuffer, broadcast.getOutputShape(), broadcast.getOutputStride());
+        } else {
+            return create(outputBuffer, broadcast.getOutputShape(), broadcast.getOutputStride());
+        }
+    }
+
+    private BooleanTensor broadcastableDoubleComparison(JVMTensorPrimitiveBroadcast.DoubleBinaryPredicate op, DoubleTensor that) {
+        final JVMDoubleTensor right = asJVM(that);
+        final JVMTensorPrimitiveBroadcast.Broadcast broadcast = JVMTensorPrimitiveBroadcast.broadcast(
+            shape, stride, right.shape, right.stride
+        );
+
+        final boolean[] output = new boolean[broadcast.getLength()];
+        JVMTensorPrimitiveBroadcast.compare(buffer.asDoubleArray(), right.buffer.asDoubleArray(), output, broadcast, op);
+
+        return new JVMBooleanTensor(output, broadcast.getOutputShape(), broadcast.getOutputStride());
     }
 
     @Override
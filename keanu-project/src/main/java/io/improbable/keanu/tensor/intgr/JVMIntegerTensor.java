@@ -8,11 +8,13 @@ import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.dbl.JVMDoubleTensorFactory;
 import io.improbable.keanu.tensor.jvm.JVMFixedPointTensor;
 import io.improbable.keanu.tensor.jvm.JVMTensor;
+import io.improbable.keanu.tensor.jvm.JVMTensorPrimitiveBroadcast;
 import io.improbable.keanu.tensor.jvm.ResultWrapper;
 import io.improbable.keanu.tensor.jvm.buffer.JVMBuffer;
 import io.improbable.keanu.tensor.lng.LongTensor;
 
 import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
 
 import static io.improbable.keanu.tensor.TensorShape.getRowFirstStride;
 
@@ -127,7 +129,154 @@ public class JVMIntegerTensor extends JVMFixedPointTensor<Integer, IntegerTensor
 
     @Override
     public IntegerTensor setWithMaskInPlace(IntegerTensor mask, final Integer value) {
-        return broadcastableBinaryOpWithAutoBroadcastInPlace((l, r) -> r == 1L ? value : l, getAsJVMTensor(mask));
+        final int setValue = value;
+        return broadcastableIntegerOp((l, r) -> r == 1 ? setValue : l, mask, true);
+    }
+
+    @Override
+    public IntegerTensor plusInPlace(IntegerTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.plusInPlace(that);
+        }
+        return broadcastableIntegerOp((l, r) -> l + r, that, true);
+    }
+
+    @Override
+    public IntegerTensor minusInPlace(IntegerTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.minusInPlace(that);
+        }
+        return broadcastableIntegerOp((l, r) -> l - r, that, true);
+    }
+
+    @Override
+    public IntegerTensor reverseMinusInPlace(IntegerTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.reverseMinusInPlace(that);
+        }
+        return broadcastableIntegerOp((l, r) -> r - l, that, true);
+    }
+
+    @Override
+    public IntegerTensor timesInPlace(IntegerTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.timesInPlace(that);
+        }
+        return broadcastableIntegerOp((l, r) -> l * r, that, true);
+    }
+
+    @Override
+    public IntegerTensor divInPlace(IntegerTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.divInPlace(that);
+        }
+        return broadcastableIntegerOp((l, r) -> l / r, that, true);
+    }
+
+    @Override
+    public IntegerTensor reverseDivInPlace(IntegerTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.reverseDivInPlace(that);
+        }
+        return broadcastableIntegerOp((l, r) -> r / l, that, true);
+    }
+
+    @Override
+    public IntegerTensor minInPlace(IntegerTensor that) {
+        return broadcastableIntegerOp(Math::min, that, true);
+    }
+
+    @Override
+    public IntegerTensor maxInPlace(IntegerTensor that) {
+        return broadcastableIntegerOp(Math::max, that, true);
+    }
+
+    @Override
+    public IntegerTensor greaterThanMask(IntegerTensor greaterThanThis) {
+        return broadcastableIntegerOp((l, r) -> l > r ? 1 : 0, greaterThanThis, false);
+    }
+
+    @Override
+    public IntegerTensor greaterThanOrEqualToMask(IntegerTensor greaterThanThis) {
+        return broadcastableIntegerOp((l, r) -> l >= r ? 1 : 0, greaterThanThis, false);
+    }
+
+    @Override
+    public IntegerTensor lessThanMask(IntegerTensor lessThanThis) {
+        return broadcastableIntegerOp((l, r) -> l < r ? 1 : 0, lessThanThis, false);
+    }
+
+    @Override
+    public IntegerTensor lessThanOrEqualToMask(IntegerTensor lessThanThis) {
+        return broadcastableIntegerOp((l, r) -> l <= r ? 1 : 0, lessThanThis, false);
+    }
+
+    @Override
+    public BooleanTensor elementwiseEquals(IntegerTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.elementwiseEquals(that);
+        }
+        return broadcastableIntegerComparison((l, r) -> l == r, that);
+    }
+
+    @Override
+    public BooleanTensor lessThan(IntegerTensor that) {
+        return broadcastableIntegerComparison((l, r) -> l < r, that);
+    }
+
+    @Override
+    public BooleanTensor lessThanOrEqual(IntegerTensor that) {
+        return broadcastableIntegerComparison((l, r) -> l <= r, that);
+    }
+
+    @Override
+    public BooleanTensor greaterThan(IntegerTensor that) {
+        return broadcastableIntegerComparison((l, r) -> l > r, that);
+    }
+
+    @Override
+    public BooleanTensor greaterThanOrEqual(IntegerTensor that) {
+        return broadcastableIntegerComparison((l, r) -> l >= r, that);
+    }
+
+    /**
+     * Applies an operation to the int[] behind this tensor and that tensor without boxing any element.
+     *
+     * @param op      the operation on a left and right element
+     * @param that    the right operand
+     * @param inPlace true if the result should be written to this tensor
+     * @return the result of the operation
+     */
+    private IntegerTensor broadcastableIntegerOp(IntBinaryOperator op, IntegerTensor that, boolean inPlace) {
+        final JVMIntegerTensor right = asJVM(that);
+        final JVMTensorPrimitiveBroadcast.Broadcast broadcast = JVMTensorPrimitiveBroadcast.broadcast(
+            shape, stride, right.shape, right.stride
+        );
+
+        final boolean writeToLeft = inPlace && broadcast.isLeftShaped() && buffer instanceof IntegerBuffer.IntegerArrayWrapper;
+        final int[] output = writeToLeft ? buffer.asIntegerArray() : new int[broadcast.getLength()];
+
+        JVMTensorPrimitiveBroadcast.apply(buffer.asIntegerArray(), right.buffer.asIntegerArray(), output, broadcast, op);
+
+        final IntegerBuffer.PrimitiveIntegerWrapper outputBuffer = writeToLeft ? buffer : factory.create(output);
+
+        if (inPlace) {
+            return set(outputBuffer, broadcast.getOutputShape(), broadcast.getOutputStride());
+        } else {
+            return create(outputBuffer, broadcast.getOutputShape(), broadcast.getOutputStride());
+        }
+    }
+
+    private BooleanTensor broadcastableIntegerComparison(JVMTensorPrimitiveBroadcast.IntBinaryPredicate op, IntegerTensor that) {
+        final JVMIntegerTensor right = asJVM(that);
+        final JVMTensorPrimitiveBroadcast.Broadcast broadcast = JVMTensorPrimitiveBroadcast.broadcast(
+            shape, stride, right.shape, right.stride
+        );
+
+        final boolean[] output = new boolean[broadcast.getLength()];
+        JVMTensorPrimitiveBroadcast.compare(buffer.asIntegerArray(), right.buffer.asIntegerArray(), output, broadcast, op);
+
+        return new JVMBooleanTensor(output, broadcast.getOutputShape(), broadcast.getOutputStride());
     }
 
 }
@@ -199,7 +199,7 @@ public class JVMTensorBroadcast {
 
     }
 
-    private static boolean canQuickBroadcast(long[] fromShape, long[] broadcastShape) {
+    static boolean canQuickBroadcast(long[] fromShape, long[] broadcastShape) {
 
         boolean b = true;
 
@@ -0,0 +1,529 @@
+package io.improbable.keanu.tensor.jvm;
+
+import com.google.common.primitives.Ints;
+import io.improbable.keanu.tensor.TensorShape;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+import static io.improbable.keanu.tensor.TensorShape.getRowFirstStride;
+
+/**
+ * Primitive specialized versions of the {@link JVMTensorBroadcast} binary operations. These work directly on the
+ * double[], int[], long[] and boolean[] behind the JVM tensor buffers so that no element is boxed.
+ * <p>
+ * A {@link Broadcast} is worked out once from the operand shapes and then used by the kernel that matches the
+ * primitive type of the operands.
+ */
+public class JVMTensorPrimitiveBroadcast {
+
+    public interface BooleanBinaryOperator {
+        boolean applyAsBoolean(boolean left, boolean right);
+    }
+
+    public interface DoubleBinaryPredicate {
+        boolean test(double left, double right);
+    }
+
+    public interface IntBinaryPredicate {
+        boolean test(int left, int right);
+    }
+
+    public interface LongBinaryPredicate {
+        boolean test(long left, long right);
+    }
+
+    enum Kind {
+        /**
+         * Both operands have the same shape.
+         */
+        ELEMENTWISE,
+
+        /**
+         * The left operand is rank 0, e.g. [] * [2, 2]
+         */
+        SCALAR_LEFT,
+
+        /**
+         * The right operand is rank 0, e.g. [2, 2] * []
+         */
+        SCALAR_RIGHT,
+
+        /**
+         * The left operand repeats across the right operand, e.g. [2] * [3, 2]
+         */
+        REPEAT_LEFT,
+
+        /**
+         * The right operand repeats across the left operand, e.g. [3, 2] * [2]
+         */
+        REPEAT_RIGHT,
+
+        /**
+         * Any other broadcast, e.g. [2, 1] * [1, 2]. An {@link Odometer} steps through both operands as the output is
+         * written.
+         */
+        INDEXED
+    }
+
+    public static class Broadcast {
+
+        @Getter
+        private final long[] outputShape;
+
+        @Getter
+        private final long[] outputStride;
+
+        /**
+         * True if the output has the shape of the left operand so the output can be written to the left buffer.
+         */
+        @Getter
+        private final boolean leftShaped;
+
+        private final Kind kind;
+        private final int length;
+        private final int leftLength;
+        private final int rightLength;
+
+        private long[] leftBroadcastStride;
+        private long[] rightBroadcastStride;
+
+        private Broadcast(Kind kind, long[] outputShape, long[] outputStride, boolean leftShaped,
+                          long[] leftShape, long[] rightShape) {
+            this.kind = kind;
+            this.outputShape = outputShape;
+            this.outputStride = outputStride;
+            this.leftShaped = leftShaped;
+            this.length = Ints.checkedCast(TensorShape.getLength(outputShape));
+            this.leftLength = Ints.checkedCast(TensorShape.getLength(leftShape));
+            this.rightLength = Ints.checkedCast(TensorShape.getLength(rightShape));
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        private Odometer odometer() {
+            return new Odometer(outputShape, leftBroadcastStride, rightBroadcastStride);
+        }
+    }
+
+    /**
+     * Steps through the output in row first order like an odometer, keeping the flat index of the element of each
+     * operand that the current output element is broadcast from. No division is needed per element and nothing the
+     * size of the output is allocated.
+     */
+    private static final class Odometer {
+
+        private final long[] outputShape;
+        private final long[] leftStride;
+        private final long[] rightStride;
+        private final long[] position;
+
+        private int left;
+        private int right;
+
+        Odometer(long[] outputShape, long[] leftStride, long[] rightStride) {
+            this.outputShape = outputShape;
+            this.leftStride = leftStride;
+            this.rightStride = rightStride;
+            this.position = new long[outputShape.length];
+        }
+
+        void next() {
+            for (int d = outputShape.length - 1; d >= 0; d--) {
+                position[d]++;
+                left += leftStride[d];
+                right += rightStride[d];
+
+                if (position[d] < outputShape[d]) {
+                    return;
+                }
+
+                left -= leftStride[d] * position[d];
+                right -= rightStride[d] * position[d];
+                position[d] = 0;
+            }
+        }
+    }
+
+    /**
+     * Works out how two operands broadcast. The result matches the shape and stride that
+     * {@link JVMTensorBroadcast#broadcastIfNeeded} gives for the same operands.
+     *
+     * @param leftShape   shape of the left operand
+     * @param leftStride  stride of the left operand
+     * @param rightShape  shape of the right operand
+     * @param rightStride stride of the right operand
+     * @return the broadcast of the operands
+     */
+    public static Broadcast broadcast(long[] leftShape, long[] leftStride, long[] rightShape, long[] rightStride) {
+
+        if (Arrays.equals(leftShape, rightShape)) {
+            return new Broadcast(Kind.ELEMENTWISE, copy(leftShape), copy(leftStride), true, leftShape, rightShape);
+        } else if (leftShape.length == 0) {
+            return new Broadcast(Kind.SCALAR_LEFT, copy(rightShape), copy(rightStride), false, leftShape, rightShape);
+        } else if (rightShape.length == 0) {
+            return new Broadcast(Kind.SCALAR_RIGHT, copy(leftShape), copy(leftStride), true, leftShape, rightShape);
+        }
+
+        final long[] resultShape = TensorShape.getBroadcastResultShape(leftShape, rightShape);
+        final Broadcast broadcast;
+
+        if (Arrays.equals(resultShape, leftShape)) {
+            broadcast = new Broadcast(
+                JVMTensorBroadcast.canQuickBroadcast(rightShape, leftShape) ? Kind.REPEAT_RIGHT : Kind.INDEXED,
+                resultShape, copy(leftStride), true, leftShape, rightShape
+            );
+        } else if (Arrays.equals(resultShape, rightShape)) {
+            broadcast = new Broadcast(
+                JVMTensorBroadcast.canQuickBroadcast(leftShape, rightShape) ? Kind.REPEAT_LEFT : Kind.INDEXED,
+                resultShape, copy(rightStride), false, leftShape, rightShape
+            );
+        } else {
+            broadcast = new Broadcast(Kind.INDEXED, resultShape, getRowFirstStride(resultShape), false, leftShape, rightShape);
+        }
+
+        if (broadcast.kind == Kind.INDEXED) {
+            broadcast.leftBroadcastStride = broadcastStride(resultShape, leftShape, leftStride);
+            broadcast.rightBroadcastStride = broadcastStride(resultShape, rightShape, rightStride);
+        }
+
+        return broadcast;
+    }
+
+    public static void apply(double[] left, double[] right, double[] output, Broadcast broadcast, DoubleBinaryOperator op) {
+        final int length = broadcast.length;
+
+        switch (broadcast.kind) {
+            case ELEMENTWISE:
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsDouble(left[i], right[i]);
+                }
+                break;
+            case SCALAR_LEFT:
+                final double leftScalar = left[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsDouble(leftScalar, right[i]);
+                }
+                break;
+            case SCALAR_RIGHT:
+                final double rightScalar = right[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsDouble(left[i], rightScalar);
+                }
+                break;
+            case REPEAT_LEFT:
+                for (int offset = 0; offset < length; offset += broadcast.leftLength) {
+                    for (int j = 0; j < broadcast.leftLength; j++) {
+                        output[offset + j] = op.applyAsDouble(left[j], right[offset + j]);
+                    }
+                }
+                break;
+            case REPEAT_RIGHT:
+                for (int offset = 0; offset < length; offset += broadcast.rightLength) {
+                    for (int j = 0; j < broadcast.rightLength; j++) {
+                        output[offset + j] = op.applyAsDouble(left[offset + j], right[j]);
+                    }
+                }
+                break;
+            default:
+                final Odometer odometer = broadcast.odometer();
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsDouble(left[odometer.left], right[odometer.right]);
+                    odometer.next();
+                }
+        }
+    }
+
+    public static void apply(int[] left, int[] right, int[] output, Broadcast broadcast, IntBinaryOperator op) {
+        final int length = broadcast.length;
+
+        switch (broadcast.kind) {
+            case ELEMENTWISE:
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsInt(left[i], right[i]);
+                }
+                break;
+            case SCALAR_LEFT:
+                final int leftScalar = left[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsInt(leftScalar, right[i]);
+                }
+                break;
+            case SCALAR_RIGHT:
+                final int rightScalar = right[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsInt(left[i], rightScalar);
+                }
+                break;
+            case REPEAT_LEFT:
+                for (int offset = 0; offset < length; offset += broadcast.leftLength) {
+                    for (int j = 0; j < broadcast.leftLength; j++) {
+                        output[offset + j] = op.applyAsInt(left[j], right[offset + j]);
+                    }
+                }
+                break;
+            case REPEAT_RIGHT:
+                for (int offset = 0; offset < length; offset += broadcast.rightLength) {
+                    for (int j = 0; j < broadcast.rightLength; j++) {
+                        output[offset + j] = op.applyAsInt(left[offset + j], right[j]);
+                    }
+                }
+                break;
+            default:
+                final Odometer odometer = broadcast.odometer();
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsInt(left[odometer.left], right[odometer.right]);
+                    odometer.next();
+                }
+        }
+    }
+
+    public static void apply(long[] left, long[] right, long[] output, Broadcast broadcast, LongBinaryOperator op) {
+        final int length = broadcast.length;
+
+        switch (broadcast.kind) {
+            case ELEMENTWISE:
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsLong(left[i], right[i]);
+                }
+                break;
+            case SCALAR_LEFT:
+                final long leftScalar = left[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsLong(leftScalar, right[i]);
+                }
+                break;
+            case SCALAR_RIGHT:
+                final long rightScalar = right[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsLong(left[i], rightScalar);
+                }
+                break;
+            case REPEAT_LEFT:
+                for (int offset = 0; offset < length; offset += broadcast.leftLength) {
+                    for (int j = 0; j < broadcast.leftLength; j++) {
+                        output[offset + j] = op.applyAsLong(left[j], right[offset + j]);
+                    }
+                }
+                break;
+            case REPEAT_RIGHT:
+                for (int offset = 0; offset < length; offset += broadcast.rightLength) {
+                    for (int j = 0; j < broadcast.rightLength; j++) {
+                        output[offset + j] = op.applyAsLong(left[offset + j], right[j]);
+                    }
+                }
+                break;
+            default:
+                final Odometer odometer = broadcast.odometer();
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsLong(left[odometer.left], right[odometer.right]);
+                    odometer.next();
+                }
+        }
+    }
+
+    public static void apply(boolean[] left, boolean[] right, boolean[] output, Broadcast broadcast, BooleanBinaryOperator op) {
+        final int length = broadcast.length;
+
+        switch (broadcast.kind) {
+            case ELEMENTWISE:
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsBoolean(left[i], right[i]);
+                }
+                break;
+            case SCALAR_LEFT:
+                final boolean leftScalar = left[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsBoolean(leftScalar, right[i]);
+                }
+                break;
+            case SCALAR_RIGHT:
+                final boolean rightScalar = right[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsBoolean(left[i], rightScalar);
+                }
+                break;
+            case REPEAT_LEFT:
+                for (int offset = 0; offset < length; offset += broadcast.leftLength) {
+                    for (int j = 0; j < broadcast.leftLength; j++) {
+                        output[offset + j] = op.applyAsBoolean(left[j], right[offset + j]);
+                    }
+                }
+                break;
+            case REPEAT_RIGHT:
+                for (int offset = 0; offset < length; offset += broadcast.rightLength) {
+                    for (int j = 0; j < broadcast.rightLength; j++) {
+                        output[offset + j] = op.applyAsBoolean(left[offset + j], right[j]);
+                    }
+                }
+                break;
+            default:
+                final Odometer odometer = broadcast.odometer();
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.applyAsBoolean(left[odometer.left], right[odometer.right]);
+                    odometer.next();
+                }
+        }
+    }
+
+    public static void compare(double[] left, double[] right, boolean[] output, Broadcast broadcast, DoubleBinaryPredicate op) {
+        final int length = broadcast.length;
+
+        switch (broadcast.kind) {
+            case ELEMENTWISE:
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(left[i], right[i]);
+                }
+                break;
+            case SCALAR_LEFT:
+                final double leftScalar = left[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(leftScalar, right[i]);
+                }
+                break;
+            case SCALAR_RIGHT:
+                final double rightScalar = right[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(left[i], rightScalar);
+                }
+                break;
+            case REPEAT_LEFT:
+                for (int offset = 0; offset < length; offset += broadcast.leftLength) {
+                    for (int j = 0; j < broadcast.leftLength; j++) {
+                        output[offset + j] = op.test(left[j], right[offset + j]);
+                    }
+                }
+                break;
+            case REPEAT_RIGHT:
+                for (int offset = 0; offset < length; offset += broadcast.rightLength) {
+                    for (int j = 0; j < broadcast.rightLength; j++) {
+                        output[offset + j] = op.test(left[offset + j], right[j]);
+                    }
+                }
+                break;
+            default:
+                final Odometer odometer = broadcast.odometer();
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(left[odometer.left], right[odometer.right]);
+                    odometer.next();
+                }
+        }
+    }
+
+    public static void compare(int[] left, int[] right, boolean[] output, Broadcast broadcast, IntBinaryPredicate op) {
+        final int length = broadcast.length;
+
+        switch (broadcast.kind) {
+            case ELEMENTWISE:
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(left[i], right[i]);
+                }
+                break;
+            case SCALAR_LEFT:
+                final int leftScalar = left[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(leftScalar, right[i]);
+                }
+                break;
+            case SCALAR_RIGHT:
+                final int rightScalar = right[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(left[i], rightScalar);
+                }
+                break;
+            case REPEAT_LEFT:
+                for (int offset = 0; offset < length; offset += broadcast.leftLength) {
+                    for (int j = 0; j < broadcast.leftLength; j++) {
+                        output[offset + j] = op.test(left[j], right[offset + j]);
+                    }
+                }
+                break;
+            case REPEAT_RIGHT:
+                for (int offset = 0; offset < length; offset += broadcast.rightLength) {
+                    for (int j = 0; j < broadcast.rightLength; j++) {
+                        output[offset + j] = op.test(left[offset + j], right[j]);
+                    }
+                }
+                break;
+            default:
+                final Odometer odometer = broadcast.odometer();
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(left[odometer.left], right[odometer.right]);
+                    odometer.next();
+                }
+        }
+    }
+
+    public static void compare(long[] left, long[] right, boolean[] output, Broadcast broadcast, LongBinaryPredicate op) {
+        final int length = broadcast.length;
+
+        switch (broadcast.kind) {
+            case ELEMENTWISE:
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(left[i], right[i]);
+                }
+                break;
+            case SCALAR_LEFT:
+                final long leftScalar = left[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(leftScalar, right[i]);
+                }
+                break;
+            case SCALAR_RIGHT:
+                final long rightScalar = right[0];
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(left[i], rightScalar);
+                }
+                break;
+            case REPEAT_LEFT:
+                for (int offset = 0; offset < length; offset += broadcast.leftLength) {
+                    for (int j = 0; j < broadcast.leftLength; j++) {
+                        output[offset + j] = op.test(left[j], right[offset + j]);
+                    }
+                }
+                break;
+            case REPEAT_RIGHT:
+                for (int offset = 0; offset < length; offset += broadcast.rightLength) {
+                    for (int j = 0; j < broadcast.rightLength; j++) {
+                        output[offset + j] = op.test(left[offset + j], right[j]);
+                    }
+                }
+                break;
+            default:
+                final Odometer odometer = broadcast.odometer();
+                for (int i = 0; i < length; i++) {
+                    output[i] = op.test(left[odometer.left], right[odometer.right]);
+                    odometer.next();
+                }
+        }
+    }
+
+    /**
+     * @param outputShape the broadcast result shape
+     * @param fromShape   the shape of the operand
+     * @param fromStride  the stride of the operand
+     * @return the stride of the operand for each dimension of the output, which is zero for a dimension it is
+     * broadcast along
+     */
+    private static long[] broadcastStride(long[] outputShape, long[] fromShape, long[] fromStride) {
+
+        final int rank = outputShape.length;
+        final int rankDiff = rank - fromShape.length;
+
+        final long[] stride = new long[rank];
+        for (int d = rankDiff; d < rank; d++) {
+            stride[d] = fromShape[d - rankDiff] == 1 ? 0 : fromStride[d - rankDiff];
+        }
+
+        return stride;
+    }
+
+    private static long[] copy(long[] array) {
+        return Arrays.copyOf(array, array.length);
+    }
+}
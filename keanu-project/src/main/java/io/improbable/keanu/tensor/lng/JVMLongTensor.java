@@ -9,10 +9,12 @@ import io.improbable.keanu.tensor.dbl.JVMDoubleTensorFactory;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
 import io.improbable.keanu.tensor.jvm.JVMFixedPointTensor;
 import io.improbable.keanu.tensor.jvm.JVMTensor;
+import io.improbable.keanu.tensor.jvm.JVMTensorPrimitiveBroadcast;
 import io.improbable.keanu.tensor.jvm.ResultWrapper;
 import io.improbable.keanu.tensor.jvm.buffer.JVMBuffer;
 
 import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
 
 import static io.improbable.keanu.tensor.TensorShape.getRowFirstStride;
 
@@ -129,7 +131,154 @@ public class JVMLongTensor extends JVMFixedPointTensor<Long, LongTensor, LongBuf
 
     @Override
     public LongTensor setWithMaskInPlace(LongTensor mask, final Long value) {
-        return broadcastableBinaryOpWithAutoBroadcastInPlace((l, r) -> r == 1L ? value : l, getAsJVMTensor(mask));
+        final long setValue = value;
+        return broadcastableLongOp((l, r) -> r == 1 ? setValue : l, mask, true);
+    }
+
+    @Override
+    public LongTensor plusInPlace(LongTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.plusInPlace(that);
+        }
+        return broadcastableLongOp((l, r) -> l + r, that, true);
+    }
+
+    @Override
+    public LongTensor minusInPlace(LongTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.minusInPlace(that);
+        }
+        return broadcastableLongOp((l, r) -> l - r, that, true);
+    }
+
+    @Override
+    public LongTensor reverseMinusInPlace(LongTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.reverseMinusInPlace(that);
+        }
+        return broadcastableLongOp((l, r) -> r - l, that, true);
+    }
+
+    @Override
+    public LongTensor timesInPlace(LongTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.timesInPlace(that);
+        }
+        return broadcastableLongOp((l, r) -> l * r, that, true);
+    }
+
+    @Override
+    public LongTensor divInPlace(LongTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.divInPlace(that);
+        }
+        return broadcastableLongOp((l, r) -> l / r, that, true);
+    }
+
+    @Override
+    public LongTensor reverseDivInPlace(LongTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.reverseDivInPlace(that);
+        }
+        return broadcastableLongOp((l, r) -> r / l, that, true);
+    }
+
+    @Override
+    public LongTensor minInPlace(LongTensor that) {
+        return broadcastableLongOp(Math::min, that, true);
+    }
+
+    @Override
+    public LongTensor maxInPlace(LongTensor that) {
+        return broadcastableLongOp(Math::max, that, true);
+    }
+
+    @Override
+    public LongTensor greaterThanMask(LongTensor greaterThanThis) {
+        return broadcastableLongOp((l, r) -> l > r ? 1L : 0L, greaterThanThis, false);
+    }
+
+    @Override
+    public LongTensor greaterThanOrEqualToMask(LongTensor greaterThanThis) {
+        return broadcastableLongOp((l, r) -> l >= r ? 1L : 0L, greaterThanThis, false);
+    }
+
+    @Override
+    public LongTensor lessThanMask(LongTensor lessThanThis) {
+        return broadcastableLongOp((l, r) -> l < r ? 1L : 0L, lessThanThis, false);
+    }
+
+    @Override
+    public LongTensor lessThanOrEqualToMask(LongTensor lessThanThis) {
+        return broadcastableLongOp((l, r) -> l <= r ? 1L : 0L, lessThanThis, false);
+    }
+
+    @Override
+    public BooleanTensor elementwiseEquals(LongTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.elementwiseEquals(that);
+        }
+        return broadcastableLongComparison((l, r) -> l == r, that);
+    }
+
+    @Override
+    public BooleanTensor lessThan(LongTensor that) {
+        return broadcastableLongComparison((l, r) -> l < r, that);
+    }
+
+    @Override
+    public BooleanTensor lessThanOrEqual(LongTensor that) {
+        return broadcastableLongComparison((l, r) -> l <= r, that);
+    }
+
+    @Override
+    public BooleanTensor greaterThan(LongTensor that) {
+        return broadcastableLongComparison((l, r) -> l > r, that);
+    }
+
+    @Override
+    public BooleanTensor greaterThanOrEqual(LongTensor that) {
+        return broadcastableLongComparison((l, r) -> l >= r, that);
+    }
+
+    /**
+     * Applies an operation to the long[] behind this tensor and that tensor without boxing any element.
+     *
+     * @param op      the operation on a left and right element
+     * @param that    the right operand
+     * @param inPlace true if the result should be written to this tensor
+     * @return the result of the operation
+     */
+    private LongTensor broadcastableLongOp(LongBinaryOperator op, LongTensor that, boolean inPlace) {
+        final JVMLongTensor right = asJVM(that);
+        final JVMTensorPrimitiveBroadcast.Broadcast broadcast = JVMTensorPrimitiveBroadcast.broadcast(
+            shape, stride, right.shape, right.stride
+        );
+
+        final boolean writeToLeft = inPlace && broadcast.isLeftShaped() && buffer instanceof LongBuffer.LongArrayWrapper;
+        final long[] output = writeToLeft ? buffer.asLongArray() : new long[broadcast.getLength()];
+
+        JVMTensorPrimitiveBroadcast.apply(buffer.asLongArray(), right.buffer.asLongArray(), output, broadcast, op);
+
+        final LongBuffer.PrimitiveLongWrapper outputBuffer = writeToLeft ? buffer : factory.create(output);
+
+        if (inPlace) {
+            return set(outputBuffer, broadcast.getOutputShape(), broadcast.getOutputStride());
+        } else {
+            return create(outputBuffer, broadcast.getOutputShape(), broadcast.getOutputStride());
+        }
+    }
+
+    private BooleanTensor broadcastableLongComparison(JVMTensorPrimitiveBroadcast.LongBinaryPredicate op, LongTensor that) {
+        final JVMLongTensor right = asJVM(that);
+        final JVMTensorPrimitiveBroadcast.Broadcast broadcast = JVMTensorPrimitiveBroadcast.broadcast(
+            shape, stride, right.shape, right.stride
+        );
+
+        final boolean[] output = new boolean[broadcast.getLength()];
+        JVMTensorPrimitiveBroadcast.compare(buffer.asLongArray(), right.buffer.asLongArray(), output, broadcast, op);
+
+        return new JVMBooleanTensor(output, broadcast.getOutputShape(), broadcast.getOutputStride());
     }
 
 }
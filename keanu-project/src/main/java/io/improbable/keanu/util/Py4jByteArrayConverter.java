@@ -2,70 +2,174 @@ package io.improbable.keanu.util;
 
 import lombok.experimental.UtilityClass;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.BitSet;
 
 @UtilityClass
 public class Py4jByteArrayConverter {
 
+    private static final int FILE_BUFFER_BYTES = 1 << 20;
+
     public byte[] toByteArray(double[] doubleArray) {
-        ByteBuffer doubleBuffer = ByteBuffer.allocate(Double.SIZE / Byte.SIZE * doubleArray.length);
-        // Java defaults to BIG_ENDIAN. LITTLE_ENDIAN is what is expected by numpy to construct an ndarray.
-        doubleBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        for (double element : doubleArray) {
-            doubleBuffer.putDouble(element);
-        }
-        byte[] byteArray = doubleBuffer.array();
-        return byteArray;
+        ByteBuffer byteBuffer = littleEndianBuffer(Double.BYTES * doubleArray.length);
+        byteBuffer.asDoubleBuffer().put(doubleArray);
+        return byteBuffer.array();
     }
 
     public byte[] toByteArray(int[] integerArray) {
-        ByteBuffer integerBuffer = ByteBuffer.allocate(Integer.SIZE / Byte.SIZE * integerArray.length);
-        // Java defaults to BIG_ENDIAN. LITTLE_ENDIAN is what is expected by numpy to construct an ndarray.
-        integerBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        for (int element : integerArray) {
-            integerBuffer.putInt(element);
-        }
-        byte[] byteArray = integerBuffer.array();
-        return byteArray;
+        ByteBuffer byteBuffer = littleEndianBuffer(Integer.BYTES * integerArray.length);
+        byteBuffer.asIntBuffer().put(integerArray);
+        return byteBuffer.array();
     }
 
     public byte[] toByteArray(boolean[] booleanArray) {
-        ByteBuffer booleanBuffer = ByteBuffer.allocate(booleanArray.length);
-        booleanBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        for (boolean element : booleanArray) {
-            byte booleanByte = element ? (byte) 0x01 : 0x00;
-            booleanBuffer.put(booleanByte);
+        byte[] byteArray = new byte[booleanArray.length];
+        for (int i = 0; i < booleanArray.length; i++) {
+            byteArray[i] = booleanArray[i] ? (byte) 0x01 : 0x00;
         }
-        byte[] byteArray = booleanBuffer.array();
         return byteArray;
     }
 
     public static double[] toDoubleArray(byte[] byteArray) {
         double[] doubles = new double[byteArray.length / Double.BYTES];
-        for (int i = 0; i < doubles.length; i++) {
-            doubles[i] = ByteBuffer.wrap(byteArray, i * Double.BYTES, Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).getDouble();
-        }
+        ByteBuffer.wrap(byteArray).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(doubles);
         return doubles;
     }
 
     public static int[] toIntegerArray(byte[] byteArray) {
         int[] ints = new int[byteArray.length / Integer.BYTES];
-        for (int i = 0; i < ints.length; i++) {
-            ints[i] = ByteBuffer.wrap(byteArray, i * Integer.BYTES, Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).getInt();
-        }
+        ByteBuffer.wrap(byteArray).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(ints);
         return ints;
     }
 
     public static long[] toLongArray(byte[] byteArray) {
         long[] longs = new long[byteArray.length / Long.BYTES];
-        for (int i = 0; i < longs.length; i++) {
-            longs[i] = ByteBuffer.wrap(byteArray, i * Long.BYTES, Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).getLong();
-        }
+        ByteBuffer.wrap(byteArray).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(longs);
         return longs;
     }
 
+    /**
+     * Large arrays are passed to and from the Python API through a temporary file rather than as a byte array over
+     * the py4j socket. The file holds the elements as little endian bytes with no header, which is what numpy's
+     * tofile writes and fromfile or memmap read.
+     *
+     * @param doubleArray the elements to write
+     * @param path        the file to write them to, which is overwritten
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeToFile(double[] doubleArray, String path) throws IOException {
+        writeInChunks(path, doubleArray.length, Double.BYTES,
+            (buffer, offset, count) -> buffer.asDoubleBuffer().put(doubleArray, offset, count)
+        );
+    }
+
+    public static void writeToFile(int[] integerArray, String path) throws IOException {
+        writeInChunks(path, integerArray.length, Integer.BYTES,
+            (buffer, offset, count) -> buffer.asIntBuffer().put(integerArray, offset, count)
+        );
+    }
+
+    public static void writeToFile(boolean[] booleanArray, String path) throws IOException {
+        writeInChunks(path, booleanArray.length, 1, (buffer, offset, count) -> {
+            for (int i = offset; i < offset + count; i++) {
+                buffer.put(booleanArray[i] ? (byte) 0x01 : 0x00);
+            }
+        });
+    }
+
+    public static double[] readDoubleArrayFromFile(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            double[] doubles = new double[elementCount(channel, Double.BYTES)];
+            readInChunks(channel, doubles.length, Double.BYTES,
+                (buffer, offset, count) -> buffer.asDoubleBuffer().get(doubles, offset, count)
+            );
+            return doubles;
+        }
+    }
+
+    public static int[] readIntegerArrayFromFile(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            int[] ints = new int[elementCount(channel, Integer.BYTES)];
+            readInChunks(channel, ints.length, Integer.BYTES,
+                (buffer, offset, count) -> buffer.asIntBuffer().get(ints, offset, count)
+            );
+            return ints;
+        }
+    }
+
+    public static long[] readLongArrayFromFile(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long[] longs = new long[elementCount(channel, Long.BYTES)];
+            readInChunks(channel, longs.length, Long.BYTES,
+                (buffer, offset, count) -> buffer.asLongBuffer().get(longs, offset, count)
+            );
+            return longs;
+        }
+    }
+
+    private static ByteBuffer littleEndianBuffer(int capacity) {
+        // Java defaults to BIG_ENDIAN. LITTLE_ENDIAN is what is expected by numpy to construct an ndarray.
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Files are read and written through a direct buffer, which the channel can copy to and from without first copying
+     * into a temporary direct buffer of its own. The buffer has a fixed size and the array is streamed through it in
+     * chunks, as direct memory is only released on garbage collection.
+     */
+    private static ByteBuffer directLittleEndianBuffer() {
+        return ByteBuffer.allocateDirect(FILE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeInChunks(String path, int length, int bytesPerElement, ChunkCopy copyToBuffer) throws IOException {
+        ByteBuffer byteBuffer = directLittleEndianBuffer();
+        int elementsPerChunk = byteBuffer.capacity() / bytesPerElement;
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int offset = 0; offset < length; offset += elementsPerChunk) {
+                int count = Math.min(elementsPerChunk, length - offset);
+                byteBuffer.clear();
+                copyToBuffer.copy(byteBuffer, offset, count);
+                byteBuffer.position(0).limit(count * bytesPerElement);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+            }
+        }
+    }
+
+    private static int elementCount(FileChannel channel, int bytesPerElement) throws IOException {
+        return Math.toIntExact(channel.size() / bytesPerElement);
+    }
+
+    private static void readInChunks(FileChannel channel, int length, int bytesPerElement, ChunkCopy copyFromBuffer) throws IOException {
+        ByteBuffer byteBuffer = directLittleEndianBuffer();
+        int elementsPerChunk = byteBuffer.capacity() / bytesPerElement;
+        int offset = 0;
+        while (offset < length) {
+            byteBuffer.clear().limit(Math.min(elementsPerChunk, length - offset) * bytesPerElement);
+            boolean endOfFile = false;
+            while (byteBuffer.hasRemaining() && !endOfFile) {
+                endOfFile = channel.read(byteBuffer) < 0;
+            }
+            byteBuffer.flip();
+            int count = byteBuffer.remaining() / bytesPerElement;
+            copyFromBuffer.copy(byteBuffer, offset, count);
+            offset += count;
+            if (endOfFile) {
+                break;
+            }
+        }
+    }
+
+    private interface ChunkCopy {
+        void copy(ByteBuffer byteBuffer, int offset, int count);
+    }
+
     /**
      * This function is intended to be called from the Python API with the result of np.packbits(...).toBytes().
      * In Python, the result of this is a byte array where each boolean is represented by a single bit (0 for false, 1 for true).
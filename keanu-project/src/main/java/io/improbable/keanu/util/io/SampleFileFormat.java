@@ -0,0 +1,293 @@
+package io.improbable.keanu.util.io;
+
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The layout of a sample file written by {@link SampleFileWriter}.
+ * <p>
+ * The file starts with a header describing the type and shape of each sampled variable. It is followed by any
+ * number of chunks. A chunk holds the log probabilities of its samples followed by one column per variable with
+ * the flattened values of that variable for every sample in the chunk. Each chunk ends with a marker that is only
+ * written once the rest of the chunk is in place, so a chunk that was cut short by a crash can be detected and
+ * discarded.
+ */
+final class SampleFileFormat {
+
+    private static final int MAGIC = 0x4B534D50;
+    private static final int VERSION = 1;
+    private static final int CHUNK_START = 0x4348554E;
+    private static final int CHUNK_END = 0x43454E44;
+
+    static final int CHUNK_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int CHUNK_FOOTER_BYTES = Integer.BYTES;
+
+    private SampleFileFormat() {
+    }
+
+    enum ColumnType {
+        DOUBLE(Double.BYTES),
+        INTEGER(Integer.BYTES),
+        BOOLEAN(1);
+
+        final int bytesPerElement;
+
+        ColumnType(int bytesPerElement) {
+            this.bytesPerElement = bytesPerElement;
+        }
+
+        static ColumnType of(Object value) {
+            if (value instanceof DoubleTensor) {
+                return DOUBLE;
+            } else if (value instanceof IntegerTensor) {
+                return INTEGER;
+            } else if (value instanceof BooleanTensor) {
+                return BOOLEAN;
+            }
+            throw new IllegalArgumentException(
+                "Only double, integer and boolean tensor samples can be stored in a sample file but got " +
+                    (value == null ? null : value.getClass())
+            );
+        }
+
+        void put(ByteBuffer buffer, Object value) {
+            switch (this) {
+                case DOUBLE:
+                    for (double element : ((DoubleTensor) value).asFlatDoubleArray()) {
+                        buffer.putDouble(element);
+                    }
+                    break;
+                case INTEGER:
+                    for (int element : ((IntegerTensor) value).asFlatIntegerArray()) {
+                        buffer.putInt(element);
+                    }
+                    break;
+                default:
+                    for (boolean element : ((BooleanTensor) value).asFlatBooleanArray()) {
+                        buffer.put((byte) (element ? 1 : 0));
+                    }
+            }
+        }
+
+        Object get(ByteBuffer buffer, int position, long[] shape, int length) {
+            switch (this) {
+                case DOUBLE:
+                    double[] doubles = new double[length];
+                    for (int i = 0; i < length; i++) {
+                        doubles[i] = buffer.getDouble(position + i * Double.BYTES);
+                    }
+                    return DoubleTensor.create(doubles, shape.clone());
+                case INTEGER:
+                    int[] ints = new int[length];
+                    for (int i = 0; i < length; i++) {
+                        ints[i] = buffer.getInt(position + i * Integer.BYTES);
+                    }
+                    return IntegerTensor.create(ints, shape.clone());
+                default:
+                    boolean[] booleans = new boolean[length];
+                    for (int i = 0; i < length; i++) {
+                        booleans[i] = buffer.get(position + i) != 0;
+                    }
+                    return BooleanTensor.create(booleans, shape.clone());
+            }
+        }
+    }
+
+    static class Column {
+
+        final ColumnType type;
+        final long[] shape;
+        final int length;
+
+        Column(ColumnType type, long[] shape) {
+            this.type = type;
+            this.shape = shape;
+            this.length = TensorShape.getLengthAsInt(shape);
+        }
+
+        static Column of(Object value) {
+            ColumnType type = ColumnType.of(value);
+            return new Column(type, ((Tensor<?, ?>) value).getShape());
+        }
+
+        int bytesPerSample() {
+            return length * type.bytesPerElement;
+        }
+
+        boolean matches(Object value) {
+            return ColumnType.of(value) == type && Arrays.equals(shape, ((Tensor<?, ?>) value).getShape());
+        }
+
+        @Override
+        public String toString() {
+            return type + Arrays.toString(shape);
+        }
+    }
+
+    static class Chunk {
+
+        final long position;
+        final int sampleCount;
+
+        Chunk(long position, int sampleCount) {
+            this.position = position;
+            this.sampleCount = sampleCount;
+        }
+    }
+
+    static long bytesPerSample(List<Column> columns) {
+        long bytes = Double.BYTES;
+        for (Column column : columns) {
+            bytes += column.bytesPerSample();
+        }
+        return bytes;
+    }
+
+    static long chunkBytes(List<Column> columns, int sampleCount) {
+        return CHUNK_HEADER_BYTES + sampleCount * bytesPerSample(columns) + CHUNK_FOOTER_BYTES;
+    }
+
+    /**
+     * @return the offset of each column from the start of a chunk with the given number of samples. The log
+     * probabilities come first and are not included.
+     */
+    static int[] columnOffsets(List<Column> columns, int sampleCount) {
+        int[] offsets = new int[columns.size()];
+        int offset = CHUNK_HEADER_BYTES + sampleCount * Double.BYTES;
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = offset;
+            offset += sampleCount * columns.get(i).bytesPerSample();
+        }
+        return offsets;
+    }
+
+    static void putChunkHeader(ByteBuffer buffer, int sampleCount) {
+        buffer.putInt(CHUNK_START);
+        buffer.putInt(sampleCount);
+    }
+
+    static void putChunkFooter(ByteBuffer buffer) {
+        buffer.putInt(CHUNK_END);
+    }
+
+    static byte[] encodeHeader(List<Column> columns) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(columns.size());
+        for (Column column : columns) {
+            output.writeByte(column.type.ordinal());
+            output.writeInt(column.shape.length);
+            for (long dimension : column.shape) {
+                output.writeLong(dimension);
+            }
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the columns described by the header, or null if the file is too short to hold a header
+     * @throws IOException if the file is not a sample file
+     */
+    static List<Column> readHeader(FileChannel channel) throws IOException {
+        if (channel.size() == 0) {
+            return null;
+        }
+
+        DataInputStream input = new DataInputStream(Channels.newInputStream(channel.position(0)));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a sample file");
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported sample file version " + version);
+        }
+
+        int columnCount = input.readInt();
+        List<Column> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            ColumnType type = ColumnType.values()[input.readByte()];
+            long[] shape = new long[input.readInt()];
+            for (int d = 0; d < shape.length; d++) {
+                shape[d] = input.readLong();
+            }
+            columns.add(new Column(type, shape));
+        }
+        return columns;
+    }
+
+    static long headerBytes(List<Column> columns) throws IOException {
+        return encodeHeader(columns).length;
+    }
+
+    /**
+     * @return every complete chunk in the file. Reading stops at the first chunk that is incomplete.
+     */
+    static List<Chunk> readChunks(FileChannel channel, List<Column> columns) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long position = headerBytes(columns);
+        long fileSize = channel.size();
+        ByteBuffer marker = ByteBuffer.allocate(CHUNK_HEADER_BYTES);
+
+        while (position + CHUNK_HEADER_BYTES <= fileSize) {
+            marker.clear();
+            readFully(channel, marker, position);
+            marker.flip();
+            if (marker.getInt() != CHUNK_START) {
+                break;
+            }
+            int sampleCount = marker.getInt();
+            long chunkBytes = chunkBytes(columns, sampleCount);
+            if (sampleCount <= 0 || position + chunkBytes > fileSize) {
+                break;
+            }
+
+            marker.clear().limit(CHUNK_FOOTER_BYTES);
+            readFully(channel, marker, position + chunkBytes - CHUNK_FOOTER_BYTES);
+            marker.flip();
+            if (marker.getInt() != CHUNK_END) {
+                break;
+            }
+
+            chunks.add(new Chunk(position, sampleCount));
+            position += chunkBytes;
+        }
+        return chunks;
+    }
+
+    static long endOf(List<Column> columns, List<Chunk> chunks) throws IOException {
+        if (chunks.isEmpty()) {
+            return headerBytes(columns);
+        }
+        Chunk last = chunks.get(chunks.size() - 1);
+        return last.position + chunkBytes(columns, last.sampleCount);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long readPosition = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, readPosition);
+            if (read < 0) {
+                throw new IOException("Unexpected end of sample file");
+            }
+            readPosition += read;
+        }
+    }
+}
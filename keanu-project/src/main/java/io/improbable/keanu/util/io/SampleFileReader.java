@@ -0,0 +1,136 @@
+package io.improbable.keanu.util.io;
+
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.util.io.SampleFileFormat.Chunk;
+import io.improbable.keanu.util.io.SampleFileFormat.Column;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Opens a file written by {@link SampleFileWriter} as read only {@link NetworkSamples}.
+ * <p>
+ * Each chunk of the file is memory mapped and samples are only decoded when they are read, so the samples do not
+ * have to fit on the heap. Any chunk that was not completely written is ignored.
+ */
+public class SampleFileReader {
+
+    private SampleFileReader() {
+    }
+
+    /**
+     * @param path      a sample file
+     * @param variables the variables the file was written for, in the same order as when it was written. The
+     *                  samples are keyed by the references of these variables.
+     * @return the samples in every complete chunk of the file
+     * @throws IOException if the file cannot be read or is not a sample file
+     */
+    public static NetworkSamples read(Path path, List<? extends Variable> variables) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<Column> columns = SampleFileFormat.readHeader(channel);
+            if (columns == null) {
+                throw new IOException("Sample file " + path + " is empty");
+            }
+            if (columns.size() != variables.size()) {
+                throw new IllegalArgumentException(
+                    "Sample file has " + columns.size() + " variables but " + variables.size() + " were given"
+                );
+            }
+
+            List<Chunk> chunks = SampleFileFormat.readChunks(channel, columns);
+            MappedByteBuffer[] buffers = new MappedByteBuffer[chunks.size()];
+            int[] chunkStarts = new int[chunks.size() + 1];
+            int[][] columnOffsets = new int[chunks.size()][];
+            for (int c = 0; c < buffers.length; c++) {
+                Chunk chunk = chunks.get(c);
+                buffers[c] = channel.map(
+                    FileChannel.MapMode.READ_ONLY, chunk.position, SampleFileFormat.chunkBytes(columns, chunk.sampleCount)
+                );
+                chunkStarts[c + 1] = chunkStarts[c] + chunk.sampleCount;
+                columnOffsets[c] = SampleFileFormat.columnOffsets(columns, chunk.sampleCount);
+            }
+
+            Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                samplesByVariable.put(
+                    variables.get(i).getReference(),
+                    new MappedColumn(buffers, chunkStarts, columnOffsets, i, columns.get(i))
+                );
+            }
+            List<Double> logProbs = new MappedLogProbs(buffers, chunkStarts);
+
+            return new NetworkSamples(samplesByVariable, logProbs, chunkStarts[chunks.size()]);
+        }
+    }
+
+    private abstract static class MappedList<T> extends AbstractList<T> implements RandomAccess {
+
+        final MappedByteBuffer[] chunks;
+        final int[] chunkStarts;
+
+        MappedList(MappedByteBuffer[] chunks, int[] chunkStarts) {
+            this.chunks = chunks;
+            this.chunkStarts = chunkStarts;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int found = Arrays.binarySearch(chunkStarts, index);
+            int chunk = found >= 0 ? found : -found - 2;
+            return get(chunk, index - chunkStarts[chunk]);
+        }
+
+        abstract T get(int chunk, int indexInChunk);
+
+        @Override
+        public int size() {
+            return chunkStarts[chunkStarts.length - 1];
+        }
+    }
+
+    private static class MappedColumn extends MappedList<Object> {
+
+        private final int[][] columnOffsets;
+        private final int columnIndex;
+        private final Column column;
+
+        MappedColumn(MappedByteBuffer[] chunks, int[] chunkStarts, int[][] columnOffsets, int columnIndex, Column column) {
+            super(chunks, chunkStarts);
+            this.columnOffsets = columnOffsets;
+            this.columnIndex = columnIndex;
+            this.column = column;
+        }
+
+        @Override
+        Object get(int chunk, int indexInChunk) {
+            int position = columnOffsets[chunk][columnIndex] + indexInChunk * column.bytesPerSample();
+            return column.type.get(chunks[chunk], position, column.shape, column.length);
+        }
+    }
+
+    private static class MappedLogProbs extends MappedList<Double> {
+
+        MappedLogProbs(MappedByteBuffer[] chunks, int[] chunkStarts) {
+            super(chunks, chunkStarts);
+        }
+
+        @Override
+        Double get(int chunk, int indexInChunk) {
+            return chunks[chunk].getDouble(SampleFileFormat.CHUNK_HEADER_BYTES + indexInChunk * Double.BYTES);
+        }
+    }
+}
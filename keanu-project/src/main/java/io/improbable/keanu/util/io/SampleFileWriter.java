@@ -0,0 +1,259 @@
+package io.improbable.keanu.util.io;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.algorithms.SampleSink;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.util.io.SampleFileFormat.Chunk;
+import io.improbable.keanu.util.io.SampleFileFormat.Column;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link SampleSink} that writes samples to a columnar file so that long chains do not have to fit on the heap.
+ * <p>
+ * Samples are buffered on the heap until the buffer reaches the heap budget, at which point the buffer is
+ * spilled to the end of the file as one chunk through a memory mapped region of the file. The buffer grows as samples
+ * arrive, so short runs do not take the whole budget. Call {@link #flush()}
+ * to spill early and {@link #close()} to spill whatever is left.
+ * <p>
+ * The file can be read back with {@link SampleFileReader}. If a run is interrupted, every chunk that was completely
+ * spilled survives; {@link #resume(Path, List)} discards any partly written chunk and carries on appending after
+ * the last complete one. To carry on the same chain, first set the latent variables of the model to the values of
+ * the last sample in the file.
+ */
+public class SampleFileWriter implements SampleSink, Closeable {
+
+    public static final long DEFAULT_HEAP_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_CAPACITY = 16;
+
+    private final FileChannel channel;
+    private final List<VariableReference> references;
+    private final long heapBudgetBytes;
+
+    private List<Column> columns;
+    private ByteBuffer logProbs;
+    private ByteBuffer[] values;
+    private int chunkCapacity;
+    private int bufferCapacity;
+    private int bufferedCount;
+
+    private long filePosition;
+    private long sampleCount;
+
+    private SampleFileWriter(FileChannel channel,
+                             List<? extends Variable> variables,
+                             long heapBudgetBytes,
+                             List<Column> columns,
+                             long filePosition,
+                             long sampleCount) {
+        Preconditions.checkArgument(heapBudgetBytes > 0, "Heap budget must be positive but was %s", heapBudgetBytes);
+        this.channel = channel;
+        this.references = variables.stream().map(Variable::getReference).collect(Collectors.toList());
+        this.heapBudgetBytes = heapBudgetBytes;
+        this.filePosition = filePosition;
+        this.sampleCount = sampleCount;
+        if (columns != null) {
+            setColumns(columns);
+        }
+    }
+
+    public static SampleFileWriter create(Path path, List<? extends Variable> variables) throws IOException {
+        return create(path, variables, DEFAULT_HEAP_BUDGET_BYTES);
+    }
+
+    /**
+     * @param path            the file to write to. Any existing file is replaced.
+     * @param variables       the variables to write the samples of, in the order they are stored in the file
+     * @param heapBudgetBytes the number of bytes of samples to keep on the heap before spilling them to the file
+     * @return a writer for a new sample file
+     * @throws IOException if the file cannot be created
+     */
+    public static SampleFileWriter create(Path path, List<? extends Variable> variables, long heapBudgetBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        return new SampleFileWriter(channel, variables, heapBudgetBytes, null, 0, 0);
+    }
+
+    public static SampleFileWriter resume(Path path, List<? extends Variable> variables) throws IOException {
+        return resume(path, variables, DEFAULT_HEAP_BUDGET_BYTES);
+    }
+
+    /**
+     * @param path            a sample file that was written by a writer for the same variables
+     * @param variables       the variables to write the samples of, in the same order as when the file was created
+     * @param heapBudgetBytes the number of bytes of samples to keep on the heap before spilling them to the file
+     * @return a writer that appends to the file after its last complete chunk
+     * @throws IOException              if the file cannot be opened or is not a sample file
+     * @throws IllegalArgumentException if the type or shape of the value of a variable does not match the file
+     */
+    public static SampleFileWriter resume(Path path, List<? extends Variable> variables, long heapBudgetBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        List<Column> columns = SampleFileFormat.readHeader(channel);
+        if (columns == null) {
+            return new SampleFileWriter(channel, variables, heapBudgetBytes, null, 0, 0);
+        }
+
+        try {
+            checkColumnsMatch(columns, variables);
+        } catch (IllegalArgumentException e) {
+            channel.close();
+            throw e;
+        }
+
+        List<Chunk> chunks = SampleFileFormat.readChunks(channel, columns);
+        long end = SampleFileFormat.endOf(columns, chunks);
+        channel.truncate(end);
+
+        long samplesInFile = chunks.stream().mapToLong(chunk -> chunk.sampleCount).sum();
+        return new SampleFileWriter(channel, variables, heapBudgetBytes, columns, end, samplesInFile);
+    }
+
+    private static void checkColumnsMatch(List<Column> columns, List<? extends Variable> variables) {
+        Preconditions.checkArgument(columns.size() == variables.size(),
+            "Sample file has %s variables but %s were given", columns.size(), variables.size());
+
+        for (int i = 0; i < columns.size(); i++) {
+            Variable<?, ?> variable = variables.get(i);
+            Preconditions.checkArgument(columns.get(i).matches(variable.getValue()),
+                "Sample file stores %s as %s but its value does not match", variable.getReference(), columns.get(i));
+        }
+    }
+
+    /**
+     * @return the number of samples written, including those in the file before it was resumed and those that
+     * have not been spilled yet
+     */
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public void accept(NetworkSample sample) {
+        try {
+            if (columns == null) {
+                writeHeader(sample);
+            }
+            if (bufferedCount == bufferCapacity) {
+                growBuffers();
+            }
+
+            logProbs.putDouble(sample.getLogOfMasterP());
+            for (int i = 0; i < references.size(); i++) {
+                Object value = sample.get(references.get(i));
+                Preconditions.checkArgument(columns.get(i).matches(value),
+                    "Sample of %s does not match %s", references.get(i), columns.get(i));
+                columns.get(i).type.put(values[i], value);
+            }
+            bufferedCount++;
+            sampleCount++;
+
+            if (bufferedCount == chunkCapacity) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Spills any buffered samples to the file as a new chunk and forces the chunk to the storage device.
+     *
+     * @throws IOException if the chunk cannot be written
+     */
+    public void flush() throws IOException {
+        if (bufferedCount == 0) {
+            return;
+        }
+
+        long chunkBytes = SampleFileFormat.chunkBytes(columns, bufferedCount);
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, filePosition, chunkBytes);
+        SampleFileFormat.putChunkHeader(chunk, bufferedCount);
+
+        logProbs.flip();
+        chunk.put(logProbs);
+        for (ByteBuffer column : values) {
+            column.flip();
+            chunk.put(column);
+        }
+        chunk.force();
+
+        SampleFileFormat.putChunkFooter(chunk);
+        chunk.force();
+
+        logProbs.clear();
+        for (ByteBuffer column : values) {
+            column.clear();
+        }
+        filePosition += chunkBytes;
+        bufferedCount = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeHeader(NetworkSample sample) throws IOException {
+        List<Column> firstColumns = new ArrayList<>(references.size());
+        for (VariableReference reference : references) {
+            firstColumns.add(Column.of(sample.get(reference)));
+        }
+
+        byte[] header = SampleFileFormat.encodeHeader(firstColumns);
+        channel.write(ByteBuffer.wrap(header), 0);
+        channel.force(true);
+        filePosition = header.length;
+        setColumns(firstColumns);
+    }
+
+    private void setColumns(List<Column> columns) {
+        long bytesPerSample = SampleFileFormat.bytesPerSample(columns);
+        long maxChunkBytes = Math.min(heapBudgetBytes, Integer.MAX_VALUE - SampleFileFormat.CHUNK_HEADER_BYTES * 2);
+
+        this.columns = columns;
+        this.chunkCapacity = (int) Math.max(1, maxChunkBytes / bytesPerSample);
+        this.bufferCapacity = 0;
+        this.values = new ByteBuffer[columns.size()];
+    }
+
+    /**
+     * Doubles the number of samples the buffers can hold, up to the number that fits in the heap budget, keeping the
+     * samples that are already buffered.
+     */
+    private void growBuffers() {
+        int capacity = (int) Math.min(chunkCapacity, Math.max(INITIAL_BUFFER_CAPACITY, 2L * bufferCapacity));
+
+        logProbs = grow(logProbs, capacity * Double.BYTES);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = grow(values[i], capacity * columns.get(i).bytesPerSample());
+        }
+        bufferCapacity = capacity;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        if (buffer != null) {
+            buffer.flip();
+            grown.put(buffer);
+        }
+        return grown;
+    }
+}
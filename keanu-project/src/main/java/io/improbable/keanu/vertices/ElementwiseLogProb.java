@@ -0,0 +1,20 @@
+package io.improbable.keanu.vertices;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+/**
+ * A probabilistic vertex whose log probability is a sum of independent terms, one for each element of its value.
+ *
+ * @param <T> the type of the value of the vertex
+ */
+public interface ElementwiseLogProb<T> extends Probabilistic<T> {
+
+    /**
+     * The value and the values of the parameters of the vertex are broadcast against each other, so a value, or
+     * parameters, with extra leading dimensions give the log probabilities of a batch of values.
+     *
+     * @param value the value to calculate the log probability of
+     * @return the log probability of each element of the value
+     */
+    DoubleTensor elementwiseLogProb(T value);
+}
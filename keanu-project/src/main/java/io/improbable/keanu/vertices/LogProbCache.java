@@ -0,0 +1,74 @@
+package io.improbable.keanu.vertices;
+
+import java.util.Set;
+
+/**
+ * Remembers the last two log probabilities of a probabilistic vertex along with the versions of the values they
+ * were calculated from.
+ * <p>
+ * A {@link VertexState} is immutable and a new one is created whenever a value changes, so a state acts as the
+ * version stamp of a value. Rolling back to a previous state (e.g. on a rejected MCMC proposal) restores the old
+ * version. Keeping the entry before the latest one means the log probability of the state that was rolled back to
+ * is still cached.
+ */
+class LogProbCache {
+
+    private Entry latest = new Entry();
+    private Entry previous = new Entry();
+
+    /**
+     * @return the cached log probability or NaN if nothing was cached for the given states
+     */
+    double get(VertexState<?> state, Set<Vertex> parents) {
+        if (latest.isValidFor(state, parents)) {
+            return latest.logProb;
+        } else if (previous.isValidFor(state, parents)) {
+            return previous.logProb;
+        }
+        return Double.NaN;
+    }
+
+    void put(VertexState<?> state, Set<Vertex> parents, double logProb) {
+        Entry evicted = previous;
+        previous = latest;
+        latest = evicted;
+        latest.update(state, parents, logProb);
+    }
+
+    private static class Entry {
+
+        private VertexState<?> state;
+        private Set<Vertex> parents;
+        private VertexState<?>[] parentStates = new VertexState<?>[0];
+        private double logProb;
+
+        boolean isValidFor(VertexState<?> currentState, Set<Vertex> currentParents) {
+            if (state != currentState || parents != currentParents) {
+                return false;
+            }
+
+            int i = 0;
+            for (Vertex<?, ?> parent : currentParents) {
+                if (parentStates[i++] != parent.getState()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void update(VertexState<?> currentState, Set<Vertex> currentParents, double currentLogProb) {
+            if (parentStates.length != currentParents.size()) {
+                parentStates = new VertexState<?>[currentParents.size()];
+            }
+
+            int i = 0;
+            for (Vertex<?, ?> parent : currentParents) {
+                parentStates[i++] = parent.getState();
+            }
+
+            this.state = currentState;
+            this.parents = currentParents;
+            this.logProb = currentLogProb;
+        }
+    }
+}
@@ -6,26 +6,57 @@ public class ProbabilityCalculator {
     private ProbabilityCalculator() {
     }
 
+    /**
+     * @param vertices the vertices to sum the log prob of
+     * @return the sum of the log probs of the vertices, or negative infinity if any is impossible
+     */
     public static double calculateLogProbFor(Collection<? extends Vertex> vertices) {
         double sum = 0.0;
         for (Vertex<?, ?> vertex : vertices) {
-            if (vertex instanceof Probabilistic) {
-                double logProbAtValue = ((Probabilistic) vertex).logProbAtValue();
-                if (isImpossibleLogProb(logProbAtValue)) {
-                    return Double.NEGATIVE_INFINITY;
-                }
-                sum += logProbAtValue;
-            } else if (vertex instanceof NonProbabilistic) {
-                if (((NonProbabilistic) vertex).contradictsObservation()) {
-                    return Double.NEGATIVE_INFINITY;
-                }
-            } else {
-                throw new IllegalArgumentException("Found a vertex that is neither Probabilistic nor Non-Probabilistic");
+            double logProb = logProbContributionOf(vertex);
+            if (isImpossibleLogProb(logProb)) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            sum += logProb;
+        }
+        return sum;
+    }
+
+    public static double calculateLogProbFor(Vertex[] vertices) {
+        return calculateLogProbFor(vertices, 0, vertices.length);
+    }
+
+    /**
+     * @param vertices  the vertices to sum the log prob of
+     * @param fromIndex the index of the first vertex, inclusive
+     * @param toIndex   the index of the last vertex, exclusive
+     * @return the sum of the log probs of the vertices in the range, or negative infinity if any is impossible
+     */
+    public static double calculateLogProbFor(Vertex[] vertices, int fromIndex, int toIndex) {
+        double sum = 0.0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            double logProb = logProbContributionOf(vertices[i]);
+            if (isImpossibleLogProb(logProb)) {
+                return Double.NEGATIVE_INFINITY;
             }
+            sum += logProb;
         }
         return sum;
     }
 
+    private static double logProbContributionOf(Vertex<?, ?> vertex) {
+        if (vertex instanceof Probabilistic) {
+            if (vertex instanceof VertexImpl) {
+                return ((VertexImpl<?, ?>) vertex).cachedLogProbAtValue();
+            }
+            return ((Probabilistic) vertex).logProbAtValue();
+        } else if (vertex instanceof NonProbabilistic) {
+            return ((NonProbabilistic) vertex).contradictsObservation() ? Double.NEGATIVE_INFINITY : 0.0;
+        } else {
+            throw new IllegalArgumentException("Found a vertex that is neither Probabilistic nor Non-Probabilistic");
+        }
+    }
+
     /**
      * Tells you if a value of log probability is impossible, i.e. -Infinity.
      * It also includes the case where it is NaN.
@@ -28,6 +28,7 @@ public abstract class VertexImpl<T, VERTEX extends Vertex<T, VERTEX>> implements
     private Set<Vertex> parents = Collections.emptySet();
     private VertexState<T> state;
     private VertexLabel label = null;
+    private LogProbCache logProbCache = null;
 
     public VertexImpl() {
         this(Tensor.SCALAR_SHAPE);
@@ -134,6 +135,31 @@ public abstract class VertexImpl<T, VERTEX extends Vertex<T, VERTEX>> implements
         return state.getValue() != null;
     }
 
+    /**
+     * @return the log probability of a probabilistic vertex at its current value. This is only recalculated if the
+     * value of this vertex or of one of its parents has changed since the last time it was calculated.
+     */
+    double cachedLogProbAtValue() {
+        if (logProbCache == null) {
+            logProbCache = new LogProbCache();
+        }
+
+        double logProb = logProbCache.get(state, parents);
+        if (Double.isNaN(logProb)) {
+            logProb = ((Probabilistic<T>) this).logProbAtValue();
+            logProbCache.put(state, parents, logProb);
+        }
+        return logProb;
+    }
+
+    /**
+     * Forgets any cached log probability. Vertices whose log probability depends on something other than their value
+     * and the values of their parents must call this whenever that changes.
+     */
+    protected void invalidateCachedLogProb() {
+        logProbCache = null;
+    }
+
     @Override
     public long[] getShape() {
         if (state.getValue() instanceof Tensor) {
@@ -1,5 +1,6 @@
 package io.improbable.keanu.vertices.tensor.bool;
 
+import io.improbable.keanu.algorithms.BooleanTensorSampleList;
 import io.improbable.keanu.algorithms.Samples;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 
@@ -13,6 +14,9 @@ public class BooleanVertexSamples extends Samples<BooleanTensor> {
 
     @Override
     public BooleanTensor asTensor() {
+        if (samples instanceof BooleanTensorSampleList) {
+            return ((BooleanTensorSampleList) samples).asTensor();
+        }
         return BooleanTensor.stack(0, samples.stream().toArray(BooleanTensor[]::new));
     }
 }
@@ -6,6 +6,7 @@ import io.improbable.keanu.distributions.discrete.Bernoulli;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -27,7 +28,7 @@ import java.util.Set;
 import static io.improbable.keanu.tensor.TensorShapeValidation.checkTensorsMatchNonLengthOneShapeOrAreLengthOne;
 import static io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexWrapper.wrapIfNeeded;
 
-public class BernoulliVertex extends VertexImpl<BooleanTensor, BooleanVertex> implements BooleanVertex, ProbabilisticBoolean, SamplableWithManyScalars<BooleanTensor>, LogProbGraphSupplier {
+public class BernoulliVertex extends VertexImpl<BooleanTensor, BooleanVertex> implements BooleanVertex, ProbabilisticBoolean, SamplableWithManyScalars<BooleanTensor>, LogProbGraphSupplier, ElementwiseLogProb<BooleanTensor> {
 
     private final DoubleVertex probTrue;
     private final static String PROBTRUE_NAME = "probTrue";
@@ -74,7 +75,12 @@ public class BernoulliVertex extends VertexImpl<BooleanTensor, BooleanVertex> im
 
     @Override
     public double logProb(BooleanTensor value) {
-        return Bernoulli.withParameters(probTrue.getValue()).logProb(value).sumNumber();
+        return elementwiseLogProb(value).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(BooleanTensor value) {
+        return Bernoulli.withParameters(probTrue.getValue()).logProb(value);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package io.improbable.keanu.vertices.tensor.number.fixed.intgr;
 
+import io.improbable.keanu.algorithms.IntegerTensorSampleList;
 import io.improbable.keanu.algorithms.Samples;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
@@ -22,6 +23,10 @@ public class IntegerVertexSamples extends Samples<IntegerTensor> {
             throw new IllegalStateException("No samples exist for averaging.");
         }
 
+        if (samples instanceof IntegerTensorSampleList) {
+            return ((IntegerTensorSampleList) samples).getAverages();
+        }
+
         long[] shape = samples.iterator().next().getShape();
 
         return this.samples.stream()
@@ -58,6 +63,9 @@ public class IntegerVertexSamples extends Samples<IntegerTensor> {
 
     @Override
     public IntegerTensor asTensor() {
+        if (samples instanceof IntegerTensorSampleList) {
+            return ((IntegerTensorSampleList) samples).asTensor();
+        }
         return IntegerTensor.stack(0, samples.toArray(new IntegerTensor[0]));
     }
 }
@@ -7,6 +7,7 @@ import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
 import io.improbable.keanu.vertices.ConstantVertex;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -26,7 +27,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
-public class BinomialVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProbabilisticInteger, SamplableWithManyScalars<IntegerTensor>, LogProbGraphSupplier {
+public class BinomialVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProbabilisticInteger, SamplableWithManyScalars<IntegerTensor>, LogProbGraphSupplier, ElementwiseLogProb<IntegerTensor> {
 
     private final DoubleVertex p;
     private final IntegerVertex n;
@@ -74,7 +75,12 @@ public class BinomialVertex extends VertexImpl<IntegerTensor, IntegerVertex> imp
 
     @Override
     public double logProb(IntegerTensor k) {
-        return Binomial.withParameters(p.getValue(), n.getValue()).logProb(k).sumNumber();
+        return elementwiseLogProb(k).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(IntegerTensor k) {
+        return Binomial.withParameters(p.getValue(), n.getValue()).logProb(k);
     }
 
     @Override
@@ -7,6 +7,7 @@ import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
 import io.improbable.keanu.vertices.ConstantVertex;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -26,7 +27,7 @@ import java.util.Set;
 
 import static io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexWrapper.wrapIfNeeded;
 
-public class GeometricVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProbabilisticInteger, SamplableWithManyScalars<IntegerTensor>, LogProbGraphSupplier {
+public class GeometricVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProbabilisticInteger, SamplableWithManyScalars<IntegerTensor>, LogProbGraphSupplier, ElementwiseLogProb<IntegerTensor> {
 
     private final DoubleVertex p;
     private final static String P_NAME = "p";
@@ -70,7 +71,12 @@ public class GeometricVertex extends VertexImpl<IntegerTensor, IntegerVertex> im
 
     @Override
     public double logProb(IntegerTensor value) {
-        return Geometric.withParameters(p.getValue()).logProb(value).sumNumber();
+        return elementwiseLogProb(value).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(IntegerTensor value) {
+        return Geometric.withParameters(p.getValue()).logProb(value);
     }
 
     @Override
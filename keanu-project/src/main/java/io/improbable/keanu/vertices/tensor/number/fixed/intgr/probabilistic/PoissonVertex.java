@@ -7,6 +7,7 @@ import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -27,7 +28,7 @@ import java.util.Set;
 
 import static io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexWrapper.wrapIfNeeded;
 
-public class PoissonVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProbabilisticInteger, SamplableWithManyScalars<IntegerTensor>, LogProbGraphSupplier {
+public class PoissonVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProbabilisticInteger, SamplableWithManyScalars<IntegerTensor>, LogProbGraphSupplier, ElementwiseLogProb<IntegerTensor> {
 
     private final DoubleVertex mu;
     private static final String MU_NAME = "mu";
@@ -72,7 +73,12 @@ public class PoissonVertex extends VertexImpl<IntegerTensor, IntegerVertex> impl
 
     @Override
     public double logProb(IntegerTensor value) {
-        return Poisson.withParameters(mu.getValue()).logProb(value).sumNumber();
+        return elementwiseLogProb(value).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(IntegerTensor value) {
+        return Poisson.withParameters(mu.getValue()).logProb(value);
     }
 
     @Override
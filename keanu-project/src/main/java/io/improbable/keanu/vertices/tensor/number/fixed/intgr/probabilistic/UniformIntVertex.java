@@ -6,6 +6,7 @@ import io.improbable.keanu.distributions.discrete.UniformInt;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -25,7 +26,7 @@ import static io.improbable.keanu.tensor.TensorShapeValidation.checkHasOneNonLen
 import static io.improbable.keanu.tensor.TensorShapeValidation.checkTensorsMatchNonLengthOneShapeOrAreLengthOne;
 import static io.improbable.keanu.vertices.tensor.number.fixed.intgr.IntegerVertexWrapper.wrapIfNeeded;
 
-public class UniformIntVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProbabilisticInteger, SamplableWithManyScalars<IntegerTensor>, LogProbGraphSupplier {
+public class UniformIntVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProbabilisticInteger, SamplableWithManyScalars<IntegerTensor>, LogProbGraphSupplier, ElementwiseLogProb<IntegerTensor> {
 
     private IntegerVertex min;
     private IntegerVertex max;
@@ -93,7 +94,12 @@ public class UniformIntVertex extends VertexImpl<IntegerTensor, IntegerVertex> i
 
     @Override
     public double logProb(IntegerTensor value) {
-        return UniformInt.withParameters(min.getValue(), max.getValue()).logProb(value).sumNumber();
+        return elementwiseLogProb(value).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(IntegerTensor value) {
+        return UniformInt.withParameters(min.getValue(), max.getValue()).logProb(value);
     }
 
     @Override
@@ -1,7 +1,9 @@
 package io.improbable.keanu.vertices.tensor.number.floating.dbl;
 
+import io.improbable.keanu.algorithms.DoubleTensorSampleList;
 import io.improbable.keanu.algorithms.Samples;
 import io.improbable.keanu.algorithms.statistics.Autocorrelation;
+import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.TensorShapeValidation;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 
@@ -16,12 +18,20 @@ public class DoubleVertexSamples extends Samples<DoubleTensor> {
     }
 
     public DoubleTensor getAverages() {
+        if (samples instanceof DoubleTensorSampleList) {
+            return ((DoubleTensorSampleList) samples).getAverages();
+        }
+
         return this.samples.stream()
             .reduce(DoubleTensor.zeros(sampleShape), DoubleTensor::plusInPlace)
             .divInPlace((double) samples.size());
     }
 
     public DoubleTensor getVariances() {
+        if (samples instanceof DoubleTensorSampleList) {
+            return ((DoubleTensorSampleList) samples).getVariances();
+        }
+
         DoubleTensor sumOfSquares = this.samples.stream()
             .reduce(DoubleTensor.zeros(sampleShape), (l, r) -> l.plusInPlace(r.pow(2)));
         return sumOfSquares
@@ -40,9 +50,16 @@ public class DoubleVertexSamples extends Samples<DoubleTensor> {
     public DoubleTensor getAutocorrelation(long... index) {
         TensorShapeValidation.checkIndexIsValid(sampleShape, index);
         long[] indexToGet = getCorrectIndexIfScalar(index);
-        double[] sampleValuesAtIndex = samples.stream()
-            .mapToDouble(x -> x.getValue(indexToGet))
-            .toArray();
+        double[] sampleValuesAtIndex;
+        if (samples instanceof DoubleTensorSampleList) {
+            int flatIndex = sampleShape.length == 0 ? 0 :
+                (int) TensorShape.getFlatIndex(sampleShape, TensorShape.getRowFirstStride(sampleShape), indexToGet);
+            sampleValuesAtIndex = ((DoubleTensorSampleList) samples).getValuesAt(flatIndex);
+        } else {
+            sampleValuesAtIndex = samples.stream()
+                .mapToDouble(x -> x.getValue(indexToGet))
+                .toArray();
+        }
         double[] autocorr = Autocorrelation.calculate(sampleValuesAtIndex);
         return DoubleTensor.create(autocorr);
     }
@@ -54,6 +71,9 @@ public class DoubleVertexSamples extends Samples<DoubleTensor> {
 
     @Override
     public DoubleTensor asTensor() {
+        if (samples instanceof DoubleTensorSampleList) {
+            return ((DoubleTensorSampleList) samples).asTensor();
+        }
         return DoubleTensor.stack(0, samples.stream().toArray(DoubleTensor[]::new));
     }
 }
@@ -6,7 +6,6 @@ import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.Probabilistic;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.VertexId;
-import io.improbable.keanu.vertices.tensor.number.floating.dbl.Differentiator;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -23,6 +22,8 @@ public class LogProbGradientCalculator {
     private final Map<Vertex, Set<Vertex>> parentToLatentLookup;
     private final Map<Vertex, Set<Vertex>> verticesWithNonzeroDiffWrtLatent;
 
+    private ReverseModeTape tape;
+
     public LogProbGradientCalculator(List<? extends Vertex> logProbOfVerticesList, List<? extends Vertex<?, ?>> wrtVerticesList) {
         this.logProbOfVertices = new HashSet<>(logProbOfVerticesList);
         this.wrtVertices = new HashSet<>(wrtVerticesList);
@@ -32,17 +33,31 @@ public class LogProbGradientCalculator {
     }
 
     /**
+     * The reverse mode sweep is compiled into a tape on the first call and replayed on every call after.
+     *
      * @return the partial derivatives with respect to a given set of latent vertices
      */
     public Map<VertexId, DoubleTensor> getJointLogProbGradientWrtLatents() {
-        LogProbGradients totalLogProbGradients = new LogProbGradients();
+        if (tape == null) {
+            tape = compileTape();
+        }
 
-        for (final Vertex<?, ?> ofVertex : logProbOfVertices) {
-            LogProbGradients logProbGradientOfVertex = reverseModeLogProbGradientWrtLatents(ofVertex);
-            totalLogProbGradients.add(logProbGradientOfVertex);
+        return tape.replay().getPartials();
+    }
+
+    private ReverseModeTape compileTape() {
+        for (Vertex ofVertex : logProbOfVertices) {
+            Preconditions.checkArgument(
+                ofVertex instanceof Probabilistic<?>,
+                "Cannot get logProb gradient on non-probabilistic vertex %s", ofVertex
+            );
         }
 
-        return totalLogProbGradients.getPartials();
+        Set<Vertex> latentWrtVertices = parentToLatentLookup.values().stream()
+            .flatMap(Set::stream)
+            .collect(Collectors.toSet());
+
+        return new ReverseModeTape(verticesWithNonzeroDiffWrtLatent, latentWrtVertices);
     }
 
     /**
@@ -111,48 +126,4 @@ public class LogProbGradientCalculator {
         return !v.isObserved() && wrtVertices.contains(v) && v.ofType().equals(DoubleTensor.class);
     }
 
-    /**
-     * @param ofVertex the vertex we are taking the derivative of
-     * @return partial derivatives of the "ofVertex" wrt to any "this.wrtVertices" that it descends.
-     */
-    private LogProbGradients reverseModeLogProbGradientWrtLatents(final Vertex ofVertex) {
-        Preconditions.checkArgument(
-            ofVertex instanceof Probabilistic<?>,
-            "Cannot get logProb gradient on non-probabilistic vertex %s", ofVertex
-        );
-
-        Set<? extends Vertex> verticesWithNonzeroDiff = verticesWithNonzeroDiffWrtLatent.get(ofVertex);
-        final Map<Vertex, DoubleTensor> dlogProbOfVertexWrtVertices = ((Probabilistic<?>) ofVertex).dLogProbAtValue(verticesWithNonzeroDiff);
-
-        LogProbGradients dOfWrtLatentsAccumulated = new LogProbGradients();
-
-        for (Map.Entry<Vertex, DoubleTensor> dlogProbWrtVertex : dlogProbOfVertexWrtVertices.entrySet()) {
-
-            Vertex vertexWithDiff = dlogProbWrtVertex.getKey();
-            DoubleTensor dLogProbOfWrtVertexWithDiff = dlogProbWrtVertex.getValue();
-
-            if (vertexWithDiff.equals(ofVertex)) {
-                dOfWrtLatentsAccumulated.putWithRespectTo(vertexWithDiff.getId(), dLogProbOfWrtVertexWithDiff);
-            } else {
-
-                ReverseModePartialDerivative partialWrtVertexWithDiff = new ReverseModePartialDerivative(new long[0], dLogProbOfWrtVertexWithDiff);
-
-                ReverseModePartialDerivative correctForScalarReverse = AutoDiffBroadcast.correctForBroadcastPartialReverse(
-                    partialWrtVertexWithDiff, dLogProbOfWrtVertexWithDiff.getShape(), vertexWithDiff.getShape()
-                );
-
-                PartialsOf dOfWrtLatentsContributionFromParent = Differentiator.reverseModeAutoDiff(
-                    vertexWithDiff,
-                    correctForScalarReverse,
-                    this.parentToLatentLookup.get(vertexWithDiff)
-                );
-
-                dOfWrtLatentsAccumulated = dOfWrtLatentsAccumulated.add(dOfWrtLatentsContributionFromParent);
-            }
-
-        }
-
-        return dOfWrtLatentsAccumulated;
-    }
-
 }
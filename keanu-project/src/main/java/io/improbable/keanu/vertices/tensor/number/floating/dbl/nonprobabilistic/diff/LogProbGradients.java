@@ -40,6 +40,11 @@ public class LogProbGradients {
         return this;
     }
 
+    public LogProbGradients add(VertexId id, DoubleTensor partial) {
+        putPartial(id, partial);
+        return this;
+    }
+
     private void putPartial(VertexId id, DoubleTensor value) {
         final DoubleTensor existingPartialDerivative = partials.get(id);
 
@@ -0,0 +1,214 @@
+package io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic.diff;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Probabilistic;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.VertexId;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.Differentiable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A reverse mode sweep over the log prob of a set of probabilistic vertices, compiled once for a fixed graph.
+ * <p>
+ * Every vertex the sweep can reach is given a slot in an adjoint array. The differentiable operations are recorded
+ * in reverse topological order, each with the slots of its parents, so a replay runs down the list once rather than
+ * walking the graph from every parent of every probabilistic vertex. The adjoints of all the probabilistic vertices
+ * are summed into the same slots as they are seeded, since the log prob of each is a scalar.
+ * <p>
+ * The adjoint array is reused between replays, so a tape must only be replayed by one thread at a time. The adjoint
+ * tensors themselves are not: each replay holds the partials that the vertices return from
+ * {@link Differentiable#reverseModeAutoDifferentiation}, which are new tensors, and only copies one when a second
+ * partial has to be summed into the same slot.
+ */
+class ReverseModeTape {
+
+    private final Seed[] seeds;
+    private final Operation[] operations;
+    private final Vertex[] wrtVertices;
+    private final int[] wrtSlots;
+
+    private final ReverseModePartialDerivative[] adjoints;
+    private final boolean[] ownsAdjoint;
+
+    /**
+     * @param verticesWithNonzeroDiff for each probabilistic vertex, itself if latent and the parents that lead to a
+     *                                vertex in wrtVertices
+     * @param wrtVertices             the vertices the sweep stops at
+     */
+    ReverseModeTape(Map<Vertex, Set<Vertex>> verticesWithNonzeroDiff, Set<Vertex> wrtVertices) {
+
+        Map<Vertex, Integer> slots = new HashMap<>();
+        List<Vertex> operationVertices = new ArrayList<>();
+        List<Vertex> reachedWrtVertices = new ArrayList<>();
+
+        Deque<Vertex> toVisit = new ArrayDeque<>();
+        for (Map.Entry<Vertex, Set<Vertex>> entry : verticesWithNonzeroDiff.entrySet()) {
+            for (Vertex vertexWithDiff : entry.getValue()) {
+                if (!vertexWithDiff.equals(entry.getKey()) && !slots.containsKey(vertexWithDiff)) {
+                    slots.put(vertexWithDiff, slots.size());
+                    toVisit.add(vertexWithDiff);
+                }
+            }
+        }
+
+        Vertex<?, ?> visiting;
+        while ((visiting = toVisit.poll()) != null) {
+            if (wrtVertices.contains(visiting)) {
+                reachedWrtVertices.add(visiting);
+            } else if (!visiting.isProbabilistic() && visiting.isDifferentiable()) {
+                operationVertices.add(visiting);
+                for (Vertex parent : visiting.getParents()) {
+                    if (parent.isDifferentiable() && !slots.containsKey(parent)) {
+                        slots.put(parent, slots.size());
+                        toVisit.add(parent);
+                    }
+                }
+            }
+        }
+
+        operationVertices.sort(Comparator.<Vertex, VertexId>comparing(Vertex::getId).reversed());
+
+        this.operations = operationVertices.stream()
+            .map(vertex -> new Operation(vertex, slots))
+            .toArray(Operation[]::new);
+
+        this.seeds = verticesWithNonzeroDiff.entrySet().stream()
+            .map(entry -> new Seed(entry.getKey(), entry.getValue(), slots))
+            .toArray(Seed[]::new);
+
+        this.wrtVertices = reachedWrtVertices.toArray(new Vertex[0]);
+        this.wrtSlots = reachedWrtVertices.stream().mapToInt(slots::get).toArray();
+
+        this.adjoints = new ReverseModePartialDerivative[slots.size()];
+        this.ownsAdjoint = new boolean[slots.size()];
+    }
+
+    /**
+     * @return the gradient of the summed log prob of the probabilistic vertices with respect to the wrt vertices
+     */
+    LogProbGradients replay() {
+        Arrays.fill(adjoints, null);
+        Arrays.fill(ownsAdjoint, false);
+
+        LogProbGradients gradients = new LogProbGradients();
+
+        for (Seed seed : seeds) {
+            seed.apply(gradients);
+        }
+
+        for (Operation operation : operations) {
+            operation.apply();
+        }
+
+        for (int i = 0; i < wrtSlots.length; i++) {
+            ReverseModePartialDerivative adjoint = adjoints[wrtSlots[i]];
+            if (adjoint != null && adjoint.isPresent()) {
+                gradients.add(wrtVertices[i].getId(), adjoint.get());
+            }
+        }
+
+        return gradients;
+    }
+
+    private void accumulate(int slot, ReverseModePartialDerivative partial) {
+        ReverseModePartialDerivative existing = adjoints[slot];
+
+        if (existing == null) {
+            adjoints[slot] = partial;
+        } else if (ownsAdjoint[slot]) {
+            adjoints[slot] = new ReverseModePartialDerivative(existing.getOfShape(), existing.get().plusInPlace(partial.get()));
+        } else {
+            adjoints[slot] = existing.add(partial);
+            ownsAdjoint[slot] = true;
+        }
+    }
+
+    /**
+     * Evaluates the partials of a probabilistic vertex's log prob and seeds the adjoints of its parents with them.
+     */
+    private class Seed {
+
+        private final Probabilistic<?> ofVertex;
+        private final Set<Vertex> verticesWithNonzeroDiff;
+        private final Vertex[] parents;
+        private final int[] parentSlots;
+
+        Seed(Vertex ofVertex, Set<Vertex> verticesWithNonzeroDiff, Map<Vertex, Integer> slots) {
+            this.ofVertex = (Probabilistic<?>) ofVertex;
+            this.verticesWithNonzeroDiff = verticesWithNonzeroDiff;
+            this.parents = verticesWithNonzeroDiff.stream()
+                .filter(v -> !v.equals(ofVertex))
+                .toArray(Vertex[]::new);
+            this.parentSlots = Arrays.stream(parents).mapToInt(slots::get).toArray();
+        }
+
+        void apply(LogProbGradients gradients) {
+            Map<Vertex, DoubleTensor> dLogProb = ofVertex.dLogProbAtValue(verticesWithNonzeroDiff);
+
+            DoubleTensor dLogProbWrtSelf = dLogProb.get(ofVertex);
+            if (dLogProbWrtSelf != null) {
+                gradients.add(((Vertex) ofVertex).getId(), dLogProbWrtSelf);
+            }
+
+            for (int i = 0; i < parents.length; i++) {
+                DoubleTensor dLogProbWrtParent = dLogProb.get(parents[i]);
+                if (dLogProbWrtParent == null) {
+                    continue;
+                }
+
+                ReverseModePartialDerivative partial = AutoDiffBroadcast.correctForBroadcastPartialReverse(
+                    new ReverseModePartialDerivative(new long[0], dLogProbWrtParent),
+                    dLogProbWrtParent.getShape(),
+                    parents[i].getShape()
+                );
+
+                accumulate(parentSlots[i], partial);
+            }
+        }
+    }
+
+    /**
+     * Passes the adjoint of a differentiable vertex back to its parents.
+     */
+    private class Operation {
+
+        private final Differentiable vertex;
+        private final int slot;
+        private final Vertex[] parents;
+        private final int[] parentSlots;
+
+        Operation(Vertex<?, ?> vertex, Map<Vertex, Integer> slots) {
+            this.vertex = (Differentiable) vertex;
+            this.slot = slots.get(vertex);
+            this.parents = vertex.getParents().stream()
+                .filter(slots::containsKey)
+                .toArray(Vertex[]::new);
+            this.parentSlots = Arrays.stream(parents).mapToInt(slots::get).toArray();
+        }
+
+        void apply() {
+            ReverseModePartialDerivative adjoint = adjoints[slot];
+            if (adjoint == null) {
+                return;
+            }
+
+            Map<Vertex, ReverseModePartialDerivative> partials = vertex.reverseModeAutoDifferentiation(adjoint);
+
+            for (int i = 0; i < parents.length; i++) {
+                ReverseModePartialDerivative partial = partials.get(parents[i]);
+                if (partial != null) {
+                    accumulate(parentSlots[i], partial);
+                }
+            }
+        }
+    }
+}
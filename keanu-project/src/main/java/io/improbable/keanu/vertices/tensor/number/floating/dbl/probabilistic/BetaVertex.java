@@ -6,6 +6,7 @@ import io.improbable.keanu.distributions.continuous.Beta;
 import io.improbable.keanu.distributions.hyperparam.Diffs;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -28,7 +29,7 @@ import static io.improbable.keanu.distributions.hyperparam.Diffs.B;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.X;
 import static io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexWrapper.wrapIfNeeded;
 
-public class BetaVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier {
+public class BetaVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier, ElementwiseLogProb<DoubleTensor> {
 
     private final DoubleVertex alpha;
     private final DoubleVertex beta;
@@ -106,8 +107,13 @@ public class BetaVertex extends VertexImpl<DoubleTensor, DoubleVertex> implement
 
     @Override
     public double logProb(DoubleTensor value) {
+        return elementwiseLogProb(value).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(DoubleTensor value) {
         DoubleTensor logPdfs = distribution().logProb(value);
-        return logPdfs.sumNumber();
+        return logPdfs;
     }
 
     @Override
@@ -0,0 +1,211 @@
+package io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.statistics.RealFFT;
+
+import java.util.Arrays;
+
+/**
+ * An approximation of a one dimensional Gaussian kernel density estimate whose cost to evaluate does not grow with the
+ * number of samples it was built from.
+ * <p>
+ * The samples are linearly binned onto a regular grid that reaches past the smallest and largest sample by the
+ * distance at which the kernel falls below the error bound. The density and its derivative at every grid point are
+ * then found by convolving the bins with the kernel and its derivative using an FFT, and a query between two grid
+ * points is answered with cubic Hermite interpolation of both. The interpolated density is smooth, so its derivative
+ * is exactly the derivative of the density that is returned, which is what gradient based samplers need.
+ * <p>
+ * The grid spacing is chosen so that the error of the binned density is at most about the error bound times the
+ * largest density. Queries off the grid, or where the density is below the error bound times the largest density,
+ * are summed directly instead so that the log of the density stays accurate in the tails. Only the sorted samples
+ * close enough to the nearest sample to change the sum by more than the error bound are included.
+ */
+class BinnedKernelDensity {
+
+    private static final double ONE_OVER_SQRT_TWO_PI = 1. / Math.sqrt(2. * Math.PI);
+
+    private final double[] sortedSamples;
+    private final double bandwidth;
+    private final double tailReachSquared;
+
+    private final double gridStart;
+    private final double gridSpacing;
+    private final double[] density;
+    private final double[] densityDerivative;
+    private final double exactBelowDensity;
+
+    /**
+     * @param samples            the samples of the estimate
+     * @param bandwidth          the standard deviation of the Gaussian kernel
+     * @param relativeErrorBound the largest error of the density relative to the largest density, between 0 and 1
+     */
+    BinnedKernelDensity(double[] samples, double bandwidth, double relativeErrorBound) {
+        Preconditions.checkArgument(relativeErrorBound > 0 && relativeErrorBound < 1,
+            "Relative error bound must be between 0 and 1 but was %s", relativeErrorBound);
+        Preconditions.checkArgument(bandwidth > 0, "Bandwidth must be positive but was %s", bandwidth);
+
+        this.sortedSamples = samples.clone();
+        Arrays.sort(sortedSamples);
+        this.bandwidth = bandwidth;
+
+        // A sample this much further away than the nearest sample has a kernel below relativeErrorBound / N of the
+        // nearest sample's, so all such samples together change the sum by less than the error bound
+        this.tailReachSquared = 2 * bandwidth * bandwidth * Math.log(samples.length / relativeErrorBound);
+
+        // Linear binning moves each sample by up to half a grid spacing, which changes the density by at most about
+        // (spacing / bandwidth)^2 / 8 of its peak
+        this.gridSpacing = bandwidth * Math.min(0.5, Math.sqrt(8 * relativeErrorBound));
+        double kernelReach = bandwidth * Math.sqrt(2 * Math.log(1 / relativeErrorBound));
+        int kernelPoints = (int) Math.ceil(kernelReach / gridSpacing);
+
+        double min = sortedSamples[0];
+        double max = sortedSamples[sortedSamples.length - 1];
+
+        this.gridStart = min - kernelPoints * gridSpacing;
+        int gridPoints = (int) Math.ceil((max - min) / gridSpacing) + 2 * kernelPoints + 2;
+
+        RealFFT fft = new RealFFT(Math.max(2, Integer.highestOneBit(gridPoints + kernelPoints) << 1));
+        int halfLength = fft.getLength() / 2;
+
+        double[] binsReal = new double[halfLength + 1];
+        double[] binsImaginary = new double[halfLength + 1];
+        for (double sample : sortedSamples) {
+            double position = (sample - gridStart) / gridSpacing;
+            int lower = (int) Math.floor(position);
+            double fraction = position - lower;
+            addToPacked(binsReal, binsImaginary, lower, 1 - fraction);
+            addToPacked(binsReal, binsImaginary, lower + 1, fraction);
+        }
+        fft.forward(binsReal, binsImaginary);
+
+        double[] kernelReal = new double[halfLength + 1];
+        double[] kernelImaginary = new double[halfLength + 1];
+        double[] derivativeReal = new double[halfLength + 1];
+        double[] derivativeImaginary = new double[halfLength + 1];
+        double scale = 1. / (sortedSamples.length * bandwidth);
+        for (int k = -kernelPoints; k <= kernelPoints; k++) {
+            double u = k * gridSpacing / bandwidth;
+            double kernel = scale * ONE_OVER_SQRT_TWO_PI * Math.exp(-0.5 * u * u);
+            int index = Math.floorMod(k, fft.getLength());
+            addToPacked(kernelReal, kernelImaginary, index, kernel);
+            addToPacked(derivativeReal, derivativeImaginary, index, -u * kernel / bandwidth);
+        }
+        fft.forward(kernelReal, kernelImaginary);
+        fft.forward(derivativeReal, derivativeImaginary);
+
+        multiplyInPlace(kernelReal, kernelImaginary, binsReal, binsImaginary);
+        multiplyInPlace(derivativeReal, derivativeImaginary, binsReal, binsImaginary);
+        fft.inverse(kernelReal, kernelImaginary);
+        fft.inverse(derivativeReal, derivativeImaginary);
+
+        this.density = new double[gridPoints];
+        this.densityDerivative = new double[gridPoints];
+        double largestDensity = 0;
+        for (int i = 0; i < gridPoints; i++) {
+            density[i] = fromPacked(kernelReal, kernelImaginary, i);
+            densityDerivative[i] = fromPacked(derivativeReal, derivativeImaginary, i);
+            largestDensity = Math.max(largestDensity, density[i]);
+        }
+        this.exactBelowDensity = relativeErrorBound * largestDensity;
+    }
+
+    /**
+     * @param x    the points to evaluate the density at
+     * @param pdf  filled with the density at each point, or null if it is not needed
+     * @param dPdx filled with the derivative of the density at each point, or null if it is not needed
+     */
+    void evaluate(double[] x, double[] pdf, double[] dPdx) {
+        for (int i = 0; i < x.length; i++) {
+            double position = (x[i] - gridStart) / gridSpacing;
+            int lower = (int) Math.floor(position);
+
+            if (lower >= 0 && lower < density.length - 1) {
+                double t = position - lower;
+                double t2 = t * t;
+                double t3 = t2 * t;
+
+                double p0 = density[lower];
+                double p1 = density[lower + 1];
+                double m0 = densityDerivative[lower] * gridSpacing;
+                double m1 = densityDerivative[lower + 1] * gridSpacing;
+
+                double interpolated = (2 * t3 - 3 * t2 + 1) * p0 + (t3 - 2 * t2 + t) * m0 + (3 * t2 - 2 * t3) * p1 + (t3 - t2) * m1;
+
+                if (interpolated > exactBelowDensity) {
+                    if (pdf != null) {
+                        pdf[i] = interpolated;
+                    }
+                    if (dPdx != null) {
+                        dPdx[i] = ((6 * t2 - 6 * t) * p0 + (3 * t2 - 4 * t + 1) * m0 + (6 * t - 6 * t2) * p1 + (3 * t2 - 2 * t) * m1) / gridSpacing;
+                    }
+                    continue;
+                }
+            }
+
+            evaluateExactly(x, i, pdf, dPdx);
+        }
+    }
+
+    private void evaluateExactly(double[] x, int i, double[] pdf, double[] dPdx) {
+        int insertion = Arrays.binarySearch(sortedSamples, x[i]);
+        if (insertion < 0) {
+            insertion = -insertion - 1;
+        }
+
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        if (insertion < sortedSamples.length) {
+            nearestDistance = sortedSamples[insertion] - x[i];
+        }
+        if (insertion > 0) {
+            nearestDistance = Math.min(nearestDistance, x[i] - sortedSamples[insertion - 1]);
+        }
+        double reach = Math.sqrt(nearestDistance * nearestDistance + tailReachSquared);
+
+        double sum = 0;
+        double derivativeSum = 0;
+        for (int j = insertion; j < sortedSamples.length && sortedSamples[j] - x[i] <= reach; j++) {
+            double u = (x[i] - sortedSamples[j]) / bandwidth;
+            double kernel = Math.exp(-0.5 * u * u);
+            sum += kernel;
+            derivativeSum -= u * kernel;
+        }
+        for (int j = insertion - 1; j >= 0 && x[i] - sortedSamples[j] <= reach; j--) {
+            double u = (x[i] - sortedSamples[j]) / bandwidth;
+            double kernel = Math.exp(-0.5 * u * u);
+            sum += kernel;
+            derivativeSum -= u * kernel;
+        }
+
+        double scale = ONE_OVER_SQRT_TWO_PI / (sortedSamples.length * bandwidth);
+        if (pdf != null) {
+            pdf[i] = sum * scale;
+        }
+        if (dPdx != null) {
+            dPdx[i] = derivativeSum * scale / bandwidth;
+        }
+    }
+
+    /**
+     * The FFT takes a real series with its even elements in the real array and its odd elements in the imaginary array.
+     */
+    private static void addToPacked(double[] real, double[] imaginary, int index, double value) {
+        if ((index & 1) == 0) {
+            real[index >> 1] += value;
+        } else {
+            imaginary[index >> 1] += value;
+        }
+    }
+
+    private static double fromPacked(double[] real, double[] imaginary, int index) {
+        return (index & 1) == 0 ? real[index >> 1] : imaginary[index >> 1];
+    }
+
+    private static void multiplyInPlace(double[] real, double[] imaginary, double[] byReal, double[] byImaginary) {
+        for (int k = 0; k < real.length; k++) {
+            double productReal = real[k] * byReal[k] - imaginary[k] * byImaginary[k];
+            double productImaginary = real[k] * byImaginary[k] + imaginary[k] * byReal[k];
+            real[k] = productReal;
+            imaginary[k] = productImaginary;
+        }
+    }
+}
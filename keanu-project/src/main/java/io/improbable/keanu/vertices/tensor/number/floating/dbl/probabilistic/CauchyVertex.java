@@ -6,6 +6,7 @@ import io.improbable.keanu.distributions.continuous.Cauchy;
 import io.improbable.keanu.distributions.hyperparam.Diffs;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -28,7 +29,7 @@ import static io.improbable.keanu.distributions.hyperparam.Diffs.S;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.X;
 import static io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexWrapper.wrapIfNeeded;
 
-public class CauchyVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier {
+public class CauchyVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier, ElementwiseLogProb<DoubleTensor> {
 
     private final DoubleVertex location;
     private final DoubleVertex scale;
@@ -95,13 +96,18 @@ public class CauchyVertex extends VertexImpl<DoubleTensor, DoubleVertex> impleme
 
     @Override
     public double logProb(DoubleTensor value) {
+        return elementwiseLogProb(value).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(DoubleTensor value) {
 
         DoubleTensor locationValues = location.getValue();
         DoubleTensor scaleValues = scale.getValue();
 
         DoubleTensor logPdfs = Cauchy.withParameters(locationValues, scaleValues).logProb(value);
 
-        return logPdfs.sumNumber();
+        return logPdfs;
     }
 
     @Override
@@ -7,6 +7,7 @@ import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -28,7 +29,7 @@ import java.util.Set;
 
 import static io.improbable.keanu.vertices.tensor.number.fixed.intgr.IntegerVertexWrapper.wrapIfNeeded;
 
-public class ChiSquaredVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier {
+public class ChiSquaredVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier, ElementwiseLogProb<DoubleTensor> {
 
     private IntegerVertex k;
     private static final String K_NAME = "k";
@@ -80,7 +81,12 @@ public class ChiSquaredVertex extends VertexImpl<DoubleTensor, DoubleVertex> imp
 
     @Override
     public double logProb(DoubleTensor value) {
-        return ChiSquared.withParameters(k.getValue()).logProb(value).sumNumber();
+        return elementwiseLogProb(value).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(DoubleTensor value) {
+        return ChiSquared.withParameters(k.getValue()).logProb(value);
     }
 
     @Override
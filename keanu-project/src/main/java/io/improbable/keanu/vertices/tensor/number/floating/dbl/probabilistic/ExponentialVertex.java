@@ -6,6 +6,7 @@ import io.improbable.keanu.distributions.continuous.Exponential;
 import io.improbable.keanu.distributions.hyperparam.Diffs;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -27,7 +28,7 @@ import static io.improbable.keanu.distributions.hyperparam.Diffs.LAMBDA;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.X;
 import static io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexWrapper.wrapIfNeeded;
 
-public class ExponentialVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier {
+public class ExponentialVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier, ElementwiseLogProb<DoubleTensor> {
 
     private final DoubleVertex rate;
     private static final String RATE_NAME = "rate";
@@ -72,12 +73,17 @@ public class ExponentialVertex extends VertexImpl<DoubleTensor, DoubleVertex> im
 
     @Override
     public double logProb(DoubleTensor value) {
+        return elementwiseLogProb(value).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(DoubleTensor value) {
 
         DoubleTensor lambdaValues = rate.getValue();
 
         DoubleTensor logPdfs = Exponential.withParameters(lambdaValues).logProb(value);
 
-        return logPdfs.sumNumber();
+        return logPdfs;
     }
 
     @Override
@@ -6,6 +6,7 @@ import io.improbable.keanu.distributions.continuous.Gamma;
 import io.improbable.keanu.distributions.hyperparam.Diffs;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.ElementwiseLogProb;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.LogProbGraph;
@@ -28,7 +29,7 @@ import static io.improbable.keanu.distributions.hyperparam.Diffs.THETA;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.X;
 import static io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexWrapper.wrapIfNeeded;
 
-public class GammaVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier {
+public class GammaVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, Differentiable, ProbabilisticDouble, SamplableWithManyScalars<DoubleTensor>, LogProbGraphSupplier, ElementwiseLogProb<DoubleTensor> {
 
     private final DoubleVertex theta;
     private final DoubleVertex k;
@@ -90,11 +91,16 @@ public class GammaVertex extends VertexImpl<DoubleTensor, DoubleVertex> implemen
 
     @Override
     public double logProb(DoubleTensor value) {
+        return elementwiseLogProb(value).sumNumber();
+    }
+
+    @Override
+    public DoubleTensor elementwiseLogProb(DoubleTensor value) {
         DoubleTensor thetaValues = theta.getValue();
         DoubleTensor kValues = k.getValue();
 
         DoubleTensor logPdfs = Gamma.withParameters(thetaValues, kValues).logProb(value);
-        return logPdfs.sumNumber();
+        return logPdfs;
     }
 
     @Override
@@ -46,11 +46,9 @@ public class HalfCauchyVertex extends CauchyVertex {
     }
 
     @Override
-    public double logProb(DoubleTensor value) {
-        if (value.greaterThanOrEqual(LOC_ZERO).allTrue().scalar()) {
-            return super.logProb(value) + LOG_TWO * value.getLength();
-        }
-        return Double.NEGATIVE_INFINITY;
+    public DoubleTensor elementwiseLogProb(DoubleTensor value) {
+        final DoubleTensor logOfSupport = value.greaterThanOrEqualToMask(DoubleTensor.scalar(LOC_ZERO)).logInPlace();
+        return super.elementwiseLogProb(value).plusInPlace(LOG_TWO).plusInPlace(logOfSupport);
     }
 
     @Override
@@ -47,11 +47,9 @@ public class HalfGaussianVertex extends GaussianVertex {
     }
 
     @Override
-    public double logProb(DoubleTensor value) {
-        if (value.greaterThanOrEqual(MU_ZERO).allTrue().scalar()) {
-            return super.logProb(value) + LOG_TWO * value.getLength();
-        }
-        return Double.NEGATIVE_INFINITY;
+    public DoubleTensor elementwiseLogProb(DoubleTensor value) {
+        final DoubleTensor logOfSupport = value.greaterThanOrEqualToMask(DoubleTensor.scalar(MU_ZERO)).logInPlace();
+        return super.elementwiseLogProb(value).plusInPlace(LOG_TWO).plusInPlace(logOfSupport);
     }
 
     @Override
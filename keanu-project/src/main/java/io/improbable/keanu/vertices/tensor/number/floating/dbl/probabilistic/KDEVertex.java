@@ -21,18 +21,38 @@ import java.util.Set;
 public class KDEVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex,  Differentiable, ProbabilisticDouble, Samplable<DoubleTensor> {
 
     private final double bandwidth;
+    private final double approximationErrorBound;
     private DoubleTensor samples;
+    private BinnedKernelDensity binnedDensity;
     private static final String BANDWIDTH_NAME = "bandwidth";
     private static final String SAMPLES_NAME = "samples";
 
     @ExportVertexToPythonBindings
     public KDEVertex(@LoadVertexParam(SAMPLES_NAME) DoubleTensor samples, @LoadVertexParam(BANDWIDTH_NAME) double bandwidth) {
+        this(samples, bandwidth, 0.0);
+    }
+
+    /**
+     * A KDE that is evaluated approximately, which is much faster for large numbers of samples. The samples are binned
+     * onto a grid and the density and its derivative are interpolated from the grid. The error bound is not saved
+     * with the network, so a loaded network evaluates the density exactly.
+     *
+     * @param samples                 the samples to estimate the density of
+     * @param bandwidth               the standard deviation of the Gaussian kernel
+     * @param approximationErrorBound the largest error of the density relative to its peak, between 0 and 1, or 0 to
+     *                                evaluate the density exactly against every sample
+     */
+    public KDEVertex(DoubleTensor samples, double bandwidth, double approximationErrorBound) {
         super(Tensor.SCALAR_SHAPE);
         if (samples.getLength() == 0) {
             throw new IllegalStateException("The provided tensor of samples is empty!");
         }
+        if (approximationErrorBound < 0 || approximationErrorBound >= 1) {
+            throw new IllegalArgumentException("The approximation error bound must be in [0, 1) but was " + approximationErrorBound);
+        }
         this.samples = samples;
         this.bandwidth = bandwidth;
+        this.approximationErrorBound = approximationErrorBound;
     }
 
     public KDEVertex(DoubleTensor samples) {
@@ -61,6 +81,21 @@ public class KDEVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements
         return samples;
     }
 
+    public double getApproximationErrorBound() {
+        return approximationErrorBound;
+    }
+
+    public boolean isApproximate() {
+        return approximationErrorBound > 0;
+    }
+
+    private BinnedKernelDensity getBinnedDensity() {
+        if (binnedDensity == null) {
+            binnedDensity = new BinnedKernelDensity(samples.asFlatDoubleArray(), bandwidth, approximationErrorBound);
+        }
+        return binnedDensity;
+    }
+
     private DoubleTensor getDiffs(DoubleTensor x) {
         return x.broadcast(samples.getShape()[0], x.getShape()[0])
             .minusInPlace(samples.reshape(samples.getShape()[0], 1))
@@ -68,6 +103,12 @@ public class KDEVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements
     }
 
     public DoubleTensor pdf(DoubleTensor x) {
+        if (isApproximate()) {
+            double[] pdf = new double[(int) x.getLength()];
+            getBinnedDensity().evaluate(x.asFlatDoubleArray(), pdf, null);
+            return DoubleTensor.create(pdf, x.getShape());
+        }
+
         DoubleTensor diffs = getDiffs(x);
         return gaussianKernel(diffs).sum(0).divInPlace(samples.getLength() * bandwidth);
     }
@@ -82,7 +123,18 @@ public class KDEVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements
         Map<Vertex, DoubleTensor> partialDerivatives = new HashMap<>();
 
         if (withRespectTo.contains(this)) {
-            DoubleTensor dlnPdfs = dPdx(value).divInPlace(pdf(value));
+            DoubleTensor dlnPdfs;
+            if (isApproximate()) {
+                double[] pdf = new double[(int) value.getLength()];
+                double[] dPdx = new double[pdf.length];
+                getBinnedDensity().evaluate(value.asFlatDoubleArray(), pdf, dPdx);
+                for (int i = 0; i < pdf.length; i++) {
+                    dPdx[i] /= pdf[i];
+                }
+                dlnPdfs = DoubleTensor.create(dPdx, value.getShape());
+            } else {
+                dlnPdfs = dPdx(value).divInPlace(pdf(value));
+            }
             partialDerivatives.put(this, dlnPdfs);
         }
 
@@ -100,7 +152,7 @@ public class KDEVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements
         return power.timesInPlace(1. / Math.sqrt(2. * Math.PI));
     }
 
-    private static double scottsBandwidth(DoubleTensor samples) {
+    public static double scottsBandwidth(DoubleTensor samples) {
         return 1.06 * samples.standardDeviation().scalar() * Math.pow(samples.getLength(), -1. / 5.);
     }
 
@@ -131,6 +183,8 @@ public class KDEVertex extends VertexImpl<DoubleTensor, DoubleVertex> implements
 
     public void resample(int nSamples, KeanuRandom random) {
         samples = sample(nSamples, random);
+        binnedDensity = null;
+        invalidateCachedLogProb();
     }
 
     public long[] getSampleShape() {
@@ -6,7 +6,11 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotEquals;
 
 public class KeanuRandomTest {
 
@@ -61,4 +65,80 @@ public class KeanuRandomTest {
         DoubleTensor A = random.nextGaussian(new long[]{1000}).times(5.0);
         Assert.assertEquals(5.0, A.standardDeviation().scalar(), 0.1);
     }
+
+    @Test
+    public void bulkSamplesMatchScalarSamplesFromTheSameSeed() {
+        double[] bulk = new double[10];
+        new KeanuRandom(2).nextGaussians(bulk);
+
+        KeanuRandom scalar = new KeanuRandom(2);
+        for (double sample : bulk) {
+            assertEquals(scalar.nextGaussian(), sample);
+        }
+    }
+
+    @Test
+    public void splittableRandomIsReproducible() {
+        double[] first = new double[100];
+        double[] second = new double[100];
+        KeanuRandom.splittable(3).nextDoubles(first);
+        KeanuRandom.splittable(3).nextDoubles(second);
+
+        assertArrayEquals(first, second, 0.0);
+    }
+
+    @Test
+    public void splitStreamsAreReproducibleAndDiffer() {
+        KeanuRandom parent = new KeanuRandom(4);
+        KeanuRandom firstSplit = parent.split();
+        KeanuRandom secondSplit = parent.split();
+
+        KeanuRandom sameParent = new KeanuRandom(4);
+        assertEquals(firstSplit.nextDouble(), sameParent.split().nextDouble());
+        assertNotEquals(firstSplit.nextDouble(), secondSplit.nextDouble());
+    }
+
+    @Test
+    public void substreamsDoNotDependOnDrawsFromTheParent() {
+        KeanuRandom parent = new KeanuRandom(5);
+        double expected = parent.substream(7).nextDouble();
+
+        parent.nextDouble();
+        parent.substream(0);
+
+        assertEquals(expected, parent.substream(7).nextDouble());
+        assertNotEquals(expected, parent.substream(8).nextDouble());
+    }
+
+    @Test
+    public void splittableRandomSamplesHaveTheRightMoments() {
+        KeanuRandom splittable = KeanuRandom.splittable(6);
+
+        DoubleTensor uniform = splittable.nextDouble(new long[]{100000});
+        Assert.assertEquals(0.5, uniform.mean().scalar(), 0.01);
+        Assert.assertEquals(Math.sqrt(1.0 / 12.0), uniform.standardDeviation().scalar(), 0.01);
+
+        DoubleTensor gaussian = splittable.nextGaussian(new long[]{100000});
+        Assert.assertEquals(0.0, gaussian.mean().scalar(), 0.01);
+        Assert.assertEquals(1.0, gaussian.standardDeviation().scalar(), 0.01);
+
+        for (int i = 0; i < 1000; i++) {
+            int sample = splittable.nextInt(10);
+            Assert.assertTrue(sample >= 0 && sample < 10);
+        }
+    }
+
+    @Test
+    public void zigguratSamplesHaveTheRightMomentsAndTails() {
+        DoubleTensor gaussian = random.nextGaussian(new long[]{200000});
+        Assert.assertEquals(0.0, gaussian.mean().scalar(), 0.01);
+        Assert.assertEquals(1.0, gaussian.standardDeviation().scalar(), 0.01);
+        Assert.assertEquals(0.0027, Arrays.stream(gaussian.asFlatDoubleArray()).filter(x -> Math.abs(x) > 3.0).count() / 200000.0, 0.001);
+
+        DoubleTensor exponential = random.nextExponential(new long[]{200000});
+        Assert.assertEquals(1.0, exponential.mean().scalar(), 0.01);
+        Assert.assertEquals(1.0, exponential.standardDeviation().scalar(), 0.01);
+        Assert.assertTrue(Arrays.stream(exponential.asFlatDoubleArray()).allMatch(x -> x >= 0.0));
+        Assert.assertEquals(Math.exp(-5.0), Arrays.stream(exponential.asFlatDoubleArray()).filter(x -> x > 5.0).count() / 200000.0, 0.001);
+    }
 }
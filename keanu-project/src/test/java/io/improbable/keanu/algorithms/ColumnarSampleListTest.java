@@ -0,0 +1,131 @@
+package io.improbable.keanu.algorithms;
+
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.generic.GenericTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexSamples;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ColumnarSampleListTest {
+
+    private List<DoubleTensor> tensors;
+    private List<DoubleTensor> columnar;
+
+    @Before
+    public void setup() {
+        tensors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tensors.add(DoubleTensor.create(new double[]{i, i * i, -i, 0.5 * i}, 2, 2));
+        }
+
+        columnar = ColumnarSampleList.createFor(tensors.get(0));
+        columnar.addAll(tensors);
+    }
+
+    @Test
+    public void choosesStorageFromTheFirstSample() {
+        assertThat(ColumnarSampleList.createFor(DoubleTensor.scalar(1.0)), instanceOf(DoubleTensorSampleList.class));
+        assertThat(ColumnarSampleList.createFor(IntegerTensor.scalar(1)), instanceOf(IntegerTensorSampleList.class));
+        assertThat(ColumnarSampleList.createFor(BooleanTensor.scalar(true)), instanceOf(BooleanTensorSampleList.class));
+        assertThat(ColumnarSampleList.createFor(1.0), instanceOf(DoubleSampleList.class));
+        assertThat(ColumnarSampleList.createFor(GenericTensor.scalar("a")), instanceOf(ArrayList.class));
+    }
+
+    @Test
+    public void returnsTheSamplesThatWereAdded() {
+        assertEquals(tensors, columnar);
+    }
+
+    @Test
+    public void canTakeAViewOfASubList() {
+        assertEquals(tensors.subList(3, 7), columnar.subList(3, 7));
+        assertEquals(tensors.subList(4, 6), columnar.subList(3, 7).subList(1, 3));
+    }
+
+    @Test
+    public void canDownSampleAsAView() {
+        List<DoubleTensor> downSampled = ((ColumnarSampleList<DoubleTensor>) columnar).downSample(3);
+
+        assertEquals(4, downSampled.size());
+        assertEquals(tensors.get(0), downSampled.get(0));
+        assertEquals(tensors.get(9), downSampled.get(3));
+    }
+
+    @Test
+    public void viewsAreNotAffectedBySamplesAddedLater() {
+        List<DoubleTensor> view = columnar.subList(0, 10);
+        for (int i = 0; i < 100; i++) {
+            columnar.add(DoubleTensor.create(new double[]{-1, -1, -1, -1}, 2, 2));
+        }
+
+        assertEquals(tensors, view);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cannotAddToAView() {
+        columnar.subList(0, 5).add(tensors.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSamplesOfADifferentShape() {
+        columnar.add(DoubleTensor.create(1.0, 2.0));
+    }
+
+    @Test
+    public void calculatesTheSameStatisticsAsTensorBackedSamples() {
+        DoubleVertexSamples fromTensors = new DoubleVertexSamples(tensors);
+        DoubleVertexSamples fromColumns = new DoubleVertexSamples(columnar);
+
+        assertEquals(fromTensors.getAverages(), fromColumns.getAverages());
+        assertArrayEquals(fromTensors.getVariances().asFlatDoubleArray(), fromColumns.getVariances().asFlatDoubleArray(), 1e-10);
+        assertEquals(fromTensors.getAutocorrelation(1, 0), fromColumns.getAutocorrelation(1, 0));
+        assertEquals(fromTensors.asTensor(), fromColumns.asTensor());
+    }
+
+    @Test
+    public void canStackADownSampledViewIntoATensor() {
+        List<DoubleTensor> downSampled = ((ColumnarSampleList<DoubleTensor>) columnar).downSample(2);
+        List<DoubleTensor> expected = new ArrayList<>();
+        for (int i = 0; i < tensors.size(); i += 2) {
+            expected.add(tensors.get(i));
+        }
+
+        assertEquals(new DoubleVertexSamples(expected).asTensor(), new DoubleVertexSamples(downSampled).asTensor());
+    }
+
+    @Test
+    public void storesScalarLogProbs() {
+        DoubleSampleList logProbs = new DoubleSampleList();
+        logProbs.add(-1.0);
+        logProbs.add(-2.0);
+        logProbs.add(-3.0);
+
+        assertArrayEquals(new double[]{-1.0, -3.0}, ((DoubleSampleList) logProbs.downSample(2)).toDoubleArray(), 0.0);
+        assertEquals(-2.0, logProbs.getDouble(1), 0.0);
+    }
+
+    @Test
+    public void concatenatesViewsIntoAColumnarList() {
+        List<DoubleTensor> downSampled = ((ColumnarSampleList<DoubleTensor>) columnar).downSample(3);
+        List<DoubleTensor> concatenated = ColumnarSampleList.concatenate(Arrays.asList(columnar.subList(2, 5), downSampled));
+
+        List<DoubleTensor> expected = new ArrayList<>(tensors.subList(2, 5));
+        for (int i = 0; i < tensors.size(); i += 3) {
+            expected.add(tensors.get(i));
+        }
+
+        assertThat(concatenated, instanceOf(DoubleTensorSampleList.class));
+        assertEquals(expected, concatenated);
+    }
+}
@@ -26,7 +26,9 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -195,4 +197,75 @@ public class NetworkSamplesTest {
         assertThat(vertex, instanceOf(GenericVertex.class));
         assertThat(networkSamples.get(vertex).getClass(), equalTo(Samples.class));
     }
+
+    @Test
+    public void sampleBlocksHoldEverySampleOfEachVariableInOrder() {
+        DoubleVertex doubleVertex = new GaussianVertex(new long[]{2}, 0, 1);
+        IntegerVertex integerVertex = new UniformIntVertex(0, 10);
+        BooleanVertex booleanVertex = new BernoulliVertex(0.5);
+
+        NetworkSamples networkSamples = NetworkSamples.from(ImmutableList.of(
+            new NetworkSample(ImmutableMap.of(
+                doubleVertex.getId(), DoubleTensor.create(1., 2.),
+                integerVertex.getId(), IntegerTensor.scalar(3),
+                booleanVertex.getId(), BooleanTensor.scalar(true)
+            ), 0.1),
+            new NetworkSample(ImmutableMap.of(
+                doubleVertex.getId(), DoubleTensor.create(3., 4.),
+                integerVertex.getId(), IntegerTensor.scalar(5),
+                booleanVertex.getId(), BooleanTensor.scalar(false)
+            ), 0.2)
+        ));
+
+        List<SampleBlock> blocks = networkSamples.getSampleBlocks(ImmutableList.of(doubleVertex, integerVertex, booleanVertex));
+
+        assertEquals(SampleBlock.Type.DOUBLE, blocks.get(0).getType());
+        assertThat(blocks.get(0).getShape(), equalTo(new long[]{2, 2}));
+        assertThat(blocks.get(0).getDoubleValues(), equalTo(new double[]{1., 2., 3., 4.}));
+
+        assertEquals(SampleBlock.Type.INTEGER, blocks.get(1).getType());
+        assertThat(blocks.get(1).getShape(), equalTo(new long[]{2}));
+        assertThat(blocks.get(1).getIntegerValues(), equalTo(new int[]{3, 5}));
+
+        assertEquals(SampleBlock.Type.BOOLEAN, blocks.get(2).getType());
+        assertThat(blocks.get(2).toByteArray(), equalTo(new byte[]{1, 0}));
+    }
+
+    @Test
+    public void sampleBlocksOfDownSampledSamplesOnlyHoldTheKeptSamples() {
+        DoubleVertex vertex = new GaussianVertex(0, 1);
+        List<NetworkSample> networkSamples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            networkSamples.add(new NetworkSample(ImmutableMap.of(vertex.getId(), DoubleTensor.scalar(i)), 0.));
+        }
+
+        SampleBlock block = NetworkSamples.from(networkSamples).drop(1).downSample(3).getSampleBlock(vertex.getId());
+
+        assertEquals(3, block.getSampleCount());
+        assertThat(block.getDoubleValues(), equalTo(new double[]{1., 4., 7.}));
+    }
+
+    @Test
+    public void mergedChainsAreStoredInColumnsAndKeepChainIdsWhenDropped() {
+        DoubleVertex vertex = new GaussianVertex(0, 1);
+        List<NetworkSamples> chains = new ArrayList<>();
+        for (int chain = 0; chain < 2; chain++) {
+            List<NetworkSample> networkSamples = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                networkSamples.add(new NetworkSample(ImmutableMap.of(vertex.getId(), DoubleTensor.scalar(10 * chain + i)), -i));
+            }
+            chains.add(NetworkSamples.from(networkSamples));
+        }
+
+        MultiChainNetworkSamples merged = MultiChainNetworkSamples.fromChains(
+            chains, Collections.nCopies(2, ImmutableList.of(vertex.getId()))
+        ).drop(1);
+
+        assertThat(merged.getSamplesByVariable().get(vertex.getId()), instanceOf(DoubleTensorSampleList.class));
+        assertThat(merged.getLogOfMasterPForEachSample(), instanceOf(DoubleSampleList.class));
+        assertThat(merged.getSampleBlock(vertex.getId()).getDoubleValues(), equalTo(new double[]{1., 2., 3., 11., 12., 13.}));
+        assertEquals(0, merged.getChainId(2));
+        assertEquals(1, merged.getChainId(3));
+        assertEquals(3, merged.getChain(1).size());
+    }
 }
@@ -0,0 +1,161 @@
+package io.improbable.keanu.algorithms.graphtraversal;
+
+import com.google.common.collect.ImmutableList;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.improbable.keanu.vertices.TestGraphGenerator.addLinks;
+import static io.improbable.keanu.vertices.TestGraphGenerator.passThroughVertex;
+import static io.improbable.keanu.vertices.TestGraphGenerator.sumVertex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Slf4j
+public class PropagationPlanTest {
+
+    @Test
+    public void doesNotDoUnnecessaryOperationsOnCascade() {
+        AtomicInteger n = new AtomicInteger(0);
+        AtomicInteger m = new AtomicInteger(0);
+        DoubleVertex start = new GaussianVertex(0, 1);
+
+        int links = 20;
+        DoubleVertex end = addLinks(start, n, m, links);
+
+        PropagationPlan plan = new PropagationPlan(ImmutableList.of(start));
+        n.set(0);
+
+        start.setValue(2.0);
+        plan.cascadeUpdate(start);
+
+        assertEquals(Math.pow(2, links + 1), end.getValue().scalar(), 0.0);
+        assertEquals(3 * links, n.get());
+    }
+
+    @Test
+    public void canCascadeRepeatedlyWithTheSamePlan() {
+        AtomicInteger n = new AtomicInteger(0);
+        AtomicInteger m = new AtomicInteger(0);
+        DoubleVertex start = new GaussianVertex(0, 1);
+        DoubleVertex end = addLinks(start, n, m, 2);
+
+        PropagationPlan plan = new PropagationPlan(ImmutableList.of(start));
+
+        for (int i = 1; i <= 3; i++) {
+            n.set(0);
+            start.setValue(i);
+            plan.cascadeUpdate(start);
+
+            assertEquals(i * 4.0, end.getValue().scalar(), 0.0);
+            assertEquals(6, n.get());
+        }
+    }
+
+    @Test
+    public void doesNotPropagateThroughProbabilisticVerticesOnCascade() {
+        AtomicInteger n = new AtomicInteger(0);
+        AtomicInteger m = new AtomicInteger(0);
+        DoubleVertex start = new GaussianVertex(0, 1);
+
+        DoubleVertex end = addLinks(start, n, m, 1);
+        DoubleVertex nextLayerStart = new GaussianVertex(end, 1);
+        DoubleVertex secondLayerEnd = addLinks(nextLayerStart, n, m, 1);
+
+        PropagationPlan plan = new PropagationPlan(ImmutableList.of(start, nextLayerStart));
+        n.set(0);
+
+        start.setValue(3.0);
+        plan.cascadeUpdate(start);
+
+        assertEquals(6.0, end.getValue().scalar(), 0.0);
+        assertEquals(3, n.get());
+        assertTrue(plan.contains(secondLayerEnd));
+    }
+
+    @Test
+    public void doesPropagateAroundProbabilisticVerticesOnCascade() {
+        AtomicInteger n = new AtomicInteger(0);
+        AtomicInteger m = new AtomicInteger(0);
+        DoubleVertex firstLayerStart = new GaussianVertex(0, 1);
+
+        DoubleVertex firstLayerEnd = addLinks(firstLayerStart, n, m, 1);
+
+        DoubleVertex secondLayerStart = new GaussianVertex(firstLayerEnd, 1);
+
+        DoubleVertex secondLayerLeft = sumVertex(secondLayerStart, firstLayerEnd, n, m, id -> log.info("OP on id: " + id));
+        DoubleVertex secondLayerRight = passThroughVertex(secondLayerStart, n, m, id -> log.info("OP on id: " + id));
+        DoubleVertex secondLayerEnd = sumVertex(secondLayerLeft, secondLayerRight, n, m, id -> log.info("OP on id: " + id));
+
+        PropagationPlan plan = new PropagationPlan(ImmutableList.of(firstLayerStart, secondLayerStart));
+        n.set(0);
+
+        secondLayerStart.setValue(2.0);
+        firstLayerStart.setValue(3.0);
+        plan.markForUpdate(firstLayerStart);
+        plan.markForUpdate(secondLayerStart);
+        plan.cascadeMarked();
+
+        assertEquals(6.0, firstLayerEnd.getValue().scalar(), 0.0);
+        assertEquals(10.0, secondLayerEnd.getValue().scalar(), 0.0);
+        assertEquals(6, n.get());
+    }
+
+    @Test
+    public void forgetsMarkedVerticesWhenACascadeFails() {
+        AtomicInteger n = new AtomicInteger(0);
+        AtomicInteger m = new AtomicInteger(0);
+        AtomicBoolean failing = new AtomicBoolean(false);
+        DoubleVertex first = new GaussianVertex(0, 1);
+        DoubleVertex second = new GaussianVertex(0, 1);
+        passThroughVertex(first, n, m, id -> {
+            if (failing.get()) {
+                throw new IllegalStateException("Failed to update " + id);
+            }
+        });
+        passThroughVertex(first, n, m, id -> log.info("OP on id: " + id));
+        passThroughVertex(second, n, m, id -> log.info("OP on id: " + id));
+
+        PropagationPlan plan = new PropagationPlan(ImmutableList.of(first, second));
+
+        failing.set(true);
+        try {
+            plan.cascadeUpdate(first);
+            fail("Expected the cascade to fail");
+        } catch (IllegalStateException e) {
+            failing.set(false);
+        }
+
+        n.set(0);
+        plan.cascadeUpdate(second);
+
+        assertEquals(1, n.get());
+    }
+
+    @Test
+    public void isNotUpToDateOnceAChildIsConnected() {
+        DoubleVertex A = new GaussianVertex(0, 1);
+        PropagationPlan plan = new PropagationPlan(ImmutableList.of(A));
+
+        assertTrue(plan.isUpToDate());
+        A.times(2.0);
+        assertFalse(plan.isUpToDate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsVerticesOutsideOfThePlan() {
+        DoubleVertex A = new GaussianVertex(0, 1);
+        DoubleVertex B = new GaussianVertex(0, 1);
+
+        PropagationPlan plan = new PropagationPlan(ImmutableList.of(A));
+
+        assertFalse(plan.contains(B));
+        plan.cascadeUpdate(B);
+    }
+}
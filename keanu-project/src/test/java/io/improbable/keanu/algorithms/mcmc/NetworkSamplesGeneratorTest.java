@@ -2,12 +2,14 @@ package io.improbable.keanu.algorithms.mcmc;
 
 import io.improbable.keanu.algorithms.NetworkSample;
 import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.SampleSink;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.util.status.StatusBar;
 import lombok.Value;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +18,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -42,6 +45,29 @@ public class NetworkSamplesGeneratorTest {
         assertEquals(expectedCollected, samples.size());
     }
 
+    @Test
+    public void passesKeptSamplesToSinkOnGeneration() {
+
+        AtomicInteger stepCount = new AtomicInteger(0);
+        AtomicInteger sampleCount = new AtomicInteger(0);
+
+        TestSamplingAlgorithm algorithm = new TestSamplingAlgorithm(stepCount, sampleCount);
+        NetworkSamplesGenerator unitUnderTest = new NetworkSamplesGenerator(algorithm, StatusBar::new);
+
+        int totalGenerated = 12;
+        int dropCount = 3;
+        int downSampleInterval = 2;
+        unitUnderTest.dropCount(dropCount).downSampleInterval(downSampleInterval);
+
+        List<NetworkSample> sunk = new ArrayList<>();
+        SampleSink sink = sunk::add;
+        assertSame(sink, unitUnderTest.generate(totalGenerated, sink));
+
+        int expectedCollected = (int) Math.ceil((totalGenerated - dropCount) / (double) downSampleInterval);
+        assertEquals(totalGenerated, algorithm.stepCount.get() + algorithm.sampleCount.get());
+        assertEquals(expectedCollected, sunk.size());
+    }
+
     @Test
     public void streamsExpectedNumberOfSamples() {
 
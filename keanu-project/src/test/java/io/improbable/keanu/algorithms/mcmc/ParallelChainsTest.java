@@ -0,0 +1,126 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.Keanu;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.MultiChainNetworkSamples;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.testcases.SumGaussianTestCase;
+import io.improbable.keanu.network.KeanuProbabilisticModel;
+import io.improbable.keanu.network.KeanuProbabilisticModelWithGradient;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelChainsTest {
+
+    @Rule
+    public DeterministicRule rule = new DeterministicRule();
+
+    @Test
+    public void mergesSamplesFromEveryChainWithMetropolisHastings() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+        KeanuProbabilisticModel model = new KeanuProbabilisticModel(testCase.getModel());
+
+        MultiChainNetworkSamples samples = ParallelChains.builder()
+            .chainCount(3)
+            .modelFactory(chainId -> new KeanuProbabilisticModel(new SumGaussianTestCase().getModel()))
+            .algorithmFactory(chainId -> Keanu.Sampling.MetropolisHastings.withDefaultConfig(new KeanuRandom(chainId)))
+            .build()
+            .getPosteriorSamples(model, 5000);
+
+        assertEquals(3, samples.getChainCount());
+        assertEquals(15000, samples.size());
+        assertEquals(0, samples.getChainId(0));
+        assertEquals(1, samples.getChainId(5000));
+        assertEquals(2, samples.getChainId(14999));
+
+        testCase.assertExpected(samples);
+        for (NetworkSamples chain : samples.getChains()) {
+            assertEquals(5000, chain.size());
+        }
+    }
+
+    @Test
+    public void canSampleASubsetOfLatentsWithNUTS() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+        KeanuProbabilisticModelWithGradient model = new KeanuProbabilisticModelWithGradient(testCase.getModel());
+
+        MultiChainNetworkSamples samples = ParallelChains.builder()
+            .chainCount(2)
+            .threadCount(2)
+            .modelFactory(chainId -> new KeanuProbabilisticModelWithGradient(new SumGaussianTestCase().getModel()))
+            .algorithmFactory(chainId -> Keanu.Sampling.NUTS.builder().adaptCount(100).random(new KeanuRandom(chainId)).build())
+            .dropCount(100)
+            .build()
+            .getPosteriorSamples(model, Collections.singletonList(testCase.getA()), 500);
+
+        assertEquals(800, samples.size());
+        assertEquals(1, samples.getChain(1).getNetworkState(0).getVariableReferences().size());
+        assertTrue(samples.getChain(1).getNetworkState(0).getVariableReferences().contains(testCase.getA().getReference()));
+    }
+
+    @Test
+    public void dropsAndDownSamplesEachChainKeepingChainIds() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+        KeanuProbabilisticModel model = new KeanuProbabilisticModel(testCase.getModel());
+
+        MultiChainNetworkSamples samples = ParallelChains.builder()
+            .chainCount(2)
+            .modelFactory(chainId -> new KeanuProbabilisticModel(new SumGaussianTestCase().getModel()))
+            .algorithmFactory(chainId -> Keanu.Sampling.MetropolisHastings.withDefaultConfig(new KeanuRandom(chainId)))
+            .build()
+            .getPosteriorSamples(model, 100);
+
+        MultiChainNetworkSamples thinned = samples.drop(10).downSample(3);
+
+        assertEquals(2, thinned.getChainCount());
+        assertEquals(60, thinned.size());
+        assertEquals(0, thinned.getChainId(29));
+        assertEquals(1, thinned.getChainId(30));
+        assertEquals(
+            samples.getChain(1).get(testCase.getA()).asList().get(13),
+            thinned.getChain(1).get(testCase.getA()).asList().get(1)
+        );
+    }
+
+    @Test
+    public void canRunOneChainWithoutAModelFactory() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+        KeanuProbabilisticModel model = new KeanuProbabilisticModel(testCase.getModel());
+
+        MultiChainNetworkSamples samples = ParallelChains.builder()
+            .chainCount(1)
+            .algorithmFactory(chainId -> Keanu.Sampling.MetropolisHastings.withDefaultConfig(new KeanuRandom(chainId)))
+            .build()
+            .getPosteriorSamples(model, 100);
+
+        assertEquals(1, samples.getChainCount());
+        assertEquals(100, samples.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotBuildSeveralChainsWithoutAModelFactory() {
+        ParallelChains.builder()
+            .chainCount(2)
+            .algorithmFactory(chainId -> Keanu.Sampling.MetropolisHastings.withDefaultConfig())
+            .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsModelCopiesWithDifferentLatentVariables() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+        KeanuProbabilisticModel model = new KeanuProbabilisticModel(testCase.getModel());
+
+        ParallelChains.builder()
+            .chainCount(2)
+            .modelFactory(chainId -> new KeanuProbabilisticModel(Collections.singletonList(new SumGaussianTestCase().getA())))
+            .algorithmFactory(chainId -> Keanu.Sampling.MetropolisHastings.withDefaultConfig())
+            .build()
+            .getPosteriorSamples(model, 100);
+    }
+}
@@ -0,0 +1,107 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.collect.ImmutableMap;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.apache.commons.math3.stat.correlation.Covariance;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveDenseQuadraticPotentialTest {
+
+    private static final double[] TARGET_COVARIANCE = new double[]{4, 1.8, 1.8, 1};
+
+    private VariableLayout layout;
+    private KeanuRandom random;
+
+    @Before
+    public void setup() {
+        DoubleVertex v = new GaussianVertex(new long[]{2}, 0, 1);
+        layout = new VariableLayout(ImmutableMap.of(v.getReference(), DoubleTensor.zeros(2)));
+        random = new KeanuRandom(0);
+    }
+
+    @Test
+    public void doesQuadraticPotentialBeforeAnyUpdate() {
+        AdaptiveDenseQuadraticPotential potential = new AdaptiveDenseQuadraticPotential(0, 2, 10, 100);
+        potential.initialize(layout);
+
+        double[] momentum = new double[]{0.5, -1};
+        double[] velocity = new double[2];
+        potential.getVelocity(momentum, velocity);
+
+        assertArrayEquals(new double[]{1, -2}, velocity, 1e-6);
+        assertEquals(0.5 * (0.5 * 1 + 1 * 2), potential.getKineticEnergy(momentum, velocity), 1e-6);
+    }
+
+    @Test
+    public void doesAdaptToCovarianceAtEndOfWindow() {
+        int windowSize = 2000;
+        AdaptiveDenseQuadraticPotential potential = new AdaptiveDenseQuadraticPotential(0, 1, 0, windowSize);
+        potential.initialize(layout);
+
+        for (int i = 0; i < windowSize - 1; i++) {
+            potential.update(correlatedSample());
+        }
+
+        assertArrayEquals(new double[]{1, 0, 0, 1}, potential.getCovariance(), 0.0);
+
+        potential.update(correlatedSample());
+
+        assertArrayEquals(TARGET_COVARIANCE, potential.getCovariance(), 0.2);
+
+        double[] momentum = new double[]{0.5, -1};
+        double[] velocity = new double[2];
+        potential.getVelocity(momentum, velocity);
+
+        double[] covariance = potential.getCovariance();
+        assertArrayEquals(
+            new double[]{covariance[0] * 0.5 - covariance[1], covariance[2] * 0.5 - covariance[3]},
+            velocity,
+            1e-9
+        );
+    }
+
+    /**
+     * The random momentum covariance should be the inverse of the sample covariance
+     */
+    @Test
+    public void doesSampleMomentumFromInverseCovariance() {
+        int windowSize = 2000;
+        AdaptiveDenseQuadraticPotential potential = new AdaptiveDenseQuadraticPotential(0, 1, 0, windowSize);
+        potential.initialize(layout);
+
+        for (int i = 0; i < windowSize; i++) {
+            potential.update(correlatedSample());
+        }
+
+        double[][] momentums = new double[20000][];
+        for (int i = 0; i < momentums.length; i++) {
+            momentums[i] = new double[2];
+            potential.randomMomentum(random, momentums[i]);
+        }
+
+        double[][] momentumCovariance = new Covariance(momentums, false).getCovarianceMatrix().getData();
+
+        double[] c = potential.getCovariance();
+        double determinant = c[0] * c[3] - c[1] * c[2];
+        double[] expected = new double[]{c[3] / determinant, -c[1] / determinant, -c[2] / determinant, c[0] / determinant};
+
+        assertArrayEquals(
+            expected,
+            new double[]{momentumCovariance[0][0], momentumCovariance[0][1], momentumCovariance[1][0], momentumCovariance[1][1]},
+            0.2
+        );
+    }
+
+    private double[] correlatedSample() {
+        double x = random.nextGaussian() * 2;
+        double y = 0.45 * x + random.nextGaussian() * Math.sqrt(1 - 0.45 * 0.45 * 4);
+        return new double[]{x, y};
+    }
+}
@@ -0,0 +1,129 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.collect.ImmutableMap;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.stat.correlation.Covariance;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveLowRankQuadraticPotentialTest {
+
+    private static final int WINDOW_SIZE = 2000;
+
+    private VariableLayout layout;
+    private KeanuRandom random;
+
+    @Before
+    public void setup() {
+        DoubleVertex v = new GaussianVertex(new long[]{3}, 0, 1);
+        layout = new VariableLayout(ImmutableMap.of(v.getReference(), DoubleTensor.zeros(3)));
+        random = new KeanuRandom(0);
+    }
+
+    @Test
+    public void doesQuadraticPotentialBeforeAnyUpdate() {
+        AdaptiveLowRankQuadraticPotential potential = new AdaptiveLowRankQuadraticPotential(4, 1, 100);
+        potential.initialize(layout);
+
+        double[] momentum = new double[]{0.5, -1, 2};
+        double[] velocity = new double[3];
+        potential.getVelocity(momentum, velocity);
+
+        assertArrayEquals(new double[]{2, -4, 8}, velocity, 1e-6);
+        assertEquals(0, potential.getCurrentRank());
+    }
+
+    @Test
+    public void doesAdaptToCorrelatedDirections() {
+        AdaptiveLowRankQuadraticPotential potential = new AdaptiveLowRankQuadraticPotential(1, 2, WINDOW_SIZE);
+        potential.initialize(layout);
+
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            potential.update(correlatedSample());
+        }
+
+        assertEquals(2, potential.getCurrentRank());
+
+        double[][] covariance = impliedCovariance(potential);
+
+        assertEquals(4, covariance[0][0], 0.2);
+        assertEquals(1.8, covariance[0][1], 0.2);
+        assertEquals(1.8, covariance[1][0], 0.2);
+        assertEquals(1, covariance[1][1], 0.1);
+        assertEquals(0.25, covariance[2][2], 0.05);
+        assertEquals(0, covariance[0][2], 0.1);
+    }
+
+    /**
+     * With a rank of one the narrow direction x / 2 - y, which has variance 0.2, is further from the diagonal than
+     * the long direction x / 2 + y
+     */
+    @Test
+    public void doesPreferNarrowDirectionWhenItIsFurthestFromDiagonal() {
+        AdaptiveLowRankQuadraticPotential potential = new AdaptiveLowRankQuadraticPotential(1, 1, WINDOW_SIZE);
+        potential.initialize(layout);
+
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            potential.update(correlatedSample());
+        }
+
+        assertEquals(1, potential.getCurrentRank());
+
+        double[] direction = new double[]{0.5, -1, 0};
+        double[] velocity = new double[3];
+        potential.getVelocity(direction, velocity);
+
+        assertEquals(0.2, VariableValues.dotProduct(direction, velocity), 0.03);
+    }
+
+    /**
+     * The random momentum covariance should be the inverse of the covariance used for velocity
+     */
+    @Test
+    public void doesSampleMomentumFromInverseCovariance() {
+        AdaptiveLowRankQuadraticPotential potential = new AdaptiveLowRankQuadraticPotential(1, 1, WINDOW_SIZE);
+        potential.initialize(layout);
+
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            potential.update(correlatedSample());
+        }
+
+        double[][] momentums = new double[20000][];
+        for (int i = 0; i < momentums.length; i++) {
+            momentums[i] = new double[3];
+            potential.randomMomentum(random, momentums[i]);
+        }
+
+        double[][] momentumCovariance = new Covariance(momentums, false).getCovarianceMatrix().getData();
+        double[][] expected = MatrixUtils.inverse(new Array2DRowRealMatrix(impliedCovariance(potential))).getData();
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(expected[i], momentumCovariance[i], 0.05 * expected[i][i]);
+        }
+    }
+
+    private static double[][] impliedCovariance(AdaptiveLowRankQuadraticPotential potential) {
+        double[][] covariance = new double[3][3];
+        for (int i = 0; i < 3; i++) {
+            double[] unit = new double[3];
+            unit[i] = 1;
+            potential.getVelocity(unit, covariance[i]);
+        }
+        return covariance;
+    }
+
+    private double[] correlatedSample() {
+        double x = random.nextGaussian() * 2;
+        double y = 0.45 * x + random.nextGaussian() * Math.sqrt(1 - 0.45 * 0.45 * 4);
+        double z = random.nextGaussian() * 0.5;
+        return new double[]{x, y, z};
+    }
+}
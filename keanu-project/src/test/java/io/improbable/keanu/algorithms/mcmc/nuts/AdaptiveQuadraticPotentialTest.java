@@ -29,14 +29,15 @@ public class AdaptiveQuadraticPotentialTest {
             100
         );
 
-        potential.initialize(position);
+        potential.initialize(new VariableLayout(position));
 
-        Map<VariableReference, DoubleTensor> momentum = ImmutableMap.of(v.getReference(), DoubleTensor.scalar(0.5));
-        Map<VariableReference, DoubleTensor> velocity = potential.getVelocity(momentum);
+        double[] momentum = new double[]{0.5};
+        double[] velocity = new double[1];
+        potential.getVelocity(momentum, velocity);
 
         double kineticEnergy = potential.getKineticEnergy(momentum, velocity);
 
-        assertEquals(0.5, velocity.get(v.getReference()).scalar(), 1e-6);
+        assertEquals(0.5, velocity[0], 1e-6);
         assertEquals(0.5 * Math.pow(0.5, 2), kineticEnergy, 1e-6);
     }
 
@@ -58,18 +59,19 @@ public class AdaptiveQuadraticPotentialTest {
             1500
         );
 
-        potential.initialize(position);
+        potential.initialize(new VariableLayout(position));
 
         double targetStandardDeviation = 2;
         for (int i = 0; i < 1000; i++) {
             double r = random.nextGaussian() * targetStandardDeviation;
-            potential.update(ImmutableMap.of(v.getReference(), DoubleTensor.scalar(r)));
+            potential.update(new double[]{r});
         }
 
         SummaryStatistics statistics = new SummaryStatistics();
         for (int i = 0; i < 1000; i++) {
-            double sample = potential.randomMomentum(random).get(v.getReference()).scalar();
-            statistics.addValue(sample);
+            double[] momentum = new double[1];
+            potential.randomMomentum(random, momentum);
+            statistics.addValue(momentum[0]);
         }
 
         assertEquals(1.0 / targetStandardDeviation, statistics.getStandardDeviation(), 1e-2);
@@ -94,7 +96,7 @@ public class AdaptiveQuadraticPotentialTest {
             windowSize
         );
 
-        potential.initialize(position);
+        potential.initialize(new VariableLayout(position));
 
         SummaryStatistics statisticsWindow1And2 = new SummaryStatistics();
 
@@ -102,12 +104,12 @@ public class AdaptiveQuadraticPotentialTest {
         for (int i = 0; i < windowSize; i++) {
             double r = random.nextGaussian() * targetStandardDeviationWindow1;
             statisticsWindow1And2.addValue(r);
-            potential.update(ImmutableMap.of(v.getReference(), DoubleTensor.scalar(r)));
+            potential.update(new double[]{r});
         }
 
         assertEquals(
             statisticsWindow1And2.getStandardDeviation(),
-            potential.getStandardDeviation().get(v.getReference()).scalar(), 1e-2
+            potential.getStandardDeviation()[0], 1e-2
         );
 
         SummaryStatistics statisticsWindow2And3 = new SummaryStatistics();
@@ -117,12 +119,12 @@ public class AdaptiveQuadraticPotentialTest {
             double r = random.nextGaussian() * targetStandardDeviationWindow2;
             statisticsWindow1And2.addValue(r);
             statisticsWindow2And3.addValue(r);
-            potential.update(ImmutableMap.of(v.getReference(), DoubleTensor.scalar(r)));
+            potential.update(new double[]{r});
         }
 
         assertEquals(
             statisticsWindow1And2.getStandardDeviation(),
-            potential.getStandardDeviation().get(v.getReference()).scalar(),
+            potential.getStandardDeviation()[0],
             1e-2
         );
 
@@ -133,20 +135,20 @@ public class AdaptiveQuadraticPotentialTest {
             double r = random.nextGaussian() * targetStandardDeviationWindow3;
             statisticsWindow2And3.addValue(r);
             statisticsWindow3And4.addValue(r);
-            potential.update(ImmutableMap.of(v.getReference(), DoubleTensor.scalar(r)));
+            potential.update(new double[]{r});
         }
 
         assertEquals(
             statisticsWindow2And3.getStandardDeviation(),
-            potential.getStandardDeviation().get(v.getReference()).scalar(),
+            potential.getStandardDeviation()[0],
             1e-2
         );
 
-        potential.update(ImmutableMap.of(v.getReference(), DoubleTensor.scalar(random.nextGaussian() * targetStandardDeviationWindow3)));
+        potential.update(new double[]{random.nextGaussian() * targetStandardDeviationWindow3});
 
         assertEquals(
             statisticsWindow3And4.getStandardDeviation(),
-            potential.getStandardDeviation().get(v.getReference()).scalar(),
+            potential.getStandardDeviation()[0],
             1e-2
         );
     }
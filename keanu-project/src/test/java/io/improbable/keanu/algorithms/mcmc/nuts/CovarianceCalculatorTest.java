@@ -0,0 +1,34 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import io.improbable.keanu.KeanuRandom;
+import org.apache.commons.math3.stat.correlation.Covariance;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class CovarianceCalculatorTest {
+
+    @Test
+    public void canCalculateCovarianceOfSamples() {
+
+        KeanuRandom random = new KeanuRandom(0);
+        CovarianceCalculator covarianceCalculator = new CovarianceCalculator(new double[2], new double[4], 0);
+
+        double[][] samples = new double[500][];
+        for (int i = 0; i < samples.length; i++) {
+            double x = random.nextGaussian() * 2;
+            double y = 0.5 * x + random.nextGaussian();
+            samples[i] = new double[]{x, y};
+
+            covarianceCalculator.addSample(samples[i]);
+        }
+
+        double[][] expected = new Covariance(samples, false).getCovarianceMatrix().getData();
+
+        assertArrayEquals(
+            new double[]{expected[0][0], expected[0][1], expected[1][0], expected[1][1]},
+            covarianceCalculator.calculateCurrentCovariance(),
+            1e-6
+        );
+    }
+}
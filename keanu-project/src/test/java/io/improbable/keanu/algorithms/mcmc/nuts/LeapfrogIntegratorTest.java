@@ -36,31 +36,32 @@ public class LeapfrogIntegratorTest {
         );
 
         Map<VariableReference, DoubleTensor> p = ImmutableMap.of(vertex.getId(), scalar(0));
+        VariableLayout layout = new VariableLayout(p);
 
         Potential potential = new AdaptiveQuadraticPotential(0, 1, 1, 101);
 
-        potential.initialize(p);
+        potential.initialize(layout);
 
         start = leapfrogAt(vertex, initialPosition, initialMomentum, potential);
 
-        integrator = new LeapfrogIntegrator(potential);
+        integrator = new LeapfrogIntegrator(potential, layout);
     }
 
     @Test
     public void canLeapForward() {
 
         LeapfrogState leap = integrator.step(start, gradientCalculator, 1.0);
-        assertEquals(0.5, leap.getPosition().get(vertex.getId()).scalar(), 1e-6);
+        assertEquals(0.5, leap.getPosition()[0], 1e-6);
     }
 
     @Test
     public void canLeapForwardAndBack() {
 
         LeapfrogState leap = integrator.step(start, gradientCalculator, 1.0);
-        assertEquals(initialMomentum, leap.getPosition().get(vertex.getId()).scalar(), 1e-6);
+        assertEquals(initialMomentum, leap.getPosition()[0], 1e-6);
 
         LeapfrogState leapBack = integrator.step(leap, gradientCalculator, -1.0);
-        assertEquals(initialPosition, leapBack.getPosition().get(vertex.getId()).scalar(), 1e-6);
+        assertEquals(initialPosition, leapBack.getPosition()[0], 1e-6);
     }
 
     @Test
@@ -93,9 +94,9 @@ public class LeapfrogIntegratorTest {
         double gradient = vertex.dLogProb(tensorPosition, Collections.singleton(vertex)).get(vertex).scalar();
         double logProb = vertex.logProb(tensorPosition);
 
-        Map<VariableReference, DoubleTensor> p = ImmutableMap.of(vertex.getId(), tensorPosition);
-        Map<VariableReference, DoubleTensor> m = ImmutableMap.of(vertex.getId(), scalar(momentum));
-        Map<VariableReference, DoubleTensor> g = ImmutableMap.of(vertex.getId(), scalar(gradient));
+        double[] p = new double[]{position};
+        double[] m = new double[]{momentum};
+        double[] g = new double[]{gradient};
 
         return new LeapfrogState(p, m, g, logProb, potential);
     }
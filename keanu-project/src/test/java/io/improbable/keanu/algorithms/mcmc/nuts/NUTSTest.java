@@ -13,6 +13,7 @@ import io.improbable.keanu.testcategory.Slow;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.HalfGaussianVertex;
+import org.apache.commons.math3.stat.correlation.Covariance;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -143,6 +144,39 @@ public class NUTSTest {
         MCMCTestDistributions.samplesMatch2DDonut(samples.get(A).asList(), samples.get(B).asList());
     }
 
+    @Test
+    public void samplesCorrelatedGaussianWithDenseMassMatrix() {
+        GaussianVertex A = new GaussianVertex(0.0, 1.0);
+        GaussianVertex B = new GaussianVertex(A.times(0.95), 0.1);
+        BayesianNetwork net = new BayesianNetwork(A.getConnectedGraph());
+        ProbabilisticModelWithGradient model = new KeanuProbabilisticModelWithGradient(net);
+
+        int sampleCount = 2000;
+        NUTS nuts = NUTS.builder()
+            .adaptCount(sampleCount / 2)
+            .potential(new AdaptiveDenseQuadraticPotential(0, 1, 10, 100))
+            .build();
+
+        NetworkSamples posteriorSamples = nuts.getPosteriorSamples(
+            model,
+            model.getLatentVariables(),
+            sampleCount
+        ).drop(sampleCount / 2);
+
+        List<DoubleTensor> aSamples = posteriorSamples.get(A).asList();
+        List<DoubleTensor> bSamples = posteriorSamples.get(B).asList();
+
+        double[][] samples = new double[aSamples.size()][];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new double[]{aSamples.get(i).scalar(), bSamples.get(i).scalar()};
+        }
+        double[][] covariance = new Covariance(samples, false).getCovarianceMatrix().getData();
+
+        Assert.assertEquals(1.0, covariance[0][0], 0.25);
+        Assert.assertEquals(0.95, covariance[0][1], 0.25);
+        Assert.assertEquals(0.95 * 0.95 + 0.01, covariance[1][1], 0.25);
+    }
+
     @Test
     public void canDefaultToSettingsInBuilder() {
 
@@ -0,0 +1,69 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.collect.ImmutableMap;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class VariableLayoutTest {
+
+    private VariableReference AReference;
+    private VariableReference BReference;
+
+    private Map<VariableReference, DoubleTensor> values;
+    private VariableLayout layout;
+
+    @Before
+    public void setup() {
+        DoubleVertex A = new GaussianVertex(new long[]{2, 2}, 0, 1);
+        AReference = A.getReference();
+
+        DoubleVertex B = new GaussianVertex(0, 1);
+        BReference = B.getReference();
+
+        values = ImmutableMap.of(
+            AReference, DoubleTensor.create(new double[]{1, 2, 3, 4}, 2, 2),
+            BReference, DoubleTensor.scalar(5)
+        );
+
+        layout = new VariableLayout(values);
+    }
+
+    @Test
+    public void laysOutVariablesInOrder() {
+        assertEquals(5, layout.getLength());
+        assertEquals(0, layout.getOffset(AReference));
+        assertEquals(4, layout.getOffset(BReference));
+        assertArrayEquals(new double[]{1, 2, 3, 4, 5}, layout.pack(values), 1e-6);
+    }
+
+    @Test
+    public void canUnpackWithOriginalShapes() {
+        Map<VariableReference, DoubleTensor> unpacked = layout.unpack(new double[]{6, 7, 8, 9, 10});
+
+        assertEquals(DoubleTensor.create(new double[]{6, 7, 8, 9}, 2, 2), unpacked.get(AReference));
+        assertEquals(DoubleTensor.scalar(10), unpacked.get(BReference));
+    }
+
+    @Test
+    public void fillsMissingVariablesWithZeros() {
+        double[] packed = new double[]{1, 1, 1, 1, 1};
+
+        layout.packInto(ImmutableMap.of(BReference, DoubleTensor.scalar(2)), packed);
+
+        assertArrayEquals(new double[]{0, 0, 0, 0, 2}, packed, 1e-6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsVariablesNotInLayout() {
+        layout.getOffset(new GaussianVertex(0, 1).getReference());
+    }
+}
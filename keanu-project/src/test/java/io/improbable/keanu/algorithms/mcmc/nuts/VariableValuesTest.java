@@ -1,106 +1,42 @@
 package io.improbable.keanu.algorithms.mcmc.nuts;
 
-import com.google.common.collect.ImmutableMap;
-import io.improbable.keanu.algorithms.VariableReference;
-import io.improbable.keanu.tensor.dbl.DoubleTensor;
-import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
-import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.Map;
-
-import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 public class VariableValuesTest {
 
-    private VariableReference AReference;
-    private VariableReference BReference;
-
-    private Map<VariableReference, DoubleTensor> left;
-    private Map<VariableReference, DoubleTensor> right;
+    private double[] left;
+    private double[] right;
 
     @Before
     public void setup() {
-        DoubleVertex A = new GaussianVertex(new long[]{2}, 0, 1);
-        AReference = A.getReference();
-
-        DoubleVertex B = new GaussianVertex(new long[]{2}, 0, 1);
-        BReference = B.getReference();
-
-        left = ImmutableMap.of(
-            A.getReference(), DoubleTensor.create(1, 2),
-            B.getReference(), DoubleTensor.create(3, 4)
-        );
-
-        right = ImmutableMap.of(
-            A.getReference(), DoubleTensor.create(5, 6),
-            B.getReference(), DoubleTensor.create(7, 8)
-        );
+        left = new double[]{1, 2, 3, 4};
+        right = new double[]{5, 6, 7, 8};
     }
 
     @Test
-    public void canAddTwoMapsOfValues() {
+    public void canAddTwoArraysOfValues() {
 
-        Map<VariableReference, DoubleTensor> result = VariableValues.add(left, right);
+        double[] result = VariableValues.add(left, right);
 
-        DoubleTensor expectedA = DoubleTensor.create(6, 8);
-        DoubleTensor expectedB = DoubleTensor.create(10, 12);
-
-        assertEquals(expectedA, result.get(AReference));
-        assertEquals(expectedB, result.get(BReference));
+        assertArrayEquals(new double[]{6, 8, 10, 12}, result, 1e-6);
+        assertArrayEquals(new double[]{1, 2, 3, 4}, left, 1e-6);
     }
 
     @Test
-    public void canTimesTwoMapsOfValues() {
-
-        Map<VariableReference, DoubleTensor> result = VariableValues.times(left, right);
+    public void canAddScaledValuesInPlace() {
 
-        DoubleTensor expectedA = DoubleTensor.create(5, 12);
-        DoubleTensor expectedB = DoubleTensor.create(21, 32);
+        VariableValues.addScaledInPlace(left, 0.5, right);
 
-        assertEquals(expectedA, result.get(AReference));
-        assertEquals(expectedB, result.get(BReference));
+        assertArrayEquals(new double[]{3.5, 5, 6.5, 8}, left, 1e-6);
+        assertArrayEquals(new double[]{5, 6, 7, 8}, right, 1e-6);
     }
 
     @Test
-    public void canTimesAMapOfValues() {
-
-        Map<VariableReference, DoubleTensor> result = VariableValues.times(left, 2);
-
-        DoubleTensor expectedA = DoubleTensor.create(2, 4);
-        DoubleTensor expectedB = DoubleTensor.create(6, 8);
-
-        assertEquals(expectedA, result.get(AReference));
-        assertEquals(expectedB, result.get(BReference));
-    }
-
-    @Test
-    public void canDivideAMapOfValues() {
-
-        Map<VariableReference, DoubleTensor> result = VariableValues.divide(left, 2.0);
-
-        DoubleTensor expectedA = DoubleTensor.create(0.5, 1.0);
-        DoubleTensor expectedB = DoubleTensor.create(1.5, 2.0);
-
-        assertEquals(expectedA, result.get(AReference));
-        assertEquals(expectedB, result.get(BReference));
-    }
-
-    @Test
-    public void canPowAMapOfValues() {
-
-        Map<VariableReference, DoubleTensor> result = VariableValues.pow(left, 2);
-
-        DoubleTensor expectedA = DoubleTensor.create(1, 4);
-        DoubleTensor expectedB = DoubleTensor.create(9, 16);
-
-        assertEquals(expectedA, result.get(AReference));
-        assertEquals(expectedB, result.get(BReference));
-    }
-
-    @Test
-    public void canDotProductTwoMapsOfValues() {
+    public void canDotProductTwoArraysOfValues() {
 
         double result = VariableValues.dotProduct(left, right);
 
@@ -110,27 +46,10 @@ public class VariableValuesTest {
     }
 
     @Test
-    public void canZeros() {
-
-        Map<VariableReference, DoubleTensor> result = VariableValues.zeros(left);
-
-        DoubleTensor expectedA = DoubleTensor.create(0, 0);
-        DoubleTensor expectedB = DoubleTensor.create(0, 0);
-
-        assertEquals(expectedA, result.get(AReference));
-        assertEquals(expectedB, result.get(BReference));
-    }
-
-    @Test
-    public void canOnes() {
-
-        Map<VariableReference, DoubleTensor> result = VariableValues.ones(left);
-
-        DoubleTensor expectedA = DoubleTensor.create(1, 1);
-        DoubleTensor expectedB = DoubleTensor.create(1, 1);
+    public void canCreateArrayWithLength() {
 
-        assertEquals(expectedA, result.get(AReference));
-        assertEquals(expectedB, result.get(BReference));
+        assertArrayEquals(new double[]{0, 0, 0}, VariableValues.withLength(0, 3), 1e-6);
+        assertArrayEquals(new double[]{1, 1, 1}, VariableValues.withLength(1, 3), 1e-6);
     }
 
 }
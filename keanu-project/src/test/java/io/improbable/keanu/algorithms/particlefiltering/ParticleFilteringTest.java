@@ -1,6 +1,8 @@
 package io.improbable.keanu.algorithms.particlefiltering;
 
 import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.UniformVertex;
@@ -8,6 +10,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @Slf4j
@@ -56,4 +61,88 @@ public class ParticleFilteringTest {
         assertTrue(estimatedTemp > 18.0);
         assertTrue(estimatedTemp < 22.0);
     }
+
+    @Test
+    public void findsCorrectTempInParallel() {
+        DoubleVertex temperature = buildThermometerModel();
+
+        ParticleFilter particleFilter = ParticleFilter.ofVertexInGraph(temperature)
+            .withNumParticles(1000)
+            .withParallelism(4, i -> buildThermometerModel().getConnectedGraph())
+            .build();
+
+        double estimatedTemp = particleFilter.getMostProbableParticle().getScalarValueOfVertex(temperature);
+
+        assertTrue(estimatedTemp > 18.0);
+        assertTrue(estimatedTemp < 22.0);
+    }
+
+    @Test
+    public void parallelParticlesHoldValuesOfTheOriginalGraph() {
+        DoubleVertex temperature = buildThermometerModel();
+
+        ParticleFilter particleFilter = ParticleFilter.ofVertexInGraph(temperature)
+            .withNumParticles(100)
+            .withParallelism(3, i -> buildThermometerModel().getConnectedGraph())
+            .build();
+
+        for (Particle particle : particleFilter.getMostProbableParticles()) {
+            assertEquals(3, particle.getLatentVertices().size());
+            for (Vertex vertex : particle.getLatentVertices().keySet()) {
+                assertTrue(temperature.getConnectedGraph().contains(vertex));
+            }
+        }
+    }
+
+    @Test
+    public void parallelFilteringIsRepeatableWithTheSameSeed() {
+        DoubleVertex temperature = buildThermometerModel();
+
+        List<Particle> first = ParticleFilter.ofVertexInGraph(temperature)
+            .withNumParticles(200)
+            .withRandom(new KeanuRandom(1))
+            .withParallelism(2, i -> buildThermometerModel().getConnectedGraph())
+            .build()
+            .getSortedMostProbableParticles();
+
+        List<Particle> second = ParticleFilter.ofVertexInGraph(temperature)
+            .withNumParticles(200)
+            .withRandom(new KeanuRandom(1))
+            .withParallelism(2, i -> buildThermometerModel().getConnectedGraph())
+            .build()
+            .getSortedMostProbableParticles();
+
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).logProb(), second.get(i).logProb(), 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCopiesThatDoNotMatchTheOriginalGraph() {
+        DoubleVertex temperature = buildThermometerModel();
+
+        ParticleFilter.ofVertexInGraph(temperature)
+            .withNumParticles(10)
+            .withParallelism(2, i -> new GaussianVertex(0.0, 1.0).getConnectedGraph())
+            .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void needsAGraphFactoryForMoreThanOneThread() {
+        ParticleFilter.ofVertexInGraph(buildThermometerModel())
+            .withNumParticles(10)
+            .withParallelism(2, null)
+            .build();
+    }
+
+    private static DoubleVertex buildThermometerModel() {
+        DoubleVertex temperature = new UniformVertex(0.0, 100.0);
+        DoubleVertex noiseA = new GaussianVertex(0.0, 2.0);
+        DoubleVertex noiseB = new GaussianVertex(0.0, 2.0);
+        DoubleVertex thermometerA = new GaussianVertex(temperature.plus(noiseA), 1.0);
+        DoubleVertex thermometerB = new GaussianVertex(temperature.plus(noiseB), 1.0);
+        thermometerA.observe(21.0);
+        thermometerB.observe(19.5);
+        return temperature;
+    }
 }
@@ -0,0 +1,68 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import io.improbable.keanu.KeanuRandom;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResamplingMethodTest {
+
+    private static final double[] WEIGHTS = new double[]{0.1, 0.0, 0.6, 0.3};
+
+    @Test
+    public void systematicResamplingKeepsCountsWithinOneOfExpected() {
+        assertCountsWithinOneOfExpected(ResamplingMethod.SYSTEMATIC);
+    }
+
+    @Test
+    public void stratifiedResamplingKeepsCountsCloseToExpected() {
+        KeanuRandom random = new KeanuRandom(0);
+        int count = 10000;
+
+        int[] ancestors = ResamplingMethod.STRATIFIED.resample(WEIGHTS, count, random);
+
+        int[] counts = counts(ancestors);
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            assertEquals(WEIGHTS[i] * count, counts[i], 0.01 * count);
+        }
+        assertEquals(0, counts[1]);
+    }
+
+    @Test
+    public void ancestorsAreInAscendingOrder() {
+        int[] ancestors = ResamplingMethod.STRATIFIED.resample(WEIGHTS, 100, new KeanuRandom(1));
+
+        for (int i = 1; i < ancestors.length; i++) {
+            assertTrue(ancestors[i - 1] <= ancestors[i]);
+        }
+    }
+
+    @Test
+    public void keepsEveryParticleWhenWeightsAreEqual() {
+        int[] ancestors = ResamplingMethod.SYSTEMATIC.resample(new double[]{0.25, 0.25, 0.25, 0.25}, 4, new KeanuRandom(2));
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, ancestors);
+    }
+
+    private void assertCountsWithinOneOfExpected(ResamplingMethod method) {
+        KeanuRandom random = new KeanuRandom(0);
+        int count = 1001;
+
+        for (int repeat = 0; repeat < 10; repeat++) {
+            int[] counts = counts(method.resample(WEIGHTS, count, random));
+            for (int i = 0; i < WEIGHTS.length; i++) {
+                assertEquals(WEIGHTS[i] * count, counts[i], 1.0);
+            }
+        }
+    }
+
+    private static int[] counts(int[] ancestors) {
+        int[] counts = new int[WEIGHTS.length];
+        for (int ancestor : ancestors) {
+            counts[ancestor]++;
+        }
+        return counts;
+    }
+}
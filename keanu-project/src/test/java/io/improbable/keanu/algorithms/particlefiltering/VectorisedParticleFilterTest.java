@@ -0,0 +1,112 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.MultivariateGaussianVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.UniformVertex;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VectorisedParticleFilterTest {
+
+    @Rule
+    public DeterministicRule deterministicRule = new DeterministicRule();
+
+    @Test
+    public void findsCorrectTemp() {
+
+        DoubleVertex temperature = new UniformVertex(0.0, 100.0);
+        DoubleVertex noiseAMu = new GaussianVertex(0.0, 2.0);
+        DoubleVertex noiseA = new GaussianVertex(noiseAMu, 2.0);
+        DoubleVertex noiseBMu = new GaussianVertex(0.0, 2.0);
+        DoubleVertex noiseB = new GaussianVertex(noiseBMu, 2.0);
+        DoubleVertex thermometerA = new GaussianVertex(temperature.plus(noiseA), 1.0);
+        DoubleVertex thermometerB = new GaussianVertex(temperature.plus(noiseB), 1.0);
+        thermometerA.observe(21.0);
+        thermometerB.observe(19.5);
+
+        VectorisedParticleFilter particleFilter = ParticleFilter.ofVertexInGraph(temperature)
+            .withNumParticles(10000)
+            .buildVectorised();
+
+        Particle mostProbableParticle = particleFilter.getMostProbableParticle();
+        double estimatedTemp = mostProbableParticle.getScalarValueOfVertex(temperature);
+
+        assertTrue(estimatedTemp > 18.0);
+        assertTrue(estimatedTemp < 22.0);
+        assertArrayEquals(new long[]{10000}, particleFilter.getParticleValues(temperature).getShape());
+    }
+
+    @Test
+    public void matchesConjugatePosteriorAndRestoresValues() {
+        GaussianVertex mu = new GaussianVertex(0.0, 1.0);
+        GaussianVertex observation = new GaussianVertex(mu, 1.0);
+        observation.observe(2.0);
+        mu.setValue(-5.0);
+
+        int numParticles = 20000;
+        VectorisedParticleFilter particleFilter = ParticleFilter.ofVertexInGraph(mu)
+            .withNumParticles(numParticles)
+            .withEffectiveSampleSizeThreshold(1.0)
+            .withRandom(new KeanuRandom(1))
+            .buildVectorised();
+
+        double[] samples = particleFilter.getParticleValues(mu).asFlatDoubleArray();
+        double[] weights = particleFilter.getWeights();
+
+        double mean = 0;
+        double secondMoment = 0;
+        for (int i = 0; i < samples.length; i++) {
+            mean += weights[i] * samples[i];
+            secondMoment += weights[i] * samples[i] * samples[i];
+        }
+
+        assertEquals(1.0, mean, 0.05);
+        assertEquals(0.5, secondMoment - mean * mean, 0.05);
+        assertEquals(DoubleTensor.scalar(-5.0), mu.getValue());
+    }
+
+    @Test
+    public void canBroadcastBatchesOfVerticesWithDifferentRanks() {
+        GaussianVertex offset = new GaussianVertex(0.0, 1.0);
+        GaussianVertex vector = new GaussianVertex(new long[]{3}, 0.0, 1.0);
+        GaussianVertex observation = new GaussianVertex(vector.plus(offset), 0.5);
+        observation.observe(DoubleTensor.create(1.0, 2.0, 3.0));
+
+        VectorisedParticleFilter particleFilter = ParticleFilter.ofVertexInGraph(offset)
+            .withNumParticles(1000)
+            .buildVectorised();
+
+        assertArrayEquals(new long[]{1000, 3}, particleFilter.getParticleValues(vector).getShape());
+        assertArrayEquals(new long[]{1000}, particleFilter.getParticleValues(offset).getShape());
+        assertArrayEquals(new long[]{3}, particleFilter.getParticleValue(vector, 10).getShape());
+        assertEquals(1000, particleFilter.getLogProbs().length);
+    }
+
+    @Test
+    public void rejectsVerticesWithoutElementwiseLogProbAndRestoresLatentValues() {
+        GaussianVertex mu = new GaussianVertex(new long[]{2}, 0.0, 1.0);
+        MultivariateGaussianVertex latent = new MultivariateGaussianVertex(mu, 1.0);
+        GaussianVertex observation = new GaussianVertex(latent, 1.0);
+        observation.observe(DoubleTensor.create(1.0, 2.0));
+
+        DoubleTensor muValue = mu.getValue();
+        DoubleTensor latentValue = latent.getValue();
+
+        try {
+            ParticleFilter.ofVertexInGraph(latent).withNumParticles(10).buildVectorised();
+            fail("Expected the multivariate Gaussian to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals(muValue, mu.getValue());
+            assertEquals(latentValue, latent.getValue());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.MultiChainNetworkSamples;
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.VertexId;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ConvergenceDiagnosticsTest {
+
+    @Rule
+    public DeterministicRule deterministicRule = new DeterministicRule();
+
+    private final VertexId id = new VertexId();
+
+    @Test
+    public void effectiveSampleSizeOfAutoregressiveChainsMatchesTheory() {
+        double phi = 0.8;
+        int chainCount = 4;
+        int chainLength = 4000;
+
+        List<NetworkSamples> chains = new ArrayList<>();
+        for (int c = 0; c < chainCount; c++) {
+            chains.add(autoregressiveChain(phi, 0.0, chainLength));
+        }
+
+        ConvergenceDiagnostics diagnostics = ConvergenceDiagnostics.of(chains, 5);
+        ConvergenceDiagnostics.VariableDiagnostics variableDiagnostics = diagnostics.get(id);
+
+        double expectedEffectiveSampleSize = chainCount * chainLength * (1 - phi) / (1 + phi);
+        assertEquals(expectedEffectiveSampleSize, variableDiagnostics.getEffectiveSampleSize().scalar(), 0.15 * expectedEffectiveSampleSize);
+        assertThat(diagnostics.getMaxRHat(), lessThan(1.01));
+        assertEquals(phi, variableDiagnostics.getAutocorrelation().getValue(1), 0.05);
+        assertEquals(6, variableDiagnostics.getAutocorrelation().getLength());
+
+        double standardDeviation = 1 / Math.sqrt(1 - phi * phi);
+        assertEquals(
+            standardDeviation / Math.sqrt(expectedEffectiveSampleSize),
+            variableDiagnostics.getMonteCarloStandardError().scalar(),
+            0.2 * standardDeviation / Math.sqrt(expectedEffectiveSampleSize)
+        );
+    }
+
+    @Test
+    public void rHatIsLargeWhenChainsHaveNotMixed() {
+        List<NetworkSamples> chains = ImmutableList.of(
+            autoregressiveChain(0.5, 0.0, 1000),
+            autoregressiveChain(0.5, 5.0, 1000)
+        );
+
+        ConvergenceDiagnostics diagnostics = ConvergenceDiagnostics.of(chains, 0);
+
+        assertThat(diagnostics.get(id).getRHat().scalar(), greaterThan(1.5));
+    }
+
+    @Test
+    public void splitRHatFindsATrendWithinOneChain() {
+        KeanuRandom random = KeanuRandom.getDefaultRandom();
+        List<NetworkSample> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(new NetworkSample(ImmutableMap.of(id, DoubleTensor.scalar(i / 100.0 + random.nextGaussian())), 0.0));
+        }
+
+        ConvergenceDiagnostics diagnostics = ConvergenceDiagnostics.of(NetworkSamples.from(samples));
+
+        assertThat(diagnostics.getMaxRHat(), greaterThan(1.1));
+    }
+
+    @Test
+    public void diagnosesEachChainOfMultiChainSamples() {
+        NetworkSamples first = autoregressiveChain(0.0, 0.0, 500);
+        NetworkSamples second = autoregressiveChain(0.0, 0.0, 500);
+        MultiChainNetworkSamples merged = MultiChainNetworkSamples.fromChains(
+            ImmutableList.of(first, second),
+            ImmutableList.of(Collections.singletonList(id), Collections.singletonList(id))
+        );
+
+        ConvergenceDiagnostics fromMerged = ConvergenceDiagnostics.of(merged);
+        ConvergenceDiagnostics fromChains = ConvergenceDiagnostics.of(merged.getChains(), ConvergenceDiagnostics.DEFAULT_AUTOCORRELATION_MAX_LAG);
+
+        assertEquals(fromChains.get(id).getRHat().scalar(), fromMerged.get(id).getRHat().scalar(), 0.0);
+        assertEquals(fromChains.get(id).getEffectiveSampleSize().scalar(), fromMerged.get(id).getEffectiveSampleSize().scalar(), 0.0);
+    }
+
+    @Test
+    public void constantElementsHaveNaNDiagnosticsAndAreIgnoredInSummaries() {
+        KeanuRandom random = KeanuRandom.getDefaultRandom();
+        List<NetworkSample> samples = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            DoubleTensor value = DoubleTensor.create(new double[]{random.nextGaussian(), 1.0}, 2);
+            samples.add(new NetworkSample(ImmutableMap.of(id, value), 0.0));
+        }
+
+        ConvergenceDiagnostics diagnostics = ConvergenceDiagnostics.of(NetworkSamples.from(samples));
+        DoubleTensor effectiveSampleSize = diagnostics.get(id).getEffectiveSampleSize();
+
+        assertTrue(Double.isNaN(effectiveSampleSize.getValue(1)));
+        assertEquals(effectiveSampleSize.getValue(0), diagnostics.getMinEffectiveSampleSize(), 0.0);
+        assertEquals(1.0, diagnostics.get(id).getMean().getValue(1), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsChainsThatAreTooShortToSplit() {
+        ConvergenceDiagnostics.of(autoregressiveChain(0.0, 0.0, 7));
+    }
+
+    private NetworkSamples autoregressiveChain(double phi, double mean, int length) {
+        KeanuRandom random = KeanuRandom.getDefaultRandom();
+        List<NetworkSample> samples = new ArrayList<>();
+        double x = random.nextGaussian() / Math.sqrt(1 - phi * phi);
+        for (int i = 0; i < length; i++) {
+            x = phi * x + random.nextGaussian();
+            samples.add(new NetworkSample(ImmutableMap.of(id, DoubleTensor.scalar(mean + x)), 0.0));
+        }
+        return NetworkSamples.from(samples);
+    }
+}
@@ -0,0 +1,131 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.collect.ImmutableMap;
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.Keanu;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.KeanuProbabilisticModel;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.VertexId;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexSamples;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OnlineStatisticsTest {
+
+    @Rule
+    public DeterministicRule deterministicRule = new DeterministicRule();
+
+    @Test
+    public void matchesStatisticsOfStoredSamples() {
+        KeanuRandom random = KeanuRandom.getDefaultRandom();
+        VertexId id = new VertexId();
+        List<DoubleTensor> values = new ArrayList<>();
+        OnlineStatistics statistics = OnlineStatistics.builder().autocorrelationMaxLag(10).trackingCovariance(true).build();
+
+        double previous = 0;
+        for (int i = 0; i < 1000; i++) {
+            double x = 0.8 * previous + random.nextGaussian();
+            DoubleTensor value = DoubleTensor.create(new double[]{1e6 + x, 2 * x + random.nextGaussian()}, 2);
+            values.add(value);
+            statistics.accept(new NetworkSample(ImmutableMap.of(id, value), 0.0));
+            previous = x;
+        }
+
+        DoubleVertexSamples stored = new DoubleVertexSamples(values);
+
+        assertEquals(1000, statistics.getSampleCount());
+        assertArrayEquals(stored.getAverages().asFlatDoubleArray(), statistics.getMean(id).asFlatDoubleArray(), 1e-8);
+        assertArrayEquals(twoPassVariances(values), statistics.getVariance(id).asFlatDoubleArray(), 1e-8);
+        assertArrayEquals(
+            Arrays.copyOf(stored.getAutocorrelation(0).asFlatDoubleArray(), 11),
+            statistics.getAutocorrelation(id, 0).asFlatDoubleArray(),
+            1e-6
+        );
+
+        DoubleTensor covariance = statistics.getCovariance(id);
+        assertArrayEquals(new long[]{2, 2}, covariance.getShape());
+        assertEquals(covariance.getValue(0, 1), covariance.getValue(1, 0), 1e-10);
+        assertEquals(twoPassVariances(values)[1], covariance.getValue(1, 1), 1e-8);
+    }
+
+    private static double[] twoPassVariances(List<DoubleTensor> values) {
+        DoubleTensor stacked = DoubleTensor.stack(0, values.toArray(new DoubleTensor[0]));
+        DoubleTensor deviations = stacked.minus(stacked.mean(0));
+        return deviations.times(deviations).sum(0).div(values.size() - 1.).asFlatDoubleArray();
+    }
+
+    @Test
+    public void estimatesQuantilesInConstantMemory() {
+        KeanuRandom random = KeanuRandom.getDefaultRandom();
+        P2Quantile median = new P2Quantile(0.5);
+        P2Quantile upper = new P2Quantile(0.975);
+
+        for (int i = 0; i < 100000; i++) {
+            double x = random.nextGaussian();
+            median.add(x);
+            upper.add(x);
+        }
+
+        assertEquals(0.0, median.getQuantile(), 0.02);
+        assertEquals(1.96, upper.getQuantile(), 0.05);
+    }
+
+    @Test
+    public void quantileIsExactForFewValues() {
+        P2Quantile median = new P2Quantile(0.5);
+        median.add(3.0);
+        median.add(1.0);
+        median.add(2.0);
+
+        assertEquals(2.0, median.getQuantile(), 0.0);
+    }
+
+    @Test
+    public void canSummarisePosteriorWithoutKeepingSamples() {
+        GaussianVertex A = new GaussianVertex(20.0, 1.0);
+        GaussianVertex B = new GaussianVertex(20.0, 1.0);
+        GaussianVertex C = new GaussianVertex(A.plus(B), 1.0);
+        C.observe(43.0);
+
+        KeanuProbabilisticModel model = new KeanuProbabilisticModel(new BayesianNetwork(A.getConnectedGraph()));
+
+        OnlineStatistics statistics = Keanu.Sampling.MetropolisHastings.withDefaultConfig()
+            .generatePosteriorSamples(model, model.getLatentVariables())
+            .dropCount(1000)
+            .generate(20000, OnlineStatistics.builder().quantiles(0.5).build());
+
+        assertEquals(19000, statistics.getSampleCount());
+        assertEquals(21.0, statistics.getMean(A).scalar(), 0.1);
+        assertEquals(21.0, statistics.getQuantile(A, 0.5).scalar(), 0.1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsQuantilesThatAreNotTracked() {
+        VertexId id = new VertexId();
+        OnlineStatistics statistics = OnlineStatistics.builder().quantiles(0.5).build();
+        statistics.accept(new NetworkSample(ImmutableMap.of(id, DoubleTensor.scalar(1.0)), 0.0));
+
+        statistics.getQuantile(id, 0.9);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void doesNotTrackCovarianceUnlessAskedTo() {
+        VertexId id = new VertexId();
+        OnlineStatistics statistics = OnlineStatistics.builder().build();
+        statistics.accept(new NetworkSample(ImmutableMap.of(id, DoubleTensor.create(1.0, 2.0)), 0.0));
+        statistics.accept(new NetworkSample(ImmutableMap.of(id, DoubleTensor.create(2.0, 1.0)), 0.0));
+
+        statistics.getCovariance(id);
+    }
+}
@@ -164,6 +164,45 @@ public class KDEApproximationTest {
         assertEquals(nSamples, resampledKDE.getSampleShape()[0]);
     }
 
+    @Test
+    public void approximateKDEMatchesExactKDE() {
+        double relativeErrorBound = 1e-4;
+        DoubleVertexSamples samples = generateGaussianSamples(1., 2., 20000);
+
+        KDEVertex exactKDE = GaussianKDE.approximate(samples);
+        KDEVertex approximateKDE = GaussianKDE.approximate(samples, relativeErrorBound);
+        assertEquals(exactKDE.getBandwidth(), approximateKDE.getBandwidth(), 0.0);
+
+        DoubleTensor x = DoubleTensor.linspace(-12., 14., 200);
+        DoubleTensor exactPdf = exactKDE.pdf(x);
+        DoubleTensor approximatePdf = approximateKDE.pdf(x);
+        double peak = exactPdf.max().scalar();
+
+        for (int i = 0; i < x.getLength(); i++) {
+            assertEquals(exactPdf.getValue(i), approximatePdf.getValue(i), relativeErrorBound * peak);
+            assertEquals(Math.log(exactPdf.getValue(i)), Math.log(approximatePdf.getValue(i)), 1e-2);
+        }
+
+        DoubleTensor exactDerivative = exactKDE.dLogPdf(x, exactKDE).get(exactKDE);
+        DoubleTensor approximateDerivative = approximateKDE.dLogPdf(x, approximateKDE).get(approximateKDE);
+        for (int i = 0; i < x.getLength(); i++) {
+            assertEquals(exactDerivative.getValue(i), approximateDerivative.getValue(i), 1e-2 * (1 + Math.abs(exactDerivative.getValue(i))));
+        }
+    }
+
+    @Test
+    public void approximateKDEIsRebuiltAfterResampling() {
+        DoubleVertexSamples samples = generateGaussianSamples(0., 1., 1000);
+        KDEVertex approximateKDE = GaussianKDE.approximate(samples, 1e-4);
+
+        DoubleTensor x = DoubleTensor.linspace(-2., 2., 20);
+        approximateKDE.pdf(x);
+        approximateKDE.resample(500, KeanuRandom.getDefaultRandom());
+
+        KDEVertex exactKDE = new KDEVertex(approximateKDE.getInputSamples(), approximateKDE.getBandwidth());
+        isCloseMostOfTheTime(exactKDE.pdf(x), approximateKDE.pdf(x), 1.0, 1e-3);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void handlingNonScalarSamplesTest() {
         List<DoubleTensor> badSamplesList = Collections.singletonList(DoubleTensor.create(new double[]{1, 2, 3}));
@@ -1,9 +1,12 @@
 package io.improbable.keanu.algorithms.variational.optimizer.gradient;
 
 import io.improbable.keanu.Keanu;
+import io.improbable.keanu.algorithms.LogProbAndGradients;
 import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
+import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.algorithms.variational.optimizer.OptimizedResult;
 import io.improbable.keanu.network.KeanuProbabilisticModelWithGradient;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.probabilistic.PoissonVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.HalfGaussianVertex;
@@ -12,6 +15,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
@@ -37,6 +41,45 @@ public class GradientOptimizerTest {
         assertTrue(gradientTimesCalled.get() > 0);
     }
 
+    @Test
+    public void checksInitialLogProbAndGradientWithOneUpdateOfTheModel() {
+        AtomicInteger fusedCalls = new AtomicInteger(0);
+        AtomicInteger gradientOnlyCalls = new AtomicInteger(0);
+        AtomicInteger fitnessTimesCalled = new AtomicInteger(0);
+        AtomicInteger gradientTimesCalled = new AtomicInteger(0);
+
+        GaussianVertex A = new GaussianVertex(0, 1);
+        A.setValue(0.5);
+
+        ProbabilisticModelWithGradient model = new KeanuProbabilisticModelWithGradient(A.getConnectedGraph()) {
+            @Override
+            public LogProbAndGradients logProbAndGradients(Map<VariableReference, ?> inputs) {
+                fusedCalls.incrementAndGet();
+                return super.logProbAndGradients(inputs);
+            }
+
+            @Override
+            public Map<VariableReference, DoubleTensor> logProbGradients(Map<VariableReference, ?> inputs) {
+                gradientOnlyCalls.incrementAndGet();
+                return super.logProbGradients(inputs);
+            }
+        };
+
+        GradientOptimizer optimizer = Keanu.Optimizer.Gradient.builderFor(A.getConnectedGraph())
+            .probabilisticModel(model)
+            .algorithm((vars, fitness, gradient) -> new OptimizedResult(null, 0))
+            .build();
+        optimizer.addFitnessCalculationHandler((point, fitness) -> fitnessTimesCalled.incrementAndGet());
+        optimizer.addGradientCalculationHandler((point, gradient) -> gradientTimesCalled.incrementAndGet());
+
+        optimizer.maxAPosteriori();
+
+        assertEquals(1, fusedCalls.get());
+        assertEquals(0, gradientOnlyCalls.get());
+        assertEquals(1, fitnessTimesCalled.get());
+        assertEquals(1, gradientTimesCalled.get());
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     public void errorOnDiscreteLatents() {
         PoissonVertex v1 = new PoissonVertex(15);
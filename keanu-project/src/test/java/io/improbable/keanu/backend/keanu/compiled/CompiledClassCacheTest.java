@@ -0,0 +1,169 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import com.google.common.collect.ImmutableList;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class CompiledClassCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path cacheDirectory;
+    private GaussianVertex A;
+    private GaussianVertex B;
+    private DoubleVertex C;
+
+    @Before
+    public void setup() throws IOException {
+        cacheDirectory = temporaryFolder.newFolder().toPath();
+        A = new GaussianVertex(0, 1);
+        B = new GaussianVertex(new long[]{2}, 0, 1);
+        C = B.times(A).plus(A.exp());
+    }
+
+    @Test
+    public void sameGraphGeneratesSameSource() {
+        assertEquals(builderFor(C).getSource(), builderFor(C).getSource());
+    }
+
+    @Test
+    public void gettingSourceDoesNotChangeIt() {
+        KeanuCompiledGraphBuilder builder = builderFor(C);
+        assertEquals(builder.getSource(), builder.getSource());
+    }
+
+    @Test
+    public void sameGraphWithShiftedVertexIdsGeneratesSameClass() throws IOException {
+        new GaussianVertex(0, 1);
+        GaussianVertex shiftedA = new GaussianVertex(0, 1);
+        GaussianVertex shiftedB = new GaussianVertex(new long[]{2}, 0, 1);
+        DoubleVertex shiftedC = shiftedB.times(shiftedA).plus(shiftedA.exp());
+
+        assertEquals(builderFor(C).getSource(), builderFor(shiftedC).getSource());
+
+        builderFor(C).withClassCache(new CompiledClassCache(cacheDirectory)).build();
+        KeanuCompiledGraph shiftedGraph = builderFor(shiftedC)
+            .withClassCache(new CompiledClassCache(cacheDirectory))
+            .build();
+
+        Map<VariableReference, DoubleTensor> shiftedInputs = new HashMap<>();
+        shiftedInputs.put(shiftedA.getReference(), shiftedA.getValue());
+        shiftedInputs.put(shiftedB.getReference(), shiftedB.getValue());
+
+        assertEquals(1, classFilesInCache().size());
+        assertEquals(shiftedC.getValue(), shiftedGraph.compute(shiftedInputs).get(shiftedC.getReference()));
+    }
+
+    @Test
+    public void compilesOnceWhenCachesShareADirectory() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<KeanuCompiledGraph>> graphs = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                graphs.add(executor.submit(() ->
+                    builderFor(C).withClassCache(new CompiledClassCache(cacheDirectory)).build()
+                ));
+            }
+
+            for (Future<KeanuCompiledGraph> graph : graphs) {
+                assertEquals(C.getValue(), graph.get().compute(inputs()).get(C.getReference()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, classFilesInCache().size());
+    }
+
+    @Test
+    public void loadsAgainAfterClosing() throws IOException {
+        CompiledClassCache classCache = new CompiledClassCache(cacheDirectory);
+        KeanuCompiledGraph graph = builderFor(C).withClassCache(classCache).build();
+
+        classCache.close();
+
+        assertEquals(C.getValue(), graph.compute(inputs()).get(C.getReference()));
+        assertEquals(
+            C.getValue(),
+            builderFor(C).withClassCache(classCache).build().compute(inputs()).get(C.getReference())
+        );
+        classCache.close();
+    }
+
+    @Test
+    public void differentGraphsGenerateDifferentClasses() {
+        assertNotEquals(builderFor(C).getSource(), builderFor(C.minus(A)).getSource());
+    }
+
+    @Test
+    public void compilesIntoCacheAndComputes() throws IOException {
+        KeanuCompiledGraph graph = builderFor(C)
+            .withClassCache(new CompiledClassCache(cacheDirectory))
+            .build();
+
+        assertEquals(1, classFilesInCache().size());
+        assertEquals(C.getValue(), graph.compute(inputs()).get(C.getReference()));
+    }
+
+    @Test
+    public void loadsFromCacheWithoutCompilingAgain() throws IOException {
+        builderFor(C).withClassCache(new CompiledClassCache(cacheDirectory)).build();
+
+        Path classFile = classFilesInCache().get(0);
+        FileTime compiledAt = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(classFile, compiledAt);
+
+        KeanuCompiledGraph graph = builderFor(C)
+            .withClassCache(new CompiledClassCache(cacheDirectory))
+            .build();
+
+        assertEquals(compiledAt, Files.getLastModifiedTime(classFile));
+        assertEquals(1, classFilesInCache().size());
+        assertEquals(C.getValue(), graph.compute(inputs()).get(C.getReference()));
+    }
+
+    private KeanuCompiledGraphBuilder builderFor(DoubleVertex output) {
+        KeanuCompiledGraphBuilder builder = new KeanuCompiledGraphBuilder();
+        builder.convert(output.getConnectedGraph(), ImmutableList.of(output));
+        return builder;
+    }
+
+    private Map<VariableReference, DoubleTensor> inputs() {
+        Map<VariableReference, DoubleTensor> inputs = new HashMap<>();
+        inputs.put(A.getReference(), A.getValue());
+        inputs.put(B.getReference(), B.getValue());
+        return inputs;
+    }
+
+    private List<Path> classFilesInCache() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            return files
+                .filter(file -> file.toString().endsWith(".class"))
+                .collect(Collectors.toList());
+        }
+    }
+}
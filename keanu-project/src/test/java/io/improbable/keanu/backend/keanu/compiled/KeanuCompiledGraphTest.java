@@ -35,6 +35,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
 
 public class KeanuCompiledGraphTest {
@@ -564,6 +565,58 @@ public class KeanuCompiledGraphTest {
         assertCompiledIsSameAsVertexEvaluation(A, B, select, mux);
     }
 
+    @Test
+    public void compilesScalarGraphToPrimitiveDoubles() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GaussianVertex B = new GaussianVertex(0, 1);
+        DoubleVertex C = A.times(B).plus(A.exp()).div(B.abs().plus(1.0)).sigmoid();
+
+        KeanuCompiledGraphBuilder compiler = new KeanuCompiledGraphBuilder();
+        compiler.convert(C.getConnectedGraph(), ImmutableList.of(C));
+
+        assertTrue(compiler.getSource().contains("public double[] apply(final double[] inputs)"));
+        assertFalse(compiler.getSource().contains("DoubleTensor.scalar(s_"));
+
+        KeanuCompiledGraph computableGraph = compiler.build();
+        assertTrue(computableGraph.isScalar());
+
+        double[] inputs = compiler.getScalarInputs().stream()
+            .mapToDouble(input -> input.equals(A.getReference()) ? A.getValue().scalar() : B.getValue().scalar())
+            .toArray();
+
+        assertEquals(C.getValue().scalar(), computableGraph.compute(inputs)[0], 1e-12);
+        assertEquals(C.getValue(), computableGraph.compute(Collections.emptyMap()).get(C.getReference()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scalarGraphRejectsInputsThatAreNotScalars() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        DoubleVertex B = A.exp();
+
+        KeanuCompiledGraphBuilder compiler = new KeanuCompiledGraphBuilder();
+        compiler.convert(B.getConnectedGraph(), ImmutableList.of(B));
+
+        KeanuCompiledGraph computableGraph = compiler.build();
+        assertTrue(computableGraph.isScalar());
+
+        computableGraph.compute(Collections.singletonMap(A.getReference(), DoubleTensor.create(1.0, 2.0)));
+    }
+
+    @Test
+    public void compilesScalarsThatAreUsedByTensorOperations() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GaussianVertex B = new GaussianVertex(new long[]{2, 2}, 0, 1);
+        DoubleVertex C = B.times(A.exp()).sum().plus(A);
+
+        KeanuCompiledGraphBuilder compiler = new KeanuCompiledGraphBuilder();
+        compiler.convert(C.getConnectedGraph(), ImmutableList.of(C));
+
+        KeanuCompiledGraph computableGraph = compiler.build();
+        assertFalse(computableGraph.isScalar());
+
+        assertCompiledIsSameAsVertexEvaluation(A, B, C);
+    }
+
     private void assertCompiledIsSameAsVertexEvaluation(Vertex<?, ?> A, Vertex<?, ?> B, Vertex<?, ?> C, Vertex<?, ?> D) {
         KeanuCompiledGraphBuilder compiler = new KeanuCompiledGraphBuilder();
         compiler.convert(D.getConnectedGraph(), ImmutableList.of(D));
@@ -7,6 +7,7 @@ import io.improbable.keanu.vertices.tensor.number.fixed.intgr.IntegerVertex;
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.probabilistic.PoissonVertex;
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.probabilistic.UniformIntVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GammaVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
 import org.junit.Test;
 
@@ -14,6 +15,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
 
 public class KeanuCompiledProbabilisticGraphTest {
 
@@ -57,6 +59,21 @@ public class KeanuCompiledProbabilisticGraphTest {
         matchesLogProb(new BayesianNetwork(C.getConnectedGraph()));
     }
 
+    @Test
+    public void compilesScalarModelToPrimitiveDoubles() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GammaVertex B = new GammaVertex(2, 2);
+
+        GaussianVertex C = new GaussianVertex(A.times(B), B);
+        C.observe(1);
+
+        BayesianNetwork bayesianNetwork = new BayesianNetwork(C.getConnectedGraph());
+        KeanuCompiledProbabilisticGraph probabilisticGraph = KeanuCompiledProbabilisticGraph.convert(bayesianNetwork);
+
+        assertTrue(((KeanuCompiledGraph) probabilisticGraph.getComputableGraph()).isScalar());
+        matchesLogProb(bayesianNetwork);
+    }
+
     private void matchesLogProb(BayesianNetwork bayesianNetwork) {
         KeanuCompiledProbabilisticGraph probabilisticGraph = KeanuCompiledProbabilisticGraph
             .convert(bayesianNetwork);
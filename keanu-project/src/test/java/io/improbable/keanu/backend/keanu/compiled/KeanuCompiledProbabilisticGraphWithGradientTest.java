@@ -0,0 +1,139 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.algorithms.LogProbAndGradients;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.mcmc.nuts.NUTS;
+import io.improbable.keanu.algorithms.mcmc.testcases.MCMCTestDistributions;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.KeanuProbabilisticModelWithGradient;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GammaVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.UniformVertex;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class KeanuCompiledProbabilisticGraphWithGradientTest {
+
+    @Rule
+    public DeterministicRule deterministicRule = new DeterministicRule();
+
+    @Test
+    public void canMatchGradientOfGaussianChain() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GaussianVertex B = new GaussianVertex(A.times(2.0), 1.5);
+        GaussianVertex C = new GaussianVertex(B.plus(A), 2.0);
+        C.observe(1.5);
+
+        matchesGradients(new BayesianNetwork(C.getConnectedGraph()));
+    }
+
+    @Test
+    public void canMatchGradientOfBroadcastOperations() {
+        GaussianVertex mu = new GaussianVertex(0, 1);
+        GaussianVertex x = new GaussianVertex(new long[]{2, 3}, 0, 1);
+        DoubleVertex y = x.times(mu).plus(mu.exp());
+
+        GaussianVertex observed = new GaussianVertex(y, 1);
+        observed.observe(DoubleTensor.create(new double[]{1, 2, 3, 4, 5, 6}, 2, 3));
+
+        matchesGradients(new BayesianNetwork(observed.getConnectedGraph()));
+    }
+
+    @Test
+    public void canMatchGradientOfSumAndMatrixMultiply() {
+        GaussianVertex a = new GaussianVertex(new long[]{2, 3}, 0, 1);
+        GaussianVertex b = new GaussianVertex(new long[]{3, 2}, 0, 1);
+        DoubleVertex ab = a.matrixMultiply(b);
+
+        GaussianVertex observedSum = new GaussianVertex(ab.sum(0), 1);
+        observedSum.observe(DoubleTensor.create(1.0, -2.0));
+
+        GaussianVertex observedTotal = new GaussianVertex(a.sin().sum(), 1);
+        observedTotal.observe(0.5);
+
+        matchesGradients(new BayesianNetwork(a.getConnectedGraph()));
+    }
+
+    @Test
+    public void canMatchGradientOfPositiveLatents() {
+        GammaVertex theta = new GammaVertex(2, 2);
+        UniformVertex k = new UniformVertex(1, 3);
+        GaussianVertex observed = new GaussianVertex(theta.log(), k.sqrt());
+        observed.observe(0.2);
+
+        matchesGradients(new BayesianNetwork(observed.getConnectedGraph()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void throwsIfLogLikelihoodGradientIsUndefined() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+
+        KeanuCompiledProbabilisticGraphWithGradient
+            .convert(new BayesianNetwork(A.getConnectedGraph()))
+            .logLikelihoodGradients();
+    }
+
+    @Test
+    public void canSampleWithNUTS() {
+        BayesianNetwork bayesNet = MCMCTestDistributions.createSumOfGaussianDistribution(20.0, 1.0, 46., 15.0);
+        KeanuCompiledProbabilisticGraphWithGradient model = KeanuCompiledProbabilisticGraphWithGradient.convert(bayesNet);
+
+        int sampleCount = 500;
+        NUTS nuts = NUTS.builder()
+            .adaptCount(sampleCount)
+            .build();
+
+        NetworkSamples posteriorSamples = nuts.getPosteriorSamples(
+            model,
+            model.getLatentVariables(),
+            sampleCount
+        ).drop(sampleCount / 4);
+
+        DoubleVertex A = bayesNet.getContinuousLatentVertices().get(0);
+        DoubleVertex B = bayesNet.getContinuousLatentVertices().get(1);
+
+        MCMCTestDistributions.samplesMatchesSumOfGaussians(44.0, posteriorSamples.get(A).asList(), posteriorSamples.get(B).asList());
+    }
+
+    private void matchesGradients(BayesianNetwork bayesianNetwork) {
+        KeanuCompiledProbabilisticGraphWithGradient compiledModel = KeanuCompiledProbabilisticGraphWithGradient
+            .convert(bayesianNetwork);
+        KeanuProbabilisticModelWithGradient keanuModel = new KeanuProbabilisticModelWithGradient(bayesianNetwork);
+
+        Map<VariableReference, Object> inputs = bayesianNetwork.getLatentVertices().stream()
+            .collect(Collectors.toMap(Vertex::getReference, Vertex::getValue));
+
+        assertEquals(keanuModel.logProb(inputs), compiledModel.logProb(inputs), 1e-8);
+        assertGradientsEqual(keanuModel.logProbGradients(inputs), compiledModel.logProbGradients(inputs));
+        assertGradientsEqual(keanuModel.logLikelihoodGradients(inputs), compiledModel.logLikelihoodGradients(inputs));
+
+        LogProbAndGradients keanuLogProbAndGradients = keanuModel.logProbAndGradients(inputs);
+        LogProbAndGradients compiledLogProbAndGradients = compiledModel.logProbAndGradients(inputs);
+        assertEquals(keanuModel.logProb(inputs), keanuLogProbAndGradients.getLogProb(), 1e-8);
+        assertEquals(keanuLogProbAndGradients.getLogProb(), compiledLogProbAndGradients.getLogProb(), 1e-8);
+        assertGradientsEqual(keanuModel.logProbGradients(inputs), keanuLogProbAndGradients.getGradients());
+        assertGradientsEqual(keanuLogProbAndGradients.getGradients(), compiledLogProbAndGradients.getGradients());
+    }
+
+    private void assertGradientsEqual(Map<VariableReference, DoubleTensor> expected,
+                                      Map<VariableReference, DoubleTensor> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+
+        for (Map.Entry<VariableReference, DoubleTensor> gradient : expected.entrySet()) {
+            DoubleTensor actualGradient = actual.get(gradient.getKey());
+            assertArrayEquals(gradient.getValue().getShape(), actualGradient.getShape());
+            assertArrayEquals(gradient.getValue().asFlatDoubleArray(), actualGradient.asFlatDoubleArray(), 1e-8);
+        }
+    }
+}
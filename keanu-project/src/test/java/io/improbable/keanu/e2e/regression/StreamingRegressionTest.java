@@ -0,0 +1,159 @@
+package io.improbable.keanu.e2e.regression;
+
+import com.google.common.collect.ImmutableList;
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.model.regression.RegressionModel;
+import io.improbable.keanu.model.regression.RegressionRegularization;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.util.csv.CsvReader;
+import io.improbable.keanu.util.csv.ReadCsv;
+import io.improbable.keanu.vertices.ConstantVertex;
+import io.improbable.keanu.vertices.tensor.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.UniformVertex;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.improbable.keanu.e2e.regression.LinearRegressionTestUtils.assertWeightsAndInterceptMatchTestData;
+import static io.improbable.keanu.tensor.TensorMatchers.allCloseTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+
+public class StreamingRegressionTest {
+
+    @Rule
+    public DeterministicRule deterministicRule = new DeterministicRule();
+
+    @Test
+    public void closedFormFittingOfStreamedRowsMatchesKnownLeastSquaresSolution() {
+        CsvReader csvReader = ReadCsv.fromResources("data/datasets/diabetes/diabetes_standardized_training.csv");
+
+        RegressionModel<DoubleTensor> model = RegressionModel
+            .withStreamingTrainingData(csvReader, ImmutableList.of("bmi"), "y")
+            .withBatchSize(50)
+            .build();
+
+        assertThat(model.getWeightVertex().getValue().scalar(), closeTo(938.2378, 0.01));
+        assertThat(model.getInterceptVertex().getValue().scalar(), closeTo(152.9189, 0.01));
+    }
+
+    @Test
+    public void closedFormFittingOfStreamedRowsMatchesClosedFormFittingInMemory() {
+        LinearRegressionTestUtils.TestData data = LinearRegressionTestUtils.generateMultiFeatureDataGaussianWeights(5);
+        CsvReader csvReader = ReadCsv.fromString(toCsv(data.xTrain, data.yTrain.asFlatList()));
+
+        RegressionModel<DoubleTensor> inMemoryModel = RegressionModel.withTrainingData(data.xTrain, data.yTrain)
+            .withRegularization(RegressionRegularization.RIDGE)
+            .withPriorOnWeightsAndIntercept(0, 2)
+            .withClosedFormFitting()
+            .build();
+
+        RegressionModel<DoubleTensor> streamedModel = RegressionModel
+            .withStreamingTrainingData(csvReader, ImmutableList.of("x0", "x1", "x2", "x3", "x4"), "y")
+            .withRegularization(RegressionRegularization.RIDGE)
+            .withPriorOnWeightsAndIntercept(0, 2)
+            .withBatchSize(7)
+            .build();
+
+        assertThat(streamedModel.getWeightVertex().getValue(), allCloseTo(1e-6, inMemoryModel.getWeightVertex().getValue()));
+        assertThat(streamedModel.getInterceptVertex().getValue().scalar(), closeTo(inMemoryModel.getInterceptVertex().getValue().scalar(), 1e-6));
+    }
+
+    @Test
+    public void closedFormFittingFindsParamsForManyWeights() {
+        LinearRegressionTestUtils.TestData data = LinearRegressionTestUtils.generateMultiFeatureDataUniformWeights(20);
+
+        RegressionModel<DoubleTensor> model = RegressionModel.withTrainingData(data.xTrain, data.yTrain)
+            .withClosedFormFitting()
+            .build();
+
+        assertWeightsAndInterceptMatchTestData(model.getWeightVertex(), model.getInterceptVertex(), data);
+    }
+
+    @Test
+    public void closedFormFittingMatchesLeastSquaresByMatrixInverseForCorrelatedNonCentredFeatures() {
+        DoubleTensor x1 = new UniformVertex(new long[]{500, 1}, 50, 100).sample();
+        DoubleTensor x2 = x1.times(0.8).plusInPlace(new UniformVertex(new long[]{500, 1}, 0, 10).sample());
+        DoubleTensor x = DoubleTensor.concat(1, x1, x2);
+        DoubleTensor y = x1.times(3.0).plusInPlace(x2.times(-2.0)).plusInPlace(20.0)
+            .plusInPlace(new GaussianVertex(new long[]{500, 1}, 0.0, 1.0).sample());
+
+        DoubleTensor xWithOnes = DoubleTensor.concat(1, DoubleTensor.ones(500, 1), x);
+        DoubleTensor expected = xWithOnes.matrixMultiply(xWithOnes, true, false)
+            .matrixInverse()
+            .matrixMultiply(xWithOnes.matrixMultiply(y, true, false));
+
+        RegressionModel<DoubleTensor> inMemoryModel = RegressionModel.withTrainingData(x, y)
+            .withClosedFormFitting()
+            .build();
+
+        RegressionModel<DoubleTensor> streamedModel = RegressionModel
+            .withStreamingTrainingData(ReadCsv.fromString(toCsv(x, y.asFlatList())), ImmutableList.of("x0", "x1"), "y")
+            .withBatchSize(64)
+            .build();
+
+        for (RegressionModel<DoubleTensor> model : ImmutableList.of(inMemoryModel, streamedModel)) {
+            assertThat(model.getInterceptVertex().getValue().scalar(), closeTo(expected.getValue(0, 0), 1e-4));
+            assertThat(model.getWeightVertex().getValue().getValue(0, 0), closeTo(expected.getValue(1, 0), 1e-4));
+            assertThat(model.getWeightVertex().getValue().getValue(1, 0), closeTo(expected.getValue(2, 0), 1e-4));
+        }
+    }
+
+    @Test
+    public void minibatchGradientFittingOfStreamedRowsFindsLogisticRegressionWeights() {
+        DoubleTensor trueWeights = DoubleTensor.create(new double[]{0.5, -3.0, 1.5}, 3, 1);
+        DoubleTensor x = new GaussianVertex(new long[]{5000, 3}, 0.0, 1.0).sample();
+        BooleanTensor y = new BernoulliVertex(ConstantVertex.of(x.matrixMultiply(trueWeights).sigmoid())).getValue();
+        CsvReader csvReader = ReadCsv.fromString(toCsv(x, y.asFlatList()));
+
+        RegressionModel<BooleanTensor> model = RegressionModel
+            .withStreamingLogisticTrainingData(csvReader, ImmutableList.of("x0", "x1", "x2"), "y")
+            .withBatchSize(250)
+            .build();
+
+        assertThat(model.getWeightVertex().getValue(), allCloseTo(0.15, trueWeights));
+        assertThat(model.getInterceptVertex().getValue().scalar(), closeTo(0.0, 0.15));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void closedFormFittingCannotBeUsedWithLasso() {
+        LinearRegressionTestUtils.TestData data = LinearRegressionTestUtils.generateSingleFeatureData(10);
+
+        RegressionModel.withTrainingData(data.xTrain, data.yTrain)
+            .withRegularization(RegressionRegularization.LASSO)
+            .withClosedFormFitting()
+            .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void streamingRejectsColumnsThatAreNotInTheHeader() {
+        RegressionModel
+            .withStreamingTrainingData(ReadCsv.fromString("a,y\n1,2\n"), ImmutableList.of("b"), "y")
+            .build();
+    }
+
+    private static String toCsv(DoubleTensor x, List<?> y) {
+        int rowCount = (int) x.getShape()[0];
+        int featureCount = (int) x.getShape()[1];
+        double[] xValues = x.asFlatDoubleArray();
+
+        List<String> header = new ArrayList<>();
+        for (int i = 0; i < featureCount; i++) {
+            header.add("x" + i);
+        }
+        header.add("y");
+
+        StringBuilder csv = new StringBuilder(String.join(",", header)).append("\n");
+        for (int row = 0; row < rowCount; row++) {
+            for (int i = 0; i < featureCount; i++) {
+                csv.append(xValues[row * featureCount + i]).append(",");
+            }
+            csv.append(y.get(row)).append("\n");
+        }
+        return csv.toString();
+    }
+}
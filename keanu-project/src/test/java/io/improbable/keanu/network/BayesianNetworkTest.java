@@ -71,6 +71,22 @@ public class BayesianNetworkTest {
         assertThat(network.getObservedVertices(), is(empty()));
     }
 
+    @Test
+    public void cascadingObservationsReachesVerticesConnectedAfterwards() {
+        input1.observe(false);
+        input2.observe(false);
+        network.cascadeObservations();
+
+        BooleanVertex connectedAfterwards = input1.and(input2);
+        assertThat(connectedAfterwards.getValue().scalar(), is(false));
+
+        input1.observe(true);
+        input2.observe(true);
+        network.cascadeObservations();
+
+        assertThat(connectedAfterwards.getValue().scalar(), is(true));
+    }
+
     @Test
     public void youCanLabelVertices() {
         BooleanVertex a = new BernoulliVertex(0.5);
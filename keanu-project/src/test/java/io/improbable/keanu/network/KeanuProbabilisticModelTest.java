@@ -78,6 +78,27 @@ public class KeanuProbabilisticModelTest {
         canCalculateLogLikelihood(probabilisticModel);
     }
 
+    @Test
+    public void canCalculateLogProbAfterOnKeanuProbabilisticModel() {
+        ProbabilisticModel probabilisticModel = new KeanuProbabilisticModel(D.getConnectedGraph());
+        canCalculateLogProbAfter(probabilisticModel);
+    }
+
+    public void canCalculateLogProbAfter(ProbabilisticModel probabilisticModel) {
+
+        double logProbBefore = probabilisticModel.logProb();
+
+        for (int i = 0; i < 3; i++) {
+            DoubleTensor newA = KeanuRandom.getDefaultRandom().nextDouble(initialA.getShape());
+            logProbBefore = probabilisticModel.logProbAfter(ImmutableMap.of(A.getId(), newA), logProbBefore);
+            assertEquals(expectedLogProb(), logProbBefore, 1e-5);
+
+            DoubleTensor newB = KeanuRandom.getDefaultRandom().nextDouble(initialB.getShape());
+            logProbBefore = probabilisticModel.logProbAfter(ImmutableMap.of(A.getId(), newA.times(2.0), B.getId(), newB), logProbBefore);
+            assertEquals(expectedLogProb(), logProbBefore, 1e-5);
+        }
+    }
+
     public void canCalculateLogProb(ProbabilisticModel probabilisticModel) {
 
         double defaultLogProb = probabilisticModel.logProb();
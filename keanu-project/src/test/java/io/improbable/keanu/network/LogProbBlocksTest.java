@@ -0,0 +1,91 @@
+package io.improbable.keanu.network;
+
+import io.improbable.keanu.vertices.ProbabilityCalculator;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.UniformVertex;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LogProbBlocksTest {
+
+    @Test
+    public void observationsOfTheSameLatentAreInSeparateBlocks() {
+        GaussianVertex mu = new GaussianVertex(0, 1);
+        mu.setValue(0.5);
+
+        List<Vertex> vertices = new ArrayList<>();
+        vertices.add(mu);
+        for (int i = 0; i < 10; i++) {
+            GaussianVertex observation = new GaussianVertex(mu, 1);
+            observation.observe(i * 0.1);
+            vertices.add(observation);
+        }
+
+        LogProbBlocks blocks = new LogProbBlocks(vertices, 1, 4);
+
+        assertEquals(11, blocks.getBlockCount());
+        assertTrue(blocks.isParallel());
+        assertEquals(ProbabilityCalculator.calculateLogProbFor(vertices), blocks.logProb(), 1e-10);
+    }
+
+    @Test
+    public void verticesSharingAnOperationAreInTheSameBlock() {
+        GaussianVertex mu = new GaussianVertex(0, 1);
+        mu.setValue(0.5);
+        DoubleVertex shared = mu.times(2);
+
+        GaussianVertex a = new GaussianVertex(shared, 1);
+        a.observe(0.1);
+        GaussianVertex b = new GaussianVertex(shared.plus(1), 1);
+        b.observe(0.2);
+        GaussianVertex c = new GaussianVertex(mu.exp(), 1);
+        c.observe(0.3);
+
+        List<Vertex> vertices = new ArrayList<>();
+        vertices.add(mu);
+        vertices.add(a);
+        vertices.add(b);
+        vertices.add(c);
+
+        LogProbBlocks blocks = new LogProbBlocks(vertices, 1, 4);
+
+        assertEquals(3, blocks.getBlockCount());
+        assertEquals(ProbabilityCalculator.calculateLogProbFor(vertices), blocks.logProb(), 1e-10);
+    }
+
+    @Test
+    public void smallModelsAreNotSplit() {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            vertices.add(new GaussianVertex(0, 1));
+        }
+
+        LogProbBlocks blocks = new LogProbBlocks(vertices, 100, 4);
+
+        assertEquals(1, blocks.getBlockCount());
+        assertFalse(blocks.isParallel());
+    }
+
+    @Test
+    public void impossibleLogProbInAnyBlockIsNegativeInfinity() {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            UniformVertex uniform = new UniformVertex(0, 1);
+            uniform.observe(i == 1234 ? 2.0 : 0.5);
+            vertices.add(uniform);
+        }
+
+        LogProbBlocks blocks = new LogProbBlocks(vertices, 1, 4);
+
+        assertTrue(blocks.isParallel());
+        assertEquals(Double.NEGATIVE_INFINITY, blocks.logProb(), 0.0);
+    }
+}
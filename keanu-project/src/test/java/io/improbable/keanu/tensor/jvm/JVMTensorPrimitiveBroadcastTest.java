@@ -0,0 +1,128 @@
+package io.improbable.keanu.tensor.jvm;
+
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.bool.BooleanBuffer;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleBuffer;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.dbl.JVMDoubleTensorFactory;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.tensor.lng.LongTensor;
+import org.junit.Test;
+
+import static io.improbable.keanu.tensor.TensorShape.getRowFirstStride;
+import static org.junit.Assert.assertArrayEquals;
+
+public class JVMTensorPrimitiveBroadcastTest {
+
+    private static final long[][][] SHAPE_PAIRS = new long[][][]{
+        {{2, 3}, {2, 3}},
+        {{}, {2, 3}},
+        {{2, 3}, {}},
+        {{3}, {2, 3}},
+        {{2, 3}, {3}},
+        {{1, 3}, {2, 3}},
+        {{2, 1}, {2, 3}},
+        {{2, 3}, {2, 1}},
+        {{2, 1}, {1, 3}},
+        {{2, 1, 3}, {4, 1}},
+        {{1}, {2, 2}},
+        {{2, 2}, {1}},
+        {{3, 1, 2}, {3, 4, 2}}
+    };
+
+    @Test
+    public void doubleKernelMatchesGenericBroadcast() {
+        for (long[][] shapes : SHAPE_PAIRS) {
+            double[] left = values(shapes[0]);
+            double[] right = values(shapes[1]);
+
+            ResultWrapper<Double, DoubleBuffer.PrimitiveDoubleWrapper> expected = JVMTensorBroadcast.broadcastIfNeeded(
+                new DoubleBuffer.DoubleArrayWrapperFactory(),
+                new DoubleBuffer.DoubleArrayWrapper(left), shapes[0], getRowFirstStride(shapes[0]), left.length,
+                new DoubleBuffer.DoubleArrayWrapper(right), shapes[1], getRowFirstStride(shapes[1]), right.length,
+                (l, r) -> l * 10 - r, false
+            );
+
+            JVMTensorPrimitiveBroadcast.Broadcast broadcast = JVMTensorPrimitiveBroadcast.broadcast(
+                shapes[0], getRowFirstStride(shapes[0]), shapes[1], getRowFirstStride(shapes[1])
+            );
+            double[] actual = new double[broadcast.getLength()];
+            JVMTensorPrimitiveBroadcast.apply(left, right, actual, broadcast, (l, r) -> l * 10 - r);
+
+            assertArrayEquals(expected.outputShape, broadcast.getOutputShape());
+            assertArrayEquals(expected.outputStride, broadcast.getOutputStride());
+            assertArrayEquals(expected.outputBuffer.asDoubleArray(), actual, 0.0);
+        }
+    }
+
+    @Test
+    public void booleanComparisonMatchesGenericBroadcast() {
+        for (long[][] shapes : SHAPE_PAIRS) {
+            double[] left = values(shapes[0]);
+            double[] right = values(shapes[1]);
+
+            ResultWrapper<Boolean, BooleanBuffer.PrimitiveBooleanWrapper> expected = JVMTensorBroadcast.broadcastIfNeeded(
+                BooleanBuffer.factory,
+                new DoubleBuffer.DoubleArrayWrapper(left), shapes[0], getRowFirstStride(shapes[0]), left.length,
+                new DoubleBuffer.DoubleArrayWrapper(right), shapes[1], getRowFirstStride(shapes[1]), right.length,
+                (l, r) -> l * 2 > r, false
+            );
+
+            JVMTensorPrimitiveBroadcast.Broadcast broadcast = JVMTensorPrimitiveBroadcast.broadcast(
+                shapes[0], getRowFirstStride(shapes[0]), shapes[1], getRowFirstStride(shapes[1])
+            );
+            boolean[] actual = new boolean[broadcast.getLength()];
+            JVMTensorPrimitiveBroadcast.compare(left, right, actual, broadcast, (l, r) -> l * 2 > r);
+
+            assertArrayEquals(expected.outputBuffer.asBooleanArray(), actual);
+        }
+    }
+
+    @Test
+    public void canOperateInPlaceOnSameBuffer() {
+        DoubleTensor x = JVMDoubleTensorFactory.INSTANCE.arange(0, 6).reshape(2, 3);
+        double[] before = x.asFlatDoubleArray();
+
+        x.timesInPlace(x).plusInPlace(DoubleTensor.create(1, 2, 3));
+
+        double[] expected = new double[before.length];
+        for (int i = 0; i < before.length; i++) {
+            expected[i] = before[i] * before[i] + (i % 3) + 1;
+        }
+
+        assertArrayEquals(expected, x.asFlatDoubleArray(), 0.0);
+        assertArrayEquals(new long[]{2, 3}, x.getShape());
+    }
+
+    @Test
+    public void canBroadcastFixedPointAndBooleanTensors() {
+        IntegerTensor integers = IntegerTensor.create(new int[]{1, 2, 3, 4, 5, 6}, 2, 3);
+        IntegerTensor column = IntegerTensor.create(new int[]{2, 3}, 2, 1);
+        assertArrayEquals(new int[]{0, 1, 1, 1, 1, 2}, integers.div(column).asFlatIntegerArray());
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1, 1}, integers.greaterThanMask(column.minus(2)).asFlatIntegerArray());
+
+        LongTensor longs = LongTensor.create(new long[]{1, 2, 3, 4}, 2, 2);
+        LongTensor row = LongTensor.create(new long[]{2, 1}, 1, 2);
+        assertArrayEquals(new long[]{2, 2, 3, 4}, longs.max(row).asFlatLongArray());
+        assertArrayEquals(new boolean[]{false, true, true, true}, longs.greaterThan(row).asFlatBooleanArray());
+
+        BooleanTensor booleans = BooleanTensor.create(new boolean[]{true, false, true, false}, 2, 2);
+        assertArrayEquals(
+            new boolean[]{true, false, false, false},
+            booleans.and(BooleanTensor.create(new boolean[]{true, false}, 2, 1)).asFlatBooleanArray()
+        );
+        assertArrayEquals(
+            new boolean[]{false, true, false, true},
+            booleans.xor(BooleanTensor.scalar(true)).asFlatBooleanArray()
+        );
+    }
+
+    private static double[] values(long[] shape) {
+        double[] values = new double[(int) TensorShape.getLength(shape)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 7 % 5) - 2;
+        }
+        return values;
+    }
+}
@@ -3,14 +3,23 @@ package io.improbable.keanu.util;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 public class Py4jByteArrayConverterTest {
 
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void canCreateIntegerArrayFromByteArray() {
         byte byte1 = Byte.parseByte("00000110", 2);
@@ -102,4 +111,55 @@ public class Py4jByteArrayConverterTest {
 
         Py4jByteArrayConverter.toBooleanArray(bytes, bytes.length * 8 - 4);
     }
+
+    @Test
+    public void doubleArrayRoundTripsThroughByteArray() {
+        double[] doubles = new double[]{1.5, -2.25, Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN};
+
+        assertArrayEquals(doubles, Py4jByteArrayConverter.toDoubleArray(Py4jByteArrayConverter.toByteArray(doubles)), 0.0);
+    }
+
+    @Test
+    public void integerArrayRoundTripsThroughByteArray() {
+        int[] ints = new int[]{1, -2, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+        assertArrayEquals(ints, Py4jByteArrayConverter.toIntegerArray(Py4jByteArrayConverter.toByteArray(ints)));
+    }
+
+    @Test
+    public void arraysRoundTripThroughFile() throws IOException {
+        File file = temporaryFolder.newFile();
+        double[] doubles = new double[]{1.5, -2.25, 3.0};
+        int[] ints = new int[]{4, -5};
+
+        Py4jByteArrayConverter.writeToFile(doubles, file.getPath());
+        assertArrayEquals(doubles, Py4jByteArrayConverter.readDoubleArrayFromFile(file.getPath()), 0.0);
+
+        Py4jByteArrayConverter.writeToFile(ints, file.getPath());
+        assertArrayEquals(ints, Py4jByteArrayConverter.readIntegerArrayFromFile(file.getPath()));
+    }
+
+    @Test
+    public void arraysLargerThanTheFileBufferRoundTripThroughFile() throws IOException {
+        File file = temporaryFolder.newFile();
+        int length = 3 * (1 << 20) / Double.BYTES + 3;
+        double[] doubles = new double[length];
+        int[] ints = new int[length];
+        boolean[] booleans = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            doubles[i] = i * 0.5;
+            ints[i] = -i;
+            booleans[i] = i % 3 == 0;
+        }
+
+        Py4jByteArrayConverter.writeToFile(doubles, file.getPath());
+        assertArrayEquals(doubles, Py4jByteArrayConverter.readDoubleArrayFromFile(file.getPath()), 0.0);
+
+        Py4jByteArrayConverter.writeToFile(ints, file.getPath());
+        assertArrayEquals(ints, Py4jByteArrayConverter.readIntegerArrayFromFile(file.getPath()));
+
+        Py4jByteArrayConverter.writeToFile(booleans, file.getPath());
+        assertEquals(length, file.length());
+        assertArrayEquals(Py4jByteArrayConverter.toByteArray(booleans), Files.readAllBytes(file.toPath()));
+    }
 }
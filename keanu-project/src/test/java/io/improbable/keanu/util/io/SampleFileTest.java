@@ -0,0 +1,192 @@
+package io.improbable.keanu.util.io;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.improbable.keanu.Keanu;
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.KeanuProbabilisticModel;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.tensor.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.tensor.number.fixed.intgr.probabilistic.PoissonVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class SampleFileTest {
+
+    private Path path;
+    private GaussianVertex gaussian;
+    private PoissonVertex poisson;
+    private BernoulliVertex bernoulli;
+    private List<Variable> variables;
+
+    @Before
+    public void setup() throws IOException {
+        File file = File.createTempFile("samples", ".bin");
+        file.deleteOnExit();
+        path = file.toPath();
+
+        gaussian = new GaussianVertex(new long[]{2, 2}, 0, 1);
+        poisson = new PoissonVertex(3.0);
+        bernoulli = new BernoulliVertex(0.5);
+        variables = ImmutableList.of(gaussian, poisson, bernoulli);
+    }
+
+    @Test
+    public void canReadBackSamplesSpilledOverManyChunks() throws IOException {
+        try (SampleFileWriter writer = SampleFileWriter.create(path, variables, 1000)) {
+            for (int i = 0; i < 100; i++) {
+                writer.accept(sample(i));
+            }
+        }
+
+        NetworkSamples samples = SampleFileReader.read(path, variables);
+
+        assertEquals(100, samples.size());
+        for (int i = 0; i < 100; i++) {
+            assertSampleIs(i, samples, i);
+        }
+    }
+
+    @Test
+    public void canReadBackSamplesBufferedInOneChunk() throws IOException {
+        try (SampleFileWriter writer = SampleFileWriter.create(path, variables)) {
+            for (int i = 0; i < 100; i++) {
+                writer.accept(sample(i));
+            }
+        }
+
+        NetworkSamples samples = SampleFileReader.read(path, variables);
+
+        assertEquals(100, samples.size());
+        for (int i = 0; i < 100; i++) {
+            assertSampleIs(i, samples, i);
+        }
+    }
+
+    @Test
+    public void canResumeAfterAPartlyWrittenChunk() throws IOException {
+        SampleFileWriter writer = SampleFileWriter.create(path, variables, 1000);
+        for (int i = 0; i < 30; i++) {
+            writer.accept(sample(i));
+        }
+        writer.flush();
+        writer.close();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x43, 0x48, 0x55, 0x4E, 0, 0, 0, 10, 1, 2, 3}));
+        }
+        assertEquals(30, SampleFileReader.read(path, variables).size());
+
+        try (SampleFileWriter resumed = SampleFileWriter.resume(path, variables, 1000)) {
+            assertEquals(30, resumed.getSampleCount());
+            for (int i = 30; i < 50; i++) {
+                resumed.accept(sample(i));
+            }
+        }
+
+        NetworkSamples samples = SampleFileReader.read(path, variables);
+        assertEquals(50, samples.size());
+        for (int i = 0; i < 50; i++) {
+            assertSampleIs(i, samples, i);
+        }
+    }
+
+    @Test
+    public void canContinueAChainFromTheLastSampleInTheFile() throws IOException {
+        GaussianVertex A = new GaussianVertex(20.0, 1.0);
+        GaussianVertex B = new GaussianVertex(A, 1.0);
+        B.observe(22.0);
+        KeanuProbabilisticModel model = new KeanuProbabilisticModel(new BayesianNetwork(A.getConnectedGraph()));
+        List<Variable> latents = model.getLatentVariables();
+
+        try (SampleFileWriter writer = SampleFileWriter.create(path, latents)) {
+            Keanu.Sampling.MetropolisHastings.withDefaultConfig()
+                .generatePosteriorSamples(model, latents)
+                .generate(500, writer);
+        }
+
+        NetworkSamples firstRun = SampleFileReader.read(path, latents);
+        DoubleTensor lastValue = firstRun.getDoubleTensorSamples(A).asList().get(firstRun.size() - 1);
+        A.setValue(DoubleTensor.scalar(-100.0));
+        model.logProb(ImmutableMap.of(A.getReference(), lastValue));
+        assertEquals(lastValue, A.getValue());
+
+        try (SampleFileWriter writer = SampleFileWriter.resume(path, latents)) {
+            Keanu.Sampling.MetropolisHastings.withDefaultConfig()
+                .generatePosteriorSamples(model, latents)
+                .generate(500, writer);
+        }
+
+        NetworkSamples samples = SampleFileReader.read(path, latents);
+        assertEquals(1000, samples.size());
+        assertEquals(21.0, samples.getDoubleTensorSamples(A).getAverages().scalar(), 0.3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSamplesWithADifferentShape() throws IOException {
+        try (SampleFileWriter writer = SampleFileWriter.create(path, variables)) {
+            writer.accept(sample(0));
+
+            Map<VariableReference, Object> values = new HashMap<>();
+            values.put(gaussian.getReference(), DoubleTensor.scalar(1.0));
+            values.put(poisson.getReference(), IntegerTensor.scalar(1));
+            values.put(bernoulli.getReference(), BooleanTensor.scalar(true));
+            writer.accept(new NetworkSample(values, 0.0));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotResumeWithAVariableOfADifferentShape() throws IOException {
+        try (SampleFileWriter writer = SampleFileWriter.create(path, variables)) {
+            writer.accept(sample(0));
+        }
+
+        List<Variable> reshaped = ImmutableList.of(new GaussianVertex(new long[]{4}, 0, 1), poisson, bernoulli);
+        SampleFileWriter.resume(path, reshaped).close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotResumeWithAVariableOfADifferentType() throws IOException {
+        try (SampleFileWriter writer = SampleFileWriter.create(path, variables)) {
+            writer.accept(sample(0));
+        }
+
+        List<Variable> retyped = ImmutableList.of(gaussian, new GaussianVertex(3.0, 1.0), bernoulli);
+        SampleFileWriter.resume(path, retyped).close();
+    }
+
+    private NetworkSample sample(int i) {
+        return new NetworkSample(ImmutableMap.of(
+            gaussian.getReference(), DoubleTensor.create(new double[]{i, i + 0.5, -i, i * 0.25}, 2, 2),
+            poisson.getReference(), IntegerTensor.scalar(i),
+            bernoulli.getReference(), BooleanTensor.scalar(i % 2 == 0)
+        ), -i);
+    }
+
+    private void assertSampleIs(int expected, NetworkSamples samples, int index) {
+        NetworkSample sample = sample(expected);
+        assertEquals(sample.get(gaussian), samples.getNetworkState(index).get(gaussian));
+        assertEquals(sample.get(poisson), samples.getNetworkState(index).get(poisson));
+        assertEquals(sample.get(bernoulli), samples.getNetworkState(index).get(bernoulli));
+        assertEquals(sample.getLogOfMasterP(), samples.getLogOfMasterP(index), 0.0);
+    }
+}
@@ -0,0 +1,116 @@
+package io.improbable.keanu.vertices;
+
+import com.google.common.collect.ImmutableList;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.KDEVertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ProbabilityCalculatorTest {
+
+    private AtomicInteger logProbCalls;
+    private GaussianVertex mu;
+    private DoubleVertex muPlusOne;
+    private CountingGaussianVertex x;
+    private List<Vertex> vertices;
+
+    @Before
+    public void setup() {
+        logProbCalls = new AtomicInteger(0);
+        mu = new GaussianVertex(0.0, 1.0);
+        mu.setValue(1.0);
+        muPlusOne = mu.plus(1.0);
+        x = new CountingGaussianVertex(muPlusOne, logProbCalls);
+        x.setValue(2.5);
+        vertices = ImmutableList.of(mu, x);
+    }
+
+    @Test
+    public void doesNotRecalculateLogProbWhenNothingHasChanged() {
+        double first = ProbabilityCalculator.calculateLogProbFor(vertices);
+        double second = ProbabilityCalculator.calculateLogProbFor(vertices);
+
+        assertEquals(first, second, 0.0);
+        assertEquals(1, logProbCalls.get());
+    }
+
+    @Test
+    public void recalculatesLogProbWhenValueChanges() {
+        ProbabilityCalculator.calculateLogProbFor(vertices);
+        x.setValue(3.0);
+        double logProb = ProbabilityCalculator.calculateLogProbFor(vertices);
+
+        assertEquals(2, logProbCalls.get());
+        assertEquals(expectedLogProb(), logProb, 1e-10);
+    }
+
+    @Test
+    public void recalculatesLogProbWhenParentValueChanges() {
+        ProbabilityCalculator.calculateLogProbFor(vertices);
+        mu.setAndCascade(DoubleTensor.scalar(4.0));
+        double logProb = ProbabilityCalculator.calculateLogProbFor(vertices);
+
+        assertEquals(2, logProbCalls.get());
+        assertEquals(expectedLogProb(), logProb, 1e-10);
+    }
+
+    @Test
+    public void reusesLogProbAfterRollingBackToAPreviousState() {
+        double before = ProbabilityCalculator.calculateLogProbFor(vertices);
+        VertexState<DoubleTensor> previousMuState = mu.getState();
+        VertexState<DoubleTensor> previousMuPlusOneState = muPlusOne.getState();
+
+        mu.setAndCascade(DoubleTensor.scalar(4.0));
+        ProbabilityCalculator.calculateLogProbFor(vertices);
+
+        mu.setState(previousMuState);
+        muPlusOne.setState(previousMuPlusOneState);
+        double after = ProbabilityCalculator.calculateLogProbFor(vertices);
+
+        assertEquals(before, after, 0.0);
+        assertEquals(2, logProbCalls.get());
+    }
+
+    @Test
+    public void recalculatesLogProbWhenKDEIsResampled() {
+        KDEVertex kde = new KDEVertex(DoubleTensor.create(0.0, 0.5, 1.0, 1.5, 2.0), 0.5);
+        kde.setValue(1.0);
+        List<Vertex> kdeVertices = ImmutableList.of(kde);
+
+        double before = ProbabilityCalculator.calculateLogProbFor(kdeVertices);
+        kde.resample(100, new KeanuRandom(1));
+        double after = ProbabilityCalculator.calculateLogProbFor(kdeVertices);
+
+        assertEquals(kde.logProb(kde.getValue()), after, 1e-10);
+        assertNotEquals(before, after, 1e-10);
+    }
+
+    private double expectedLogProb() {
+        return mu.logProb(mu.getValue()) + x.logProb(x.getValue());
+    }
+
+    private static class CountingGaussianVertex extends GaussianVertex {
+
+        private final AtomicInteger logProbCalls;
+
+        CountingGaussianVertex(DoubleVertex mu, AtomicInteger logProbCalls) {
+            super(mu, 1.0);
+            this.logProbCalls = logProbCalls;
+        }
+
+        @Override
+        public double logProbAtValue() {
+            logProbCalls.incrementAndGet();
+            return super.logProbAtValue();
+        }
+    }
+}
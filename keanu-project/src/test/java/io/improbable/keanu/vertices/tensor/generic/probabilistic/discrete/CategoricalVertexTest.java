@@ -170,6 +170,29 @@ public class CategoricalVertexTest {
         assertProportionsWithinExpectedRanges(normalisedSelectableValues, proportions);
     }
 
+    @Test
+    public void skewedValuesSampledTogetherHaveExpectedProportions() {
+
+        Map<TestEnum, DoubleVertex> selectableValues = new LinkedHashMap<>();
+        selectableValues.put(TestEnum.A, ConstantVertex.of(0.001));
+        selectableValues.put(TestEnum.B, ConstantVertex.of(0.009));
+        selectableValues.put(TestEnum.C, ConstantVertex.of(0.09));
+        selectableValues.put(TestEnum.D, ConstantVertex.of(0.9));
+
+        CategoricalVertex<TestEnum> categoricalVertex = new CategoricalVertex<>(new long[]{N}, selectableValues);
+        Map<TestEnum, Integer> sampleFrequencies = new HashMap<>();
+        for (TestEnum s : categoricalVertex.sample(random).asFlatList()) {
+            sampleFrequencies.put(s, sampleFrequencies.getOrDefault(s, 0) + 1);
+        }
+
+        Map<TestEnum, Double> proportions = calculateProportions(sampleFrequencies, N);
+        for (Map.Entry<TestEnum, DoubleVertex> entry : selectableValues.entrySet()) {
+            double expected = entry.getValue().getValue().scalar();
+            double standardError = Math.sqrt(expected * (1 - expected) / N);
+            assertEquals(expected, proportions.getOrDefault(entry.getKey(), 0.0), 5 * standardError);
+        }
+    }
+
     @Category(Slow.class)
     @Test
     public void ofDirichletVertexHasCorrectProportions() {
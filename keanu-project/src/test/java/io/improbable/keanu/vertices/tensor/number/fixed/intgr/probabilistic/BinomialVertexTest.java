@@ -46,6 +46,30 @@ public class BinomialVertexTest {
         assertEquals(n * p * (1 - p), std, epsilon);
     }
 
+    @Test
+    public void samplingWithLargeMeanMatchesMomentsAndProbabilityOfMode() {
+        int N = 100000;
+        double p = 0.3;
+        int n = 1000;
+
+        BinomialVertex testBinomialVertex = new BinomialVertex(new long[]{1, N}, p, n);
+        IntegerTensor samples = testBinomialVertex.sample(random);
+
+        double mean = samples.toDouble().mean().scalar();
+        double variance = Math.pow(samples.toDouble().standardDeviation().scalar(), 2);
+
+        int modeCount = 0;
+        for (int sample : samples.asFlatIntegerArray()) {
+            if (sample == 300) {
+                modeCount++;
+            }
+        }
+
+        assertEquals(n * p, mean, 0.25);
+        assertEquals(n * p * (1 - p), variance, 5.0);
+        assertEquals(new BinomialDistribution(n, p).probability(300), (double) modeCount / N, 0.003);
+    }
+
     @Test
     public void logPmfIsCorrectForKnownScalarValues() {
 
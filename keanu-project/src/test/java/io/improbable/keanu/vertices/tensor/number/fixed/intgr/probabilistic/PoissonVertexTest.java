@@ -59,6 +59,29 @@ public class PoissonVertexTest {
         assertEquals(sd, standardDeviation, epsilon);
     }
 
+    @Test
+    public void samplingWithLargeMuMatchesMomentsAndProbabilityOfMode() {
+        int N = 100000;
+        double mu = 50.0;
+        PoissonVertex testPoissonVertex = new PoissonVertex(new long[]{1, N}, mu);
+
+        IntegerTensor samples = testPoissonVertex.sample(random);
+
+        double mean = samples.toDouble().mean().scalar();
+        double variance = Math.pow(samples.toDouble().standardDeviation().scalar(), 2);
+
+        int modeCount = 0;
+        for (int sample : samples.asFlatIntegerArray()) {
+            if (sample == 50) {
+                modeCount++;
+            }
+        }
+
+        assertEquals(mu, mean, 0.25);
+        assertEquals(mu, variance, 1.5);
+        assertEquals(new PoissonDistribution(mu).probability(50), (double) modeCount / N, 0.004);
+    }
+
     /*
      * Certain implementations of Poisson sample generation are susceptible to numerical stability issues.  In certain
      * cases e ^ (- mu) is calculated and used as a stopping condition in a loop.  With large mu (~800) though the
@@ -10,6 +10,7 @@ import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.Map;
 
 import static io.improbable.keanu.tensor.TensorMatchers.valuesWithinEpsilonAndShapesMatch;
@@ -159,4 +160,67 @@ public class LogProbGradientCalculatorTest {
         assertThat(expectedDJLogProbWrtBValue, valuesWithinEpsilonAndShapesMatch(dJLogProbWrtBValue, 1e-8));
     }
 
+    @Test
+    public void doesReplayGradientWithSharedOpsAfterValuesChange() {
+        GaussianVertex A = new GaussianVertex(new long[]{2}, 0, 1);
+        A.setValue(DoubleTensor.create(0.3, -0.4));
+        GaussianVertex B = new GaussianVertex(0, 1);
+        B.setValue(0.7);
+        DoubleVertex D = A.times(B).sin();
+        GaussianVertex J = new GaussianVertex(D, 1);
+        J.observe(DoubleTensor.create(0.1, 0.2));
+        GaussianVertex K = new GaussianVertex(D.plus(A), 2);
+        K.observe(DoubleTensor.create(-0.5, 0.5));
+
+        LogProbGradientCalculator calculator = new LogProbGradientCalculator(ImmutableList.of(A, B, J, K), ImmutableList.of(A, B));
+        calculator.getJointLogProbGradientWrtLatents();
+
+        A.setAndCascade(DoubleTensor.create(-1.2, 0.8));
+        B.setAndCascade(-0.3);
+
+        Map<VertexId, DoubleTensor> replayed = calculator.getJointLogProbGradientWrtLatents();
+        List<GaussianVertex> probabilisticVertices = ImmutableList.of(A, B, J, K);
+
+        assertThat(replayed.get(A.getId()), valuesWithinEpsilonAndShapesMatch(finiteDifferenceGradient(A, probabilisticVertices), 1e-6));
+        assertThat(replayed.get(B.getId()), valuesWithinEpsilonAndShapesMatch(finiteDifferenceGradient(B, probabilisticVertices), 1e-6));
+
+        Map<VertexId, DoubleTensor> replayedAgain = calculator.getJointLogProbGradientWrtLatents();
+        assertThat(replayedAgain.get(A.getId()), equalTo(replayed.get(A.getId())));
+        assertThat(replayedAgain.get(B.getId()), equalTo(replayed.get(B.getId())));
+    }
+
+    /**
+     * @return the central finite difference of the summed log prob of some vertices with respect to each element of
+     * the value of a vertex
+     */
+    private static DoubleTensor finiteDifferenceGradient(GaussianVertex wrt, List<GaussianVertex> probabilisticVertices) {
+        final double h = 1e-6;
+        long[] shape = wrt.getShape();
+        double[] original = wrt.getValue().asFlatDoubleArray().clone();
+        double[] gradient = new double[original.length];
+
+        for (int i = 0; i < gradient.length; i++) {
+            double[] values = original.clone();
+            values[i] = original[i] + h;
+            wrt.setAndCascade(DoubleTensor.create(values, shape));
+            double logProbPlus = sumLogProb(probabilisticVertices);
+
+            values[i] = original[i] - h;
+            wrt.setAndCascade(DoubleTensor.create(values, shape));
+            double logProbMinus = sumLogProb(probabilisticVertices);
+
+            gradient[i] = (logProbPlus - logProbMinus) / (2 * h);
+        }
+
+        wrt.setAndCascade(DoubleTensor.create(original, shape));
+        return DoubleTensor.create(gradient, shape);
+    }
+
+    private static double sumLogProb(List<GaussianVertex> vertices) {
+        double sum = 0.0;
+        for (GaussianVertex vertex : vertices) {
+            sum += vertex.logProbAtValue();
+        }
+        return sum;
+    }
 }
@@ -190,6 +190,33 @@ public class GammaVertexTest {
         ProbabilisticDoubleTensorContract.sampleMethodMatchesLogProbMethod(vertex, from, to, bucketSize, 1e-2, random);
     }
 
+    @Test
+    public void samplingWithShapeBelowOneMatchesMomentsAndCumulativeProbabilities() {
+        int N = 100000;
+        double theta = 1.0;
+        double k = 0.3;
+        GammaVertex vertex = new GammaVertex(new long[]{1, N}, ConstantVertex.of(theta), ConstantVertex.of(k));
+
+        DoubleTensor samples = vertex.sample(random);
+
+        double mean = samples.mean().scalar();
+        double variance = Math.pow(samples.standardDeviation().scalar(), 2);
+        assertEquals(k * theta, mean, 0.01);
+        assertEquals(k * theta * theta, variance, 0.03);
+
+        GammaDistribution distribution = new GammaDistribution(k, theta);
+        double[] values = samples.asFlatDoubleArray();
+        for (double x : new double[]{0.001, 0.01, 0.1, 0.5, 1.0}) {
+            int countBelow = 0;
+            for (double value : values) {
+                if (value < x) {
+                    countBelow++;
+                }
+            }
+            assertEquals(distribution.cumulativeProbability(x), (double) countBelow / N, 0.01);
+        }
+    }
+
     @Category(Slow.class)
     @Test
     public void inferHyperParamsFromSamples() {
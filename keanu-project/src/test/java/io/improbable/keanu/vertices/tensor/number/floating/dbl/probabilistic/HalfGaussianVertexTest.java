@@ -117,6 +117,17 @@ public class HalfGaussianVertexTest {
         LogProbGraphContract.matchesKnownLogDensity(logProbGraph, Double.NEGATIVE_INFINITY);
     }
 
+    @Test
+    public void elementwiseLogProbMatchesKnownLogDensityOfEachElement() {
+        NormalDistribution distribution = new NormalDistribution(0.0, 1.0);
+        HalfGaussianVertex halfGaussianVertex = new HalfGaussianVertex(1);
+
+        DoubleTensor logProbs = halfGaussianVertex.elementwiseLogProb(DoubleTensor.create(-0.25, 0.75));
+
+        assertEquals(Double.NEGATIVE_INFINITY, logProbs.getValue(0), DELTA);
+        assertEquals(distribution.logDensity(0.75) + Math.log(2), logProbs.getValue(1), DELTA);
+    }
+
     @Test
     public void matchesKnownDerivativeLogDensityOfScalar() {
 
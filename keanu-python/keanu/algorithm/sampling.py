@@ -1,7 +1,7 @@
 from collections import defaultdict
 from typing import Any, Iterable, Dict, List, Tuple, Union
 
-from numpy import ndenumerate, ndarray
+from numpy import ndenumerate, ndindex, ndarray
 from py4j.java_collections import JavaList
 from py4j.java_gateway import java_import, JavaObject
 
@@ -289,26 +289,22 @@ def __check_if_vertices_are_labelled(vertices: List[Vertex]) -> Dict[Tuple[int,
 def __create_single_indexed_samples(network_samples: JavaObject, vertices_unwrapped: JavaList,
                                     id_to_label: Dict[Tuple[int, ...], str]) -> sample_types:
     vertex_samples: sample_types = {}
-    for vertex_unwrapped in vertices_unwrapped:
+    for vertex_unwrapped, samples_for_vertex in __get_vertex_samples(network_samples, vertices_unwrapped):
         vertex_label = id_to_label[Vertex._get_python_id(vertex_unwrapped)]
-        samples_for_vertex = __get_vertex_samples(network_samples, vertex_unwrapped)
         vertex_samples[vertex_label] = samples_for_vertex.tolist()
     return vertex_samples
 
 
 def __create_multi_indexed_samples(vertices_unwrapped: JavaList, network_samples: JavaObject,
                                    id_to_label: Dict[Tuple[int, ...], str]) -> sample_types:
-    vertex_samples_multi: Dict = {}
-    for vertex in vertices_unwrapped:
+    tuple_hierarchy: Dict = {}
+    for vertex, samples_for_vertex in __get_vertex_samples(network_samples, vertices_unwrapped):
         vertex_label = id_to_label[Vertex._get_python_id(vertex)]
-        vertex_samples_multi[vertex_label] = defaultdict(list)
-        samples_for_vertex = __get_vertex_samples(network_samples, vertex)
-        for sample in samples_for_vertex:
-            __add_sample_to_dict(sample, vertex_samples_multi[vertex_label])
-
-    tuple_hierarchy: Dict = {(vertex_label, shape_index): values
-                             for vertex_label, samples in vertex_samples_multi.items()
-                             for shape_index, values in samples.items()}
+        if samples_for_vertex.ndim == 1:
+            tuple_hierarchy[(vertex_label, COLUMN_HEADER_FOR_SCALAR)] = samples_for_vertex.tolist()
+        else:
+            for shape_index in ndindex(*samples_for_vertex.shape[1:]):
+                tuple_hierarchy[(vertex_label, shape_index)] = samples_for_vertex[(slice(None),) + shape_index].tolist()
 
     return tuple_hierarchy
 
@@ -337,6 +333,7 @@ def __add_sample_to_dict(sample_value: Any, vertex_sample: Dict):
             vertex_sample[index].append(value.item())
 
 
-def __get_vertex_samples(network_samples, vertex) -> ndarray:
-    samples_for_vertex = network_samples.get(vertex).asTensor()
-    return Tensor._to_ndarray(samples_for_vertex)
+def __get_vertex_samples(network_samples: JavaObject, vertices_unwrapped: JavaList) -> List[Tuple[JavaObject, ndarray]]:
+    sample_blocks = network_samples.getSampleBlocks(vertices_unwrapped)
+    return [(vertex, Tensor._from_sample_block(sample_block))
+            for vertex, sample_block in zip(vertices_unwrapped, sample_blocks)]
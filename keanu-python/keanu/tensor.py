@@ -1,7 +1,11 @@
+import os
+import tempfile
+from contextlib import contextmanager
+
 import numpy as np
 from numpy import ndarray
 from py4j.java_gateway import java_import, JavaObject, JavaMember, is_instance_of
-from typing import Any, Union
+from typing import Any, Callable, Iterator, Union
 
 from keanu.base import JavaObjectWrapper
 from keanu.context import KeanuContext
@@ -16,6 +20,23 @@ java_import(k.jvm_view(), "io.improbable.keanu.tensor.bool.BooleanTensor")
 java_import(k.jvm_view(), "io.improbable.keanu.tensor.intgr.IntegerTensor")
 java_import(k.jvm_view(), "io.improbable.keanu.util.Py4jByteArrayConverter")
 
+# Arrays of at least this many bytes are passed to and from the JVM through a temporary file rather than over the
+# py4j socket.
+FILE_TRANSFER_THRESHOLD_BYTES = 1 << 24
+
+# The numpy dtype of the values of each type of io.improbable.keanu.algorithms.SampleBlock.
+SAMPLE_BLOCK_DTYPES = {"DOUBLE": "<f8", "INTEGER": "<i4", "BOOLEAN": "?"}
+
+
+@contextmanager
+def _transfer_file() -> Iterator[str]:
+    handle, path = tempfile.mkstemp(suffix=".keanu")
+    os.close(handle)
+    try:
+        yield path
+    finally:
+        os.remove(path)
+
 
 class Tensor(JavaObjectWrapper):
 
@@ -60,19 +81,31 @@ class Tensor(JavaObjectWrapper):
         if ndarray.size == 0:
             raise ValueError("Cannot infer type because array is empty")
 
+        converter = k.jvm_view().Py4jByteArrayConverter
+
         if np.issubdtype(ndarray.dtype, np.bool_):
-            return k.jvm_view().Py4jByteArrayConverter.toBooleanArray(
-                np.packbits(ndarray.flatten()).tobytes(), ndarray.size)
+            return converter.toBooleanArray(np.packbits(ndarray.flatten()).tobytes(), ndarray.size)
         elif np.issubdtype(ndarray.dtype, np.int32):
-            return k.jvm_view().Py4jByteArrayConverter.toIntegerArray(ndarray.flatten().tobytes())
+            return Tensor.__to_java_array(ndarray, "<i4", converter.toIntegerArray, converter.readIntegerArrayFromFile)
         elif np.issubdtype(ndarray.dtype, np.int64):
-            return k.jvm_view().Py4jByteArrayConverter.toLongArray(ndarray.flatten().tobytes())
+            return Tensor.__to_java_array(ndarray, "<i8", converter.toLongArray, converter.readLongArrayFromFile)
         elif np.issubdtype(ndarray.dtype, np.floating):
-            return k.jvm_view().Py4jByteArrayConverter.toDoubleArray(ndarray.flatten().tobytes())
+            return Tensor.__to_java_array(ndarray, "<f8", converter.toDoubleArray, converter.readDoubleArrayFromFile)
         else:
             raise NotImplementedError("Generic types in an ndarray are not supported. Was given {}".format(
                 ndarray.dtype))
 
+    @staticmethod
+    def __to_java_array(ndarray: numpy_types, dtype: str, from_bytes: Callable[[bytes], JavaObject],
+                        from_file: Callable[[str], JavaObject]) -> JavaObject:
+        flat = np.ascontiguousarray(ndarray, dtype=dtype).reshape(-1)
+        if flat.nbytes < FILE_TRANSFER_THRESHOLD_BYTES:
+            return from_bytes(flat.tobytes())
+
+        with _transfer_file() as path:
+            flat.tofile(path)
+            return from_file(path)
+
     @staticmethod
     def __infer_tensor_ctor_from_ndarray(ndarray: numpy_types) -> JavaMember:
         if np.issubdtype(ndarray.dtype, np.bool_):
@@ -107,17 +140,40 @@ class Tensor(JavaObjectWrapper):
     def __get_ndarray_from_tensor(java_tensor) -> ndarray:
         # Performance is much better using byte arrays where possible.
         # https://stackoverflow.com/questions/39095994/fast-conversion-of-java-array-to-numpy-array-py4j
+        converter = k.jvm_view().Py4jByteArrayConverter
+
         if is_instance_of(k._gateway, java_tensor, "io.improbable.keanu.tensor.dbl.DoubleTensor"):
-            byteArray = k.jvm_view().Py4jByteArrayConverter.toByteArray(java_tensor.asFlatDoubleArray())
-            doubleArray = np.frombuffer(byteArray, np.float64)
-            return doubleArray
+            return Tensor.__from_java_array(java_tensor.asFlatDoubleArray(), "<f8", converter)
         elif is_instance_of(k._gateway, java_tensor, "io.improbable.keanu.tensor.intgr.IntegerTensor"):
-            byteArray = k.jvm_view().Py4jByteArrayConverter.toByteArray(java_tensor.asFlatIntegerArray())
-            intArray = np.frombuffer(byteArray, np.int32)
-            return intArray
+            return Tensor.__from_java_array(java_tensor.asFlatIntegerArray(), "<i4", converter)
         elif is_instance_of(k._gateway, java_tensor, "io.improbable.keanu.tensor.bool.BooleanTensor"):
-            byteArray = k.jvm_view().Py4jByteArrayConverter.toByteArray(java_tensor.asFlatBooleanArray())
+            byteArray = converter.toByteArray(java_tensor.asFlatBooleanArray())
             boolArray = np.frombuffer(byteArray, bool)
             return boolArray
         else:
             return np.array(list(java_tensor.asFlatArray()))
+
+    @staticmethod
+    def _from_sample_block(sample_block: JavaObject) -> ndarray:
+        """
+        :param sample_block: a Java SampleBlock holding every sample of one variable
+        :return: the samples stacked along the first dimension
+        """
+        dtype = SAMPLE_BLOCK_DTYPES[sample_block.getType().name()]
+        shape = tuple(sample_block.getShape())
+
+        if int(np.prod(shape)) * np.dtype(dtype).itemsize < FILE_TRANSFER_THRESHOLD_BYTES:
+            return np.frombuffer(sample_block.toByteArray(), dtype).reshape(shape)
+
+        with _transfer_file() as path:
+            sample_block.writeToFile(path)
+            return np.fromfile(path, dtype).reshape(shape)
+
+    @staticmethod
+    def __from_java_array(java_array: JavaObject, dtype: str, converter: JavaObject) -> ndarray:
+        if len(java_array) * np.dtype(dtype).itemsize < FILE_TRANSFER_THRESHOLD_BYTES:
+            return np.frombuffer(converter.toByteArray(java_array), dtype)
+
+        with _transfer_file() as path:
+            converter.writeToFile(java_array, path)
+            return np.fromfile(path, dtype)
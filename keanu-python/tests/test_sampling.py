@@ -7,7 +7,7 @@ import pandas as pd
 import pytest
 
 from examples import thermometers
-from keanu import BayesNet, KeanuRandom, Model
+from keanu import BayesNet, KeanuRandom, Model, tensor
 from keanu.algorithm import (sample, generate_samples, AcceptanceRateTracker, MetropolisHastingsSampler, NUTSSampler,
                              ForwardSampler, PosteriorSamplingAlgorithm)
 from keanu.vertex import Gamma, Exponential, Gaussian, Cauchy
@@ -137,6 +137,19 @@ def test_multi_indexed_sample_dict_can_be_loaded_in_to_dataframe(tensor_net: Bay
             assert type(df[parent_column][child_column][0]) == np.float64
 
 
+def test_samples_passed_through_a_file_match_samples_passed_as_bytes(tensor_net: BayesNet, monkeypatch) -> None:
+    sample_from = list(tensor_net.iter_latent_vertices())
+
+    KeanuRandom.set_default_random_seed(1)
+    samples = sample(net=tensor_net, sample_from=sample_from, sampling_algorithm=ForwardSampler(), draws=5)
+
+    monkeypatch.setattr(tensor, "FILE_TRANSFER_THRESHOLD_BYTES", 0)
+    KeanuRandom.set_default_random_seed(1)
+    samples_from_file = sample(net=tensor_net, sample_from=sample_from, sampling_algorithm=ForwardSampler(), draws=5)
+
+    assert samples_from_file == samples
+
+
 def test_dropping_samples(net: BayesNet) -> None:
     draws = 10
     drop = 3
@@ -6,6 +6,7 @@ import pandas as pd
 import pytest
 from py4j.protocol import Py4JJavaError
 
+from keanu import tensor
 from keanu.tensor import Tensor
 from keanu.vartypes import primitive_types, numpy_types
 
@@ -115,3 +116,16 @@ def test_fails_when_long_is_too_long() -> None:
     ones[0, 0] = sys.maxsize
     with pytest.raises(Py4JJavaError):
         Tensor(ones)
+
+
+@pytest.mark.parametrize("value", [np.arange(12, dtype=np.float64).reshape(3, 4),
+                                   np.arange(12, dtype=np.int32).reshape(4, 3),
+                                   np.arange(12, dtype=np.int64), np.arange(6, dtype=np.float32)])
+def test_large_arrays_are_passed_through_a_file(value: numpy_types, monkeypatch) -> None:
+    monkeypatch.setattr(tensor, "FILE_TRANSFER_THRESHOLD_BYTES", 0)
+
+    t = Tensor(value)
+    ndarray = Tensor._to_ndarray(t.unwrap())
+
+    assert ndarray.shape == value.shape
+    assert (value == ndarray).all()